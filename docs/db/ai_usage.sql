@@ -0,0 +1,30 @@
+-- Create AI usage table
+-- Hourly AI request and token counts per company and agent, flushed in batches
+-- from the in-memory quota counters. Company totals are the sum over agents.
+
+CREATE TABLE public.ai_usage_buckets (
+    bucket_start timestamptz(6) NOT NULL, -- Start of the hour bucket
+    company_id int4 NOT NULL, -- Company the calls were made for (0 when no company is known)
+    agent_id int4 NOT NULL, -- Agent that made the calls (0 when no agent is known)
+    request_count int8 DEFAULT 0 NOT NULL, -- Number of calls sent to a provider
+    input_tokens int8 DEFAULT 0 NOT NULL, -- Input tokens reported by the providers
+    output_tokens int8 DEFAULT 0 NOT NULL, -- Output tokens reported by the providers
+    rejected_count int8 DEFAULT 0 NOT NULL, -- Number of calls refused locally because a quota was used up
+    updated_at timestamptz(6) DEFAULT now() NULL, -- Timestamp when the bucket was last incremented
+    CONSTRAINT ai_usage_buckets_pkey PRIMARY KEY (bucket_start, company_id, agent_id)
+);
+
+CREATE INDEX idx_ai_usage_buckets_company_bucket ON public.ai_usage_buckets USING btree (company_id, bucket_start);
+
+COMMENT ON TABLE public.ai_usage_buckets IS 'Hourly AI request and token usage per company and agent';
+
+-- Column comments
+
+COMMENT ON COLUMN public.ai_usage_buckets.bucket_start IS 'Start of the hour bucket';
+COMMENT ON COLUMN public.ai_usage_buckets.company_id IS 'Company the calls were made for (0 when no company is known)';
+COMMENT ON COLUMN public.ai_usage_buckets.agent_id IS 'Agent that made the calls (0 when no agent is known)';
+COMMENT ON COLUMN public.ai_usage_buckets.request_count IS 'Number of calls sent to a provider';
+COMMENT ON COLUMN public.ai_usage_buckets.input_tokens IS 'Input tokens reported by the providers';
+COMMENT ON COLUMN public.ai_usage_buckets.output_tokens IS 'Output tokens reported by the providers';
+COMMENT ON COLUMN public.ai_usage_buckets.rejected_count IS 'Number of calls refused locally because a quota was used up';
+COMMENT ON COLUMN public.ai_usage_buckets.updated_at IS 'Timestamp when the bucket was last incremented';
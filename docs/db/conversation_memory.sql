@@ -0,0 +1,54 @@
+-- Create conversation memory tables
+-- Each agent chat session keeps its turns and a rolling summary of the turns that
+-- no longer fit in the prompt. Only the turns after summarized_through are loaded,
+-- so a session is restored in O(window) rows however long it has run.
+
+CREATE TABLE public.conversation_sessions (
+    id serial4 NOT NULL, -- Primary key - unique conversation session identifier
+    agent_id int4 NOT NULL, -- Foreign key to the agent the conversation is held with
+    session_key varchar(255) NOT NULL, -- Caller-defined key of the session, unique per agent
+    summary text NULL, -- Rolling summary of the turns up to summarized_through
+    summarized_through int4 DEFAULT 0 NOT NULL, -- Index of the last turn folded into the summary (0 when none)
+    created_at timestamptz(6) DEFAULT now() NULL, -- Timestamp when the session was created
+    updated_at timestamptz(6) DEFAULT now() NULL, -- Timestamp when the summary was last compacted
+    CONSTRAINT conversation_sessions_pkey PRIMARY KEY (id),
+    CONSTRAINT conversation_sessions_agent_id_session_key_key UNIQUE (agent_id, session_key),
+    CONSTRAINT conversation_sessions_agent_id_fkey FOREIGN KEY (agent_id) REFERENCES public.agents(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE public.conversation_sessions IS 'Stores agent chat sessions and the rolling summary of their older turns';
+
+-- Column comments
+
+COMMENT ON COLUMN public.conversation_sessions.id IS 'Primary key - unique conversation session identifier';
+COMMENT ON COLUMN public.conversation_sessions.agent_id IS 'Foreign key to the agent the conversation is held with';
+COMMENT ON COLUMN public.conversation_sessions.session_key IS 'Caller-defined key of the session, unique per agent';
+COMMENT ON COLUMN public.conversation_sessions.summary IS 'Rolling summary of the turns up to summarized_through';
+COMMENT ON COLUMN public.conversation_sessions.summarized_through IS 'Index of the last turn folded into the summary (0 when none)';
+COMMENT ON COLUMN public.conversation_sessions.created_at IS 'Timestamp when the session was created';
+COMMENT ON COLUMN public.conversation_sessions.updated_at IS 'Timestamp when the summary was last compacted';
+
+CREATE TABLE public.conversation_turns (
+    id serial4 NOT NULL, -- Primary key - unique conversation turn identifier
+    session_id int4 NOT NULL, -- Foreign key to the conversation session
+    turn_index int4 NOT NULL, -- Position of the turn in the session, starting at 1
+    "role" varchar(20) NOT NULL, -- Chat role of the message (user or assistant)
+    "content" text NOT NULL, -- Message text
+    token_count int4 DEFAULT 0 NOT NULL, -- Estimated prompt tokens of the message
+    created_at timestamptz(6) DEFAULT now() NULL, -- Timestamp when the turn was recorded
+    CONSTRAINT conversation_turns_pkey PRIMARY KEY (id),
+    CONSTRAINT conversation_turns_session_id_turn_index_key UNIQUE (session_id, turn_index),
+    CONSTRAINT conversation_turns_session_id_fkey FOREIGN KEY (session_id) REFERENCES public.conversation_sessions(id) ON DELETE CASCADE
+);
+
+COMMENT ON TABLE public.conversation_turns IS 'Stores the messages of agent chat sessions; summarized turns are kept as the full record';
+
+-- Column comments
+
+COMMENT ON COLUMN public.conversation_turns.id IS 'Primary key - unique conversation turn identifier';
+COMMENT ON COLUMN public.conversation_turns.session_id IS 'Foreign key to the conversation session';
+COMMENT ON COLUMN public.conversation_turns.turn_index IS 'Position of the turn in the session, starting at 1';
+COMMENT ON COLUMN public.conversation_turns."role" IS 'Chat role of the message (user or assistant)';
+COMMENT ON COLUMN public.conversation_turns."content" IS 'Message text';
+COMMENT ON COLUMN public.conversation_turns.token_count IS 'Estimated prompt tokens of the message';
+COMMENT ON COLUMN public.conversation_turns.created_at IS 'Timestamp when the turn was recorded';
@@ -0,0 +1,41 @@
+-- Create security event rollup tables
+-- Hourly event counts maintained incrementally from audit_logs, failed_logins and
+-- user_lockouts so that security dashboards read O(buckets) rows instead of
+-- scanning the raw event tables.
+
+CREATE TABLE public.security_event_rollups (
+    bucket_start timestamptz(6) NOT NULL, -- Start of the hour bucket
+    company_id int4 NOT NULL, -- Company of the user that produced the events (0 when no company is known)
+    event_type varchar(50) NOT NULL, -- Audit event type, or FAILED_LOGIN_ATTEMPT / ACCOUNT_LOCKOUT for the security tables
+    event_count int8 DEFAULT 0 NOT NULL, -- Number of events in the bucket
+    updated_at timestamptz(6) DEFAULT now() NULL, -- Timestamp when the bucket was last incremented
+    CONSTRAINT security_event_rollups_pkey PRIMARY KEY (bucket_start, company_id, event_type)
+);
+
+CREATE INDEX idx_security_event_rollups_company_bucket ON public.security_event_rollups USING btree (company_id, bucket_start);
+CREATE INDEX idx_security_event_rollups_event_type_bucket ON public.security_event_rollups USING btree (event_type, bucket_start);
+
+COMMENT ON TABLE public.security_event_rollups IS 'Hourly security event counts per company and event type for dashboards';
+
+-- Column comments
+
+COMMENT ON COLUMN public.security_event_rollups.bucket_start IS 'Start of the hour bucket';
+COMMENT ON COLUMN public.security_event_rollups.company_id IS 'Company of the user that produced the events (0 when no company is known)';
+COMMENT ON COLUMN public.security_event_rollups.event_type IS 'Audit event type, or FAILED_LOGIN_ATTEMPT / ACCOUNT_LOCKOUT for the security tables';
+COMMENT ON COLUMN public.security_event_rollups.event_count IS 'Number of events in the bucket';
+COMMENT ON COLUMN public.security_event_rollups.updated_at IS 'Timestamp when the bucket was last incremented';
+
+CREATE TABLE public.rollup_watermarks (
+    "source" varchar(50) NOT NULL, -- Source table that is rolled up
+    last_id int4 DEFAULT 0 NOT NULL, -- Highest source row ID already counted in the rollups
+    updated_at timestamptz(6) DEFAULT now() NULL, -- Timestamp when the watermark last advanced
+    CONSTRAINT rollup_watermarks_pkey PRIMARY KEY ("source")
+);
+
+COMMENT ON TABLE public.rollup_watermarks IS 'Tracks how far each source table has been aggregated into security_event_rollups';
+
+-- Column comments
+
+COMMENT ON COLUMN public.rollup_watermarks."source" IS 'Source table that is rolled up';
+COMMENT ON COLUMN public.rollup_watermarks.last_id IS 'Highest source row ID already counted in the rollups';
+COMMENT ON COLUMN public.rollup_watermarks.updated_at IS 'Timestamp when the watermark last advanced';
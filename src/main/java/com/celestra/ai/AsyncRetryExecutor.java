@@ -0,0 +1,175 @@
+package com.celestra.ai;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.AuthenticationException;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.exception.RateLimitException;
+import com.celestra.ai.ratelimit.RateLimitContext;
+import com.celestra.ai.telemetry.CallTelemetry;
+
+/**
+ * Runs asynchronous AI calls with the same retry policy as the blocking services,
+ * but waits between attempts on a shared scheduler instead of sleeping on the
+ * caller's thread.
+ * 
+ * Completing or cancelling the returned future (for example through
+ * {@link CompletableFuture#orTimeout}) cancels the attempt in flight and any
+ * retry that is still waiting to run. Retries keep the {@link RateLimitContext}
+ * and {@link CallTelemetry} of the caller although they start on the scheduler
+ * thread.
+ */
+public class AsyncRetryExecutor {
+    
+    private static final Logger LOGGER = Logger.getLogger(AsyncRetryExecutor.class.getName());
+    
+    private static final ScheduledExecutorService SHARED_SCHEDULER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ai-retry-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    private final ScheduledExecutorService scheduler;
+    
+    /**
+     * Create a new executor on the shared retry scheduler.
+     */
+    public AsyncRetryExecutor() {
+        this(SHARED_SCHEDULER);
+    }
+    
+    /**
+     * Create a new executor on a custom scheduler.
+     * The scheduler only triggers retries, so a single thread is enough.
+     * 
+     * @param scheduler The scheduler used to delay retries
+     */
+    public AsyncRetryExecutor(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+    
+    /**
+     * Get the process-wide retry scheduler.
+     * 
+     * @return The shared scheduler
+     */
+    public static ScheduledExecutorService getSharedScheduler() {
+        return SHARED_SCHEDULER;
+    }
+    
+    /**
+     * Execute a call with retries.
+     * 
+     * @param <T> The result type
+     * @param call Starts one attempt
+     * @param maxRetries The maximum number of retries after the first attempt
+     * @param retryDelayMs The base delay, multiplied by the attempt number
+     * @param serviceName The provider name used in log messages
+     * @return A future for the result of the first successful attempt
+     */
+    public <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> call, int maxRetries,
+                                            long retryDelayMs, String serviceName) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        RateLimitContext context = RateLimitContext.current();
+        CallTelemetry telemetry = CallTelemetry.current();
+        AtomicReference<Future<?>> pending = new AtomicReference<>();
+        
+        // Propagate cancellation and timeouts of the result to the work in flight
+        result.whenComplete((value, error) -> {
+            Future<?> current = pending.get();
+            if (current != null) {
+                current.cancel(true);
+            }
+        });
+        
+        attempt(call, 0, maxRetries, retryDelayMs, serviceName, context, telemetry, result, pending);
+        return result;
+    }
+    
+    private <T> void attempt(Supplier<CompletableFuture<T>> call, int attempt, int maxRetries, long retryDelayMs,
+                             String serviceName, RateLimitContext context, CallTelemetry telemetry,
+                             CompletableFuture<T> result, AtomicReference<Future<?>> pending) {
+        if (result.isDone()) {
+            return;
+        }
+        
+        CompletableFuture<T> future;
+        try {
+            future = telemetry.supply(() -> context.supply(call));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        pending.set(future);
+        if (result.isDone()) {
+            future.cancel(true);
+            return;
+        }
+        
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException || result.isDone()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            
+            // Don't retry for authentication or invalid request errors
+            if (cause instanceof AuthenticationException || cause instanceof InvalidRequestException) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            
+            if (attempt >= maxRetries) {
+                result.completeExceptionally(new AIServiceException(
+                        "Failed to get chat completion after " + maxRetries + " retries", cause));
+                return;
+            }
+            
+            int next = attempt + 1;
+            long delayMs = retryDelayMs * next;
+            if (cause instanceof RateLimitException) {
+                LOGGER.warning("Rate limit exceeded: " + cause.getMessage());
+                delayMs += ((RateLimitException) cause).getRetryAfterMs();
+            } else {
+                LOGGER.warning(serviceName + " API error: " + cause.getMessage());
+            }
+            
+            telemetry.recordRetry();
+            LOGGER.info("Retrying " + serviceName + " API call (attempt " + next + " of " + maxRetries
+                    + ") in " + delayMs + " ms");
+            pending.set(scheduler.schedule(
+                    () -> attempt(call, next, maxRetries, retryDelayMs, serviceName, context, telemetry, result,
+                            pending),
+                    delayMs, TimeUnit.MILLISECONDS));
+            if (result.isDone()) {
+                pending.get().cancel(false);
+            }
+        });
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
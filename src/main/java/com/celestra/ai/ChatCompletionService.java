@@ -2,6 +2,15 @@ package com.celestra.ai;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.celestra.ai.structured.OutputSchema;
+import com.celestra.ai.structured.StructuredOutputService;
+import com.celestra.ai.tool.ToolCall;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
+import com.google.gson.JsonObject;
 
 /**
  * Interface for AI chat completion services.
@@ -15,6 +24,9 @@ public interface ChatCompletionService {
     class ChatMessage {
         private String role;
         private String content;
+        private boolean cacheable;
+        private List<ToolCall> toolCalls;
+        private String toolCallId;
         
         /**
          * Create a new chat message.
@@ -27,6 +39,19 @@ public interface ChatCompletionService {
             this.content = content;
         }
         
+        /**
+         * Create a new chat message that may end a cacheable prompt prefix.
+         * 
+         * @param role The role of the message sender (e.g., "system", "user", "assistant")
+         * @param content The content of the message
+         * @param cacheable Whether the conversation up to and including this message may be cached
+         */
+        public ChatMessage(String role, String content, boolean cacheable) {
+            this.role = role;
+            this.content = content;
+            this.cacheable = cacheable;
+        }
+        
         /**
          * Get the role of the message sender.
          * 
@@ -62,6 +87,99 @@ public interface ChatCompletionService {
         public void setContent(String content) {
             this.content = content;
         }
+        
+        /**
+         * Check whether the conversation up to and including this message is a
+         * stable prefix, such as long instructions or reference documents, that
+         * the provider may cache between calls.
+         * 
+         * @return true if the message ends a cacheable prefix
+         */
+        public boolean isCacheable() {
+            return cacheable;
+        }
+        
+        /**
+         * Set whether the conversation up to and including this message may be cached.
+         * 
+         * @param cacheable Whether the message ends a cacheable prefix
+         */
+        public void setCacheable(boolean cacheable) {
+            this.cacheable = cacheable;
+        }
+        
+        /**
+         * Get the tools an assistant message asked to call.
+         * 
+         * @return The tool calls, or null if the message did not call tools
+         */
+        public List<ToolCall> getToolCalls() {
+            return toolCalls;
+        }
+        
+        /**
+         * Set the tools an assistant message asked to call.
+         * 
+         * @param toolCalls The tool calls
+         */
+        public void setToolCalls(List<ToolCall> toolCalls) {
+            this.toolCalls = toolCalls;
+        }
+        
+        /**
+         * Get the tool call a "tool" message answers.
+         * 
+         * @return The id of the tool call, or null if the message is not a tool result
+         */
+        public String getToolCallId() {
+            return toolCallId;
+        }
+        
+        /**
+         * Set the tool call a "tool" message answers.
+         * 
+         * @param toolCallId The id of the tool call
+         */
+        public void setToolCallId(String toolCallId) {
+            this.toolCallId = toolCallId;
+        }
+        
+        /**
+         * Copy the message with other content, keeping its role, tool calls and
+         * everything else.
+         * 
+         * @param content The content of the copy
+         * @return The copy
+         */
+        public ChatMessage withContent(String content) {
+            ChatMessage copy = new ChatMessage(role, content, cacheable);
+            copy.setToolCalls(toolCalls);
+            copy.setToolCallId(toolCallId);
+            return copy;
+        }
+    }
+    
+    /**
+     * Receives the text of a streamed completion as it is generated.
+     */
+    @FunctionalInterface
+    interface StreamListener {
+        
+        /**
+         * Called for each fragment of generated text, in order.
+         * 
+         * @param delta The new text
+         */
+        void onDelta(String delta);
+        
+        /**
+         * Called once after the last fragment.
+         * 
+         * @param completion The complete generated text
+         */
+        default void onComplete(String completion) {
+            // Nothing to do by default
+        }
     }
     
     /**
@@ -135,4 +253,131 @@ public interface ChatCompletionService {
     default String getChatCompletion(String systemMessage, String userMessage) throws Exception {
         return getChatCompletion(List.of(systemMessage(systemMessage), userMessage(userMessage)));
     }
-}
\ No newline at end of file
+    
+    /**
+     * Stream a chat completion for a list of messages, delivering text to the listener
+     * as the provider generates it. The call blocks until the stream ends.
+     * 
+     * The default implementation waits for the full completion and delivers it as a
+     * single fragment; providers that support streaming override it.
+     * 
+     * @param messages The list of messages in the conversation
+     * @param listener The listener that receives the generated text
+     * @return The complete AI-generated response
+     * @throws Exception If an error occurs during the API call
+     */
+    default String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        String completion = getChatCompletion(messages);
+        listener.onDelta(completion);
+        listener.onComplete(completion);
+        return completion;
+    }
+    
+    /**
+     * Stream a chat completion for a list of messages with custom parameters.
+     * 
+     * @param messages The list of messages in the conversation
+     * @param parameters Custom parameters for the API call (e.g., temperature, max_tokens)
+     * @param listener The listener that receives the generated text
+     * @return The complete AI-generated response
+     * @throws Exception If an error occurs during the API call
+     * @see #streamChatCompletion(List, StreamListener)
+     */
+    default String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                        StreamListener listener) throws Exception {
+        String completion = getChatCompletion(messages, parameters);
+        listener.onDelta(completion);
+        listener.onComplete(completion);
+        return completion;
+    }
+    
+    /**
+     * Get a chat completion without blocking the calling thread.
+     * 
+     * The default implementation runs the blocking call on the common pool;
+     * providers override it with a non-blocking HTTP exchange.
+     * 
+     * @param messages The list of messages in the conversation
+     * @return A future for the AI-generated response; cancelling it aborts the call
+     */
+    default CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getChatCompletion(messages);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+    
+    /**
+     * Get a chat completion with custom parameters without blocking the calling thread.
+     * 
+     * @param messages The list of messages in the conversation
+     * @param parameters Custom parameters for the API call (e.g., temperature, max_tokens)
+     * @return A future for the AI-generated response; cancelling it aborts the call
+     * @see #getChatCompletionAsync(List)
+     */
+    default CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                             Map<String, Object> parameters) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getChatCompletion(messages, parameters);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+    
+    /**
+     * Get a chat completion as an object of the given type. The output is streamed
+     * and checked against the type's fields as it arrives; an output that can no
+     * longer match is aborted and the call retried.
+     * 
+     * @param <T> The result type
+     * @param messages The list of messages in the conversation
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @param type The type the output is mapped to
+     * @return The output
+     * @throws Exception If the call fails or no attempt produced a valid output
+     * @see StructuredOutputService
+     */
+    default <T> T getStructuredCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                          Class<T> type) throws Exception {
+        return new StructuredOutputService(this).complete(messages, parameters, type);
+    }
+    
+    /**
+     * Get a chat completion as a JSON object that matches a schema.
+     * 
+     * @param messages The list of messages in the conversation
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @param schema The schema the output must match
+     * @return The output
+     * @throws Exception If the call fails or no attempt produced a valid output
+     * @see #getStructuredCompletion(List, Map, Class)
+     */
+    default JsonObject getStructuredCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                               OutputSchema schema) throws Exception {
+        return new StructuredOutputService(this).complete(messages, parameters, schema);
+    }
+    
+    /**
+     * Get a chat completion with tools the model may call. The model either answers
+     * or asks for one or more tool calls, whose results are sent back as "tool"
+     * messages in the next call.
+     * 
+     * The default implementation does not support tools.
+     * 
+     * @param messages The list of messages in the conversation, including earlier tool calls and results
+     * @param parameters Custom parameters for the API call
+     * @param tools The tools the model may call
+     * @return The answer or the requested tool calls
+     * @throws Exception If an error occurs during the API call
+     * @see com.celestra.ai.tool.ToolExecutor
+     */
+    default ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                             List<ToolDefinition> tools) throws Exception {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support tool calls");
+    }
+}
@@ -1,9 +1,25 @@
 package com.celestra.ai;
 
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.celestra.ai.cache.CachingChatCompletionService;
+import com.celestra.ai.cache.CompletionCache;
 import com.celestra.ai.claude.ClaudeChatCompletionService;
 import com.celestra.ai.config.AIConfigurationManager;
-import com.celestra.ai.http.DefaultHttpClientWrapper;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.http.HttpClientRegistry;
 import com.celestra.ai.openai.OpenAIChatCompletionService;
+import com.celestra.ai.quota.QuotaChatCompletionService;
+import com.celestra.ai.quota.QuotaManager;
+import com.celestra.ai.routing.ModelTierChatCompletionService;
+import com.celestra.ai.routing.ModelTierPolicy;
+import com.celestra.ai.routing.ProviderHealth;
+import com.celestra.ai.routing.RoutingChatCompletionService;
+import com.celestra.ai.telemetry.AITelemetry;
+import com.celestra.ai.telemetry.TelemetryChatCompletionService;
 
 /**
  * Factory class for creating instances of ChatCompletionService.
@@ -12,6 +28,10 @@ public class ChatCompletionServiceFactory {
     
     private static final AIConfigurationManager CONFIG_MANAGER = AIConfigurationManager.getInstance();
     
+    private static CompletionCache completionCache;
+    
+    private static RoutingChatCompletionService routingService;
+    
     /**
      * Get a chat completion service based on the default AI service configured.
      * 
@@ -40,20 +60,97 @@ public class ChatCompletionServiceFactory {
     }
     
     /**
-     * Get the OpenAI chat completion service.
+     * Get the OpenAI chat completion service. Its calls are recorded in {@link AITelemetry}
+     * and calls that name a task are sent to the model of the task's tier, within
+     * the AI quotas of the caller.
      * 
      * @return The OpenAI chat completion service
      */
     public static ChatCompletionService getOpenAIService() {
-        return new OpenAIChatCompletionService(AIConfigurationManager.getInstance(), new DefaultHttpClientWrapper());
+        return new ModelTierChatCompletionService(new TelemetryChatCompletionService(
+                new QuotaChatCompletionService(new OpenAIChatCompletionService(AIConfigurationManager.getInstance(),
+                        HttpClientRegistry.getInstance().getClient(HttpClientRegistry.OPENAI)),
+                        QuotaManager.getInstance(), new TokenEstimator(), CONFIG_MANAGER.getOpenAIMaxTokens()),
+                HttpClientRegistry.OPENAI, CONFIG_MANAGER.getOpenAIModel(), AITelemetry.getInstance()),
+                HttpClientRegistry.OPENAI, ModelTierPolicy.getInstance());
     }
     
     /**
-     * Get the Claude chat completion service.
+     * Get the Claude chat completion service. Its calls are recorded in {@link AITelemetry}
+     * and calls that name a task are sent to the model of the task's tier, within
+     * the AI quotas of the caller.
      * 
      * @return The Claude chat completion service
      */
     public static ChatCompletionService getClaudeService() {
-        return new ClaudeChatCompletionService(AIConfigurationManager.getInstance(), new DefaultHttpClientWrapper());
+        return new ModelTierChatCompletionService(new TelemetryChatCompletionService(
+                new QuotaChatCompletionService(new ClaudeChatCompletionService(AIConfigurationManager.getInstance(),
+                        HttpClientRegistry.getInstance().getClient(HttpClientRegistry.CLAUDE)),
+                        QuotaManager.getInstance(), new TokenEstimator(), CONFIG_MANAGER.getClaudeMaxTokens()),
+                HttpClientRegistry.CLAUDE, CONFIG_MANAGER.getClaudeModel(), AITelemetry.getInstance()),
+                HttpClientRegistry.CLAUDE, ModelTierPolicy.getInstance());
+    }
+    
+    /**
+     * Get a chat completion service for the specified AI service that caches
+     * completions of calls that opt in with the "cache" parameter.
+     * 
+     * @param serviceName The name of the AI service ("openai" or "claude")
+     * @return A caching chat completion service
+     * @throws IllegalArgumentException If the service name is not recognized
+     * @see CachingChatCompletionService
+     */
+    public static ChatCompletionService getCachingService(String serviceName) {
+        ChatCompletionService service = getService(serviceName);
+        String model = "claude".equalsIgnoreCase(serviceName)
+                ? CONFIG_MANAGER.getClaudeModel() : CONFIG_MANAGER.getOpenAIModel();
+        return new CachingChatCompletionService(service, serviceName.toLowerCase(), model,
+                getCompletionCache(), CONFIG_MANAGER.getCacheTtlSeconds());
+    }
+    
+    /**
+     * Get the chat completion service that routes calls over all configured providers,
+     * failing over and optionally hedging between them.
+     * 
+     * The service is shared so that every caller contributes to, and benefits from,
+     * the same latency and failure statistics.
+     * 
+     * @return The routing chat completion service
+     * @throws IllegalArgumentException If a configured provider name is not recognized
+     * @see RoutingChatCompletionService
+     */
+    public static synchronized ChatCompletionService getRoutingService() {
+        if (routingService == null) {
+            Map<String, ChatCompletionService> services = new LinkedHashMap<>();
+            Map<String, ProviderHealth> health = new LinkedHashMap<>();
+            for (String name : CONFIG_MANAGER.getRoutingProviders().split(",")) {
+                String provider = name.trim().toLowerCase();
+                if (provider.isEmpty() || services.containsKey(provider)) {
+                    continue;
+                }
+                services.put(provider, getService(provider));
+                health.put(provider, new ProviderHealth(provider, CONFIG_MANAGER.getRoutingCircuitWindow(),
+                        CONFIG_MANAGER.getRoutingCircuitMinCalls(), CONFIG_MANAGER.getRoutingCircuitFailureRate(),
+                        TimeUnit.SECONDS.toMillis(CONFIG_MANAGER.getRoutingCircuitOpenSeconds())));
+            }
+            routingService = new RoutingChatCompletionService(services, health,
+                    CONFIG_MANAGER.isRoutingHedgeEnabled(), CONFIG_MANAGER.getRoutingHedgePercentile(),
+                    CONFIG_MANAGER.getRoutingHedgeMinDelayMs(), AsyncRetryExecutor.getSharedScheduler());
+        }
+        return routingService;
+    }
+    
+    /**
+     * Get the completion cache shared by all caching services.
+     * 
+     * @return The completion cache
+     */
+    public static synchronized CompletionCache getCompletionCache() {
+        if (completionCache == null) {
+            completionCache = new CompletionCache(CONFIG_MANAGER.getCacheMemoryEntries(),
+                    Paths.get(CONFIG_MANAGER.getCacheDirectory()),
+                    CONFIG_MANAGER.getCacheDiskMaxMb() * 1024L * 1024L);
+        }
+        return completionCache;
     }
-}
\ No newline at end of file
+}
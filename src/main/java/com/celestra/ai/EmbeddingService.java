@@ -0,0 +1,72 @@
+package com.celestra.ai;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Interface for services that turn text into embedding vectors, e.g. to index and
+ * search the chunks of a knowledge base.
+ * 
+ * Vectors are returned as primitive float arrays in the order of the input texts.
+ */
+public interface EmbeddingService {
+    
+    /**
+     * Embed a single text.
+     * 
+     * @param text The text
+     * @return The embedding
+     * @throws Exception If an error occurs
+     */
+    default float[] embed(String text) throws Exception {
+        return embedAll(List.of(text)).get(0);
+    }
+    
+    /**
+     * Embed several texts with as few provider calls as possible.
+     * 
+     * @param texts The texts
+     * @return The embeddings, in the order of the texts
+     * @throws Exception If an error occurs
+     */
+    List<float[]> embedAll(List<String> texts) throws Exception;
+    
+    /**
+     * Embed a single text without blocking the calling thread.
+     * 
+     * The default implementation runs {@link #embed(String)} on the common pool;
+     * implementations that can batch or call the provider asynchronously override it.
+     * 
+     * @param text The text
+     * @return A future completed with the embedding
+     */
+    default CompletableFuture<float[]> embedAsync(String text) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return embed(text);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+    
+    /**
+     * Get the model that produces the embeddings. Vectors of different models are
+     * not comparable, so the model is part of every cache key.
+     * 
+     * @return The model identifier
+     */
+    String getModel();
+    
+    /**
+     * Get the largest number of texts the provider accepts in one call.
+     * 
+     * @return The maximum batch size
+     */
+    default int getMaxBatchSize() {
+        return 256;
+    }
+}
@@ -0,0 +1,58 @@
+package com.celestra.ai;
+
+import java.nio.file.Paths;
+
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.embedding.CachingEmbeddingService;
+import com.celestra.ai.embedding.EmbeddingBatcher;
+import com.celestra.ai.embedding.EmbeddingCache;
+import com.celestra.ai.embedding.LocalEmbeddingService;
+import com.celestra.ai.openai.OpenAIEmbeddingService;
+
+/**
+ * Factory class for creating instances of EmbeddingService.
+ */
+public class EmbeddingServiceFactory {
+    
+    private static final AIConfigurationManager CONFIG_MANAGER = AIConfigurationManager.getInstance();
+    
+    private static EmbeddingService defaultService;
+    
+    /**
+     * Get the embedding service of the configured provider, with cached embeddings
+     * answered locally and the rest coalesced into batch requests.
+     * 
+     * The service is shared, so that concurrent callers fill the same batches.
+     * 
+     * @return The embedding service
+     * @throws IllegalArgumentException If the configured provider is not recognized
+     */
+    public static synchronized EmbeddingService getDefaultService() {
+        if (defaultService == null) {
+            String directory = CONFIG_MANAGER.getEmbeddingCacheDirectory();
+            defaultService = new CachingEmbeddingService(
+                    new EmbeddingBatcher(getService(CONFIG_MANAGER.getEmbeddingProvider())),
+                    new EmbeddingCache(CONFIG_MANAGER.getEmbeddingCacheMemoryEntries(),
+                            directory == null || directory.isEmpty() ? null : Paths.get(directory)));
+        }
+        return defaultService;
+    }
+    
+    /**
+     * Get an embedding service for the specified provider, without batching or caching.
+     * 
+     * @param serviceName The name of the provider ("openai" or "local")
+     * @return An embedding service
+     * @throws IllegalArgumentException If the provider name is not recognized
+     */
+    public static EmbeddingService getService(String serviceName) {
+        if ("openai".equalsIgnoreCase(serviceName)) {
+            return new OpenAIEmbeddingService();
+        } else if ("local".equalsIgnoreCase(serviceName)) {
+            int dimensions = CONFIG_MANAGER.getEmbeddingDimensions();
+            return dimensions > 0 ? new LocalEmbeddingService(dimensions) : new LocalEmbeddingService();
+        } else {
+            throw new IllegalArgumentException("Unknown embedding service: " + serviceName);
+        }
+    }
+}
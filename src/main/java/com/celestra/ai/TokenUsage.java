@@ -0,0 +1,67 @@
+package com.celestra.ai;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the tokens reported by a provider, including the input
+ * tokens written to and read from its prompt cache.
+ * 
+ * Providers report the three kinds of input tokens separately: uncached input,
+ * input written to the cache (billed at a premium) and input read from the cache
+ * (billed at a discount). The totals are updated concurrently by every call.
+ */
+public class TokenUsage {
+    
+    private final LongAdder inputTokens = new LongAdder();
+    private final LongAdder outputTokens = new LongAdder();
+    private final LongAdder cacheCreationInputTokens = new LongAdder();
+    private final LongAdder cacheReadInputTokens = new LongAdder();
+    
+    /**
+     * Add the usage of one response.
+     * 
+     * @param input The uncached input tokens
+     * @param output The output tokens
+     * @param cacheCreation The input tokens written to the cache
+     * @param cacheRead The input tokens read from the cache
+     */
+    public void record(long input, long output, long cacheCreation, long cacheRead) {
+        inputTokens.add(input);
+        outputTokens.add(output);
+        cacheCreationInputTokens.add(cacheCreation);
+        cacheReadInputTokens.add(cacheRead);
+    }
+    
+    public long getInputTokens() {
+        return inputTokens.sum();
+    }
+    
+    public long getOutputTokens() {
+        return outputTokens.sum();
+    }
+    
+    public long getCacheCreationInputTokens() {
+        return cacheCreationInputTokens.sum();
+    }
+    
+    public long getCacheReadInputTokens() {
+        return cacheReadInputTokens.sum();
+    }
+    
+    /**
+     * Get the fraction of all input tokens that were read from the cache.
+     * 
+     * @return The cache hit rate, or 0 if no input was recorded
+     */
+    public double getCacheHitRate() {
+        long read = getCacheReadInputTokens();
+        long total = getInputTokens() + getCacheCreationInputTokens() + read;
+        return total == 0 ? 0 : (double) read / total;
+    }
+    
+    @Override
+    public String toString() {
+        return "TokenUsage{input=" + getInputTokens() + ", output=" + getOutputTokens()
+                + ", cacheCreation=" + getCacheCreationInputTokens() + ", cacheRead=" + getCacheReadInputTokens() + "}";
+    }
+}
@@ -0,0 +1,205 @@
+package com.celestra.ai.agent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.ai.workflow.WorkflowDefinition;
+import com.celestra.ai.workflow.WorkflowStep;
+
+/**
+ * The execution plan of an agent, compiled from its protocol by the
+ * {@link AgentProtocolCompiler}.
+ * 
+ * A plan is immutable and identified by the hash of the protocol it was compiled
+ * from, so one plan is shared by every session of every agent with that protocol.
+ * Its steps are already validated and in execution order. A plan without steps
+ * belongs to a conversational agent.
+ */
+public final class AgentPlan {
+    
+    private final String hash;
+    private final String name;
+    private final String systemPrompt;
+    private final List<String> tools;
+    private final int maxTokens;
+    private final int maxToolCalls;
+    private final Duration timeout;
+    private final List<Step> steps;
+    
+    AgentPlan(String hash, String name, String systemPrompt, List<String> tools, int maxTokens, int maxToolCalls,
+              Duration timeout, List<Step> steps) {
+        this.hash = hash;
+        this.name = name;
+        this.systemPrompt = systemPrompt;
+        this.tools = Collections.unmodifiableList(new ArrayList<>(tools));
+        this.maxTokens = maxTokens;
+        this.maxToolCalls = maxToolCalls;
+        this.timeout = timeout;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+    
+    /**
+     * Get the hash of the protocol the plan was compiled from.
+     * 
+     * @return The hex-encoded SHA-256 hash
+     */
+    public String getHash() {
+        return hash;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getSystemPrompt() {
+        return systemPrompt;
+    }
+    
+    /**
+     * Get the names of the tools the agent may use.
+     * 
+     * @return The tool names
+     */
+    public List<String> getTools() {
+        return tools;
+    }
+    
+    /**
+     * Get the number of tokens a session of the agent may use.
+     * 
+     * @return The token budget, or 0 for no budget
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+    
+    /**
+     * Get the number of tool calls a session of the agent may make.
+     * 
+     * @return The tool call budget, or 0 for no budget
+     */
+    public int getMaxToolCalls() {
+        return maxToolCalls;
+    }
+    
+    /**
+     * Get how long a session of the agent may run.
+     * 
+     * @return The timeout, or null to use the runtime's default
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+    
+    /**
+     * Get the steps in an order where every step comes after its dependencies.
+     * 
+     * @return The steps, empty for a conversational agent
+     */
+    public List<Step> getSteps() {
+        return steps;
+    }
+    
+    /**
+     * Build a workflow that runs the steps of the plan with the {@code WorkflowEngine}.
+     * The workflow is new on every call, so callers may adjust its steps.
+     * 
+     * @return The workflow
+     * @throws IllegalStateException If the plan has no steps
+     */
+    public WorkflowDefinition toWorkflow() {
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("Plan " + name + " has no steps");
+        }
+        List<WorkflowStep> workflowSteps = new ArrayList<>(steps.size());
+        for (Step step : steps) {
+            workflowSteps.add(step.toWorkflowStep(systemPrompt));
+        }
+        return new WorkflowDefinition(name, workflowSteps);
+    }
+    
+    /**
+     * One step of a plan: a prompt template in the syntax of a {@link WorkflowStep},
+     * with the tools and tokens it may use.
+     */
+    public static final class Step {
+        
+        private final String id;
+        private final String prompt;
+        private final String systemPrompt;
+        private final List<String> dependencies;
+        private final List<String> tools;
+        private final int maxTokens;
+        private final List<String> requiredFields;
+        
+        Step(String id, String prompt, String systemPrompt, List<String> dependencies, List<String> tools,
+             int maxTokens, List<String> requiredFields) {
+            this.id = id;
+            this.prompt = prompt;
+            this.systemPrompt = systemPrompt;
+            this.dependencies = Collections.unmodifiableList(new ArrayList<>(dependencies));
+            this.tools = Collections.unmodifiableList(new ArrayList<>(tools));
+            this.maxTokens = maxTokens;
+            this.requiredFields = Collections.unmodifiableList(new ArrayList<>(requiredFields));
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public String getPrompt() {
+            return prompt;
+        }
+        
+        /**
+         * Get the system prompt of the step.
+         * 
+         * @return The system prompt, or null to use the plan's
+         */
+        public String getSystemPrompt() {
+            return systemPrompt;
+        }
+        
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+        
+        /**
+         * Get the names of the tools the step may use, a subset of the plan's tools.
+         * 
+         * @return The tool names
+         */
+        public List<String> getTools() {
+            return tools;
+        }
+        
+        /**
+         * Get the largest number of tokens the step's answer may have.
+         * 
+         * @return The token limit, or 0 for the service default
+         */
+        public int getMaxTokens() {
+            return maxTokens;
+        }
+        
+        public List<String> getRequiredFields() {
+            return requiredFields;
+        }
+        
+        WorkflowStep toWorkflowStep(String planSystemPrompt) {
+            WorkflowStep step = new WorkflowStep(id, prompt, dependencies);
+            step.setSystemPrompt(systemPrompt != null ? systemPrompt : planSystemPrompt);
+            if (maxTokens > 0) {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("max_tokens", maxTokens);
+                step.setParameters(parameters);
+            }
+            step.setRequiredFields(requiredFields);
+            return step;
+        }
+    }
+}
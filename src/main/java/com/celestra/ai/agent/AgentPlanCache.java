@@ -0,0 +1,166 @@
+package com.celestra.ai.agent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.dao.AgentChangeListener;
+import com.celestra.dao.impl.AgentDaoImpl;
+import com.celestra.enums.AgentStatus;
+import com.celestra.model.Agent;
+import com.google.gson.JsonObject;
+
+/**
+ * Cache of compiled agent plans, so that starting a session does not parse and
+ * validate the agent's protocol again.
+ * 
+ * Plans are kept in a bounded LRU map keyed by the hash of their protocol, which
+ * agents with the same protocol share. In front of it, each agent remembers the
+ * protocol text its plan was compiled from; while the agent's protocol is equal
+ * to it, the plan is returned without hashing the protocol. A stored protocol
+ * change drops the agent's entry. Because the text is compared on every lookup,
+ * an agent whose protocol was changed on another node still gets the plan of its
+ * current protocol.
+ */
+public class AgentPlanCache implements AgentChangeListener {
+    
+    private static AgentPlanCache instance;
+    
+    private final AgentProtocolCompiler compiler;
+    private final Map<String, AgentPlan> plans;
+    private final ConcurrentMap<Integer, AgentEntry> agents = new ConcurrentHashMap<>();
+    
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong compileCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    
+    /**
+     * Create a new cache.
+     * 
+     * @param compiler The compiler of the protocols
+     * @param maxPlans The maximum number of plans kept
+     */
+    public AgentPlanCache(AgentProtocolCompiler compiler, int maxPlans) {
+        if (maxPlans <= 0) {
+            throw new IllegalArgumentException("Max plans must be positive");
+        }
+        this.compiler = compiler;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AgentPlan> eldest) {
+                return size() > maxPlans;
+            }
+        };
+    }
+    
+    /**
+     * Get the cache shared by the application. It follows the protocol changes
+     * stored through {@link AgentDaoImpl}.
+     * 
+     * @return The cache
+     */
+    public static synchronized AgentPlanCache getInstance() {
+        if (instance == null) {
+            instance = new AgentPlanCache(new AgentProtocolCompiler(),
+                    AIConfigurationManager.getInstance().getAgentPlanCacheSize());
+            AgentDaoImpl.addChangeListener(instance);
+        }
+        return instance;
+    }
+    
+    /**
+     * Get the plan of an agent, compiling its protocol if no plan of it is cached.
+     * 
+     * @param agent The agent
+     * @return The plan, or null if the agent has no protocol
+     * @throws IllegalArgumentException If the protocol is invalid
+     */
+    public AgentPlan getPlan(Agent agent) {
+        String protocol = agent.getAgentProtocol();
+        if (protocol == null || protocol.isBlank()) {
+            return null;
+        }
+        
+        AgentEntry entry = agent.getId() != null ? agents.get(agent.getId()) : null;
+        if (entry != null && entry.protocol.equals(protocol)) {
+            hitCount.incrementAndGet();
+            return entry.plan;
+        }
+        
+        String hash = AgentProtocolCompiler.hash(protocol);
+        AgentPlan plan;
+        synchronized (plans) {
+            plan = plans.get(hash);
+        }
+        if (plan != null) {
+            hitCount.incrementAndGet();
+        } else {
+            // Compiled outside the lock; two sessions may compile the same protocol once each
+            plan = compiler.compile(hash, protocol);
+            compileCount.incrementAndGet();
+            synchronized (plans) {
+                plans.put(hash, plan);
+            }
+        }
+        if (agent.getId() != null) {
+            agents.put(agent.getId(), new AgentEntry(protocol, plan));
+        }
+        return plan;
+    }
+    
+    /**
+     * Drop the plan remembered for an agent whose protocol changed.
+     */
+    @Override
+    public void protocolChanged(Integer agentId, String agentProtocol) {
+        if (agents.remove(agentId) != null) {
+            invalidationCount.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Drop the plan remembered for a deleted agent.
+     */
+    @Override
+    public void statusChanged(Integer agentId, AgentStatus status) {
+        if (status == null) {
+            agents.remove(agentId);
+        }
+    }
+    
+    /**
+     * Get the cache counts as JSON.
+     * 
+     * @return The metrics
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        synchronized (plans) {
+            json.addProperty("plans", plans.size());
+        }
+        json.addProperty("agents", agents.size());
+        json.addProperty("hits", hitCount.get());
+        json.addProperty("compiles", compileCount.get());
+        json.addProperty("invalidations", invalidationCount.get());
+        return json;
+    }
+    
+    /**
+     * The plan of an agent with the protocol it was compiled from.
+     */
+    private static final class AgentEntry {
+        
+        private final String protocol;
+        private final AgentPlan plan;
+        
+        private AgentEntry(String protocol, AgentPlan plan) {
+            this.protocol = protocol;
+            this.plan = plan;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.celestra.ai.agent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.celestra.ai.workflow.WorkflowDefinition;
+import com.celestra.ai.workflow.WorkflowStep;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Compiles the protocol of an agent into an {@link AgentPlan}.
+ * 
+ * A protocol is a JSON object:
+ * <pre>
+ * {
+ *   "name": "Deviation Investigation Agent",
+ *   "system_prompt": "You investigate manufacturing deviations.",
+ *   "tools": ["find_batch", "find_deviation"],
+ *   "budget": {"max_tokens": 20000, "max_tool_calls": 10, "timeout_seconds": 120},
+ *   "steps": [
+ *     {"id": "classify", "prompt": "Classify {{input.deviation}}", "max_tokens": 500,
+ *      "required_fields": ["category"]},
+ *     {"id": "root_cause", "prompt": "Find the cause of {{steps.classify.category}}",
+ *      "depends_on": ["classify"], "tools": ["find_batch"]}
+ *   ]
+ * }
+ * </pre>
+ * Every part is optional; a protocol without steps describes a conversational
+ * agent. Prompts use the placeholders of a {@link WorkflowStep}. The compiler
+ * checks everything a session would otherwise trip over - unknown step or budget
+ * keys, tools a step may not use, a step answer larger than the token budget,
+ * missing or cyclic dependencies - and reports the first problem as an
+ * IllegalArgumentException naming its location. Other top-level keys, such as the
+ * descriptive ones of older protocols, are ignored.
+ */
+public class AgentProtocolCompiler {
+    
+    // The tool names both providers accept
+    private static final Pattern TOOL_NAME = Pattern.compile("[a-zA-Z0-9_-]{1,64}");
+    
+    private static final Set<String> BUDGET_KEYS = Set.of("max_tokens", "max_tool_calls", "timeout_seconds");
+    private static final Set<String> STEP_KEYS = Set.of("id", "prompt", "system_prompt", "depends_on", "tools",
+            "max_tokens", "required_fields");
+    
+    /**
+     * Compile a protocol.
+     * 
+     * @param protocol The protocol
+     * @return The plan
+     * @throws IllegalArgumentException If the protocol is invalid
+     */
+    public AgentPlan compile(String protocol) {
+        return compile(hash(protocol), protocol);
+    }
+    
+    /**
+     * Compile a protocol whose hash is already known.
+     * 
+     * @param hash The hash of the protocol, see {@link #hash(String)}
+     * @param protocol The protocol
+     * @return The plan
+     * @throws IllegalArgumentException If the protocol is invalid
+     */
+    public AgentPlan compile(String hash, String protocol) {
+        if (protocol == null || protocol.isBlank()) {
+            throw new IllegalArgumentException("Agent protocol is empty");
+        }
+        JsonObject json;
+        try {
+            JsonElement element = JsonParser.parseString(protocol);
+            if (!element.isJsonObject()) {
+                throw new IllegalArgumentException("Agent protocol must be a JSON object");
+            }
+            json = element.getAsJsonObject();
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Agent protocol is not valid JSON: " + e.getMessage(), e);
+        }
+        
+        String name = getString(json, "name", "name", false);
+        String systemPrompt = getString(json, "system_prompt", "system_prompt", false);
+        List<String> tools = getStringList(json, "tools", "tools");
+        for (String tool : tools) {
+            if (!TOOL_NAME.matcher(tool).matches()) {
+                throw new IllegalArgumentException("tools: invalid tool name " + tool);
+            }
+        }
+        
+        int maxTokens = 0;
+        int maxToolCalls = 0;
+        Duration timeout = null;
+        JsonObject budget = getObject(json, "budget", "budget");
+        if (budget != null) {
+            checkKeys(budget, BUDGET_KEYS, "budget");
+            maxTokens = getInt(budget, "max_tokens", "budget.max_tokens", 0);
+            maxToolCalls = getInt(budget, "max_tool_calls", "budget.max_tool_calls", 0);
+            int timeoutSeconds = getInt(budget, "timeout_seconds", "budget.timeout_seconds", 1);
+            timeout = timeoutSeconds > 0 ? Duration.ofSeconds(timeoutSeconds) : null;
+        }
+        
+        List<AgentPlan.Step> steps = compileSteps(json, new LinkedHashSet<>(tools), maxTokens);
+        return new AgentPlan(hash, name != null ? name : "agent", systemPrompt, tools, maxTokens, maxToolCalls,
+                timeout, steps);
+    }
+    
+    /**
+     * Compute the hash a plan is cached under.
+     * 
+     * @param protocol The protocol
+     * @return The hex-encoded SHA-256 hash of the protocol
+     */
+    public static String hash(String protocol) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = (protocol != null ? protocol : "").getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Compile the steps and put them in execution order. The dependency graph is
+     * checked by building the workflow the steps will run as.
+     */
+    private List<AgentPlan.Step> compileSteps(JsonObject json, Set<String> planTools, int planMaxTokens) {
+        JsonElement element = json.get("steps");
+        if (element == null || element.isJsonNull()) {
+            return Collections.emptyList();
+        }
+        if (!element.isJsonArray()) {
+            throw new IllegalArgumentException("steps must be an array");
+        }
+        
+        JsonArray array = element.getAsJsonArray();
+        Map<String, AgentPlan.Step> steps = new LinkedHashMap<>();
+        List<WorkflowStep> workflowSteps = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            String path = "steps[" + i + "]";
+            if (!array.get(i).isJsonObject()) {
+                throw new IllegalArgumentException(path + " must be an object");
+            }
+            JsonObject stepJson = array.get(i).getAsJsonObject();
+            checkKeys(stepJson, STEP_KEYS, path);
+            
+            String id = getString(stepJson, "id", path + ".id", true);
+            List<String> stepTools = getStringList(stepJson, "tools", path + ".tools");
+            for (String tool : stepTools) {
+                if (!planTools.contains(tool)) {
+                    throw new IllegalArgumentException(path + ".tools: " + tool + " is not one of the agent's tools");
+                }
+            }
+            int maxTokens = getInt(stepJson, "max_tokens", path + ".max_tokens", 1);
+            if (planMaxTokens > 0 && maxTokens > planMaxTokens) {
+                throw new IllegalArgumentException(path + ".max_tokens exceeds the budget of " + planMaxTokens
+                        + " tokens");
+            }
+            
+            AgentPlan.Step step = new AgentPlan.Step(id, getString(stepJson, "prompt", path + ".prompt", true),
+                    getString(stepJson, "system_prompt", path + ".system_prompt", false),
+                    getStringList(stepJson, "depends_on", path + ".depends_on"), stepTools, maxTokens,
+                    getStringList(stepJson, "required_fields", path + ".required_fields"));
+            try {
+                workflowSteps.add(step.toWorkflowStep(null));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(path + ": " + e.getMessage(), e);
+            }
+            steps.put(id, step);
+        }
+        if (steps.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        WorkflowDefinition workflow;
+        try {
+            workflow = new WorkflowDefinition("protocol", workflowSteps);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("steps: " + e.getMessage(), e);
+        }
+        List<AgentPlan.Step> ordered = new ArrayList<>(steps.size());
+        for (WorkflowStep workflowStep : workflow.getSteps()) {
+            ordered.add(steps.get(workflowStep.getId()));
+        }
+        return ordered;
+    }
+    
+    private static void checkKeys(JsonObject json, Set<String> allowed, String path) {
+        for (String key : json.keySet()) {
+            if (!allowed.contains(key)) {
+                throw new IllegalArgumentException(path + ": unknown key " + key);
+            }
+        }
+    }
+    
+    private static JsonObject getObject(JsonObject json, String key, String path) {
+        JsonElement element = json.get(key);
+        if (element == null || element.isJsonNull()) {
+            return null;
+        }
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException(path + " must be an object");
+        }
+        return element.getAsJsonObject();
+    }
+    
+    private static String getString(JsonObject json, String key, String path, boolean required) {
+        JsonElement element = json.get(key);
+        if (element == null || element.isJsonNull()) {
+            if (required) {
+                throw new IllegalArgumentException(path + " is required");
+            }
+            return null;
+        }
+        if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isString()) {
+            throw new IllegalArgumentException(path + " must be a string");
+        }
+        String value = element.getAsString();
+        if (required && value.isBlank()) {
+            throw new IllegalArgumentException(path + " is required");
+        }
+        return value;
+    }
+    
+    /**
+     * Get a whole number that is absent (0) or at least the minimum.
+     */
+    private static int getInt(JsonObject json, String key, String path, int minimum) {
+        JsonElement element = json.get(key);
+        if (element == null || element.isJsonNull()) {
+            return 0;
+        }
+        if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isNumber()) {
+            throw new IllegalArgumentException(path + " must be a number");
+        }
+        double value = element.getAsDouble();
+        if (value != Math.rint(value) || value < minimum || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(path + " must be a whole number of at least " + minimum);
+        }
+        return (int) value;
+    }
+    
+    private static List<String> getStringList(JsonObject json, String key, String path) {
+        JsonElement element = json.get(key);
+        if (element == null || element.isJsonNull()) {
+            return Collections.emptyList();
+        }
+        if (!element.isJsonArray()) {
+            throw new IllegalArgumentException(path + " must be an array of strings");
+        }
+        Set<String> values = new LinkedHashSet<>();
+        for (JsonElement item : element.getAsJsonArray()) {
+            if (!item.isJsonPrimitive() || !item.getAsJsonPrimitive().isString()) {
+                throw new IllegalArgumentException(path + " must be an array of strings");
+            }
+            if (!values.add(item.getAsString())) {
+                throw new IllegalArgumentException(path + ": duplicate " + item.getAsString());
+            }
+        }
+        return new ArrayList<>(values);
+    }
+}
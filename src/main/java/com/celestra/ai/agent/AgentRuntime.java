@@ -0,0 +1,390 @@
+package com.celestra.ai.agent;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.celestra.ai.AsyncRetryExecutor;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.dao.AgentChangeListener;
+import com.celestra.dao.impl.AgentDaoImpl;
+import com.celestra.enums.AgentStatus;
+import com.celestra.model.Agent;
+import com.google.gson.JsonObject;
+
+/**
+ * Runs the sessions of active agents.
+ * 
+ * A session is a chain of asynchronous calls rather than a thread: while it waits
+ * on a model it holds nothing but its futures, so a node can keep thousands of
+ * mostly-waiting conversations open with a small pool for the blocking work they
+ * fork. Each session is scoped like a structured task: it has a deadline, the
+ * calls and work it starts end with it, and every session of an agent is
+ * cancelled when the agent's status is changed away from ACTIVE. Each agent may
+ * run a limited number of sessions at once; further sessions are refused.
+ */
+public class AgentRuntime implements AgentChangeListener {
+    
+    private static final Logger LOGGER = Logger.getLogger(AgentRuntime.class.getName());
+    
+    private static AgentRuntime instance;
+    
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final AgentPlanCache planCache;
+    private final int maxSessionsPerAgent;
+    private final Duration defaultTimeout;
+    private final ConcurrentMap<Integer, AgentSessions> agents = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    
+    private final AtomicLong startedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong timedOutCount = new AtomicLong();
+    private final AtomicLong cancelledCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    
+    /**
+     * Create a new runtime.
+     * 
+     * @param executor The executor that runs the blocking work forked by sessions
+     * @param scheduler The scheduler that enforces the session deadlines
+     * @param planCache The cache of the agents' compiled protocols
+     * @param maxSessionsPerAgent The largest number of sessions one agent may run at once
+     * @param defaultTimeout How long a session may run unless it is started with its own deadline
+     */
+    public AgentRuntime(ExecutorService executor, ScheduledExecutorService scheduler, AgentPlanCache planCache,
+                        int maxSessionsPerAgent, Duration defaultTimeout) {
+        if (maxSessionsPerAgent <= 0) {
+            throw new IllegalArgumentException("Max sessions per agent must be positive");
+        }
+        if (defaultTimeout == null || defaultTimeout.isNegative() || defaultTimeout.isZero()) {
+            throw new IllegalArgumentException("Default timeout must be positive");
+        }
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.planCache = planCache;
+        this.maxSessionsPerAgent = maxSessionsPerAgent;
+        this.defaultTimeout = defaultTimeout;
+    }
+    
+    /**
+     * Get the runtime shared by the application, configured from the AI configuration.
+     * It follows the status changes stored through {@link AgentDaoImpl}.
+     * 
+     * @return The runtime
+     */
+    public static synchronized AgentRuntime getInstance() {
+        if (instance == null) {
+            AIConfigurationManager configManager = AIConfigurationManager.getInstance();
+            instance = new AgentRuntime(Executors.newFixedThreadPool(configManager.getAgentMaxThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "ai-agent");
+                thread.setDaemon(true);
+                return thread;
+            }), AsyncRetryExecutor.getSharedScheduler(), AgentPlanCache.getInstance(),
+                    configManager.getAgentMaxSessions(),
+                    Duration.ofSeconds(configManager.getAgentSessionTimeoutSeconds()));
+            AgentDaoImpl.addChangeListener(instance);
+        }
+        return instance;
+    }
+    
+    /**
+     * Start a session with the timeout of the agent's plan, or the default timeout
+     * if the plan has none.
+     * 
+     * @param <T> The result type
+     * @param agent The agent, which must be active
+     * @param task The work of the session
+     * @return A future for the result of the session; cancelling it cancels the session
+     */
+    public <T> CompletableFuture<T> start(Agent agent, AgentTask<T> task) {
+        if (agent == null || agent.getId() == null) {
+            throw new IllegalArgumentException("A stored agent is required");
+        }
+        AgentPlan plan;
+        try {
+            plan = planCache.getPlan(agent);
+        } catch (IllegalArgumentException e) {
+            return refuse(e);
+        }
+        Duration timeout = plan != null && plan.getTimeout() != null ? plan.getTimeout() : defaultTimeout;
+        return start(agent, plan, timeout, task);
+    }
+    
+    /**
+     * Start a session. The future fails with an IllegalArgumentException if the
+     * agent's protocol does not compile, an IllegalStateException if the agent is
+     * not active, a RejectedExecutionException if the agent already runs
+     * its maximum number of sessions, a TimeoutException if the deadline passes,
+     * and a CancellationException if the agent leaves ACTIVE while it runs.
+     * 
+     * @param <T> The result type
+     * @param agent The agent, which must be active
+     * @param timeout How long the session may run
+     * @param task The work of the session
+     * @return A future for the result of the session; cancelling it cancels the session
+     */
+    public <T> CompletableFuture<T> start(Agent agent, Duration timeout, AgentTask<T> task) {
+        if (agent == null || agent.getId() == null) {
+            throw new IllegalArgumentException("A stored agent is required");
+        }
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive");
+        }
+        AgentPlan plan;
+        try {
+            plan = planCache.getPlan(agent);
+        } catch (IllegalArgumentException e) {
+            return refuse(e);
+        }
+        return start(agent, plan, timeout, task);
+    }
+    
+    private <T> CompletableFuture<T> start(Agent agent, AgentPlan plan, Duration timeout, AgentTask<T> task) {
+        AgentSessions sessions = agents.computeIfAbsent(agent.getId(), id -> new AgentSessions());
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long now = System.nanoTime();
+        AgentSession session = new AgentSession(sequence.incrementAndGet(), agent, plan, now,
+                now + timeout.toNanos(), executor, result);
+        
+        String refusal = sessions.admit(agent, session, maxSessionsPerAgent);
+        if (refusal != null) {
+            return refuse(refusal.startsWith("Agent is not active")
+                    ? new IllegalStateException(refusal + ": " + agent.getName())
+                    : new RejectedExecutionException(refusal + ": " + agent.getName()));
+        }
+        startedCount.incrementAndGet();
+        
+        ScheduledFuture<?> deadline = scheduler.schedule(() -> result.completeExceptionally(
+                new TimeoutException("Agent session " + session.getId() + " of " + agent.getName()
+                        + " ran past its deadline of " + timeout.toMillis() + " ms")),
+                timeout.toNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, error) -> {
+            deadline.cancel(false);
+            sessions.remove(session);
+            count(error);
+        });
+        
+        try {
+            CompletableFuture<T> work = task.run(session);
+            if (work == null) {
+                throw new IllegalStateException("The agent task returned no future");
+            }
+            work.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                } else {
+                    result.complete(value);
+                }
+            });
+            // Cancelling the session cancels the work it composed
+            result.whenComplete((value, error) -> work.cancel(true));
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Cancel the sessions of an agent that is no longer active, and refuse new ones
+     * until it is active again.
+     */
+    @Override
+    public void statusChanged(Integer agentId, AgentStatus status) {
+        if (status == AgentStatus.ACTIVE) {
+            AgentSessions sessions = agents.get(agentId);
+            if (sessions != null) {
+                sessions.setActive(true);
+            }
+            return;
+        }
+        int cancelled = agents.computeIfAbsent(agentId, id -> new AgentSessions())
+                .deactivate("Agent " + agentId + " is no longer active");
+        if (cancelled > 0) {
+            LOGGER.info("Cancelled " + cancelled + " sessions of agent " + agentId + " after its status changed to "
+                    + status);
+        }
+    }
+    
+    /**
+     * Get the number of sessions running now.
+     * 
+     * @return The number of live sessions
+     */
+    public int getLiveSessionCount() {
+        int live = 0;
+        for (AgentSessions sessions : agents.values()) {
+            live += sessions.size();
+        }
+        return live;
+    }
+    
+    /**
+     * Get the number of sessions an agent is running now.
+     * 
+     * @param agentId The agent ID
+     * @return The number of live sessions
+     */
+    public int getLiveSessionCount(Integer agentId) {
+        AgentSessions sessions = agents.get(agentId);
+        return sessions != null ? sessions.size() : 0;
+    }
+    
+    /**
+     * Get the session counts as JSON: live sessions in total and per agent, and the
+     * outcomes of the sessions since the runtime started.
+     * 
+     * @return The metrics
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("live", getLiveSessionCount());
+        json.addProperty("started", startedCount.get());
+        json.addProperty("completed", completedCount.get());
+        json.addProperty("failed", failedCount.get());
+        json.addProperty("timedOut", timedOutCount.get());
+        json.addProperty("cancelled", cancelledCount.get());
+        json.addProperty("rejected", rejectedCount.get());
+        
+        JsonObject byAgent = new JsonObject();
+        for (Map.Entry<Integer, AgentSessions> entry : new TreeMap<>(agents).entrySet()) {
+            JsonObject stats = entry.getValue().toJson();
+            if (stats != null) {
+                byAgent.add(String.valueOf(entry.getKey()), stats);
+            }
+        }
+        json.add("agents", byAgent);
+        json.add("plans", planCache.toJson());
+        return json;
+    }
+    
+    private <T> CompletableFuture<T> refuse(Exception reason) {
+        rejectedCount.incrementAndGet();
+        return CompletableFuture.failedFuture(reason);
+    }
+    
+    private void count(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause == null) {
+            completedCount.incrementAndGet();
+        } else if (cause instanceof TimeoutException) {
+            timedOutCount.incrementAndGet();
+        } else if (cause instanceof CancellationException) {
+            cancelledCount.incrementAndGet();
+        } else {
+            failedCount.incrementAndGet();
+        }
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    /**
+     * The live sessions of one agent.
+     */
+    private static final class AgentSessions {
+        
+        private final Set<SessionEntry> live = ConcurrentHashMap.newKeySet();
+        private boolean active = true;
+        
+        /**
+         * Admit a session, or explain why not.
+         * 
+         * @return null if the session was admitted, otherwise the reason it was refused
+         */
+        private synchronized String admit(Agent agent, AgentSession session, int maxSessions) {
+            if (agent.getStatus() != AgentStatus.ACTIVE || !active) {
+                return "Agent is not active";
+            }
+            if (live.size() >= maxSessions) {
+                return "Agent already runs " + maxSessions + " sessions";
+            }
+            live.add(new SessionEntry(session));
+            return null;
+        }
+        
+        private synchronized void setActive(boolean active) {
+            this.active = active;
+        }
+        
+        /**
+         * Refuse new sessions and cancel the live ones.
+         * 
+         * @return The number of sessions cancelled
+         */
+        private int deactivate(String reason) {
+            SessionEntry[] cancelled;
+            synchronized (this) {
+                active = false;
+                cancelled = live.toArray(new SessionEntry[0]);
+            }
+            // Cancel outside the lock; completing a session removes it from the set
+            for (SessionEntry entry : cancelled) {
+                entry.session.cancel(reason);
+            }
+            return cancelled.length;
+        }
+        
+        private void remove(AgentSession session) {
+            live.remove(new SessionEntry(session));
+        }
+        
+        private int size() {
+            return live.size();
+        }
+        
+        private JsonObject toJson() {
+            SessionEntry[] sessions = live.toArray(new SessionEntry[0]);
+            if (sessions.length == 0) {
+                return null;
+            }
+            long oldest = 0;
+            for (SessionEntry entry : sessions) {
+                oldest = Math.max(oldest, entry.session.getAge().toMillis());
+            }
+            JsonObject json = new JsonObject();
+            json.addProperty("live", sessions.length);
+            json.addProperty("oldestMs", oldest);
+            return json;
+        }
+    }
+    
+    /**
+     * Set entry of a session, compared by identity of the session.
+     */
+    private static final class SessionEntry {
+        
+        private final AgentSession session;
+        
+        private SessionEntry(AgentSession session) {
+            this.session = session;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SessionEntry && ((SessionEntry) o).session == session;
+        }
+        
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(session);
+        }
+    }
+}
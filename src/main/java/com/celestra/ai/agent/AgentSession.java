@@ -0,0 +1,246 @@
+package com.celestra.ai.agent;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionService.StreamListener;
+import com.celestra.ai.ratelimit.RateLimitContext;
+import com.celestra.ai.ratelimit.RequestPriority;
+import com.celestra.ai.routing.ModelTierChatCompletionService;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.model.Agent;
+
+/**
+ * One running conversation of an agent, started by the {@link AgentRuntime}.
+ * 
+ * The session owns the calls and work it starts: they run for the agent's company
+ * and agent, within the session's deadline, and whatever is still running when
+ * the session ends - because it finished, failed, timed out or was cancelled - is
+ * cancelled with it, so no work outlives its session.
+ */
+public class AgentSession {
+    
+    /**
+     * Prefix of the task under which the model calls of an agent are tiered,
+     * followed by the agent ID
+     */
+    public static final String TASK_PREFIX = "agent.";
+    
+    private final long id;
+    private final Agent agent;
+    private final AgentPlan plan;
+    private final long startNanos;
+    private final long deadlineNanos;
+    private final Executor executor;
+    private final TelemetryContext telemetryContext;
+    private final CompletableFuture<?> result;
+    private final Set<CompletableFuture<?>> children = ConcurrentHashMap.newKeySet();
+    
+    AgentSession(long id, Agent agent, AgentPlan plan, long startNanos, long deadlineNanos, Executor executor,
+                 CompletableFuture<?> result) {
+        this.id = id;
+        this.agent = agent;
+        this.plan = plan;
+        this.startNanos = startNanos;
+        this.deadlineNanos = deadlineNanos;
+        this.executor = executor;
+        this.telemetryContext = TelemetryContext.of(agent.getCompanyId(), agent.getId(), agent.getName());
+        this.result = result;
+        result.whenComplete((value, error) -> cancelChildren());
+    }
+    
+    /**
+     * Get a chat completion for the session without holding a thread while the
+     * provider works on it. Unless the parameters name a task, the call is tiered
+     * under the agent's task.
+     * 
+     * @param service The service that produces the completion
+     * @param messages The conversation
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @return A future for the completion, cancelled if the session ends first
+     */
+    public CompletableFuture<String> chat(ChatCompletionService service, List<ChatMessage> messages,
+                                          Map<String, Object> parameters) {
+        Map<String, Object> upstream = taskParameters(parameters);
+        RateLimitContext rateLimitContext = RateLimitContext.of(RequestPriority.INTERACTIVE, getRemaining());
+        return track(() -> rateLimitContext.supply(() -> telemetryContext.supply(
+                () -> service.getChatCompletionAsync(messages, upstream))));
+    }
+    
+    /**
+     * Stream a chat completion for the session. Providers stream on the calling
+     * thread, so the call is forked; a listener that throws, e.g. because the
+     * client went away, ends the call, as does the end of the session. Unless the
+     * parameters name a task, the call is tiered under the agent's task.
+     * 
+     * @param service The service that produces the completion
+     * @param messages The conversation
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @param listener The listener that receives the generated text
+     * @return A future for the complete text
+     */
+    public CompletableFuture<String> stream(ChatCompletionService service, List<ChatMessage> messages,
+                                            Map<String, Object> parameters, StreamListener listener) {
+        Map<String, Object> upstream = taskParameters(parameters);
+        return fork(() -> service.streamChatCompletion(messages, upstream, listener));
+    }
+    
+    /**
+     * Run blocking work for the session, e.g. a streamed call or a tool. The work
+     * runs with the session's company, agent and deadline, and is interrupted if
+     * the session ends first.
+     * 
+     * @param <T> The result type
+     * @param work The work
+     * @return A future for the result of the work
+     */
+    public <T> CompletableFuture<T> fork(Callable<T> work) {
+        RateLimitContext rateLimitContext = RateLimitContext.of(RequestPriority.INTERACTIVE, getRemaining());
+        ForkedWork<T> forked = new ForkedWork<>();
+        return track(() -> {
+            try {
+                executor.execute(() -> forked.run(() -> rateLimitContext.call(() -> telemetryContext.call(work))));
+            } catch (RejectedExecutionException e) {
+                forked.completeExceptionally(e);
+            }
+            return forked;
+        });
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    public Agent getAgent() {
+        return agent;
+    }
+    
+    /**
+     * Get the plan compiled from the agent's protocol when the session started.
+     * 
+     * @return The plan, or null if the agent has no protocol
+     */
+    public AgentPlan getPlan() {
+        return plan;
+    }
+    
+    /**
+     * Get how long the session has been running.
+     * 
+     * @return The age of the session
+     */
+    public Duration getAge() {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Get the time left until the session's deadline.
+     * 
+     * @return The remaining time, zero once the deadline has passed
+     */
+    public Duration getRemaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+    
+    /**
+     * Check whether the session has ended.
+     * 
+     * @return true if the session finished, failed, timed out or was cancelled
+     */
+    public boolean isDone() {
+        return result.isDone();
+    }
+    
+    /**
+     * End the session with a CancellationException, cancelling its children.
+     */
+    void cancel(String reason) {
+        result.completeExceptionally(new CancellationException(reason));
+    }
+    
+    private Map<String, Object> taskParameters(Map<String, Object> parameters) {
+        Map<String, Object> upstream = parameters != null ? new HashMap<>(parameters) : new HashMap<>();
+        upstream.putIfAbsent(ModelTierChatCompletionService.TASK_PARAMETER, TASK_PREFIX + agent.getId());
+        return upstream;
+    }
+    
+    /**
+     * Start a child and tie it to the session. A child started after the session
+     * ended is cancelled straight away.
+     */
+    private <T> CompletableFuture<T> track(Supplier<CompletableFuture<T>> start) {
+        if (result.isDone()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Agent session " + id + " has ended"));
+        }
+        CompletableFuture<T> child = start.get();
+        children.add(child);
+        child.whenComplete((value, error) -> children.remove(child));
+        if (result.isDone()) {
+            child.cancel(true);
+        }
+        return child;
+    }
+    
+    private void cancelChildren() {
+        for (CompletableFuture<?> child : children) {
+            child.cancel(true);
+        }
+    }
+    
+    /**
+     * Future of forked work that interrupts the thread running it when cancelled.
+     * The runner is published, interrupted and cleared under one lock, so that an
+     * interrupt only lands while this work runs and never on the next task of the
+     * thread.
+     */
+    private static final class ForkedWork<T> extends CompletableFuture<T> {
+        
+        private final Object lock = new Object();
+        private Thread runner;
+        
+        private void run(Callable<T> work) {
+            synchronized (lock) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                complete(work.call());
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            } finally {
+                synchronized (lock) {
+                    runner = null;
+                    // Clear an interrupt aimed at this work before the thread takes the next task
+                    Thread.interrupted();
+                }
+            }
+        }
+        
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled && mayInterruptIfRunning) {
+                synchronized (lock) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.celestra.ai.agent;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The work of one agent session.
+ * 
+ * The task should return quickly with a future composed of the calls it starts
+ * through its {@link AgentSession}, so that a session waiting on a model holds
+ * no thread. Blocking work belongs in {@link AgentSession#fork}.
+ * 
+ * @param <T> The result type
+ */
+@FunctionalInterface
+public interface AgentTask<T> {
+    
+    /**
+     * Start the work of a session.
+     * 
+     * @param session The session
+     * @return A future for the result of the session
+     * @throws Exception If the work cannot be started
+     */
+    CompletableFuture<T> run(AgentSession session) throws Exception;
+}
@@ -0,0 +1,110 @@
+package com.celestra.ai.batch;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Append-only journal of the prompts of a batch that completed successfully.
+ * Each line is a JSON object with the job ID and its completion; a line torn by a
+ * crash is ignored when the journal is read back.
+ */
+class BatchCheckpoint implements Closeable {
+    
+    private static final Logger LOGGER = Logger.getLogger(BatchCheckpoint.class.getName());
+    
+    private final Path file;
+    private final Map<String, String> completions;
+    private final BufferedWriter writer;
+    
+    private BatchCheckpoint(Path file, Map<String, String> completions, BufferedWriter writer) {
+        this.file = file;
+        this.completions = completions;
+        this.writer = writer;
+    }
+    
+    /**
+     * Open a checkpoint, reading the prompts completed by earlier runs.
+     * 
+     * @param file The checkpoint file, created if it does not exist
+     * @return The checkpoint
+     * @throws IOException if the file cannot be read or opened for writing
+     */
+    static BatchCheckpoint open(Path file) throws IOException {
+        Map<String, String> completions = new HashMap<>();
+        if (Files.exists(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                    completions.put(entry.get("id").getAsString(), entry.get("completion").getAsString());
+                } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                    LOGGER.warning("Ignoring malformed checkpoint entry in " + file);
+                }
+            }
+            LOGGER.info("Resuming batch with " + completions.size() + " completed prompts from " + file);
+        } else if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return new BatchCheckpoint(file, completions, writer);
+    }
+    
+    /**
+     * Get the completion of a prompt finished by an earlier run.
+     * 
+     * @param jobId The job ID
+     * @return The completion, or null if the prompt has not completed yet
+     */
+    String getCompletion(String jobId) {
+        return completions.get(jobId);
+    }
+    
+    /**
+     * Record a completed prompt. The entry is flushed before returning.
+     * 
+     * @param jobId The job ID
+     * @param completion The completion
+     * @throws IOException if the entry cannot be written
+     */
+    synchronized void record(String jobId, String completion) throws IOException {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("id", jobId);
+        entry.addProperty("completion", completion);
+        writer.write(entry.toString());
+        writer.newLine();
+        writer.flush();
+    }
+    
+    /**
+     * Close and delete the checkpoint once the batch no longer needs to resume.
+     * 
+     * @throws IOException if the file cannot be deleted
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
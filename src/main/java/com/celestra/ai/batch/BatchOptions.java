@@ -0,0 +1,90 @@
+package com.celestra.ai.batch;
+
+import java.nio.file.Path;
+
+import com.celestra.ai.ratelimit.RequestPriority;
+import com.celestra.ai.telemetry.TelemetryContext;
+
+/**
+ * Options of a prompt batch.
+ */
+public class BatchOptions {
+    
+    private static final int DEFAULT_CONCURRENCY = 8;
+    
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private boolean ordered = true;
+    private Path checkpointFile;
+    private RequestPriority priority = RequestPriority.BATCH;
+    private TelemetryContext caller;
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    /**
+     * Set the maximum number of prompts in flight. The provider's rate limits
+     * may allow fewer to run at a time.
+     * 
+     * @param concurrency The maximum number of prompts in flight
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public boolean isOrdered() {
+        return ordered;
+    }
+    
+    /**
+     * Set whether results are handed over in job order. Unordered results are
+     * handed over as soon as they complete, so one slow prompt does not hold back
+     * the others.
+     * 
+     * @param ordered true to hand over results in job order
+     */
+    public void setOrdered(boolean ordered) {
+        this.ordered = ordered;
+    }
+    
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+    
+    /**
+     * Set the file that records completed prompts, so that a batch run again
+     * with the same file skips them.
+     * 
+     * @param checkpointFile The checkpoint file, or null to disable checkpointing
+     */
+    public void setCheckpointFile(Path checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+    
+    public RequestPriority getPriority() {
+        return priority;
+    }
+    
+    /**
+     * Set the priority of the prompts in the provider's rate-limit queue.
+     * 
+     * @param priority The priority (batch by default)
+     */
+    public void setPriority(RequestPriority priority) {
+        this.priority = priority;
+    }
+    
+    public TelemetryContext getCaller() {
+        return caller;
+    }
+    
+    /**
+     * Set the company and agent the prompts are made for. Their quotas are
+     * charged for the prompts and their usage records them.
+     * 
+     * @param caller The caller, or null for the context of the thread that runs the batch
+     */
+    public void setCaller(TelemetryContext caller) {
+        this.caller = caller;
+    }
+}
@@ -0,0 +1,70 @@
+package com.celestra.ai.batch;
+
+/**
+ * Counts of a finished prompt batch.
+ */
+public class BatchSummary {
+    
+    private final long submitted;
+    private final long succeeded;
+    private final long failed;
+    private final long resumed;
+    private final long elapsedMs;
+    
+    /**
+     * Create a new summary.
+     * 
+     * @param submitted The number of jobs read from the input
+     * @param succeeded The number of prompts completed by this run
+     * @param failed The number of prompts that failed
+     * @param resumed The number of prompts whose result came from the checkpoint
+     * @param elapsedMs The duration of the run in milliseconds
+     */
+    public BatchSummary(long submitted, long succeeded, long failed, long resumed, long elapsedMs) {
+        this.submitted = submitted;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.resumed = resumed;
+        this.elapsedMs = elapsedMs;
+    }
+    
+    public long getSubmitted() {
+        return submitted;
+    }
+    
+    public long getSucceeded() {
+        return succeeded;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public long getResumed() {
+        return resumed;
+    }
+    
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+    
+    /**
+     * Get the number of prompts completed by this run per second.
+     * 
+     * @return The throughput
+     */
+    public double getThroughputPerSecond() {
+        return elapsedMs == 0 ? 0 : (succeeded + failed) * 1000.0 / elapsedMs;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchSummary{" +
+                "submitted=" + submitted +
+                ", succeeded=" + succeeded +
+                ", failed=" + failed +
+                ", resumed=" + resumed +
+                ", elapsedMs=" + elapsedMs +
+                '}';
+    }
+}
@@ -0,0 +1,244 @@
+package com.celestra.ai.batch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ratelimit.RateLimitContext;
+import com.celestra.ai.telemetry.TelemetryContext;
+
+/**
+ * Runs large numbers of independent prompts against a ChatCompletionService.
+ * 
+ * Prompts are sent with the service's non-blocking API, so the number in flight
+ * is bounded by {@link BatchOptions#getConcurrency()} rather than by a thread
+ * pool, and they queue in the provider's rate-limit scheduler at batch priority,
+ * so interactive traffic keeps precedence while the batch uses the rest of the
+ * quota. Jobs are read from the input stream only as capacity frees up.
+ * 
+ * With a checkpoint file every completed prompt is journaled; running the same
+ * batch again with the same file hands the journaled results back without
+ * calling the provider and only sends the remaining prompts. The checkpoint is
+ * deleted once a run completes without failures.
+ */
+public class PromptBatchExecutor {
+    
+    private static final Logger LOGGER = Logger.getLogger(PromptBatchExecutor.class.getName());
+    
+    /**
+     * Callback that receives the result of each prompt. Calls are never concurrent.
+     */
+    @FunctionalInterface
+    public interface ResultHandler {
+        /**
+         * Handle the result of a prompt.
+         * 
+         * @param result The result
+         * @throws IOException if the result cannot be written downstream; the batch stops
+         */
+        void handle(PromptResult result) throws IOException;
+    }
+    
+    private final ChatCompletionService service;
+    
+    /**
+     * Create a new batch executor.
+     * 
+     * @param service The service that completes the prompts
+     */
+    public PromptBatchExecutor(ChatCompletionService service) {
+        this.service = service;
+    }
+    
+    /**
+     * Run a batch and wait for it to finish.
+     * 
+     * @param jobs The jobs; the stream is consumed lazily
+     * @param options The batch options
+     * @param handler The callback that receives the results
+     * @return The counts of the run
+     * @throws IOException if the checkpoint or the handler fails
+     * @throws InterruptedException if the calling thread is interrupted; prompts in flight are cancelled
+     */
+    public BatchSummary execute(Stream<PromptJob> jobs, BatchOptions options, ResultHandler handler)
+            throws IOException, InterruptedException {
+        if (options.getConcurrency() <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        if (options.getPriority() == null) {
+            throw new IllegalArgumentException("Priority is required");
+        }
+        
+        long start = System.nanoTime();
+        BatchCheckpoint checkpoint = options.getCheckpointFile() != null
+                ? BatchCheckpoint.open(options.getCheckpointFile()) : null;
+        Run run = new Run(options, handler, checkpoint);
+        
+        try {
+            Iterator<PromptJob> iterator = jobs.iterator();
+            long index = 0;
+            while (iterator.hasNext() && !run.isStopped()) {
+                PromptJob job = iterator.next();
+                run.permits.acquire();
+                run.submit(job, index++);
+            }
+            
+            // Every permit is back once the last result has been handed over
+            run.permits.acquire(options.getConcurrency());
+        } catch (InterruptedException e) {
+            run.cancel();
+            throw e;
+        } finally {
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+        
+        if (run.handlerError != null) {
+            if (run.handlerError instanceof IOException) {
+                throw (IOException) run.handlerError;
+            }
+            throw (RuntimeException) run.handlerError;
+        }
+        if (checkpoint != null && run.failed == 0) {
+            checkpoint.delete();
+        }
+        
+        BatchSummary summary = new BatchSummary(run.submitted, run.succeeded, run.failed, run.resumed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        LOGGER.info("Finished prompt batch: " + summary);
+        return summary;
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+    
+    /**
+     * The state of one batch run. Results are handed over under the run's lock,
+     * which keeps the handler single-threaded.
+     */
+    private class Run {
+        private final BatchOptions options;
+        private final ResultHandler handler;
+        private final BatchCheckpoint checkpoint;
+        private final RateLimitContext context;
+        private final TelemetryContext caller;
+        private final Semaphore permits;
+        private final Set<CompletableFuture<String>> inFlight = ConcurrentHashMap.newKeySet();
+        private final Map<Long, PromptResult> pending = new HashMap<>();
+        private long nextIndex;
+        private volatile boolean stopped;
+        private Exception handlerError;
+        private long submitted;
+        private long succeeded;
+        private long failed;
+        private long resumed;
+        
+        Run(BatchOptions options, ResultHandler handler, BatchCheckpoint checkpoint) {
+            this.options = options;
+            this.handler = handler;
+            this.checkpoint = checkpoint;
+            this.context = RateLimitContext.of(options.getPriority(), null);
+            this.caller = options.getCaller() != null ? options.getCaller() : TelemetryContext.current();
+            this.permits = new Semaphore(options.getConcurrency());
+        }
+        
+        boolean isStopped() {
+            return stopped;
+        }
+        
+        void submit(PromptJob job, long index) {
+            synchronized (this) {
+                submitted++;
+            }
+            
+            String completion = checkpoint != null ? checkpoint.getCompletion(job.getId()) : null;
+            if (completion != null) {
+                complete(new PromptResult(job.getId(), index, completion, null, true));
+                return;
+            }
+            
+            CompletableFuture<String> future = caller.supply(() -> context.supply(() -> job.getParameters() != null
+                    ? service.getChatCompletionAsync(job.getMessages(), job.getParameters())
+                    : service.getChatCompletionAsync(job.getMessages())));
+            inFlight.add(future);
+            future.whenComplete((value, error) -> {
+                inFlight.remove(future);
+                if (error == null) {
+                    complete(new PromptResult(job.getId(), index, value, null, false));
+                } else {
+                    Throwable cause = unwrap(error);
+                    LOGGER.warning("Prompt " + job.getId() + " failed: " + cause.getMessage());
+                    complete(new PromptResult(job.getId(), index, null, String.valueOf(cause.getMessage()), false));
+                }
+            });
+        }
+        
+        synchronized void complete(PromptResult result) {
+            if (!options.isOrdered()) {
+                emit(result);
+                return;
+            }
+            pending.put(result.getIndex(), result);
+            PromptResult next;
+            while ((next = pending.remove(nextIndex)) != null) {
+                nextIndex++;
+                emit(next);
+            }
+        }
+        
+        /**
+         * Hand a result over and give its permit back. In ordered mode a result
+         * holds its permit until it is handed over, which bounds the results
+         * buffered behind a slow prompt.
+         */
+        private void emit(PromptResult result) {
+            try {
+                if (handlerError != null) {
+                    return;
+                }
+                if (result.isResumed()) {
+                    resumed++;
+                } else if (result.isSuccess()) {
+                    succeeded++;
+                    if (checkpoint != null) {
+                        checkpoint.record(result.getJobId(), result.getCompletion());
+                    }
+                } else {
+                    failed++;
+                }
+                handler.handle(result);
+            } catch (IOException | RuntimeException e) {
+                handlerError = e;
+                cancel();
+            } finally {
+                permits.release();
+            }
+        }
+        
+        void cancel() {
+            stopped = true;
+            for (CompletableFuture<String> future : new ArrayList<>(inFlight)) {
+                future.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.celestra.ai.batch;
+
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+/**
+ * One prompt of a batch.
+ */
+public class PromptJob {
+    
+    private final String id;
+    private final List<ChatMessage> messages;
+    private final Map<String, Object> parameters;
+    
+    /**
+     * Create a job that uses the provider's default parameters.
+     * 
+     * @param id The ID of the job, unique within the batch; used to resume from a checkpoint
+     * @param messages The conversation to complete
+     */
+    public PromptJob(String id, List<ChatMessage> messages) {
+        this(id, messages, null);
+    }
+    
+    /**
+     * Create a job.
+     * 
+     * @param id The ID of the job, unique within the batch; used to resume from a checkpoint
+     * @param messages The conversation to complete
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     */
+    public PromptJob(String id, List<ChatMessage> messages, Map<String, Object> parameters) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Job ID is required");
+        }
+        this.id = id;
+        this.messages = messages;
+        this.parameters = parameters;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public List<ChatMessage> getMessages() {
+        return messages;
+    }
+    
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,64 @@
+package com.celestra.ai.batch;
+
+/**
+ * The outcome of one prompt of a batch.
+ */
+public class PromptResult {
+    
+    private final String jobId;
+    private final long index;
+    private final String completion;
+    private final String error;
+    private final boolean resumed;
+    
+    /**
+     * Create a new result.
+     * 
+     * @param jobId The ID of the job
+     * @param index The position of the job in the batch, starting at 0
+     * @param completion The completion, or null if the job failed
+     * @param error The error message, or null if the job succeeded
+     * @param resumed Whether the result was read from the checkpoint instead of computed
+     */
+    public PromptResult(String jobId, long index, String completion, String error, boolean resumed) {
+        this.jobId = jobId;
+        this.index = index;
+        this.completion = completion;
+        this.error = error;
+        this.resumed = resumed;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public long getIndex() {
+        return index;
+    }
+    
+    public String getCompletion() {
+        return completion;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isSuccess() {
+        return error == null;
+    }
+    
+    public boolean isResumed() {
+        return resumed;
+    }
+    
+    @Override
+    public String toString() {
+        return "PromptResult{" +
+                "jobId='" + jobId + '\'' +
+                ", index=" + index +
+                ", success=" + isSuccess() +
+                ", resumed=" + resumed +
+                '}';
+    }
+}
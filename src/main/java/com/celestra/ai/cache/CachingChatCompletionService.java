@@ -0,0 +1,254 @@
+package com.celestra.ai.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * ChatCompletionService decorator that caches deterministic completions.
+ * 
+ * Caching is opt-in per call: pass {@link #CACHE_PARAMETER} = true in the
+ * parameters, and optionally {@link #CACHE_TTL_PARAMETER} to override the default
+ * time to live. Both are removed before the call reaches the provider. The cache
+ * key is a SHA-256 hash of the provider, model, messages and remaining parameters,
+ * so any change to the prompt or sampling settings is a different entry.
+ * 
+ * Concurrent calls with the same key share a single upstream call.
+ */
+public class CachingChatCompletionService implements ChatCompletionService {
+    
+    /**
+     * Parameter that enables caching for a call
+     */
+    public static final String CACHE_PARAMETER = "cache";
+    
+    /**
+     * Parameter that sets the time to live of the cached completion, in seconds
+     */
+    public static final String CACHE_TTL_PARAMETER = "cache_ttl_seconds";
+    
+    private final ChatCompletionService delegate;
+    private final String provider;
+    private final String model;
+    private final CompletionCache cache;
+    private final long defaultTtlMillis;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final Gson gson = new Gson();
+    
+    /**
+     * Create a new caching service.
+     * 
+     * @param delegate The service that produces completions on a miss
+     * @param provider The provider name, part of the cache key
+     * @param model The model name, part of the cache key
+     * @param cache The cache
+     * @param defaultTtlSeconds The time to live of entries when the call does not set one
+     */
+    public CachingChatCompletionService(ChatCompletionService delegate, String provider, String model,
+                                        CompletionCache cache, long defaultTtlSeconds) {
+        this.delegate = delegate;
+        this.provider = provider;
+        this.model = model;
+        this.cache = cache;
+        this.defaultTtlMillis = TimeUnit.SECONDS.toMillis(defaultTtlSeconds);
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages) throws Exception {
+        return delegate.getChatCompletion(messages);
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
+        Map<String, Object> upstream = stripCacheParameters(parameters);
+        if (!isCacheEnabled(parameters)) {
+            return delegate.getChatCompletion(messages, upstream);
+        }
+        
+        String key = computeKey(messages, upstream);
+        String cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+        
+        try {
+            // Another flight for this key may have filled the cache since the first lookup
+            String completion = cache.get(key);
+            if (completion == null) {
+                completion = delegate.getChatCompletion(messages, upstream);
+                cache.put(key, completion, getTtlMillis(parameters));
+            }
+            flight.complete(completion);
+            return completion;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return delegate.getChatCompletionAsync(messages);
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        Map<String, Object> upstream = stripCacheParameters(parameters);
+        if (!isCacheEnabled(parameters)) {
+            return delegate.getChatCompletionAsync(messages, upstream);
+        }
+        
+        String key = computeKey(messages, upstream);
+        String cached = cache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            long ttlMillis = getTtlMillis(parameters);
+            delegate.getChatCompletionAsync(messages, upstream).whenComplete((completion, error) -> {
+                if (error == null) {
+                    cache.put(key, completion, ttlMillis);
+                }
+                inFlight.remove(key, flight);
+                if (error == null) {
+                    flight.complete(completion);
+                } else {
+                    flight.completeExceptionally(error);
+                }
+            });
+            existing = flight;
+        }
+        
+        // Callers get a dependent future, so one caller cancelling does not fail the others
+        return existing.thenApply(completion -> completion);
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        return delegate.streamChatCompletion(messages, listener);
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        Map<String, Object> upstream = stripCacheParameters(parameters);
+        if (isCacheEnabled(parameters)) {
+            String cached = cache.get(computeKey(messages, upstream));
+            if (cached != null) {
+                listener.onDelta(cached);
+                listener.onComplete(cached);
+                return cached;
+            }
+            String completion = delegate.streamChatCompletion(messages, upstream, listener);
+            cache.put(computeKey(messages, upstream), completion, getTtlMillis(parameters));
+            return completion;
+        }
+        return delegate.streamChatCompletion(messages, upstream, listener);
+    }
+    
+    /**
+     * Get a chat completion with tools. Tool conversations are not cached, since
+     * the tools' results change between calls.
+     */
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        return delegate.getToolCompletion(messages, stripCacheParameters(parameters), tools);
+    }
+    
+    /**
+     * Compute the cache key of a call.
+     * 
+     * @param messages The messages
+     * @param parameters The parameters sent to the provider
+     * @return The hex-encoded SHA-256 hash
+     */
+    public String computeKey(List<ChatMessage> messages, Map<String, Object> parameters) {
+        JsonObject json = new JsonObject();
+        json.addProperty("provider", provider);
+        json.addProperty("model", model);
+        
+        JsonArray messageArray = new JsonArray();
+        for (ChatMessage message : messages) {
+            JsonObject messageObject = new JsonObject();
+            messageObject.addProperty("role", message.getRole());
+            messageObject.addProperty("content", message.getContent());
+            messageArray.add(messageObject);
+        }
+        json.add("messages", messageArray);
+        
+        // Sorted so that parameter order does not change the key
+        json.add("parameters", gson.toJsonTree(new TreeMap<>(parameters)));
+        
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(json.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private boolean isCacheEnabled(Map<String, Object> parameters) {
+        Object value = parameters.get(CACHE_PARAMETER);
+        return Boolean.TRUE.equals(value) || "true".equals(value);
+    }
+    
+    private long getTtlMillis(Map<String, Object> parameters) {
+        Object value = parameters.get(CACHE_TTL_PARAMETER);
+        if (value instanceof Number) {
+            return TimeUnit.SECONDS.toMillis(((Number) value).longValue());
+        }
+        return defaultTtlMillis;
+    }
+    
+    private Map<String, Object> stripCacheParameters(Map<String, Object> parameters) {
+        Map<String, Object> upstream = new HashMap<>(parameters);
+        upstream.remove(CACHE_PARAMETER);
+        upstream.remove(CACHE_TTL_PARAMETER);
+        return upstream;
+    }
+    
+    private String await(CompletableFuture<String> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.celestra.ai.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Two-tier cache of completions keyed by content hash.
+ * 
+ * The first tier is a bounded in-memory LRU map. The second tier stores one small
+ * JSON file per key on local disk, so entries survive restarts and are shared by
+ * every instance on the host. Disk hits are promoted to memory. Both tiers honour
+ * the expiry time of each entry.
+ * 
+ * The disk tier is bounded by {@link #sweep()}, which deletes expired files and
+ * then the least recently used ones until the tier fits its size limit. A disk
+ * hit touches the modification time of its file, so the files read least
+ * recently go first. Between sweeps the tier may grow past the limit.
+ */
+public class CompletionCache {
+    
+    private static final Logger LOGGER = Logger.getLogger(CompletionCache.class.getName());
+    
+    /**
+     * Age after which a temporary file is left over from a write that never finished
+     */
+    private static final long STALE_TEMP_MILLIS = TimeUnit.HOURS.toMillis(1);
+    
+    /**
+     * A cached completion with its expiry time.
+     */
+    private static class Entry {
+        private final String completion;
+        private final long expiresAt;
+        
+        Entry(String completion, long expiresAt) {
+            this.completion = completion;
+            this.expiresAt = expiresAt;
+        }
+        
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+    
+    /**
+     * An entry file seen by a sweep.
+     */
+    private static class DiskFile {
+        private final Path path;
+        private final long size;
+        private final long modified;
+        
+        DiskFile(Path path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+    
+    private final Map<String, Entry> memory;
+    private final Path directory;
+    private final long maxDiskBytes;
+    
+    /**
+     * Create a new cache.
+     * 
+     * @param memoryEntries The maximum number of entries in the memory tier
+     * @param directory The directory of the disk tier, or null to cache in memory only
+     * @param maxDiskBytes The size the disk tier is reduced to by each sweep
+     */
+    public CompletionCache(int memoryEntries, Path directory, long maxDiskBytes) {
+        if (memoryEntries <= 0) {
+            throw new IllegalArgumentException("Memory entries must be positive");
+        }
+        if (maxDiskBytes <= 0) {
+            throw new IllegalArgumentException("Max disk bytes must be positive");
+        }
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+    }
+    
+    /**
+     * Look up a completion.
+     * 
+     * @param key The content hash
+     * @return The completion, or null if it is not cached or has expired
+     */
+    public String get(String key) {
+        long now = System.currentTimeMillis();
+        
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(now)) {
+                    return entry.completion;
+                }
+                memory.remove(key);
+            }
+        }
+        
+        Entry entry = readFromDisk(key, now);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        return entry.completion;
+    }
+    
+    /**
+     * Store a completion in both tiers.
+     * 
+     * @param key The content hash
+     * @param completion The completion
+     * @param ttlMillis The time to live in milliseconds
+     */
+    public void put(String key, String completion, long ttlMillis) {
+        Entry entry = new Entry(completion, System.currentTimeMillis() + ttlMillis);
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        writeToDisk(key, entry);
+    }
+    
+    /**
+     * Remove a completion from both tiers.
+     * 
+     * @param key The content hash
+     */
+    public void invalidate(String key) {
+        synchronized (memory) {
+            memory.remove(key);
+        }
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(getPath(key));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete cached completion " + key, e);
+            }
+        }
+    }
+    
+    /**
+     * Get the number of entries in the memory tier.
+     * 
+     * @return The number of entries
+     */
+    public int getMemorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+    
+    /**
+     * Bound the disk tier: delete expired and unreadable entries and temporary
+     * files left by failed writes, then the least recently used entries until the
+     * tier fits its size limit. An entry rewritten while the sweep runs may be
+     * deleted too, which only costs a cache miss.
+     * 
+     * @return The number of files deleted
+     */
+    public int sweep() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return 0;
+        }
+        
+        long now = System.currentTimeMillis();
+        List<Path> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            files.filter(Files::isRegularFile).forEach(paths::add);
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.log(Level.WARNING, "Could not list the completion cache in " + directory, e);
+            return 0;
+        }
+        
+        int deleted = 0;
+        long diskBytes = 0;
+        List<DiskFile> live = new ArrayList<>();
+        for (Path path : paths) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                long modified = attributes.lastModifiedTime().toMillis();
+                boolean entry = path.getFileName().toString().endsWith(".json");
+                if (entry ? isExpired(path, now) : now - modified > STALE_TEMP_MILLIS) {
+                    deleted += Files.deleteIfExists(path) ? 1 : 0;
+                } else if (entry) {
+                    live.add(new DiskFile(path, attributes.size(), modified));
+                    diskBytes += attributes.size();
+                }
+            } catch (IOException e) {
+                // Usually already deleted, e.g. invalidated; anything else is retried by the next sweep
+            }
+        }
+        
+        live.sort(Comparator.comparingLong(file -> file.modified));
+        for (int i = 0; i < live.size() && diskBytes > maxDiskBytes; i++) {
+            DiskFile file = live.get(i);
+            try {
+                deleted += Files.deleteIfExists(file.path) ? 1 : 0;
+                diskBytes -= file.size;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not delete cached completion " + file.path, e);
+            }
+        }
+        
+        LOGGER.fine("Swept completion cache: deleted " + deleted + " files, " + diskBytes + " bytes left");
+        return deleted;
+    }
+    
+    private static boolean isExpired(Path path, long now) throws IOException {
+        try {
+            JsonObject json = JsonParser.parseString(Files.readString(path, StandardCharsets.UTF_8)).getAsJsonObject();
+            return now >= json.get("expiresAt").getAsLong();
+        } catch (RuntimeException e) {
+            // A corrupt entry is never served, so it is swept like an expired one
+            return true;
+        }
+    }
+    
+    private Entry readFromDisk(String key, long now) {
+        if (directory == null) {
+            return null;
+        }
+        
+        Path path = getPath(key);
+        try {
+            JsonObject json = JsonParser.parseString(Files.readString(path, StandardCharsets.UTF_8)).getAsJsonObject();
+            Entry entry = new Entry(json.get("completion").getAsString(), json.get("expiresAt").getAsLong());
+            if (entry.isExpired(now)) {
+                Files.deleteIfExists(path);
+                return null;
+            }
+            touch(path, now);
+            return entry;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // A corrupt entry is treated as a miss and replaced on the next put
+            LOGGER.log(Level.WARNING, "Could not read cached completion " + key, e);
+            return null;
+        }
+    }
+    
+    private void writeToDisk(String key, Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        
+        JsonObject json = new JsonObject();
+        json.addProperty("expiresAt", entry.expiresAt);
+        json.addProperty("completion", entry.completion);
+        
+        Path path = getPath(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            try {
+                Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // The disk tier is best effort; the memory tier still holds the entry
+            LOGGER.log(Level.WARNING, "Could not write cached completion " + key, e);
+        }
+    }
+    
+    /**
+     * Mark a file as recently used, so that sweeps evict it last.
+     */
+    private static void touch(Path path, long now) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+        } catch (IOException e) {
+            // Only affects the order of eviction
+        }
+    }
+    
+    /**
+     * Get the file of a key. Keys are fanned out over 256 sub-directories.
+     */
+    private Path getPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+}
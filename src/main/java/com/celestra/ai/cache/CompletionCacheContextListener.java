@@ -0,0 +1,73 @@
+package com.celestra.ai.cache;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.celestra.ai.ChatCompletionServiceFactory;
+import com.celestra.ai.config.AIConfigurationManager;
+
+/**
+ * Context listener that periodically sweeps the on-disk tier of the completion
+ * cache, so that it stays within its size limit and expired entries that are
+ * never read again are deleted. The first sweep runs when the application
+ * starts, since the tier outlives restarts.
+ */
+@WebListener
+public class CompletionCacheContextListener implements ServletContextListener {
+
+    private static final Logger LOGGER = Logger.getLogger(CompletionCacheContextListener.class.getName());
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Called when the web application is starting.
+     * Schedules the sweeps at the configured interval.
+     *
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        int intervalMinutes = AIConfigurationManager.getInstance().getCacheSweepMinutes();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-cache-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(CompletionCacheContextListener::sweep, 0, intervalMinutes,
+                TimeUnit.MINUTES);
+        LOGGER.info("AI completion cache sweep scheduled every " + intervalMinutes + " minutes");
+    }
+
+    /**
+     * Called when the web application is shutting down.
+     * Stops the sweeps.
+     *
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            LOGGER.info("AI completion cache sweep stopped");
+        }
+    }
+
+    /**
+     * Sweep the cache. Failures are logged so that the scheduled executor keeps
+     * running the task.
+     */
+    private static void sweep() {
+        try {
+            ChatCompletionServiceFactory.getCompletionCache().sweep();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error sweeping the AI completion cache", e);
+        }
+    }
+}
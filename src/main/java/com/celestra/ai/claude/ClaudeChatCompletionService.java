@@ -1,30 +1,48 @@
 package com.celestra.ai.claude;
 
+import com.celestra.ai.AsyncRetryExecutor;
 import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.TokenUsage;
 import com.celestra.ai.config.AIConfigurationManager;
-import com.celestra.ai.http.DefaultHttpClientWrapper;
+import com.celestra.ai.context.ContextFitter;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.http.HttpClientRegistry;
 import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.ServerSentEventReader;
 import com.celestra.ai.exception.AIServiceException;
 import com.celestra.ai.exception.AuthenticationException;
 import com.celestra.ai.exception.InvalidRequestException;
 import com.celestra.ai.exception.RateLimitException;
 import com.celestra.ai.exception.ServerException;
+import com.celestra.ai.telemetry.CallTelemetry;
+import com.celestra.ai.tool.ToolCall;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Implementation of the ChatCompletionService interface for Claude.
@@ -36,17 +54,29 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
     private static final String API_VERSION = "2023-06-01";
     private static final int DEFAULT_TIMEOUT_SECONDS = 60;
     
+    // The API accepts at most four cache_control breakpoints per request
+    private static final int MAX_CACHE_BREAKPOINTS = 4;
+    
+    // The usage fields in the order of TokenUsage.record
+    private static final List<String> USAGE_FIELDS = List.of(
+            "input_tokens", "output_tokens", "cache_creation_input_tokens", "cache_read_input_tokens");
+    
     private final AIConfigurationManager configManager;
     private final HttpClientWrapper httpClient;
+    private final AsyncRetryExecutor retryExecutor;
     private final Gson gson;
+    private final ContextFitter contextFitter;
+    private final TokenUsage tokenUsage = new TokenUsage();
     
     /**
      * Create a new Claude chat completion service.
      */
     public ClaudeChatCompletionService() {
         this.configManager = AIConfigurationManager.getInstance();
-        this.httpClient = new DefaultHttpClientWrapper(DEFAULT_TIMEOUT_SECONDS);
+        this.httpClient = HttpClientRegistry.getInstance().getClient(HttpClientRegistry.CLAUDE);
+        this.retryExecutor = new AsyncRetryExecutor();
         this.gson = new Gson();
+        this.contextFitter = new ContextFitter(new TokenEstimator());
     }
     
     /**
@@ -54,55 +84,54 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
      * This constructor is primarily used for testing.
      */
     public ClaudeChatCompletionService(AIConfigurationManager configManager, HttpClientWrapper httpClient) {
+        this(configManager, httpClient, new AsyncRetryExecutor());
+    }
+    
+    /**
+     * Create a new Claude chat completion service with a custom HTTP client wrapper and
+     * retry executor for asynchronous calls.
+     * This constructor is primarily used for testing.
+     */
+    public ClaudeChatCompletionService(AIConfigurationManager configManager, HttpClientWrapper httpClient,
+                                       AsyncRetryExecutor retryExecutor) {
         this.configManager = configManager;
         this.httpClient = httpClient;
+        this.retryExecutor = retryExecutor;
         this.gson = new Gson();
+        this.contextFitter = new ContextFitter(new TokenEstimator());
     }
     
     @Override
     public String getChatCompletion(List<ChatMessage> messages) throws Exception {
-        Map<String, Object> parameters = new HashMap<>();
-        parameters.put("temperature", configManager.getClaudeTemperature());
-        parameters.put("max_tokens", configManager.getClaudeMaxTokens());
-        parameters.put("top_p", configManager.getClaudeTopP());
-        
-        return getChatCompletion(messages, parameters);
+        return getChatCompletion(messages, getDefaultParameters());
     }
     
     @Override
     public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
-        String apiKey = configManager.getClaudeApiKey();
-        if (apiKey == null || apiKey.isEmpty() || "your-claude-api-key".equals(apiKey)) {
-            throw new AuthenticationException("Claude API key is not configured");
-        }
-        
-        // Prepare the request body
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", configManager.getClaudeModel());
-        requestBody.put("messages", convertMessages(messages));
-        
-        // Add parameters
-        if (parameters.containsKey("temperature")) {
-            requestBody.put("temperature", parameters.get("temperature"));
-        }
-        if (parameters.containsKey("max_tokens")) {
-            requestBody.put("max_tokens", parameters.get("max_tokens"));
-        }
-        if (parameters.containsKey("top_p")) {
-            requestBody.put("top_p", parameters.get("top_p"));
-        }
-        
-        String requestBodyJson = gson.toJson(requestBody);
-        
-        // Create the HTTP request
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(API_URL))
-                .header("Content-Type", "application/json")
-                .header("x-api-key", apiKey)
-                .header("anthropic-version", API_VERSION)
-                .POST(HttpRequest.BodyPublishers.ofString(requestBodyJson))
-                .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
-                .build();
+        HttpRequest request = createRequest(messages, parameters, false);
+        CallTelemetry telemetry = CallTelemetry.current();
+        return send(request, response -> handleResponse(response, telemetry));
+    }
+    
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        HttpRequest request = createRequest(messages, parameters, false, tools);
+        CallTelemetry telemetry = CallTelemetry.current();
+        return send(request, response -> handleResponse(response, body -> extractToolCompletion(body, telemetry)));
+    }
+    
+    /**
+     * Send a request, retrying on rate limits, server errors and I/O errors.
+     * 
+     * @param <T> The result type
+     * @param request The HTTP request
+     * @param handler Turns the response into the result, or throws for an error response
+     * @return The result
+     * @throws Exception If the request fails after all retries, or with an error that is not retried
+     */
+    private <T> T send(HttpRequest request, ResponseHandler<T> handler) throws Exception {
+        CallTelemetry telemetry = CallTelemetry.current();
         
         // Execute the request with retry logic
         int maxRetries = configManager.getClaudeRetryAttempts();
@@ -112,12 +141,13 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
         for (int attempt = 0; attempt <= maxRetries; attempt++) {
             try {
                 if (attempt > 0) {
+                    telemetry.recordRetry();
                     LOGGER.info("Retrying Claude API call (attempt " + attempt + " of " + maxRetries + ")");
                     Thread.sleep(retryDelayMs * attempt); // Exponential backoff
                 }
                 
                 HttpClientWrapper.SimpleHttpResponse response = httpClient.sendRequest(request);
-                return handleResponse(response);
+                return handler.handle(response);
             } catch (RateLimitException e) {
                 LOGGER.warning("Rate limit exceeded: " + e.getMessage());
                 lastException = e;
@@ -126,7 +156,14 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
                 if (retryAfter > 0) {
                     Thread.sleep(retryAfter);
                 }
-            } catch (IOException | InterruptedException e) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+                    // The call was cancelled, e.g. because its session ended; don't place it again
+                    throw e;
+                }
                 LOGGER.log(Level.WARNING, "Error calling Claude API", e);
                 lastException = e;
             } catch (AIServiceException e) {
@@ -148,63 +185,389 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
         throw new AIServiceException("Failed to get chat completion");
     }
     
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return getChatCompletionAsync(messages, getDefaultParameters());
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        HttpRequest request;
+        try {
+            request = createRequest(messages, parameters, false);
+        } catch (AuthenticationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        // The response is handled on an HTTP thread, which has no telemetry installed
+        CallTelemetry telemetry = CallTelemetry.current();
+        return retryExecutor.execute(
+                () -> httpClient.sendRequestAsync(request).thenApply(response -> {
+                    try {
+                        return handleResponse(response, telemetry);
+                    } catch (AIServiceException e) {
+                        throw new CompletionException(e);
+                    }
+                }),
+                configManager.getClaudeRetryAttempts(),
+                configManager.getClaudeRetryDelayMs(),
+                "Claude");
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        return streamChatCompletion(messages, getDefaultParameters(), listener);
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        HttpRequest request = createRequest(messages, parameters, true);
+        CallTelemetry telemetry = CallTelemetry.current();
+        
+        // Retry only until the first fragment has been delivered; after that a
+        // retry would repeat text the listener has already received
+        int maxRetries = configManager.getClaudeRetryAttempts();
+        int retryDelayMs = configManager.getClaudeRetryDelayMs();
+        
+        Exception lastException = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            StringBuilder completion = new StringBuilder();
+            try {
+                if (attempt > 0) {
+                    telemetry.recordRetry();
+                    LOGGER.info("Retrying Claude streaming call (attempt " + attempt + " of " + maxRetries + ")");
+                    Thread.sleep(retryDelayMs * attempt); // Exponential backoff
+                }
+                
+                try (HttpClientWrapper.StreamingHttpResponse response = httpClient.sendStreamingRequest(request)) {
+                    if (response.statusCode() != 200) {
+                        handleResponse(new HttpClientWrapper.SimpleHttpResponse(
+                                response.statusCode(), response.readBody(), response.headers()), telemetry);
+                    }
+                    readStream(response.body(), completion, listener, telemetry);
+                }
+                
+                String result = completion.toString();
+                listener.onComplete(result);
+                return result;
+            } catch (RateLimitException e) {
+                LOGGER.warning("Rate limit exceeded: " + e.getMessage());
+                lastException = e;
+                long retryAfter = e.getRetryAfterMs();
+                if (retryAfter > 0) {
+                    Thread.sleep(retryAfter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+                    // The call was cancelled, e.g. because its session ended; don't place it again
+                    throw e;
+                }
+                if (completion.length() > 0) {
+                    throw new AIServiceException("Claude stream interrupted after partial response", e);
+                }
+                LOGGER.log(Level.WARNING, "Error calling Claude API", e);
+                lastException = e;
+            } catch (AIServiceException e) {
+                if (e instanceof AuthenticationException || e instanceof InvalidRequestException
+                        || completion.length() > 0) {
+                    throw e;
+                }
+                LOGGER.log(Level.WARNING, "Claude API error: " + e.getMessage(), e);
+                lastException = e;
+            }
+        }
+        
+        if (lastException != null) {
+            throw new AIServiceException("Failed to stream chat completion after " + maxRetries + " retries",
+                    lastException);
+        }
+        
+        throw new AIServiceException("Failed to stream chat completion");
+    }
+    
+    /**
+     * Get the tokens used by this service's calls, including prompt cache writes
+     * and hits.
+     * 
+     * @return The running token totals
+     */
+    public TokenUsage getTokenUsage() {
+        return tokenUsage;
+    }
+    
+    /**
+     * Get the default parameters from the configuration.
+     * 
+     * @return The default parameters
+     */
+    private Map<String, Object> getDefaultParameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("temperature", configManager.getClaudeTemperature());
+        parameters.put("max_tokens", configManager.getClaudeMaxTokens());
+        parameters.put("top_p", configManager.getClaudeTopP());
+        return parameters;
+    }
+    
+    /**
+     * Get the number of tokens the completion may use, which the prompt must leave free.
+     * 
+     * @param parameters Custom parameters for the API call
+     * @return The number of tokens
+     */
+    private int getReservedTokens(Map<String, Object> parameters) {
+        Object value = parameters.get("max_tokens");
+        return value instanceof Number ? ((Number) value).intValue() : configManager.getClaudeMaxTokens();
+    }
+    
+    /**
+     * Create the HTTP request for a chat completion.
+     * 
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call
+     * @param stream Whether the response should be streamed as server-sent events
+     * @return The HTTP request
+     * @throws AuthenticationException If the API key is not configured
+     */
+    private HttpRequest createRequest(List<ChatMessage> messages, Map<String, Object> parameters, boolean stream)
+            throws AuthenticationException {
+        return createRequest(messages, parameters, stream, List.of());
+    }
+    
+    /**
+     * Create the HTTP request for a chat completion with tools.
+     * 
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call
+     * @param stream Whether the response should be streamed as server-sent events
+     * @param tools The tools the model may call
+     * @return The HTTP request
+     * @throws AuthenticationException If the API key is not configured
+     */
+    private HttpRequest createRequest(List<ChatMessage> messages, Map<String, Object> parameters, boolean stream,
+                                      List<ToolDefinition> tools) throws AuthenticationException {
+        String apiKey = configManager.getClaudeApiKey();
+        if (apiKey == null || apiKey.isEmpty() || "your-claude-api-key".equals(apiKey)) {
+            throw new AuthenticationException("Claude API key is not configured");
+        }
+        
+        // Prepare the request body
+        Map<String, Object> requestBody = new HashMap<>();
+        // A "model" parameter, e.g. from model tier routing, overrides the configured model
+        String model = parameters.get("model") instanceof String
+                ? (String) parameters.get("model") : configManager.getClaudeModel();
+        requestBody.put("model", model);
+        CallTelemetry.current().setModel(model);
+        // Trim the prompt here rather than have the API reject it as too long
+        List<ChatMessage> fitted = contextFitter.fit(messages, configManager.getClaudeTokenLimit(), getReservedTokens(parameters));
+        int skippedBreakpoints = Math.max(0, countCacheable(fitted) - MAX_CACHE_BREAKPOINTS);
+        List<Map<String, Object>> system = convertSystemMessages(fitted, skippedBreakpoints);
+        if (!system.isEmpty()) {
+            requestBody.put("system", system);
+        }
+        requestBody.put("messages", convertMessages(fitted, skippedBreakpoints));
+        if (!tools.isEmpty()) {
+            requestBody.put("tools", convertTools(tools));
+        }
+        
+        // Add parameters
+        if (parameters.containsKey("temperature")) {
+            requestBody.put("temperature", parameters.get("temperature"));
+        }
+        // The API requires max_tokens, so calls that only set e.g. a model still get the configured limit
+        requestBody.put("max_tokens", getReservedTokens(parameters));
+        if (parameters.containsKey("top_p")) {
+            requestBody.put("top_p", parameters.get("top_p"));
+        }
+        
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+        
+        String requestBodyJson = gson.toJson(requestBody);
+        
+        // Create the HTTP request
+        String apiUrl = configManager.getClaudeApiUrl();
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl != null ? apiUrl : API_URL))
+                .header("Content-Type", "application/json")
+                .header("x-api-key", apiKey)
+                .header("anthropic-version", API_VERSION)
+                .POST(HttpRequest.BodyPublishers.ofString(requestBodyJson))
+                .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
+                .build();
+    }
+    
+    /**
+     * Convert the system messages to the blocks of the top-level system field.
+     * 
+     * @param messages The list of chat messages
+     * @param skippedBreakpoints The number of leading cacheable messages not to mark
+     * @return The system blocks, empty if there are no system messages
+     */
+    private List<Map<String, Object>> convertSystemMessages(List<ChatMessage> messages, int skippedBreakpoints) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        int cacheable = 0;
+        
+        for (ChatMessage message : messages) {
+            boolean breakpoint = message.isCacheable() && cacheable++ >= skippedBreakpoints;
+            if ("system".equals(message.getRole())) {
+                result.add(textBlock(message.getContent(), breakpoint));
+            }
+        }
+        
+        return result;
+    }
+    
     /**
      * Convert a list of ChatMessage objects to the format expected by the Claude API.
+     * System messages are left out, since they go in the top-level system field, and
+     * consecutive tool results are combined into one user message of tool_result blocks.
      * 
      * @param messages The list of chat messages
+     * @param skippedBreakpoints The number of leading cacheable messages not to mark
      * @return A list of maps representing the messages in the Claude API format
      */
-    private List<Map<String, String>> convertMessages(List<ChatMessage> messages) {
-        List<Map<String, String>> result = new ArrayList<>();
+    private List<Map<String, Object>> convertMessages(List<ChatMessage> messages, int skippedBreakpoints) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        List<Map<String, Object>> toolResults = null;
+        int cacheable = 0;
         
-        // Claude API expects a specific format for messages
         for (ChatMessage message : messages) {
-            Map<String, String> messageMap = new HashMap<>();
-            
-            // Map our roles to Claude's roles
+            boolean breakpoint = message.isCacheable() && cacheable++ >= skippedBreakpoints;
             String role = message.getRole();
             if ("system".equals(role)) {
-                // For Claude, system messages are handled differently
-                // We'll add them as user messages with a special prefix
-                messageMap.put("role", "user");
-                messageMap.put("content", "<system>\n" + message.getContent() + "\n</system>");
-            } else if ("assistant".equals(role)) {
-                messageMap.put("role", "assistant");
-                messageMap.put("content", message.getContent());
-            } else if ("user".equals(role)) {
-                messageMap.put("role", "user");
-                messageMap.put("content", message.getContent());
+                continue;
+            }
+            
+            if ("tool".equals(role)) {
+                // The results of one turn's tool calls all go in the next user message
+                if (toolResults == null) {
+                    toolResults = new ArrayList<>();
+                    result.add(Map.of("role", "user", "content", toolResults));
+                }
+                toolResults.add(Map.of("type", "tool_result", "tool_use_id", message.getToolCallId(),
+                        "content", message.getContent() != null ? message.getContent() : ""));
+                continue;
+            }
+            toolResults = null;
+            
+            Map<String, Object> messageMap = new HashMap<>();
+            // Default to user role for unknown roles
+            messageMap.put("role", "assistant".equals(role) ? "assistant" : "user");
+            if (message.getToolCalls() != null) {
+                List<Map<String, Object>> blocks = new ArrayList<>();
+                if (message.getContent() != null && !message.getContent().isEmpty()) {
+                    blocks.add(textBlock(message.getContent(), breakpoint));
+                }
+                for (ToolCall call : message.getToolCalls()) {
+                    blocks.add(Map.of("type", "tool_use", "id", call.getId(), "name", call.getName(),
+                            "input", parseArguments(call.getArguments())));
+                }
+                messageMap.put("content", blocks);
+            } else if (breakpoint) {
+                // Only content blocks can carry cache_control
+                messageMap.put("content", List.of(textBlock(message.getContent(), true)));
             } else {
-                // Default to user role for unknown roles
-                messageMap.put("role", "user");
                 messageMap.put("content", message.getContent());
             }
-            
             result.add(messageMap);
         }
         
         return result;
     }
     
+    /**
+     * Convert tool definitions to the tools of the Claude API.
+     */
+    private static List<Map<String, Object>> convertTools(List<ToolDefinition> tools) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ToolDefinition tool : tools) {
+            result.add(Map.of(
+                    "name", tool.getName(),
+                    "description", tool.getDescription(),
+                    "input_schema", tool.getParameters().toJsonSchema()));
+        }
+        return result;
+    }
+    
+    /**
+     * Parse the arguments of an earlier tool call, which the API expects as an object.
+     */
+    private static JsonObject parseArguments(String arguments) {
+        try {
+            JsonElement json = JsonParser.parseString(arguments != null ? arguments : "{}");
+            return json.isJsonObject() ? json.getAsJsonObject() : new JsonObject();
+        } catch (JsonParseException e) {
+            return new JsonObject();
+        }
+    }
+    
+    /**
+     * Create a text content block.
+     * 
+     * @param text The text
+     * @param cacheBreakpoint Whether the prompt up to and including this block should be cached
+     * @return The content block
+     */
+    private static Map<String, Object> textBlock(String text, boolean cacheBreakpoint) {
+        Map<String, Object> block = new HashMap<>();
+        block.put("type", "text");
+        block.put("text", text);
+        if (cacheBreakpoint) {
+            block.put("cache_control", Map.of("type", "ephemeral"));
+        }
+        return block;
+    }
+    
+    private static int countCacheable(List<ChatMessage> messages) {
+        int count = 0;
+        for (ChatMessage message : messages) {
+            if (message.isCacheable()) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
     /**
      * Handle the HTTP response from the Claude API.
      * 
      * @param response The HTTP response
+     * @param telemetry The telemetry of the call, which receives the token usage
      * @return The generated text
      * @throws AIServiceException If an error occurs
      */
-    private String handleResponse(HttpClientWrapper.SimpleHttpResponse response) throws AIServiceException {
+    private String handleResponse(HttpClientWrapper.SimpleHttpResponse response, CallTelemetry telemetry)
+            throws AIServiceException {
+        return handleResponse(response, body -> extractResponseText(body, telemetry));
+    }
+    
+    /**
+     * Handle the HTTP response from the Claude API.
+     * 
+     * @param <T> The result type
+     * @param response The HTTP response
+     * @param parser Reads the result from the body of a successful response
+     * @return The result
+     * @throws AIServiceException If an error occurs
+     */
+    private <T> T handleResponse(HttpClientWrapper.SimpleHttpResponse response, BodyParser<T> parser)
+            throws AIServiceException {
         int statusCode = response.statusCode();
-        String responseBody = response.body();
         
         if (statusCode == 200) {
             try {
-                return extractResponseText(responseBody);
+                return parser.parse(response.bodyStream());
             } catch (Exception e) {
                 throw new AIServiceException("Failed to parse Claude API response", e);
             }
         } else {
-            String errorMessage = extractErrorMessage(responseBody);
+            String errorMessage = extractErrorMessage(response.body());
             
             switch (statusCode) {
                 case 400:
@@ -235,26 +598,195 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
     }
     
     /**
-     * Extract the generated text from the Claude API response.
+     * Extract the generated text from the Claude API response and record its token usage.
+     * 
+     * The body is read with a streaming reader that only keeps content[0].text and
+     * the usage counts and skips every other field, so no tree of the response is
+     * built.
      * 
      * @param responseBody The response body
+     * @param telemetry The telemetry of the call
      * @return The generated text
      * @throws Exception If an error occurs
      */
-    private String extractResponseText(String responseBody) throws Exception {
-        JsonObject jsonResponse = JsonParser.parseString(responseBody).getAsJsonObject();
+    private String extractResponseText(InputStream responseBody, CallTelemetry telemetry) throws Exception {
+        String text = null;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("content".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    text = readFirstText(reader);
+                } else if ("usage".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    readUsage(reader, telemetry);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        
+        if (text == null) {
+            throw new AIServiceException("No content found in Claude API response");
+        }
+        return text;
+    }
+    
+    /**
+     * Extract the text and the tool calls from the Claude API response and record its token usage.
+     * 
+     * @param responseBody The response body
+     * @param telemetry The telemetry of the call
+     * @return The tool completion
+     * @throws Exception If an error occurs
+     */
+    private ToolCompletion extractToolCompletion(InputStream responseBody, CallTelemetry telemetry) throws Exception {
+        StringBuilder text = new StringBuilder();
+        List<ToolCall> toolCalls = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("content".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    for (JsonElement element : JsonParser.parseReader(reader).getAsJsonArray()) {
+                        JsonObject block = element.getAsJsonObject();
+                        String type = block.has("type") ? block.get("type").getAsString() : "";
+                        if ("text".equals(type)) {
+                            text.append(block.get("text").getAsString());
+                        } else if ("tool_use".equals(type)) {
+                            toolCalls.add(new ToolCall(block.get("id").getAsString(), block.get("name").getAsString(),
+                                    block.get("input").toString()));
+                        }
+                    }
+                } else if ("usage".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    readUsage(reader, telemetry);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        return new ToolCompletion(text.length() > 0 ? text.toString() : null, toolCalls);
+    }
+    
+    /**
+     * Read a content array, keeping the text of its first block.
+     */
+    private static String readFirstText(JsonReader reader) throws IOException {
+        String text = null;
+        reader.beginArray();
+        if (reader.hasNext() && reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("text".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                    text = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return text;
+    }
+    
+    /**
+     * Read a usage object and add it to the token totals and the call's telemetry.
+     */
+    private void readUsage(JsonReader reader, CallTelemetry telemetry) throws IOException {
+        long[] counts = new long[4];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int index = USAGE_FIELDS.indexOf(reader.nextName());
+            if (index >= 0 && reader.peek() == JsonToken.NUMBER) {
+                counts[index] = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        recordUsage(counts, telemetry);
+    }
+    
+    /**
+     * Add the input usage reported by a message_start event to the token totals.
+     * Its output count is only a placeholder; the final count comes with message_delta.
+     */
+    private void recordInputUsage(JsonObject usage, CallTelemetry telemetry) {
+        long[] counts = new long[4];
+        for (int i = 0; i < counts.length; i++) {
+            JsonElement value = usage.get(USAGE_FIELDS.get(i));
+            if (i != 1 && value != null && value.isJsonPrimitive()) {
+                counts[i] = value.getAsLong();
+            }
+        }
+        recordUsage(counts, telemetry);
+    }
+    
+    private void recordUsage(long[] counts, CallTelemetry telemetry) {
+        tokenUsage.record(counts[0], counts[1], counts[2], counts[3]);
+        telemetry.recordUsage(counts[0], counts[1], counts[2], counts[3]);
+        if (counts[2] > 0 || counts[3] > 0) {
+            LOGGER.fine("Claude prompt cache: " + counts[3] + " tokens read, " + counts[2] + " tokens written, "
+                    + counts[0] + " uncached input tokens");
+        }
+    }
+    
+    /**
+     * Read a Claude event stream, passing each text delta to the listener as it arrives.
+     * 
+     * @param body The response body
+     * @param completion Accumulates the generated text
+     * @param listener The listener that receives the generated text
+     * @param telemetry The telemetry of the call, which receives the token usage
+     * @throws IOException If the stream cannot be read or ends before message_stop
+     * @throws AIServiceException If the stream reports an error
+     */
+    private void readStream(InputStream body, StringBuilder completion, StreamListener listener,
+                            CallTelemetry telemetry) throws IOException, AIServiceException {
+        ServerSentEventReader reader = new ServerSentEventReader(body);
+        ServerSentEventReader.ServerSentEvent event;
         
-        if (jsonResponse.has("content")) {
-            JsonArray contentArray = jsonResponse.getAsJsonArray("content");
-            if (contentArray != null && contentArray.size() > 0) {
-                JsonObject contentObject = contentArray.get(0).getAsJsonObject();
-                if (contentObject.has("text")) {
-                    return contentObject.get("text").getAsString();
+        while ((event = reader.next()) != null) {
+            JsonObject data = JsonParser.parseString(event.getData()).getAsJsonObject();
+            String type = data.has("type") ? data.get("type").getAsString() : event.getEvent();
+            
+            if ("message_start".equals(type)) {
+                JsonObject message = data.getAsJsonObject("message");
+                if (message != null && message.has("usage")) {
+                    recordInputUsage(message.getAsJsonObject("usage"), telemetry);
+                }
+            } else if ("message_delta".equals(type)) {
+                // Carries the output tokens; the input tokens were reported by message_start
+                JsonObject usage = data.getAsJsonObject("usage");
+                if (usage != null && usage.has("output_tokens")) {
+                    long outputTokens = usage.get("output_tokens").getAsLong();
+                    tokenUsage.record(0, outputTokens, 0, 0);
+                    telemetry.recordUsage(0, outputTokens, 0, 0);
+                }
+            } else if ("content_block_delta".equals(type)) {
+                JsonObject delta = data.getAsJsonObject("delta");
+                if (delta != null && delta.has("text")) {
+                    String text = delta.get("text").getAsString();
+                    completion.append(text);
+                    listener.onDelta(text);
+                }
+            } else if ("message_stop".equals(type)) {
+                return;
+            } else if ("error".equals(type)) {
+                JsonObject error = data.getAsJsonObject("error");
+                String errorType = error != null && error.has("type") ? error.get("type").getAsString() : "";
+                String errorMessage = error != null && error.has("message")
+                        ? error.get("message").getAsString() : "Unknown error";
+                if ("overloaded_error".equals(errorType) || "api_error".equals(errorType)) {
+                    throw new ServerException("Server error: " + errorMessage, 529);
                 }
+                throw new AIServiceException("Claude API error: " + errorMessage);
             }
         }
         
-        throw new AIServiceException("No content found in Claude API response");
+        throw new IOException("Claude stream ended before message_stop");
     }
     
     /**
@@ -278,4 +810,20 @@ public class ClaudeChatCompletionService implements ChatCompletionService {
         
         return "Unknown error";
     }
-}
\ No newline at end of file
+    
+    /**
+     * Turns an HTTP response into a result.
+     */
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+        T handle(HttpClientWrapper.SimpleHttpResponse response) throws AIServiceException;
+    }
+    
+    /**
+     * Reads a result from the body of a successful response.
+     */
+    @FunctionalInterface
+    private interface BodyParser<T> {
+        T parse(InputStream body) throws Exception;
+    }
+}
@@ -147,6 +147,15 @@ public class AIConfigurationManager {
         return getProperty("openai.api.key");
     }
     
+    /**
+     * Get the OpenAI API endpoint, e.g. to point the service at a proxy or a local stub.
+     * 
+     * @return The endpoint URL, or null to use the public OpenAI endpoint
+     */
+    public String getOpenAIApiUrl() {
+        return getProperty("openai.api.url", null);
+    }
+    
     /**
      * Get the OpenAI model identifier.
      * 
@@ -221,6 +230,15 @@ public class AIConfigurationManager {
         return getProperty("claude.api.key");
     }
     
+    /**
+     * Get the Claude API endpoint, e.g. to point the service at a proxy or a local stub.
+     * 
+     * @return The endpoint URL, or null to use the public Claude endpoint
+     */
+    public String getClaudeApiUrl() {
+        return getProperty("claude.api.url", null);
+    }
+    
     /**
      * Get the Claude model identifier.
      * 
@@ -294,4 +312,601 @@ public class AIConfigurationManager {
     public String getDefaultAIService() {
         return getProperty("ai.default.service", "openai");
     }
-}
\ No newline at end of file
+    
+    // HTTP client getters
+    
+    /**
+     * Get the maximum number of concurrent requests to a provider.
+     * 
+     * @param provider The provider name ("openai" or "claude")
+     * @return The concurrency limit
+     */
+    public int getHttpMaxConcurrentRequests(String provider) {
+        return getIntProperty(provider + ".http.max.concurrent", 16);
+    }
+    
+    /**
+     * Get the connect timeout for a provider.
+     * 
+     * @param provider The provider name ("openai" or "claude")
+     * @return The connect timeout in seconds
+     */
+    public int getHttpConnectTimeoutSeconds(String provider) {
+        return getIntProperty(provider + ".http.connect.timeout.seconds", 10);
+    }
+    
+    /**
+     * Get the number of threads used by the shared HTTP clients for asynchronous work.
+     * 
+     * @return The number of threads, or 0 to use the HttpClient default executor
+     */
+    public int getHttpExecutorThreads() {
+        return getIntProperty("ai.http.executor.threads", 0);
+    }
+    
+    /**
+     * Get the requests-per-minute budget shared by all callers of a provider.
+     * 
+     * @param provider The provider name ("openai" or "claude")
+     * @return The budget, or 0 to learn it from the provider's rate-limit headers
+     */
+    public int getRateLimitRequestsPerMinute(String provider) {
+        return getIntProperty(provider + ".rate.limit.requests.per.minute", 0);
+    }
+    
+    /**
+     * Get the tokens-per-minute budget shared by all callers of a provider.
+     * 
+     * @param provider The provider name ("openai" or "claude")
+     * @return The budget, or 0 to learn it from the provider's rate-limit headers
+     */
+    public int getRateLimitTokensPerMinute(String provider) {
+        return getIntProperty(provider + ".rate.limit.tokens.per.minute", 0);
+    }
+    
+    // Provider routing getters
+    
+    /**
+     * Get the providers used by the routing service, in preference order.
+     * 
+     * @return A comma-separated list of provider names, the default service first by default
+     */
+    public String getRoutingProviders() {
+        String defaultService = getDefaultAIService().toLowerCase();
+        String fallback = "claude".equals(defaultService) ? "openai" : "claude";
+        return getProperty("ai.routing.providers", defaultService + "," + fallback);
+    }
+    
+    /**
+     * Get the number of recent calls the failure rate of a provider is computed over.
+     * 
+     * @return The window size
+     */
+    public int getRoutingCircuitWindow() {
+        return getIntProperty("ai.routing.circuit.window", 20);
+    }
+    
+    /**
+     * Get the number of recent calls needed before a provider's circuit may open.
+     * 
+     * @return The minimum number of calls
+     */
+    public int getRoutingCircuitMinCalls() {
+        return getIntProperty("ai.routing.circuit.min.calls", 10);
+    }
+    
+    /**
+     * Get the failure rate that opens a provider's circuit.
+     * 
+     * @return The failure rate (0 to 1)
+     */
+    public double getRoutingCircuitFailureRate() {
+        return getDoubleProperty("ai.routing.circuit.failure.rate", 0.5);
+    }
+    
+    /**
+     * Get how long an open circuit skips its provider before a trial call.
+     * 
+     * @return The open period in seconds
+     */
+    public int getRoutingCircuitOpenSeconds() {
+        return getIntProperty("ai.routing.circuit.open.seconds", 30);
+    }
+    
+    /**
+     * Check whether slow calls are hedged with a second provider.
+     * 
+     * @return true if hedging is enabled
+     */
+    public boolean isRoutingHedgeEnabled() {
+        return getBooleanProperty("ai.routing.hedge.enabled", false);
+    }
+    
+    /**
+     * Get the latency percentile of the preferred provider after which a call is hedged.
+     * 
+     * @return The percentile (0 to 100)
+     */
+    public double getRoutingHedgePercentile() {
+        return getDoubleProperty("ai.routing.hedge.percentile", 95);
+    }
+    
+    /**
+     * Get the minimum time to wait before hedging a call.
+     * 
+     * @return The delay in milliseconds
+     */
+    public int getRoutingHedgeMinDelayMs() {
+        return getIntProperty("ai.routing.hedge.min.delay.ms", 1000);
+    }
+    
+    // Response cache getters
+    
+    /**
+     * Get the maximum number of completions kept in the in-memory cache tier.
+     * 
+     * @return The number of entries
+     */
+    public int getCacheMemoryEntries() {
+        return getIntProperty("ai.cache.memory.entries", 1000);
+    }
+    
+    /**
+     * Get the directory of the on-disk cache tier.
+     * 
+     * @return The directory path
+     */
+    public String getCacheDirectory() {
+        return getProperty("ai.cache.directory", System.getProperty("java.io.tmpdir") + "/celestra-ai-cache");
+    }
+    
+    /**
+     * Get the default time to live of cached completions.
+     * 
+     * @return The time to live in seconds
+     */
+    public int getCacheTtlSeconds() {
+        return getIntProperty("ai.cache.ttl.seconds", 86400);
+    }
+    
+    /**
+     * Get the size the on-disk cache tier is reduced to by each sweep.
+     * 
+     * @return The size in megabytes
+     */
+    public int getCacheDiskMaxMb() {
+        return getIntProperty("ai.cache.disk.max.mb", 512);
+    }
+    
+    /**
+     * Get the interval between sweeps of the on-disk cache tier.
+     * 
+     * @return The interval in minutes
+     */
+    public int getCacheSweepMinutes() {
+        return getIntProperty("ai.cache.sweep.minutes", 60);
+    }
+    
+    // Telemetry getters
+    
+    /**
+     * Get the price of a million uncached input tokens of a model.
+     * 
+     * @param model The model name
+     * @return The price, or 0 if none is configured
+     */
+    public double getPricingInputPerMillion(String model) {
+        return getDoubleProperty("ai.pricing." + model + ".input.per.million", 0);
+    }
+    
+    /**
+     * Get the price of a million output tokens of a model.
+     * 
+     * @param model The model name
+     * @return The price, or 0 if none is configured
+     */
+    public double getPricingOutputPerMillion(String model) {
+        return getDoubleProperty("ai.pricing." + model + ".output.per.million", 0);
+    }
+    
+    /**
+     * Get the price of input tokens written to the prompt cache, as a multiple of the input price.
+     * 
+     * @return The multiplier
+     */
+    public double getPricingCacheWriteMultiplier() {
+        return getDoubleProperty("ai.pricing.cache.write.multiplier", 1.25);
+    }
+    
+    /**
+     * Get the price of input tokens read from the prompt cache, as a multiple of the input price.
+     * 
+     * @return The multiplier
+     */
+    public double getPricingCacheReadMultiplier() {
+        return getDoubleProperty("ai.pricing.cache.read.multiplier", 0.1);
+    }
+    
+    /**
+     * Get the interval between the AI call summaries written to the log.
+     * 
+     * @return The interval in seconds
+     */
+    public int getTelemetryLogIntervalSeconds() {
+        return getIntProperty("ai.telemetry.log.interval.seconds", 300);
+    }
+    
+    // Model tier getters
+    
+    /**
+     * Get the models of a provider by tier, from the smallest to the largest.
+     * Calls are only routed to a tier when the provider lists its models.
+     * 
+     * @param provider The provider name
+     * @return Comma-separated model names for the SMALL, MEDIUM and LARGE tiers,
+     *         or an empty string to always use the configured model
+     */
+    public String getModelTiers(String provider) {
+        return getProperty("ai.model.tiers." + provider, "");
+    }
+    
+    /**
+     * Get the tier a task starts at.
+     * 
+     * @param task The task, e.g. a workflow step or an agent
+     * @return The tier name, or null to pick it from the prompt size
+     */
+    public String getModelTaskTier(String task) {
+        return getProperty("ai.model.task." + task + ".tier");
+    }
+    
+    /**
+     * Get the smallest tier a task may be downgraded to.
+     * 
+     * @param task The task
+     * @return The tier name, or null for no lower bound
+     */
+    public String getModelTaskMinTier(String task) {
+        return getProperty("ai.model.task." + task + ".min.tier");
+    }
+    
+    /**
+     * Get the largest tier a task may be upgraded to.
+     * 
+     * @param task The task
+     * @return The tier name, or null for no upper bound
+     */
+    public String getModelTaskMaxTier(String task) {
+        return getProperty("ai.model.task." + task + ".max.tier");
+    }
+    
+    /**
+     * Get the average latency above which a task is moved to a smaller tier.
+     * 
+     * @param task The task
+     * @return The latency budget in milliseconds, or 0 for none
+     */
+    public int getModelTaskLatencyBudgetMs(String task) {
+        return getIntProperty("ai.model.task." + task + ".latency.budget.ms", 0);
+    }
+    
+    /**
+     * Get the largest prompt, in estimated tokens, that starts an unconfigured task at the SMALL tier.
+     * 
+     * @return The number of tokens
+     */
+    public int getModelSmallMaxPromptTokens() {
+        return getIntProperty("ai.model.small.max.prompt.tokens", 1000);
+    }
+    
+    /**
+     * Get the smallest prompt, in estimated tokens, that starts an unconfigured task at the LARGE tier.
+     * 
+     * @return The number of tokens
+     */
+    public int getModelLargeMinPromptTokens() {
+        return getIntProperty("ai.model.large.min.prompt.tokens", 8000);
+    }
+    
+    /**
+     * Get the number of calls of a task its tier is evaluated over.
+     * 
+     * @return The number of calls
+     */
+    public int getModelAdaptWindow() {
+        return getIntProperty("ai.model.adapt.window", 20);
+    }
+    
+    /**
+     * Get the rate of rejected outputs in the window that moves a task to a larger tier.
+     * 
+     * @return The rate (0 to 1)
+     */
+    public double getModelAdaptUpgradeRejectionRate() {
+        return getDoubleProperty("ai.model.adapt.upgrade.rejection.rate", 0.2);
+    }
+    
+    /**
+     * Get the number of consecutive accepted outputs after which a task tries a smaller tier.
+     * 
+     * @return The number of outputs
+     */
+    public int getModelAdaptDowngradeSuccesses() {
+        return getIntProperty("ai.model.adapt.downgrade.successes", 200);
+    }
+    
+    /**
+     * Get how long a task stays at the tier it was upgraded to before it may be downgraded again.
+     * 
+     * @return The time in minutes
+     */
+    public int getModelAdaptHoldMinutes() {
+        return getIntProperty("ai.model.adapt.hold.minutes", 60);
+    }
+    
+    // Tool calling getters
+    
+    /**
+     * Get how long a tool call may run unless the tool sets its own timeout.
+     * 
+     * @return The timeout in milliseconds
+     */
+    public int getToolTimeoutMs() {
+        return getIntProperty("ai.tool.timeout.ms", 30000);
+    }
+    
+    /**
+     * Get the largest number of model turns with tool calls in one conversation.
+     * 
+     * @return The number of turns
+     */
+    public int getToolMaxRounds() {
+        return getIntProperty("ai.tool.max.rounds", 8);
+    }
+    
+    /**
+     * Get the number of threads that run tool calls, which bounds the calls running at once.
+     * 
+     * @return The number of threads
+     */
+    public int getToolMaxThreads() {
+        return getIntProperty("ai.tool.max.threads", 32);
+    }
+    
+    // Conversation memory getters
+    
+    /**
+     * Get the size of a conversation memory, summary and recent turns together,
+     * above which its oldest turns are folded into the summary.
+     * 
+     * @return The number of tokens
+     */
+    public int getMemoryCompactTokens() {
+        return getIntProperty("ai.memory.compact.tokens", 6000);
+    }
+    
+    /**
+     * Get the size of the recent turns kept verbatim after a compaction.
+     * 
+     * @return The number of tokens
+     */
+    public int getMemoryKeepTokens() {
+        return getIntProperty("ai.memory.keep.tokens", 2000);
+    }
+    
+    /**
+     * Get the maximum length of the rolling summary of a conversation.
+     * 
+     * @return The number of words
+     */
+    public int getMemorySummaryMaxWords() {
+        return getIntProperty("ai.memory.summary.max.words", 250);
+    }
+    
+    /**
+     * Get the maximum number of conversation memories kept loaded.
+     * 
+     * @return The number of sessions
+     */
+    public int getMemoryMaxSessions() {
+        return getIntProperty("ai.memory.max.sessions", 1000);
+    }
+    
+    // Embedding getters
+    
+    /**
+     * Get the provider of the default embedding service.
+     * 
+     * @return "openai", or "local" for the offline hashing embedder
+     */
+    public String getEmbeddingProvider() {
+        return getProperty("ai.embedding.provider", "openai");
+    }
+    
+    /**
+     * Get the OpenAI embedding model identifier.
+     * 
+     * @return The model identifier
+     */
+    public String getOpenAIEmbeddingModel() {
+        return getProperty("openai.embedding.model", "text-embedding-3-small");
+    }
+    
+    /**
+     * Get the OpenAI embeddings endpoint, e.g. to point the service at a proxy or a local stub.
+     * 
+     * @return The endpoint URL, or null to use the public OpenAI endpoint
+     */
+    public String getOpenAIEmbeddingApiUrl() {
+        return getProperty("openai.embedding.api.url", null);
+    }
+    
+    /**
+     * Get the number of dimensions of the embeddings.
+     * 
+     * @return The number of dimensions, or 0 for the model's default
+     */
+    public int getEmbeddingDimensions() {
+        return getIntProperty("ai.embedding.dimensions", 0);
+    }
+    
+    /**
+     * Get the largest number of texts coalesced into one embedding request.
+     * 
+     * @return The batch size
+     */
+    public int getEmbeddingBatchSize() {
+        return getIntProperty("ai.embedding.batch.size", 256);
+    }
+    
+    /**
+     * Get how long a text waits for others to share its embedding request.
+     * 
+     * @return The wait in milliseconds
+     */
+    public int getEmbeddingBatchWaitMs() {
+        return getIntProperty("ai.embedding.batch.wait.ms", 10);
+    }
+    
+    /**
+     * Get the maximum number of embedding requests in flight at once.
+     * 
+     * @return The number of requests
+     */
+    public int getEmbeddingMaxInFlightBatches() {
+        return getIntProperty("ai.embedding.max.in.flight.batches", 4);
+    }
+    
+    /**
+     * Get the maximum number of embeddings kept in the in-memory cache tier.
+     * 
+     * @return The number of entries
+     */
+    public int getEmbeddingCacheMemoryEntries() {
+        return getIntProperty("ai.embedding.cache.memory.entries", 20000);
+    }
+    
+    /**
+     * Get the directory of the on-disk embedding cache tier.
+     * 
+     * @return The directory path, or an empty string to cache in memory only
+     */
+    public String getEmbeddingCacheDirectory() {
+        return getProperty("ai.embedding.cache.directory",
+                System.getProperty("java.io.tmpdir") + "/celestra-embedding-cache");
+    }
+    
+    // Quota getters
+    
+    /**
+     * Get the length of the rolling window over which quotas are counted.
+     * 
+     * @return The window in minutes
+     */
+    public int getQuotaWindowMinutes() {
+        return getIntProperty("ai.quota.window.minutes", 60);
+    }
+    
+    /**
+     * Get the tokens a company may use per quota window.
+     * 
+     * @param companyId The company ID
+     * @return The number of tokens, or 0 for no limit
+     */
+    public int getQuotaCompanyTokens(int companyId) {
+        return getIntProperty("ai.quota.company." + companyId + ".tokens",
+                getIntProperty("ai.quota.company.tokens", 0));
+    }
+    
+    /**
+     * Get the calls a company may make per quota window.
+     * 
+     * @param companyId The company ID
+     * @return The number of calls, or 0 for no limit
+     */
+    public int getQuotaCompanyRequests(int companyId) {
+        return getIntProperty("ai.quota.company." + companyId + ".requests",
+                getIntProperty("ai.quota.company.requests", 0));
+    }
+    
+    /**
+     * Get the tokens an agent may use per quota window, counted separately for each company.
+     * 
+     * @param agentId The agent ID
+     * @return The number of tokens, or 0 for no limit
+     */
+    public int getQuotaAgentTokens(int agentId) {
+        return getIntProperty("ai.quota.agent." + agentId + ".tokens",
+                getIntProperty("ai.quota.agent.tokens", 0));
+    }
+    
+    /**
+     * Get the calls an agent may make per quota window, counted separately for each company.
+     * 
+     * @param agentId The agent ID
+     * @return The number of calls, or 0 for no limit
+     */
+    public int getQuotaAgentRequests(int agentId) {
+        return getIntProperty("ai.quota.agent." + agentId + ".requests",
+                getIntProperty("ai.quota.agent.requests", 0));
+    }
+    
+    /**
+     * Get the interval between flushes of the AI usage counters to the database.
+     * 
+     * @return The interval in seconds
+     */
+    public int getQuotaFlushSeconds() {
+        return getIntProperty("ai.quota.flush.seconds", 30);
+    }
+    
+    // Agent runtime getters
+    
+    /**
+     * Get the largest number of sessions one agent may run at once.
+     * 
+     * @return The number of sessions
+     */
+    public int getAgentMaxSessions() {
+        return getIntProperty("ai.agent.max.sessions", 64);
+    }
+    
+    /**
+     * Get how long an agent session may run before it is cancelled.
+     * 
+     * @return The deadline in seconds
+     */
+    public int getAgentSessionTimeoutSeconds() {
+        return getIntProperty("ai.agent.session.timeout.seconds", 300);
+    }
+    
+    /**
+     * Get the number of threads that run the blocking work forked by agent sessions.
+     * Model calls do not hold a thread while they wait for the provider.
+     * 
+     * @return The number of threads
+     */
+    public int getAgentMaxThreads() {
+        return getIntProperty("ai.agent.max.threads", 32);
+    }
+    
+    /**
+     * Get the number of compiled agent plans kept in memory, keyed by the hash
+     * of their protocol.
+     * 
+     * @return The number of plans
+     */
+    public int getAgentPlanCacheSize() {
+        return getIntProperty("ai.agent.plan.cache.size", 256);
+    }
+    
+    /**
+     * Get how often an idle agent chat stream sends a keep-alive comment, which
+     * also detects clients that went away while the model was thinking.
+     * 
+     * @return The interval in seconds
+     */
+    public int getAgentChatHeartbeatSeconds() {
+        return getIntProperty("ai.agent.chat.heartbeat.seconds", 15);
+    }
+}
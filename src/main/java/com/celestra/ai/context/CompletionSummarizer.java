@@ -0,0 +1,63 @@
+package com.celestra.ai.context;
+
+import java.util.List;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+/**
+ * Summarizes messages with a chat completion.
+ * 
+ * A system message at the head of the input, such as the summary of an earlier
+ * part of the conversation, is extended rather than summarized again, so the
+ * summary rolls forward as the conversation grows.
+ */
+public class CompletionSummarizer implements ContextSummarizer {
+    
+    private static final int DEFAULT_MAX_WORDS = 250;
+    
+    private final ChatCompletionService service;
+    private final int maxWords;
+    
+    /**
+     * Create a summarizer with the default summary length.
+     * 
+     * @param service The service that writes the summaries
+     */
+    public CompletionSummarizer(ChatCompletionService service) {
+        this(service, DEFAULT_MAX_WORDS);
+    }
+    
+    /**
+     * Create a summarizer.
+     * 
+     * @param service The service that writes the summaries
+     * @param maxWords The maximum length of a summary in words
+     */
+    public CompletionSummarizer(ChatCompletionService service, int maxWords) {
+        if (maxWords <= 0) {
+            throw new IllegalArgumentException("Max words must be positive");
+        }
+        this.service = service;
+        this.maxWords = maxWords;
+    }
+    
+    @Override
+    public String summarize(List<ChatMessage> messages) throws Exception {
+        StringBuilder transcript = new StringBuilder();
+        for (ChatMessage message : messages) {
+            if ("system".equals(message.getRole())) {
+                transcript.append("Existing summary:\n").append(message.getContent()).append("\n\n");
+            } else {
+                transcript.append(message.getRole()).append(": ").append(message.getContent()).append("\n\n");
+            }
+        }
+        
+        return service.getChatCompletion(List.of(
+                new ChatMessage("system", "You maintain the running summary of a conversation. Merge the "
+                        + "existing summary, if any, with the new messages into one summary of at most " + maxWords
+                        + " words. Keep facts, identifiers, decisions, open questions and user preferences; "
+                        + "drop pleasantries. Answer with the summary only.", true),
+                new ChatMessage("user", transcript.toString().trim())));
+    }
+}
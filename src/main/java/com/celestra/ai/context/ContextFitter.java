@@ -0,0 +1,246 @@
+package com.celestra.ai.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+/**
+ * Fits a conversation into a model's context window before it is sent.
+ * 
+ * System messages and the latest message are always kept. Older messages are
+ * dropped oldest first, together with any assistant reply or tool result left at
+ * the head of the conversation, so that turns keep alternating. An assistant
+ * message that calls tools is dropped together with the results of its calls,
+ * since providers reject a tool result without its call and a call without all of
+ * its results. If a {@link ContextSummarizer} is
+ * configured, the dropped messages are replaced by a summary. If the kept messages
+ * still do not fit, the largest of them is truncated in the middle.
+ */
+public class ContextFitter {
+    
+    private static final Logger LOGGER = Logger.getLogger(ContextFitter.class.getName());
+    
+    private static final double DEFAULT_SAFETY_MARGIN = 0.1;
+    
+    private static final String TRUNCATION_MARKER = "\n[... truncated ...]\n";
+    
+    private static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+    
+    private final TokenEstimator estimator;
+    private final double safetyMargin;
+    private final ContextSummarizer summarizer;
+    
+    /**
+     * Create a context fitter that drops and truncates messages.
+     * 
+     * @param estimator The token estimator
+     */
+    public ContextFitter(TokenEstimator estimator) {
+        this(estimator, DEFAULT_SAFETY_MARGIN, null);
+    }
+    
+    /**
+     * Create a context fitter.
+     * 
+     * @param estimator The token estimator
+     * @param safetyMargin The fraction of the token limit kept free for estimation errors (0 to 1)
+     * @param summarizer The summarizer of dropped messages, or null to drop them silently
+     */
+    public ContextFitter(TokenEstimator estimator, double safetyMargin, ContextSummarizer summarizer) {
+        if (safetyMargin < 0 || safetyMargin >= 1) {
+            throw new IllegalArgumentException("Safety margin must be in [0, 1)");
+        }
+        this.estimator = estimator;
+        this.safetyMargin = safetyMargin;
+        this.summarizer = summarizer;
+    }
+    
+    /**
+     * Fit a conversation into a token limit.
+     * 
+     * @param messages The conversation
+     * @param tokenLimit The context window of the model, or 0 if unknown
+     * @param reservedTokens The tokens reserved for the completion (max_tokens)
+     * @return The conversation itself if it fits, otherwise a trimmed copy; the
+     *         caller's messages are never modified
+     */
+    public List<ChatMessage> fit(List<ChatMessage> messages, int tokenLimit, int reservedTokens) {
+        if (tokenLimit <= 0 || messages.isEmpty()) {
+            return messages;
+        }
+        
+        int budget = (int) (tokenLimit * (1 - safetyMargin)) - reservedTokens;
+        if (budget <= 0) {
+            LOGGER.warning("max_tokens " + reservedTokens + " leaves no room for the prompt in a context of "
+                    + tokenLimit + " tokens");
+            return messages;
+        }
+        
+        int total = estimator.estimate(messages);
+        if (total <= budget) {
+            return messages;
+        }
+        
+        List<ChatMessage> fitted = new ArrayList<>(messages);
+        List<ChatMessage> dropped = new ArrayList<>();
+        int last = fitted.size() - 1;
+        int index = 0;
+        while (total > budget && index < last) {
+            if ("system".equals(fitted.get(index).getRole())) {
+                index++;
+                continue;
+            }
+            int end = unitEnd(fitted, index);
+            if (end > last) {
+                // The unit ends with the latest message, which is always kept
+                break;
+            }
+            total -= drop(fitted, index, end, dropped);
+            last -= end - index;
+            
+            // Never start the remaining turns with an assistant reply or a tool result
+            if (total <= budget) {
+                while (index < last && isReply(fitted.get(index))) {
+                    end = unitEnd(fitted, index);
+                    if (end > last) {
+                        break;
+                    }
+                    total -= drop(fitted, index, end, dropped);
+                    last -= end - index;
+                }
+            }
+        }
+        
+        if (!dropped.isEmpty() && summarizer != null) {
+            total = addSummary(fitted, dropped, total, budget);
+        }
+        
+        if (total > budget) {
+            total = truncateLargest(fitted, total, budget);
+        }
+        
+        LOGGER.info("Fitted conversation of " + messages.size() + " messages into " + fitted.size()
+                + " messages (~" + total + " tokens, budget " + budget + ")");
+        return fitted;
+    }
+    
+    /**
+     * Get the token estimator used by this fitter.
+     * 
+     * @return The token estimator
+     */
+    public TokenEstimator getEstimator() {
+        return estimator;
+    }
+    
+    /**
+     * Get the end (exclusive) of the unit that starts at an index: an assistant
+     * message that calls tools together with the tool results that follow it, or
+     * otherwise the message alone.
+     */
+    private static int unitEnd(List<ChatMessage> messages, int index) {
+        ChatMessage message = messages.get(index);
+        int end = index + 1;
+        if ("assistant".equals(message.getRole()) && message.getToolCalls() != null
+                && !message.getToolCalls().isEmpty()) {
+            while (end < messages.size() && "tool".equals(messages.get(end).getRole())) {
+                end++;
+            }
+        }
+        return end;
+    }
+    
+    private static boolean isReply(ChatMessage message) {
+        return "assistant".equals(message.getRole()) || "tool".equals(message.getRole());
+    }
+    
+    /**
+     * Move the messages from start (inclusive) to end (exclusive) to the dropped ones.
+     * 
+     * @return The tokens of the dropped messages
+     */
+    private int drop(List<ChatMessage> fitted, int start, int end, List<ChatMessage> dropped) {
+        int tokens = 0;
+        for (int i = start; i < end; i++) {
+            ChatMessage message = fitted.remove(start);
+            dropped.add(message);
+            tokens += estimator.estimate(message);
+        }
+        return tokens;
+    }
+    
+    private int addSummary(List<ChatMessage> fitted, List<ChatMessage> dropped, int total, int budget) {
+        String summary;
+        try {
+            summary = summarizer.summarize(dropped);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not summarize " + dropped.size() + " dropped messages", e);
+            return total;
+        }
+        if (summary == null || summary.isBlank()) {
+            return total;
+        }
+        
+        ChatMessage message = new ChatMessage("system", SUMMARY_PREFIX + summary);
+        int tokens = estimator.estimate(message);
+        if (total + tokens > budget) {
+            // A summary that does not fit would only be truncated again
+            return total;
+        }
+        
+        int position = 0;
+        while (position < fitted.size() - 1 && "system".equals(fitted.get(position).getRole())) {
+            position++;
+        }
+        fitted.add(position, message);
+        return total + tokens;
+    }
+    
+    /**
+     * Cut the middle out of the largest message until the conversation fits. The
+     * head and the tail of a long message usually carry the instructions and the
+     * question, so both are kept.
+     */
+    private int truncateLargest(List<ChatMessage> fitted, int total, int budget) {
+        int largest = 0;
+        int largestTokens = -1;
+        for (int i = 0; i < fitted.size(); i++) {
+            int tokens = estimator.estimate(fitted.get(i));
+            if (tokens > largestTokens) {
+                largest = i;
+                largestTokens = tokens;
+            }
+        }
+        
+        ChatMessage message = fitted.get(largest);
+        String content = message.getContent() != null ? message.getContent() : "";
+        int contentTokens = estimator.estimate(content);
+        int allowed = contentTokens - (total - budget) - estimator.estimate(TRUNCATION_MARKER);
+        if (allowed <= 0 || contentTokens == 0) {
+            LOGGER.warning("Conversation does not fit in " + budget + " tokens even after truncation");
+            return total;
+        }
+        
+        // Shrink proportionally, then correct for the uneven density of the text
+        int chars = (int) ((long) content.length() * allowed / contentTokens);
+        String truncated = cut(content, chars);
+        int truncatedTokens = estimator.estimate(truncated);
+        while (truncatedTokens - contentTokens + total > budget && chars > 0) {
+            chars = chars * 9 / 10;
+            truncated = cut(content, chars);
+            truncatedTokens = estimator.estimate(truncated);
+        }
+        
+        fitted.set(largest, message.withContent(truncated));
+        return total - contentTokens + truncatedTokens;
+    }
+    
+    private static String cut(String content, int chars) {
+        int head = chars * 2 / 3;
+        int tail = chars - head;
+        return content.substring(0, head) + TRUNCATION_MARKER + content.substring(content.length() - tail);
+    }
+}
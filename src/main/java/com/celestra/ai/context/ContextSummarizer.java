@@ -0,0 +1,21 @@
+package com.celestra.ai.context;
+
+import java.util.List;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+/**
+ * Condenses messages that no longer fit in the context window.
+ */
+@FunctionalInterface
+public interface ContextSummarizer {
+    
+    /**
+     * Summarize messages that are about to be dropped from a conversation.
+     * 
+     * @param messages The dropped messages, oldest first
+     * @return A summary that replaces them
+     * @throws Exception If the summary cannot be produced
+     */
+    String summarize(List<ChatMessage> messages) throws Exception;
+}
@@ -0,0 +1,101 @@
+package com.celestra.ai.embedding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.celestra.ai.EmbeddingService;
+
+/**
+ * Decorates an embedding service with an {@link EmbeddingCache}.
+ * 
+ * Cached texts are answered without touching the delegate, so they never wait
+ * for a batch, and only the misses are embedded; every new embedding is cached.
+ */
+public class CachingEmbeddingService implements EmbeddingService {
+    
+    private final EmbeddingService delegate;
+    private final EmbeddingCache cache;
+    
+    /**
+     * Create a caching embedding service.
+     * 
+     * @param delegate The service that embeds cache misses
+     * @param cache The cache
+     */
+    public CachingEmbeddingService(EmbeddingService delegate, EmbeddingCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+    
+    @Override
+    public float[] embed(String text) throws Exception {
+        String key = EmbeddingCache.key(getModel(), text);
+        float[] vector = cache.get(key);
+        if (vector == null) {
+            vector = delegate.embed(text);
+            cache.put(key, vector);
+        }
+        return vector;
+    }
+    
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        String key = EmbeddingCache.key(getModel(), text);
+        float[] vector = cache.get(key);
+        if (vector != null) {
+            return CompletableFuture.completedFuture(vector);
+        }
+        return delegate.embedAsync(text).thenApply(embedding -> {
+            cache.put(key, embedding);
+            return embedding;
+        });
+    }
+    
+    @Override
+    public List<float[]> embedAll(List<String> texts) throws Exception {
+        String model = getModel();
+        float[][] embeddings = new float[texts.size()][];
+        Map<String, String> misses = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String key = EmbeddingCache.key(model, texts.get(i));
+            embeddings[i] = cache.get(key);
+            if (embeddings[i] == null) {
+                misses.putIfAbsent(texts.get(i), key);
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            Map<String, float[]> embedded = new LinkedHashMap<>();
+            List<String> missing = new ArrayList<>(misses.keySet());
+            int maxBatchSize = delegate.getMaxBatchSize();
+            for (int start = 0; start < missing.size(); start += maxBatchSize) {
+                List<String> chunk = missing.subList(start, Math.min(missing.size(), start + maxBatchSize));
+                List<float[]> vectors = delegate.embedAll(chunk);
+                for (int i = 0; i < chunk.size(); i++) {
+                    cache.put(misses.get(chunk.get(i)), vectors.get(i));
+                    embedded.put(chunk.get(i), vectors.get(i));
+                }
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                if (embeddings[i] == null) {
+                    embeddings[i] = embedded.get(texts.get(i));
+                }
+            }
+        }
+        
+        return List.of(embeddings);
+    }
+    
+    @Override
+    public String getModel() {
+        return delegate.getModel();
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,246 @@
+package com.celestra.ai.embedding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.celestra.ai.EmbeddingService;
+import com.celestra.ai.config.AIConfigurationManager;
+
+/**
+ * Coalesces embedding calls from many threads into provider batch requests.
+ * 
+ * Each text joins the pending batch. The batch is sent as soon as it is full, or
+ * when its oldest text has waited for the maximum wait, whichever comes first, so
+ * a lone call is delayed by at most the wait and a burst of calls costs one
+ * request per batch. Identical texts in a batch are embedded once. Batches run on
+ * a fixed pool, which bounds the number of requests in flight; further batches
+ * queue behind them.
+ */
+public class EmbeddingBatcher implements EmbeddingService {
+    
+    private static final Logger LOGGER = Logger.getLogger(EmbeddingBatcher.class.getName());
+    
+    private static final class Pending {
+        private final String text;
+        private final CompletableFuture<float[]> future = new CompletableFuture<>();
+        
+        private Pending(String text) {
+            this.text = text;
+        }
+    }
+    
+    private final EmbeddingService delegate;
+    private final int batchSize;
+    private final long maxWaitMillis;
+    private final Executor batchExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong textCount = new AtomicLong();
+    
+    // Guarded by this
+    private List<Pending> pending = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    
+    /**
+     * Create a batcher with the configured batch size, wait and concurrency.
+     * 
+     * @param delegate The service that embeds the batches
+     */
+    public EmbeddingBatcher(EmbeddingService delegate) {
+        this(delegate, AIConfigurationManager.getInstance());
+    }
+    
+    private EmbeddingBatcher(EmbeddingService delegate, AIConfigurationManager configManager) {
+        this(delegate, configManager.getEmbeddingBatchSize(), configManager.getEmbeddingBatchWaitMs(),
+                Executors.newFixedThreadPool(configManager.getEmbeddingMaxInFlightBatches(), runnable -> {
+                    Thread thread = new Thread(runnable, "ai-embedding-batch");
+                    thread.setDaemon(true);
+                    return thread;
+                }),
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "ai-embedding-flush");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+    
+    /**
+     * Create a batcher.
+     * 
+     * @param delegate The service that embeds the batches
+     * @param batchSize The largest number of texts in a batch; capped at the delegate's maximum
+     * @param maxWaitMillis How long a text waits for others to share its batch
+     * @param batchExecutor The executor that sends the batches; its size bounds the requests in flight
+     * @param scheduler The scheduler that sends batches that did not fill up in time
+     */
+    public EmbeddingBatcher(EmbeddingService delegate, int batchSize, long maxWaitMillis, Executor batchExecutor,
+                            ScheduledExecutorService scheduler) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Max wait must not be negative");
+        }
+        this.delegate = delegate;
+        this.batchSize = Math.min(batchSize, delegate.getMaxBatchSize());
+        this.maxWaitMillis = maxWaitMillis;
+        this.batchExecutor = batchExecutor;
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Text is required");
+        }
+        Pending entry = new Pending(text);
+        List<Pending> full = null;
+        synchronized (this) {
+            pending.add(entry);
+            if (pending.size() >= batchSize) {
+                full = takeBatch();
+            } else if (pending.size() == 1) {
+                flushTask = scheduler.schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return entry.future;
+    }
+    
+    @Override
+    public float[] embed(String text) throws Exception {
+        return await(embedAsync(text));
+    }
+    
+    /**
+     * Embed several texts. They join the pending batches like single calls, so
+     * they share requests with concurrent callers.
+     */
+    @Override
+    public List<float[]> embedAll(List<String> texts) throws Exception {
+        List<CompletableFuture<float[]>> futures = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            futures.add(embedAsync(text));
+        }
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (CompletableFuture<float[]> future : futures) {
+            embeddings.add(await(future));
+        }
+        return embeddings;
+    }
+    
+    @Override
+    public String getModel() {
+        return delegate.getModel();
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Get the number of batches sent to the delegate.
+     * 
+     * @return The number of batches
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+    
+    /**
+     * Get the number of texts sent to the delegate, after removing duplicates within batches.
+     * 
+     * @return The number of texts
+     */
+    public long getTextCount() {
+        return textCount.get();
+    }
+    
+    private void flush() {
+        List<Pending> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takeBatch();
+        }
+        dispatch(batch);
+    }
+    
+    /**
+     * Take the pending batch; the caller holds the lock.
+     */
+    private List<Pending> takeBatch() {
+        List<Pending> batch = pending;
+        pending = new ArrayList<>();
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        return batch;
+    }
+    
+    private void dispatch(List<Pending> batch) {
+        try {
+            batchExecutor.execute(() -> send(batch));
+        } catch (RuntimeException e) {
+            for (Pending entry : batch) {
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private void send(List<Pending> batch) {
+        Map<String, List<Pending>> byText = new LinkedHashMap<>();
+        for (Pending entry : batch) {
+            byText.computeIfAbsent(entry.text, text -> new ArrayList<>(1)).add(entry);
+        }
+        List<String> texts = new ArrayList<>(byText.keySet());
+        batchCount.incrementAndGet();
+        textCount.addAndGet(texts.size());
+        
+        try {
+            List<float[]> embeddings = delegate.embedAll(texts);
+            if (embeddings.size() != texts.size()) {
+                throw new IllegalStateException("Expected " + texts.size() + " embeddings but got "
+                        + embeddings.size());
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                for (Pending entry : byText.get(texts.get(i))) {
+                    entry.future.complete(embeddings.get(i));
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warning("Embedding batch of " + texts.size() + " texts failed: " + e.getMessage());
+            for (Pending entry : batch) {
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    private static float[] await(CompletableFuture<float[]> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
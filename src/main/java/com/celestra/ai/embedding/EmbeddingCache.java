@@ -0,0 +1,174 @@
+package com.celestra.ai.embedding;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Two-tier cache of embeddings keyed by a hash of the model and the text.
+ * 
+ * The first tier is a bounded in-memory LRU map. The second tier stores one file
+ * per key on local disk holding the raw little-endian floats of the vector, so
+ * re-ingesting unchanged content after a restart costs a file read per chunk
+ * instead of a provider call. Disk hits are promoted to memory. Embeddings of a
+ * model do not change, so entries never expire.
+ */
+public class EmbeddingCache {
+    
+    private static final Logger LOGGER = Logger.getLogger(EmbeddingCache.class.getName());
+    
+    private final Map<String, float[]> memory;
+    private final Path directory;
+    
+    /**
+     * Create a new cache.
+     * 
+     * @param memoryEntries The maximum number of entries in the memory tier
+     * @param directory The directory of the disk tier, or null to cache in memory only
+     */
+    public EmbeddingCache(int memoryEntries, Path directory) {
+        if (memoryEntries <= 0) {
+            throw new IllegalArgumentException("Memory entries must be positive");
+        }
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        this.directory = directory;
+    }
+    
+    /**
+     * Compute the cache key of a text.
+     * 
+     * @param model The model that embeds the text
+     * @param text The text
+     * @return The SHA-256 hash of the model and the text, in hex
+     */
+    public static String key(String model, String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(model.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Look up an embedding.
+     * 
+     * @param key The cache key
+     * @return The embedding, or null if it is not cached; callers must not modify it
+     */
+    public float[] get(String key) {
+        synchronized (memory) {
+            float[] vector = memory.get(key);
+            if (vector != null) {
+                return vector;
+            }
+        }
+        
+        float[] vector = readFromDisk(key);
+        if (vector != null) {
+            synchronized (memory) {
+                memory.put(key, vector);
+            }
+        }
+        return vector;
+    }
+    
+    /**
+     * Store an embedding in both tiers.
+     * 
+     * @param key The cache key
+     * @param vector The embedding
+     */
+    public void put(String key, float[] vector) {
+        synchronized (memory) {
+            memory.put(key, vector);
+        }
+        writeToDisk(key, vector);
+    }
+    
+    /**
+     * Get the number of entries in the memory tier.
+     * 
+     * @return The number of entries
+     */
+    public int getMemorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+    
+    private float[] readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(getPath(key))).order(ByteOrder.LITTLE_ENDIAN);
+            if (bytes.remaining() == 0 || bytes.remaining() % Float.BYTES != 0) {
+                LOGGER.warning("Ignoring cached embedding " + key + " of " + bytes.remaining() + " bytes");
+                return null;
+            }
+            float[] vector = new float[bytes.remaining() / Float.BYTES];
+            bytes.asFloatBuffer().get(vector);
+            return vector;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            // A corrupt entry is treated as a miss and replaced on the next put
+            LOGGER.log(Level.WARNING, "Could not read cached embedding " + key, e);
+            return null;
+        }
+    }
+    
+    private void writeToDisk(String key, float[] vector) {
+        if (directory == null) {
+            return;
+        }
+        
+        ByteBuffer bytes = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(vector);
+        
+        Path path = getPath(key);
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, bytes.array());
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // The disk tier is best effort; the memory tier still holds the entry
+            LOGGER.log(Level.WARNING, "Could not write cached embedding " + key, e);
+        }
+    }
+    
+    /**
+     * Get the file of a key. Keys are fanned out over 256 sub-directories.
+     */
+    private Path getPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".f32");
+    }
+}
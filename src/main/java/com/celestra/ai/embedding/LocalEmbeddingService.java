@@ -0,0 +1,115 @@
+package com.celestra.ai.embedding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.celestra.ai.EmbeddingService;
+
+/**
+ * Embeds text locally by feature hashing, without calling a provider.
+ * 
+ * Words and character trigrams are hashed into a fixed number of dimensions and
+ * the vector is normalized, so texts that share words are close by cosine
+ * similarity. The vectors carry no semantics beyond that; the service is meant for
+ * tests, benchmarks and development without an API key.
+ */
+public class LocalEmbeddingService implements EmbeddingService {
+    
+    private static final int DEFAULT_DIMENSIONS = 256;
+    
+    private final int dimensions;
+    
+    /**
+     * Create a local embedding service with the default number of dimensions.
+     */
+    public LocalEmbeddingService() {
+        this(DEFAULT_DIMENSIONS);
+    }
+    
+    /**
+     * Create a local embedding service.
+     * 
+     * @param dimensions The number of dimensions of the vectors
+     */
+    public LocalEmbeddingService(int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("Dimensions must be positive");
+        }
+        this.dimensions = dimensions;
+    }
+    
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        String normalized = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addWord(vector, normalized, start, i);
+                start = -1;
+            }
+        }
+        
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+    
+    @Override
+    public List<float[]> embedAll(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(embed(text));
+        }
+        return embeddings;
+    }
+    
+    @Override
+    public String getModel() {
+        return "local-hash-" + dimensions;
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+    
+    private void addWord(float[] vector, String text, int start, int end) {
+        add(vector, hash(text, start, end), 1f);
+        // Trigrams of the padded word make related word forms overlap
+        String padded = " " + text.substring(start, end) + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            add(vector, hash(padded, i, i + 3), 0.5f);
+        }
+    }
+    
+    private void add(float[] vector, int hash, float weight) {
+        int index = Math.floorMod(hash, dimensions);
+        // A second bit of the hash picks the sign, so collisions tend to cancel out
+        vector[index] += (hash & 0x40000000) == 0 ? weight : -weight;
+    }
+    
+    /**
+     * FNV-1a hash of a range of characters.
+     */
+    private static int hash(String text, int start, int end) {
+        int hash = 0x811c9dc5;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
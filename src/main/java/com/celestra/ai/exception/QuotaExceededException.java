@@ -0,0 +1,18 @@
+package com.celestra.ai.exception;
+
+/**
+ * Exception thrown when a call is refused locally because the company or agent
+ * it is made for has used up its AI quota. The call never reaches the provider.
+ */
+public class QuotaExceededException extends RateLimitException {
+    
+    /**
+     * Create a new quota exceeded exception.
+     * 
+     * @param message The error message
+     * @param retryAfterMs The time until part of the quota frees up in milliseconds
+     */
+    public QuotaExceededException(String message, long retryAfterMs) {
+        super(message, retryAfterMs);
+    }
+}
@@ -0,0 +1,29 @@
+package com.celestra.ai.exception;
+
+/**
+ * Exception thrown when an AI response does not match the expected structured output.
+ */
+public class StructuredOutputException extends AIServiceException {
+    
+    private final String output;
+    
+    /**
+     * Create a new structured output exception.
+     * 
+     * @param message The reason the output does not match
+     * @param output The output received up to the point where it stopped matching
+     */
+    public StructuredOutputException(String message, String output) {
+        super(message);
+        this.output = output;
+    }
+    
+    /**
+     * Get the output received up to the point where it stopped matching.
+     * 
+     * @return The partial output
+     */
+    public String getOutput() {
+        return output;
+    }
+}
@@ -0,0 +1,191 @@
+package com.celestra.ai.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.celestra.ai.telemetry.CallTelemetry;
+
+/**
+ * HttpClientWrapper that limits the number of concurrent requests to one provider.
+ * 
+ * Requests beyond the limit wait in FIFO order. Blocking requests wait on the
+ * calling thread; asynchronous requests wait without holding a thread and are sent
+ * when a permit is handed to them. A streamed request holds its permit until the
+ * response body is closed.
+ */
+public class BulkheadHttpClientWrapper implements HttpClientWrapper {
+    
+    private final HttpClientWrapper delegate;
+    private final HttpClientMetrics metrics;
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int available;
+    
+    /**
+     * Create a new bulkhead.
+     * 
+     * @param delegate The wrapper that sends the requests
+     * @param maxConcurrentRequests The maximum number of requests in flight
+     * @param metrics The metrics to update
+     */
+    public BulkheadHttpClientWrapper(HttpClientWrapper delegate, int maxConcurrentRequests, HttpClientMetrics metrics) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Max concurrent requests must be positive");
+        }
+        this.delegate = delegate;
+        this.available = maxConcurrentRequests;
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public SimpleHttpResponse sendRequest(HttpRequest request) throws IOException, InterruptedException {
+        acquire();
+        try {
+            return delegate.sendRequest(request);
+        } finally {
+            finish();
+        }
+    }
+    
+    @Override
+    public StreamingHttpResponse sendStreamingRequest(HttpRequest request) throws IOException, InterruptedException {
+        acquire();
+        StreamingHttpResponse response;
+        try {
+            response = delegate.sendStreamingRequest(request);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            finish();
+            throw e;
+        }
+        
+        AtomicBoolean released = new AtomicBoolean();
+        InputStream body = new FilterInputStream(response.body()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        finish();
+                    }
+                }
+            }
+        };
+        return new StreamingHttpResponse(response.statusCode(), body, response.headers());
+    }
+    
+    @Override
+    public CompletableFuture<SimpleHttpResponse> sendRequestAsync(HttpRequest request) {
+        // The exchange starts on the thread that releases the permit
+        CallTelemetry telemetry = CallTelemetry.current();
+        long queuedAt = System.nanoTime();
+        CompletableFuture<Void> permit = acquireAsync();
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        
+        permit.whenComplete((ignored, error) -> {
+            if (error != null) {
+                metrics.requestAbandoned();
+                result.completeExceptionally(error);
+                return;
+            }
+            metrics.requestStarted(System.nanoTime() - queuedAt);
+            if (result.isDone()) {
+                finish();
+                return;
+            }
+            
+            CompletableFuture<SimpleHttpResponse> exchange;
+            try {
+                exchange = telemetry.supply(() -> delegate.sendRequestAsync(request));
+            } catch (RuntimeException e) {
+                finish();
+                result.completeExceptionally(e);
+                return;
+            }
+            exchange.whenComplete((response, exchangeError) -> {
+                finish();
+                if (exchangeError != null) {
+                    result.completeExceptionally(exchangeError);
+                } else {
+                    result.complete(response);
+                }
+            });
+            // Cancelling the result aborts the exchange
+            result.whenComplete((response, resultError) -> exchange.cancel(true));
+        });
+        
+        // Cancelling the result while queued gives up the place in the queue
+        result.whenComplete((response, error) -> permit.cancel(false));
+        return result;
+    }
+    
+    /**
+     * Wait for a permit on the calling thread.
+     */
+    private void acquire() throws InterruptedException {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<Void> permit = acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            // If the permit was handed over concurrently it must be given back
+            if (!permit.cancel(false)) {
+                release();
+            }
+            metrics.requestAbandoned();
+            throw e;
+        } catch (ExecutionException e) {
+            // Permits are never completed exceptionally
+            throw new IllegalStateException(e);
+        }
+        metrics.requestStarted(System.nanoTime() - queuedAt);
+    }
+    
+    private CompletableFuture<Void> acquireAsync() {
+        metrics.requestQueued();
+        synchronized (this) {
+            if (available > 0) {
+                available--;
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            return waiter;
+        }
+    }
+    
+    private void finish() {
+        metrics.requestFinished();
+        release();
+    }
+    
+    /**
+     * Hand the permit to the next live waiter, or return it to the pool.
+     */
+    private void release() {
+        while (true) {
+            CompletableFuture<Void> waiter;
+            synchronized (this) {
+                waiter = waiters.poll();
+                if (waiter == null) {
+                    available++;
+                    return;
+                }
+            }
+            // Completing outside the lock runs the waiter's continuation without holding it
+            if (waiter.complete(null)) {
+                return;
+            }
+        }
+    }
+    
+    public HttpClientMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -1,20 +1,25 @@
 package com.celestra.ai.http;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.celestra.ai.telemetry.CallTelemetry;
 
 /**
  * Default implementation of HttpClientWrapper that uses the real HttpClient.
+ * 
+ * Plain requests report the arrival of the response headers to the
+ * {@link CallTelemetry} of the calling thread as the call's first byte.
  */
 public class DefaultHttpClientWrapper implements HttpClientWrapper {
     
     private final HttpClient httpClient;
+    private final HttpClientMetrics metrics;
     
     /**
      * Create a new DefaultHttpClientWrapper with the specified timeout.
@@ -22,9 +27,20 @@ public class DefaultHttpClientWrapper implements HttpClientWrapper {
      * @param timeoutSeconds The timeout in seconds
      */
     public DefaultHttpClientWrapper(int timeoutSeconds) {
-        this.httpClient = HttpClient.newBuilder()
+        this(HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(timeoutSeconds))
-                .build();
+                .build(), null);
+    }
+    
+    /**
+     * Create a new DefaultHttpClientWrapper around an existing client.
+     * 
+     * @param httpClient The client to use
+     * @param metrics The metrics that record the protocol of each response, or null
+     */
+    public DefaultHttpClientWrapper(HttpClient httpClient, HttpClientMetrics metrics) {
+        this.httpClient = httpClient;
+        this.metrics = metrics;
     }
     
     /**
@@ -36,14 +52,43 @@ public class DefaultHttpClientWrapper implements HttpClientWrapper {
     
     @Override
     public SimpleHttpResponse sendRequest(HttpRequest request) throws IOException, InterruptedException {
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        // Convert HttpResponse to SimpleHttpResponse
-        Map<String, List<String>> headers = new HashMap<>();
-        response.headers().map().forEach((key, values) -> {
-            headers.put(key, values);
-        });
-        
-        return new SimpleHttpResponse(response.statusCode(), response.body(), headers);
-    }
-}
\ No newline at end of file
+        HttpResponse<byte[]> response = httpClient.send(request,
+                timeFirstByte(HttpResponse.BodyHandlers.ofByteArray()));
+        recordResponse(response);
+        return new SimpleHttpResponse(response.statusCode(), response.body(), response.headers().map());
+    }
+    
+    @Override
+    public StreamingHttpResponse sendStreamingRequest(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        recordResponse(response);
+        return new StreamingHttpResponse(response.statusCode(), response.body(), response.headers().map());
+    }
+    
+    @Override
+    public CompletableFuture<SimpleHttpResponse> sendRequestAsync(HttpRequest request) {
+        return httpClient.sendAsync(request, timeFirstByte(HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> {
+                    recordResponse(response);
+                    return new SimpleHttpResponse(response.statusCode(), response.body(), response.headers().map());
+                });
+    }
+    
+    /**
+     * Wrap a body handler so that the call's telemetry learns when the headers arrive.
+     * The telemetry is captured here because the handler runs on an HTTP client thread.
+     */
+    private static <T> HttpResponse.BodyHandler<T> timeFirstByte(HttpResponse.BodyHandler<T> handler) {
+        CallTelemetry telemetry = CallTelemetry.current();
+        return responseInfo -> {
+            telemetry.recordFirstByte();
+            return handler.apply(responseInfo);
+        };
+    }
+    
+    private void recordResponse(HttpResponse<?> response) {
+        if (metrics != null) {
+            metrics.recordResponse(response.version());
+        }
+    }
+}
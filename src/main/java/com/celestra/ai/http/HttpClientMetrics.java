@@ -0,0 +1,160 @@
+package com.celestra.ai.http;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the requests sent through one provider's shared HTTP client.
+ * All methods are thread-safe and lock-free.
+ */
+public class HttpClientMetrics {
+    
+    private final String provider;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueTimeNanos = new LongAdder();
+    private final AtomicLong maxQueueTimeNanos = new AtomicLong();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder http11Responses = new LongAdder();
+    private final LongAdder clientsCreated = new LongAdder();
+    
+    /**
+     * Create metrics for a provider.
+     * 
+     * @param provider The provider name
+     */
+    public HttpClientMetrics(String provider) {
+        this.provider = provider;
+    }
+    
+    void clientCreated() {
+        clientsCreated.increment();
+    }
+    
+    void requestQueued() {
+        queued.incrementAndGet();
+    }
+    
+    /**
+     * Record that a request obtained a permit and is being sent.
+     * 
+     * @param waitedNanos The time spent waiting for the permit
+     */
+    void requestStarted(long waitedNanos) {
+        queued.decrementAndGet();
+        inFlight.incrementAndGet();
+        requests.increment();
+        queueTimeNanos.add(waitedNanos);
+        maxQueueTimeNanos.accumulateAndGet(waitedNanos, Math::max);
+    }
+    
+    void requestAbandoned() {
+        queued.decrementAndGet();
+        rejected.increment();
+    }
+    
+    void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+    
+    /**
+     * Record the protocol version of a response.
+     * 
+     * @param version The negotiated HTTP version
+     */
+    public void recordResponse(HttpClient.Version version) {
+        if (version == HttpClient.Version.HTTP_2) {
+            http2Responses.increment();
+        } else {
+            http11Responses.increment();
+        }
+    }
+    
+    public String getProvider() {
+        return provider;
+    }
+    
+    /**
+     * Get the number of requests currently being sent or streamed.
+     * 
+     * @return The number of in-flight requests
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * Get the number of requests waiting for the bulkhead.
+     * 
+     * @return The number of queued requests
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+    
+    public long getRequests() {
+        return requests.sum();
+    }
+    
+    /**
+     * Get the number of requests that gave up (cancelled or interrupted) while queued.
+     * 
+     * @return The number of abandoned requests
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+    
+    public double getAverageQueueTimeMs() {
+        long count = requests.sum();
+        return count == 0 ? 0 : (double) queueTimeNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+    
+    public long getMaxQueueTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxQueueTimeNanos.get());
+    }
+    
+    public long getHttp2Responses() {
+        return http2Responses.sum();
+    }
+    
+    public long getHttp11Responses() {
+        return http11Responses.sum();
+    }
+    
+    public long getClientsCreated() {
+        return clientsCreated.sum();
+    }
+    
+    /**
+     * Get the share of requests that reused an existing client, and therefore its
+     * connection pool and TLS sessions, rather than creating a new one.
+     * 
+     * @return The reuse ratio between 0 and 1
+     */
+    public double getClientReuseRatio() {
+        long count = requests.sum();
+        return count == 0 ? 0 : (double) Math.max(0, count - clientsCreated.sum()) / count;
+    }
+    
+    @Override
+    public String toString() {
+        return "HttpClientMetrics{" +
+                "provider='" + provider + '\'' +
+                ", inFlight=" + getInFlight() +
+                ", queued=" + getQueued() +
+                ", requests=" + getRequests() +
+                ", rejected=" + getRejected() +
+                ", averageQueueTimeMs=" + String.format("%.2f", getAverageQueueTimeMs()) +
+                ", maxQueueTimeMs=" + getMaxQueueTimeMs() +
+                ", http2Responses=" + getHttp2Responses() +
+                ", http11Responses=" + getHttp11Responses() +
+                ", clientReuseRatio=" + String.format("%.3f", getClientReuseRatio()) +
+                '}';
+    }
+}
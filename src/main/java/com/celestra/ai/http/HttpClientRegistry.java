@@ -0,0 +1,137 @@
+package com.celestra.ai.http;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import com.celestra.ai.AsyncRetryExecutor;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.ratelimit.RateLimitScheduler;
+import com.celestra.ai.ratelimit.RateLimitedHttpClientWrapper;
+
+/**
+ * Process-wide registry of HTTP clients for AI providers.
+ * 
+ * Each provider gets one long-lived HttpClient, so its connection pool, TLS
+ * sessions and HTTP/2 streams are reused by every service instance, behind a
+ * bulkhead that caps the requests in flight to that provider and a scheduler
+ * that keeps all callers within the provider's rate limits.
+ */
+public class HttpClientRegistry {
+    
+    private static final Logger LOGGER = Logger.getLogger(HttpClientRegistry.class.getName());
+    
+    /**
+     * Provider name of the OpenAI API
+     */
+    public static final String OPENAI = "openai";
+    
+    /**
+     * Provider name of the Claude API
+     */
+    public static final String CLAUDE = "claude";
+    
+    private static HttpClientRegistry instance;
+    
+    private final AIConfigurationManager configManager;
+    private final ExecutorService executor;
+    private final Map<String, HttpClientWrapper> clients = new ConcurrentHashMap<>();
+    private final Map<String, HttpClientMetrics> metrics = new ConcurrentHashMap<>();
+    private final Map<String, RateLimitScheduler> rateLimiters = new ConcurrentHashMap<>();
+    
+    /**
+     * Create a new registry.
+     * 
+     * @param configManager The configuration with the per-provider HTTP settings
+     */
+    public HttpClientRegistry(AIConfigurationManager configManager) {
+        this.configManager = configManager;
+        this.executor = createExecutor(configManager.getHttpExecutorThreads());
+    }
+    
+    /**
+     * Get the shared registry.
+     * 
+     * @return The registry
+     */
+    public static synchronized HttpClientRegistry getInstance() {
+        if (instance == null) {
+            instance = new HttpClientRegistry(AIConfigurationManager.getInstance());
+        }
+        return instance;
+    }
+    
+    /**
+     * Get the shared client of a provider, creating it on first use.
+     * 
+     * @param provider The provider name
+     * @return The client wrapper
+     */
+    public HttpClientWrapper getClient(String provider) {
+        return clients.computeIfAbsent(provider.toLowerCase(), this::createClient);
+    }
+    
+    /**
+     * Get the metrics of every provider client created so far.
+     * 
+     * @return The metrics keyed by provider name
+     */
+    public Map<String, HttpClientMetrics> getMetrics() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(metrics));
+    }
+    
+    /**
+     * Get the rate-limit scheduler of every provider client created so far,
+     * e.g. to report queue depths.
+     * 
+     * @return The schedulers keyed by provider name
+     */
+    public Map<String, RateLimitScheduler> getRateLimiters() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(rateLimiters));
+    }
+    
+    private HttpClientWrapper createClient(String provider) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(configManager.getHttpConnectTimeoutSeconds(provider)));
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        
+        HttpClientMetrics clientMetrics = new HttpClientMetrics(provider);
+        clientMetrics.clientCreated();
+        int maxConcurrent = configManager.getHttpMaxConcurrentRequests(provider);
+        RateLimitScheduler rateLimiter = new RateLimitScheduler(provider,
+                configManager.getRateLimitRequestsPerMinute(provider),
+                configManager.getRateLimitTokensPerMinute(provider),
+                AsyncRetryExecutor.getSharedScheduler());
+        metrics.put(provider, clientMetrics);
+        rateLimiters.put(provider, rateLimiter);
+        LOGGER.info("Created shared HTTP client for " + provider + " (max " + maxConcurrent + " concurrent requests)");
+        
+        // Requests wait for rate-limit budget before they queue for a connection
+        BulkheadHttpClientWrapper bulkhead = new BulkheadHttpClientWrapper(
+                new DefaultHttpClientWrapper(builder.build(), clientMetrics), maxConcurrent, clientMetrics);
+        return new RateLimitedHttpClientWrapper(bulkhead, rateLimiter);
+    }
+    
+    private static ExecutorService createExecutor(int threads) {
+        if (threads <= 0) {
+            return null;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ai-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
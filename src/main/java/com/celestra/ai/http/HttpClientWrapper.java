@@ -1,10 +1,15 @@
 package com.celestra.ai.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Wrapper interface for HttpClient to make it easier to test code that uses HttpClient.
@@ -13,11 +18,16 @@ public interface HttpClientWrapper {
     
     /**
      * A simple HTTP response class that contains only the data we need for testing.
+     * 
+     * The body is kept as the raw bytes received; it is only decoded into a string
+     * if {@link #body()} is called, so a successful response can be parsed straight
+     * from {@link #bodyStream()}.
      */
     class SimpleHttpResponse {
         private final int statusCode;
-        private final String body;
+        private final byte[] bodyBytes;
         private final Map<String, List<String>> headers;
+        private String body;
         
         /**
          * Create a new SimpleHttpResponse.
@@ -28,21 +38,105 @@ public interface HttpClientWrapper {
          */
         public SimpleHttpResponse(int statusCode, String body, Map<String, List<String>> headers) {
             this.statusCode = statusCode;
+            this.bodyBytes = null;
             this.body = body;
             this.headers = headers;
         }
         
+        /**
+         * Create a new SimpleHttpResponse from the raw body.
+         * 
+         * @param statusCode The HTTP status code
+         * @param body The response body as UTF-8 bytes
+         * @param headers The response headers
+         */
+        public SimpleHttpResponse(int statusCode, byte[] body, Map<String, List<String>> headers) {
+            this.statusCode = statusCode;
+            this.bodyBytes = body;
+            this.headers = headers;
+        }
+        
         public int statusCode() {
             return statusCode;
         }
         
+        /**
+         * Get the response body as a string, decoding it on first use.
+         * 
+         * @return The response body
+         */
         public String body() {
+            if (body == null && bodyBytes != null) {
+                body = new String(bodyBytes, StandardCharsets.UTF_8);
+            }
+            return body;
+        }
+        
+        /**
+         * Get the response body as a stream of UTF-8 bytes, without decoding it.
+         * 
+         * @return A new stream over the body
+         */
+        public InputStream bodyStream() {
+            if (bodyBytes != null) {
+                return new ByteArrayInputStream(bodyBytes);
+            }
+            return new ByteArrayInputStream(body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0]);
+        }
+        
+        public Map<String, List<String>> headers() {
+            return headers;
+        }
+    }
+    
+    /**
+     * An HTTP response whose body is read incrementally. The body must be closed
+     * to release the connection.
+     */
+    class StreamingHttpResponse implements Closeable {
+        private final int statusCode;
+        private final InputStream body;
+        private final Map<String, List<String>> headers;
+        
+        /**
+         * Create a new StreamingHttpResponse.
+         * 
+         * @param statusCode The HTTP status code
+         * @param body The response body stream
+         * @param headers The response headers
+         */
+        public StreamingHttpResponse(int statusCode, InputStream body, Map<String, List<String>> headers) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.headers = headers;
+        }
+        
+        public int statusCode() {
+            return statusCode;
+        }
+        
+        public InputStream body() {
             return body;
         }
         
         public Map<String, List<String>> headers() {
             return headers;
         }
+        
+        /**
+         * Read the remainder of the body as a string, e.g. for an error response.
+         * 
+         * @return The body
+         * @throws IOException if the body cannot be read
+         */
+        public String readBody() throws IOException {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
     }
     
     /**
@@ -51,4 +145,22 @@ public interface HttpClientWrapper {
      * @param request The HTTP request to send
      */
     SimpleHttpResponse sendRequest(HttpRequest request) throws IOException, InterruptedException;
-}
\ No newline at end of file
+    
+    /**
+     * Send an HTTP request and return as soon as the response headers arrive,
+     * leaving the body to be read as it is received.
+     * 
+     * @param request The HTTP request to send
+     * @return The response with an open body stream
+     */
+    StreamingHttpResponse sendStreamingRequest(HttpRequest request) throws IOException, InterruptedException;
+    
+    /**
+     * Send an HTTP request without blocking the calling thread.
+     * Cancelling the returned future aborts the exchange.
+     * 
+     * @param request The HTTP request to send
+     * @return A future for the simple HTTP response
+     */
+    CompletableFuture<SimpleHttpResponse> sendRequestAsync(HttpRequest request);
+}
@@ -0,0 +1,105 @@
+package com.celestra.ai.http;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental parser for a text/event-stream response body.
+ * Events are parsed line by line as bytes arrive, so each event is available as
+ * soon as its terminating blank line has been received.
+ */
+public class ServerSentEventReader implements Closeable {
+    
+    /**
+     * A single server-sent event.
+     */
+    public static class ServerSentEvent {
+        private final String event;
+        private final String data;
+        
+        /**
+         * Create a new event.
+         * 
+         * @param event The event name, or null if the event had no event field
+         * @param data The event data, with multiple data lines joined by newlines
+         */
+        public ServerSentEvent(String event, String data) {
+            this.event = event;
+            this.data = data;
+        }
+        
+        public String getEvent() {
+            return event;
+        }
+        
+        public String getData() {
+            return data;
+        }
+    }
+    
+    private final BufferedReader reader;
+    
+    /**
+     * Create a new reader over an event stream.
+     * 
+     * @param inputStream The response body
+     */
+    public ServerSentEventReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Read the next event, blocking until it is complete.
+     * Comment lines and events without data are skipped.
+     * 
+     * @return The next event, or null at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    public ServerSentEvent next() throws IOException {
+        String event = null;
+        StringBuilder data = null;
+        String line;
+        
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data != null) {
+                    return new ServerSentEvent(event, data.toString());
+                }
+                event = null;
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue;
+            }
+            
+            int colon = line.indexOf(':');
+            String field = colon >= 0 ? line.substring(0, colon) : line;
+            String value = colon >= 0 ? line.substring(colon + 1) : "";
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            
+            if ("event".equals(field)) {
+                event = value;
+            } else if ("data".equals(field)) {
+                if (data == null) {
+                    data = new StringBuilder(value);
+                } else {
+                    data.append('\n').append(value);
+                }
+            }
+        }
+        
+        // A final event without a trailing blank line is still dispatched
+        return data != null ? new ServerSentEvent(event, data.toString()) : null;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,175 @@
+package com.celestra.ai.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.model.ConversationTurn;
+
+/**
+ * The working memory of one agent chat session: a rolling summary of the older
+ * turns and a window of the recent ones, in the order they are sent to the model.
+ * 
+ * Instances are obtained from a {@link ConversationMemoryStore}, which persists
+ * every turn and folds the oldest turns of the window into the summary when the
+ * memory grows past its token threshold. All methods are thread-safe.
+ */
+public class ConversationMemory {
+    
+    static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+    
+    private final Integer sessionId;
+    private final Integer agentId;
+    private final String sessionKey;
+    private final List<ConversationTurn> window = new ArrayList<>();
+    private String summary;
+    private int summaryTokens;
+    private int summarizedThrough;
+    private int windowTokens;
+    private int lastTurnIndex;
+    private boolean compacting;
+    
+    ConversationMemory(Integer sessionId, Integer agentId, String sessionKey, String summary, int summaryTokens,
+                       int summarizedThrough, List<ConversationTurn> turns) {
+        this.sessionId = sessionId;
+        this.agentId = agentId;
+        this.sessionKey = sessionKey;
+        this.summary = summary;
+        this.summaryTokens = summaryTokens;
+        this.summarizedThrough = summarizedThrough;
+        this.lastTurnIndex = summarizedThrough;
+        for (ConversationTurn turn : turns) {
+            add(turn);
+        }
+    }
+    
+    public Integer getSessionId() {
+        return sessionId;
+    }
+    
+    public Integer getAgentId() {
+        return agentId;
+    }
+    
+    public String getSessionKey() {
+        return sessionKey;
+    }
+    
+    /**
+     * Get the messages that represent the conversation in a prompt: the summary as
+     * a system message, if there is one, followed by the recent turns.
+     * 
+     * @return A copy of the messages
+     */
+    public synchronized List<ChatMessage> getMessages() {
+        List<ChatMessage> messages = new ArrayList<>(window.size() + 1);
+        if (summary != null) {
+            messages.add(new ChatMessage("system", SUMMARY_PREFIX + summary));
+        }
+        for (ConversationTurn turn : window) {
+            messages.add(new ChatMessage(turn.getRole(), turn.getContent()));
+        }
+        return messages;
+    }
+    
+    /**
+     * Get the rolling summary of the turns no longer in the window.
+     * 
+     * @return The summary, or null if no turn has been summarized
+     */
+    public synchronized String getSummary() {
+        return summary;
+    }
+    
+    /**
+     * Get the turns in the window.
+     * 
+     * @return A copy of the turns, oldest first
+     */
+    public synchronized List<ConversationTurn> getWindow() {
+        return Collections.unmodifiableList(new ArrayList<>(window));
+    }
+    
+    /**
+     * Get the estimated prompt tokens of the summary and the window together.
+     * 
+     * @return The number of tokens
+     */
+    public synchronized int getTokens() {
+        return summaryTokens + windowTokens;
+    }
+    
+    /**
+     * Get the number of turns in the session, including the summarized ones.
+     * 
+     * @return The number of turns
+     */
+    public synchronized int getTurnCount() {
+        return lastTurnIndex;
+    }
+    
+    synchronized int getSummarizedThrough() {
+        return summarizedThrough;
+    }
+    
+    /**
+     * Create the next turn of the session. The caller holds the memory's lock
+     * until the turn is persisted and added, so turn indexes stay contiguous.
+     */
+    ConversationTurn nextTurn(String role, String content, int tokens) {
+        return new ConversationTurn(sessionId, lastTurnIndex + 1, role, content, tokens);
+    }
+    
+    synchronized void add(ConversationTurn turn) {
+        window.add(turn);
+        windowTokens += turn.getTokenCount();
+        lastTurnIndex = turn.getTurnIndex();
+    }
+    
+    /**
+     * Select the oldest turns to fold into the summary, so that the window keeps
+     * about {@code keepTokens}. The latest turn is always kept, and the window
+     * never starts with an assistant reply.
+     * 
+     * @return The turns to summarize, or an empty list if there is nothing to do
+     *         or another compaction is in flight
+     */
+    synchronized List<ConversationTurn> startCompaction(int keepTokens) {
+        if (compacting) {
+            return List.of();
+        }
+        int remaining = windowTokens;
+        int count = 0;
+        while (count < window.size() - 1
+                && (remaining > keepTokens || "assistant".equals(window.get(count).getRole()))) {
+            remaining -= window.get(count).getTokenCount();
+            count++;
+        }
+        if (count == 0) {
+            return List.of();
+        }
+        compacting = true;
+        return new ArrayList<>(window.subList(0, count));
+    }
+    
+    /**
+     * Replace the summary and drop the turns it now covers from the window.
+     */
+    synchronized void finishCompaction(String newSummary, int newSummaryTokens, int through) {
+        compacting = false;
+        if (through <= summarizedThrough) {
+            return;
+        }
+        while (!window.isEmpty() && window.get(0).getTurnIndex() <= through) {
+            windowTokens -= window.remove(0).getTokenCount();
+        }
+        summary = newSummary;
+        summaryTokens = newSummaryTokens;
+        summarizedThrough = through;
+    }
+    
+    synchronized void abortCompaction() {
+        compacting = false;
+    }
+}
@@ -0,0 +1,290 @@
+package com.celestra.ai.memory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionServiceFactory;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.context.CompletionSummarizer;
+import com.celestra.ai.context.ContextSummarizer;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.dao.ConversationDao;
+import com.celestra.dao.impl.ConversationDaoImpl;
+import com.celestra.model.ConversationSession;
+import com.celestra.model.ConversationTurn;
+
+/**
+ * Keeps the memories of agent chat sessions bounded, so that the prompt of a turn
+ * stays about the same size however long the conversation runs.
+ * 
+ * Every turn is persisted as it is appended. When the summary and recent turns of
+ * a memory grow past the compaction threshold, the oldest turns are folded into
+ * the rolling summary in the background; the turn that crossed the threshold is
+ * not delayed by it. Memories are loaded lazily, from the summary and the turns
+ * after it, and the least recently used ones are dropped from memory beyond a
+ * maximum number of sessions.
+ */
+public class ConversationMemoryStore {
+    
+    private static final Logger LOGGER = Logger.getLogger(ConversationMemoryStore.class.getName());
+    
+    private static ConversationMemoryStore instance;
+    
+    private final ConversationDao conversationDao;
+    private final ContextSummarizer summarizer;
+    private final TokenEstimator estimator;
+    private final int compactTokens;
+    private final int keepTokens;
+    private final Executor compactionExecutor;
+    private final Map<String, ConversationMemory> memories;
+    
+    /**
+     * Create a store with the configured thresholds, persisted in the database and
+     * summarized by the default chat completion service.
+     */
+    public ConversationMemoryStore() {
+        this(AIConfigurationManager.getInstance());
+    }
+    
+    private ConversationMemoryStore(AIConfigurationManager configManager) {
+        this(new ConversationDaoImpl(),
+                new CompletionSummarizer(ChatCompletionServiceFactory.getDefaultService(),
+                        configManager.getMemorySummaryMaxWords()),
+                new TokenEstimator(), configManager.getMemoryCompactTokens(), configManager.getMemoryKeepTokens(),
+                configManager.getMemoryMaxSessions(),
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "ai-memory-compaction");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+    
+    /**
+     * Create a store.
+     * 
+     * @param conversationDao The DAO that persists sessions and turns
+     * @param summarizer The summarizer that folds old turns into the rolling summary
+     * @param estimator The token estimator
+     * @param compactTokens The size of a memory above which it is compacted
+     * @param keepTokens The size of the recent turns kept verbatim by a compaction
+     * @param maxSessions The maximum number of memories kept loaded
+     * @param compactionExecutor The executor that runs compactions
+     */
+    public ConversationMemoryStore(ConversationDao conversationDao, ContextSummarizer summarizer,
+                                   TokenEstimator estimator, int compactTokens, int keepTokens, int maxSessions,
+                                   Executor compactionExecutor) {
+        if (keepTokens <= 0 || keepTokens >= compactTokens) {
+            throw new IllegalArgumentException("Keep tokens must be positive and below the compaction threshold");
+        }
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Max sessions must be positive");
+        }
+        this.conversationDao = conversationDao;
+        this.summarizer = summarizer;
+        this.estimator = estimator;
+        this.compactTokens = compactTokens;
+        this.keepTokens = keepTokens;
+        this.compactionExecutor = compactionExecutor;
+        this.memories = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConversationMemory> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+    
+    /**
+     * Get the store shared by the application.
+     * 
+     * @return The shared store
+     */
+    public static synchronized ConversationMemoryStore getInstance() {
+        if (instance == null) {
+            instance = new ConversationMemoryStore();
+        }
+        return instance;
+    }
+    
+    /**
+     * Get the memory of a session, loading or creating it on first use.
+     * 
+     * @param agentId The ID of the agent the conversation is held with
+     * @param sessionKey The caller-defined key of the session
+     * @return The memory
+     * @throws SQLException If the memory cannot be loaded
+     */
+    public ConversationMemory getMemory(Integer agentId, String sessionKey) throws SQLException {
+        if (agentId == null || sessionKey == null || sessionKey.isEmpty()) {
+            throw new IllegalArgumentException("Agent ID and session key are required");
+        }
+        String key = agentId + ":" + sessionKey;
+        synchronized (memories) {
+            ConversationMemory memory = memories.get(key);
+            if (memory != null) {
+                return memory;
+            }
+        }
+        
+        // Load outside the lock; a concurrent load of the same session is discarded
+        ConversationSession session = conversationDao.findOrCreateSession(agentId, sessionKey);
+        List<ConversationTurn> turns = conversationDao.findTurnsAfter(session.getId(),
+                session.getSummarizedThrough());
+        int summaryTokens = session.getSummary() != null
+                ? estimator.estimate(new ChatMessage("system", ConversationMemory.SUMMARY_PREFIX
+                        + session.getSummary()))
+                : 0;
+        ConversationMemory loaded = new ConversationMemory(session.getId(), agentId, sessionKey,
+                session.getSummary(), summaryTokens, session.getSummarizedThrough(), turns);
+        
+        ConversationMemory memory;
+        synchronized (memories) {
+            memory = memories.putIfAbsent(key, loaded);
+        }
+        if (memory != null) {
+            return memory;
+        }
+        scheduleCompaction(loaded);
+        return loaded;
+    }
+    
+    /**
+     * Append a message to a memory and persist it. If the memory is now over the
+     * compaction threshold, a compaction is started in the background.
+     * 
+     * @param memory The memory
+     * @param message The message, usually from the user or the assistant
+     * @throws SQLException If the message cannot be persisted; the memory is then unchanged
+     */
+    public void append(ConversationMemory memory, ChatMessage message) throws SQLException {
+        String content = message.getContent() != null ? message.getContent() : "";
+        int tokens = estimator.estimate(message);
+        synchronized (memory) {
+            ConversationTurn turn = memory.nextTurn(message.getRole(), content, tokens);
+            memory.add(conversationDao.appendTurn(turn));
+        }
+        scheduleCompaction(memory);
+    }
+    
+    /**
+     * Hold one turn of a conversation: append the user message, get the reply to
+     * the instructions and the memory, and append the reply. The reply is made for
+     * the company of the current {@link TelemetryContext} and the agent of the memory.
+     * 
+     * @param service The service that replies
+     * @param memory The memory of the session
+     * @param instructions The messages sent before the memory, such as the agent's system prompt
+     * @param userMessage The user message
+     * @return The reply
+     * @throws Exception If the call or persisting the turn fails
+     */
+    public String chat(ChatCompletionService service, ConversationMemory memory, List<ChatMessage> instructions,
+                       String userMessage) throws Exception {
+        append(memory, new ChatMessage("user", userMessage));
+        
+        List<ChatMessage> prompt = new ArrayList<>(instructions);
+        prompt.addAll(memory.getMessages());
+        String reply = callerOf(memory).call(() -> service.getChatCompletion(prompt));
+        
+        append(memory, new ChatMessage("assistant", reply));
+        return reply;
+    }
+    
+    /**
+     * Delete a session and forget its memory.
+     * 
+     * @param memory The memory of the session
+     * @return true if the session was deleted, false if it no longer existed
+     * @throws SQLException If the session cannot be deleted
+     */
+    public boolean clear(ConversationMemory memory) throws SQLException {
+        synchronized (memories) {
+            memories.remove(memory.getAgentId() + ":" + memory.getSessionKey());
+        }
+        return conversationDao.deleteSession(memory.getSessionId());
+    }
+    
+    /**
+     * Get the number of memories currently loaded.
+     * 
+     * @return The number of memories
+     */
+    public int getLoadedCount() {
+        synchronized (memories) {
+            return memories.size();
+        }
+    }
+    
+    private void scheduleCompaction(ConversationMemory memory) {
+        if (memory.getTokens() <= compactTokens) {
+            return;
+        }
+        List<ConversationTurn> turns = memory.startCompaction(keepTokens);
+        if (turns.isEmpty()) {
+            return;
+        }
+        TelemetryContext caller = callerOf(memory);
+        try {
+            compactionExecutor.execute(() -> compact(memory, turns, caller));
+        } catch (RuntimeException e) {
+            memory.abortCompaction();
+            LOGGER.log(Level.WARNING, "Could not schedule the compaction of conversation "
+                    + memory.getSessionId(), e);
+        }
+    }
+    
+    /**
+     * Get the caller of the calls made for a memory: the company of the current
+     * context and the agent the conversation is held with.
+     */
+    private static TelemetryContext callerOf(ConversationMemory memory) {
+        TelemetryContext current = TelemetryContext.current();
+        if (current.getAgentId() != null) {
+            return current;
+        }
+        return TelemetryContext.of(current.getCompanyId(), memory.getAgentId(), current.getAgent());
+    }
+    
+    private void compact(ConversationMemory memory, List<ConversationTurn> turns, TelemetryContext caller) {
+        int through = turns.get(turns.size() - 1).getTurnIndex();
+        try {
+            List<ChatMessage> messages = new ArrayList<>(turns.size() + 1);
+            String previous = memory.getSummary();
+            if (previous != null) {
+                messages.add(new ChatMessage("system", previous));
+            }
+            for (ConversationTurn turn : turns) {
+                messages.add(new ChatMessage(turn.getRole(), turn.getContent()));
+            }
+            
+            String summary = caller.call(() -> summarizer.summarize(messages));
+            if (summary == null || summary.isBlank()) {
+                throw new IllegalStateException("The summarizer returned no summary");
+            }
+            summary = summary.trim();
+            
+            conversationDao.updateSummary(memory.getSessionId(), summary, through);
+            memory.finishCompaction(summary,
+                    estimator.estimate(new ChatMessage("system", ConversationMemory.SUMMARY_PREFIX + summary)),
+                    through);
+            LOGGER.fine("Compacted conversation " + memory.getSessionId() + " through turn " + through
+                    + " (~" + memory.getTokens() + " tokens)");
+        } catch (Exception e) {
+            // The turns stay in the window and the next append tries again
+            memory.abortCompaction();
+            LOGGER.log(Level.WARNING, "Could not compact conversation " + memory.getSessionId()
+                    + " through turn " + through, e);
+        }
+    }
+}
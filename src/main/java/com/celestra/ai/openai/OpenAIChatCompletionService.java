@@ -1,23 +1,37 @@
 package com.celestra.ai.openai;
 
+import com.celestra.ai.AsyncRetryExecutor;
 import com.celestra.ai.ChatCompletionService;
 import com.celestra.ai.config.AIConfigurationManager;
-import com.celestra.ai.http.DefaultHttpClientWrapper;
+import com.celestra.ai.context.ContextFitter;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.http.HttpClientRegistry;
 import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.ServerSentEventReader;
 import com.celestra.ai.exception.AIServiceException;
 import com.celestra.ai.exception.AuthenticationException;
 import com.celestra.ai.exception.InvalidRequestException;
 import com.celestra.ai.exception.RateLimitException;
 import com.celestra.ai.exception.ServerException;
+import com.celestra.ai.telemetry.CallTelemetry;
+import com.celestra.ai.tool.ToolCall;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,6 +40,8 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 /**
  * Implementation of the ChatCompletionService interface for OpenAI.
@@ -38,15 +54,19 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
     
     private final AIConfigurationManager configManager;
     private final HttpClientWrapper httpClient;
+    private final AsyncRetryExecutor retryExecutor;
     private final Gson gson;
+    private final ContextFitter contextFitter;
     
     /**
      * Create a new OpenAI chat completion service.
      */
     public OpenAIChatCompletionService() {
         this.configManager = AIConfigurationManager.getInstance();
-        this.httpClient = new DefaultHttpClientWrapper(DEFAULT_TIMEOUT_SECONDS);
+        this.httpClient = HttpClientRegistry.getInstance().getClient(HttpClientRegistry.OPENAI);
+        this.retryExecutor = new AsyncRetryExecutor();
         this.gson = new Gson();
+        this.contextFitter = new ContextFitter(new TokenEstimator());
     }
     
     /**
@@ -54,41 +74,54 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
      * This constructor is primarily used for testing.
      */
     public OpenAIChatCompletionService(AIConfigurationManager configManager, HttpClientWrapper httpClient) {
+        this(configManager, httpClient, new AsyncRetryExecutor());
+    }
+    
+    /**
+     * Create a new OpenAI chat completion service with a custom HTTP client wrapper and
+     * retry executor for asynchronous calls.
+     * This constructor is primarily used for testing.
+     */
+    public OpenAIChatCompletionService(AIConfigurationManager configManager, HttpClientWrapper httpClient,
+                                       AsyncRetryExecutor retryExecutor) {
         this.configManager = configManager;
         this.httpClient = httpClient;
+        this.retryExecutor = retryExecutor;
         this.gson = new Gson();
+        this.contextFitter = new ContextFitter(new TokenEstimator());
     }
     
     @Override
     public String getChatCompletion(List<ChatMessage> messages) throws Exception {
-        Map<String, Object> parameters = new HashMap<>();
-        parameters.put("max_completion_tokens", configManager.getOpenAIMaxTokens());
-        
-        return getChatCompletion(messages, parameters);
+        return getChatCompletion(messages, getDefaultParameters());
     }
     
     @Override
     public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
-        String apiKey = configManager.getOpenAIApiKey();
-        if (apiKey == null || apiKey.isEmpty() || "your-openai-api-key".equals(apiKey)) {
-            throw new AuthenticationException("OpenAI API key is not configured");
-        }
-        
-        // Prepare the request body
-        Map<String, Object> requestBody = new HashMap<>(parameters);
-        requestBody.put("model", configManager.getOpenAIModel());
-        requestBody.put("messages", convertMessages(messages));
-        
-        String requestBodyJson = gson.toJson(requestBody);
-        
-        // Create the HTTP request
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(API_URL))
-                .header("Content-Type", "application/json")
-                .header("Authorization", "Bearer " + apiKey)
-                .POST(HttpRequest.BodyPublishers.ofString(requestBodyJson))
-                .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
-                .build();
+        HttpRequest request = createRequest(messages, parameters, false);
+        CallTelemetry telemetry = CallTelemetry.current();
+        return send(request, response -> handleResponse(response, telemetry));
+    }
+    
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        HttpRequest request = createRequest(messages, parameters, false, tools);
+        CallTelemetry telemetry = CallTelemetry.current();
+        return send(request, response -> handleResponse(response, body -> extractToolCompletion(body, telemetry)));
+    }
+    
+    /**
+     * Send a request, retrying on rate limits, server errors and I/O errors.
+     * 
+     * @param <T> The result type
+     * @param request The HTTP request
+     * @param handler Turns the response into the result, or throws for an error response
+     * @return The result
+     * @throws Exception If the request fails after all retries, or with an error that is not retried
+     */
+    private <T> T send(HttpRequest request, ResponseHandler<T> handler) throws Exception {
+        CallTelemetry telemetry = CallTelemetry.current();
         
         // Execute the request with retry logic
         int maxRetries = configManager.getOpenAIRetryAttempts();
@@ -98,12 +131,13 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
         for (int attempt = 0; attempt <= maxRetries; attempt++) {
             try {
                 if (attempt > 0) {
+                    telemetry.recordRetry();
                     LOGGER.info("Retrying OpenAI API call (attempt " + attempt + " of " + maxRetries + ")");
                     Thread.sleep(retryDelayMs * attempt); // Exponential backoff
                 }
                 
                 HttpClientWrapper.SimpleHttpResponse response = httpClient.sendRequest(request);
-                return handleResponse(response);
+                return handler.handle(response);
             } catch (RateLimitException e) {
                 LOGGER.warning("Rate limit exceeded: " + e.getMessage());
                 lastException = e;
@@ -112,7 +146,14 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
                 if (retryAfter > 0) {
                     Thread.sleep(retryAfter);
                 }
-            } catch (IOException | InterruptedException e) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+                    // The call was cancelled, e.g. because its session ended; don't place it again
+                    throw e;
+                }
                 LOGGER.log(Level.WARNING, "Error calling OpenAI API", e);
                 lastException = e;
             } catch (AIServiceException e) {
@@ -134,42 +175,278 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
         throw new AIServiceException("Failed to get chat completion");
     }
     
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return getChatCompletionAsync(messages, getDefaultParameters());
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        HttpRequest request;
+        try {
+            request = createRequest(messages, parameters, false);
+        } catch (AuthenticationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        // The response is handled on an HTTP thread, which has no telemetry installed
+        CallTelemetry telemetry = CallTelemetry.current();
+        return retryExecutor.execute(
+                () -> httpClient.sendRequestAsync(request).thenApply(response -> {
+                    try {
+                        return handleResponse(response, telemetry);
+                    } catch (AIServiceException e) {
+                        throw new CompletionException(e);
+                    }
+                }),
+                configManager.getOpenAIRetryAttempts(),
+                configManager.getOpenAIRetryDelayMs(),
+                "OpenAI");
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        return streamChatCompletion(messages, getDefaultParameters(), listener);
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        HttpRequest request = createRequest(messages, parameters, true);
+        CallTelemetry telemetry = CallTelemetry.current();
+        
+        // Retry only until the first fragment has been delivered; after that a
+        // retry would repeat text the listener has already received
+        int maxRetries = configManager.getOpenAIRetryAttempts();
+        int retryDelayMs = configManager.getOpenAIRetryDelayMs();
+        
+        Exception lastException = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            StringBuilder completion = new StringBuilder();
+            try {
+                if (attempt > 0) {
+                    telemetry.recordRetry();
+                    LOGGER.info("Retrying OpenAI streaming call (attempt " + attempt + " of " + maxRetries + ")");
+                    Thread.sleep(retryDelayMs * attempt); // Exponential backoff
+                }
+                
+                try (HttpClientWrapper.StreamingHttpResponse response = httpClient.sendStreamingRequest(request)) {
+                    if (response.statusCode() != 200) {
+                        handleResponse(new HttpClientWrapper.SimpleHttpResponse(
+                                response.statusCode(), response.readBody(), response.headers()), telemetry);
+                    }
+                    readStream(response.body(), completion, listener, telemetry);
+                }
+                
+                String result = completion.toString();
+                listener.onComplete(result);
+                return result;
+            } catch (RateLimitException e) {
+                LOGGER.warning("Rate limit exceeded: " + e.getMessage());
+                lastException = e;
+                long retryAfter = e.getRetryAfterMs();
+                if (retryAfter > 0) {
+                    Thread.sleep(retryAfter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+                    // The call was cancelled, e.g. because its session ended; don't place it again
+                    throw e;
+                }
+                if (completion.length() > 0) {
+                    throw new AIServiceException("OpenAI stream interrupted after partial response", e);
+                }
+                LOGGER.log(Level.WARNING, "Error calling OpenAI API", e);
+                lastException = e;
+            } catch (AIServiceException e) {
+                if (e instanceof AuthenticationException || e instanceof InvalidRequestException
+                        || completion.length() > 0) {
+                    throw e;
+                }
+                LOGGER.log(Level.WARNING, "OpenAI API error: " + e.getMessage(), e);
+                lastException = e;
+            }
+        }
+        
+        if (lastException != null) {
+            throw new AIServiceException("Failed to stream chat completion after " + maxRetries + " retries",
+                    lastException);
+        }
+        
+        throw new AIServiceException("Failed to stream chat completion");
+    }
+    
+    /**
+     * Get the default parameters from the configuration.
+     * 
+     * @return The default parameters
+     */
+    private Map<String, Object> getDefaultParameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("max_completion_tokens", configManager.getOpenAIMaxTokens());
+        return parameters;
+    }
+    
+    /**
+     * Get the number of tokens the completion may use, which the prompt must leave free.
+     * 
+     * @param parameters Custom parameters for the API call
+     * @return The number of tokens
+     */
+    private int getReservedTokens(Map<String, Object> parameters) {
+        for (String key : new String[] {"max_completion_tokens", "max_tokens"}) {
+            Object value = parameters.get(key);
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            }
+        }
+        return configManager.getOpenAIMaxTokens();
+    }
+    
+    /**
+     * Create the HTTP request for a chat completion.
+     * 
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call
+     * @param stream Whether the response should be streamed as server-sent events
+     * @return The HTTP request
+     * @throws AuthenticationException If the API key is not configured
+     */
+    private HttpRequest createRequest(List<ChatMessage> messages, Map<String, Object> parameters, boolean stream)
+            throws AuthenticationException {
+        return createRequest(messages, parameters, stream, List.of());
+    }
+    
+    /**
+     * Create the HTTP request for a chat completion with tools.
+     * 
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call
+     * @param stream Whether the response should be streamed as server-sent events
+     * @param tools The tools the model may call
+     * @return The HTTP request
+     * @throws AuthenticationException If the API key is not configured
+     */
+    private HttpRequest createRequest(List<ChatMessage> messages, Map<String, Object> parameters, boolean stream,
+                                      List<ToolDefinition> tools) throws AuthenticationException {
+        String apiKey = configManager.getOpenAIApiKey();
+        if (apiKey == null || apiKey.isEmpty() || "your-openai-api-key".equals(apiKey)) {
+            throw new AuthenticationException("OpenAI API key is not configured");
+        }
+        
+        // Prepare the request body
+        Map<String, Object> requestBody = new HashMap<>(parameters);
+        // A "model" parameter, e.g. from model tier routing, overrides the configured model
+        String model = parameters.get("model") instanceof String
+                ? (String) parameters.get("model") : configManager.getOpenAIModel();
+        requestBody.put("model", model);
+        CallTelemetry.current().setModel(model);
+        // Trim the prompt here rather than have the API reject it as too long
+        List<ChatMessage> fitted = contextFitter.fit(messages, configManager.getOpenAITokenLimit(), getReservedTokens(parameters));
+        requestBody.put("messages", convertMessages(fitted));
+        if (!tools.isEmpty()) {
+            requestBody.put("tools", convertTools(tools));
+        }
+        
+        if (stream) {
+            requestBody.put("stream", true);
+            // Without this the stream does not report token usage
+            requestBody.put("stream_options", Map.of("include_usage", true));
+        }
+        
+        String requestBodyJson = gson.toJson(requestBody);
+        
+        // Create the HTTP request
+        String apiUrl = configManager.getOpenAIApiUrl();
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl != null ? apiUrl : API_URL))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(requestBodyJson))
+                .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
+                .build();
+    }
+    
     /**
      * Convert a list of ChatMessage objects to the format expected by the OpenAI API.
      * 
      * @param messages The list of chat messages
      * @return A list of maps representing the messages in the OpenAI API format
      */
-    private List<Map<String, String>> convertMessages(List<ChatMessage> messages) {
-        List<Map<String, String>> result = new ArrayList<>();
+    private List<Map<String, Object>> convertMessages(List<ChatMessage> messages) {
+        List<Map<String, Object>> result = new ArrayList<>();
         for (ChatMessage message : messages) {
-            Map<String, String> messageMap = new HashMap<>();
+            Map<String, Object> messageMap = new HashMap<>();
             messageMap.put("role", message.getRole());
             messageMap.put("content", message.getContent());
+            if (message.getToolCalls() != null) {
+                List<Map<String, Object>> toolCalls = new ArrayList<>();
+                for (ToolCall call : message.getToolCalls()) {
+                    toolCalls.add(Map.of("id", call.getId(), "type", "function",
+                            "function", Map.of("name", call.getName(), "arguments", call.getArguments())));
+                }
+                messageMap.put("tool_calls", toolCalls);
+            }
+            if (message.getToolCallId() != null) {
+                messageMap.put("tool_call_id", message.getToolCallId());
+            }
             result.add(messageMap);
         }
         return result;
     }
     
+    /**
+     * Convert tool definitions to the function tools of the OpenAI API.
+     */
+    private static List<Map<String, Object>> convertTools(List<ToolDefinition> tools) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ToolDefinition tool : tools) {
+            result.add(Map.of("type", "function", "function", Map.of(
+                    "name", tool.getName(),
+                    "description", tool.getDescription(),
+                    "parameters", tool.getParameters().toJsonSchema())));
+        }
+        return result;
+    }
+    
     /**
      * Handle the HTTP response from the OpenAI API.
      * 
      * @param response The HTTP response
+     * @param telemetry The telemetry of the call, which receives the token usage
      * @return The generated text
      * @throws AIServiceException If an error occurs
      */
-    private String handleResponse(HttpClientWrapper.SimpleHttpResponse response) throws AIServiceException {
+    private String handleResponse(HttpClientWrapper.SimpleHttpResponse response, CallTelemetry telemetry)
+            throws AIServiceException {
+        return handleResponse(response, body -> extractResponseText(body, telemetry));
+    }
+    
+    /**
+     * Handle the HTTP response from the OpenAI API.
+     * 
+     * @param <T> The result type
+     * @param response The HTTP response
+     * @param parser Reads the result from the body of a successful response
+     * @return The result
+     * @throws AIServiceException If an error occurs
+     */
+    private <T> T handleResponse(HttpClientWrapper.SimpleHttpResponse response, BodyParser<T> parser)
+            throws AIServiceException {
         int statusCode = response.statusCode();
-        String responseBody = response.body();
         
         if (statusCode == 200) {
             try {
-                return extractResponseText(responseBody);
+                return parser.parse(response.bodyStream());
             } catch (Exception e) {
                 throw new AIServiceException("Failed to parse OpenAI API response", e);
             }
         } else {
-            String errorMessage = extractErrorMessage(responseBody);
+            String errorMessage = extractErrorMessage(response.body());
             
             switch (statusCode) {
                 case 400:
@@ -200,25 +477,171 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
     }
     
     /**
-     * Extract the generated text from the OpenAI API response.
+     * Extract the generated text from the OpenAI API response and record its token usage.
+     * 
+     * The body is read with a streaming reader that only keeps
+     * choices[0].message.content and the usage counts and skips every other field,
+     * so no tree of the response is built.
      * 
      * @param responseBody The response body
+     * @param telemetry The telemetry of the call
      * @return The generated text
      * @throws Exception If an error occurs
      */
-    private String extractResponseText(String responseBody) throws Exception {
-        JsonObject jsonResponse = JsonParser.parseString(responseBody).getAsJsonObject();
-        JsonArray choices = jsonResponse.getAsJsonArray("choices");
+    private String extractResponseText(InputStream responseBody, CallTelemetry telemetry) throws Exception {
+        String text = null;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("choices".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    text = readFirstContent(reader);
+                } else if ("usage".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    recordUsage(JsonParser.parseReader(reader).getAsJsonObject(), telemetry);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        
+        if (text == null) {
+            throw new AIServiceException("No content found in OpenAI API response");
+        }
+        return text;
+    }
+    
+    /**
+     * Extract the text and the tool calls from the OpenAI API response and record its token usage.
+     * 
+     * @param responseBody The response body
+     * @param telemetry The telemetry of the call
+     * @return The tool completion
+     * @throws Exception If an error occurs
+     */
+    private ToolCompletion extractToolCompletion(InputStream responseBody, CallTelemetry telemetry) throws Exception {
+        JsonObject json = JsonParser.parseReader(new InputStreamReader(responseBody, StandardCharsets.UTF_8))
+                .getAsJsonObject();
+        JsonElement usage = json.get("usage");
+        if (usage != null && usage.isJsonObject()) {
+            recordUsage(usage.getAsJsonObject(), telemetry);
+        }
         
-        if (choices != null && choices.size() > 0) {
-            JsonObject choice = choices.get(0).getAsJsonObject();
-            JsonObject message = choice.getAsJsonObject("message");
-            if (message != null && message.has("content")) {
-                return message.get("content").getAsString();
+        JsonArray choices = json.getAsJsonArray("choices");
+        if (choices == null || choices.size() == 0) {
+            throw new AIServiceException("No choices found in OpenAI API response");
+        }
+        JsonObject message = choices.get(0).getAsJsonObject().getAsJsonObject("message");
+        String content = message.has("content") && !message.get("content").isJsonNull()
+                ? message.get("content").getAsString() : null;
+        List<ToolCall> toolCalls = new ArrayList<>();
+        JsonElement calls = message.get("tool_calls");
+        if (calls != null && calls.isJsonArray()) {
+            for (JsonElement element : calls.getAsJsonArray()) {
+                JsonObject call = element.getAsJsonObject();
+                JsonObject function = call.getAsJsonObject("function");
+                toolCalls.add(new ToolCall(call.get("id").getAsString(), function.get("name").getAsString(),
+                        function.get("arguments").getAsString()));
+            }
+        }
+        return new ToolCompletion(content, toolCalls);
+    }
+    
+    /**
+     * Read a choices array, keeping the message content of its first choice.
+     */
+    private static String readFirstContent(JsonReader reader) throws IOException {
+        String text = null;
+        reader.beginArray();
+        if (reader.hasNext() && reader.peek() == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"message".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("content".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                        text = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
             }
+            reader.endObject();
+        }
+        while (reader.hasNext()) {
+            reader.skipValue();
+        }
+        reader.endArray();
+        return text;
+    }
+    
+    /**
+     * Add a usage object to the call's telemetry. Cached prompt tokens are included
+     * in prompt_tokens, so they are taken out of the uncached input.
+     */
+    private static void recordUsage(JsonObject usage, CallTelemetry telemetry) {
+        long promptTokens = getLong(usage, "prompt_tokens");
+        long cachedTokens = 0;
+        JsonElement details = usage.get("prompt_tokens_details");
+        if (details != null && details.isJsonObject()) {
+            cachedTokens = getLong(details.getAsJsonObject(), "cached_tokens");
         }
+        telemetry.recordUsage(promptTokens - cachedTokens, getLong(usage, "completion_tokens"), 0, cachedTokens);
+    }
+    
+    private static long getLong(JsonObject object, String name) {
+        JsonElement value = object.get(name);
+        return value != null && value.isJsonPrimitive() ? value.getAsLong() : 0;
+    }
+    
+    /**
+     * Read an OpenAI event stream, passing each content delta to the listener as it arrives.
+     * 
+     * @param body The response body
+     * @param completion Accumulates the generated text
+     * @param listener The listener that receives the generated text
+     * @param telemetry The telemetry of the call, which receives the token usage
+     * @throws IOException If the stream cannot be read or ends before the [DONE] marker
+     * @throws AIServiceException If the stream reports an error
+     */
+    private void readStream(InputStream body, StringBuilder completion, StreamListener listener,
+                            CallTelemetry telemetry) throws IOException, AIServiceException {
+        ServerSentEventReader reader = new ServerSentEventReader(body);
+        ServerSentEventReader.ServerSentEvent event;
         
-        throw new AIServiceException("No content found in OpenAI API response");
+        while ((event = reader.next()) != null) {
+            if ("[DONE]".equals(event.getData())) {
+                return;
+            }
+            
+            JsonObject data = JsonParser.parseString(event.getData()).getAsJsonObject();
+            if (data.has("error")) {
+                JsonObject error = data.getAsJsonObject("error");
+                String errorMessage = error.has("message") ? error.get("message").getAsString() : "Unknown error";
+                throw new AIServiceException("OpenAI API error: " + errorMessage);
+            }
+            
+            // The usage comes in a last chunk without choices
+            JsonElement usage = data.get("usage");
+            if (usage != null && usage.isJsonObject()) {
+                recordUsage(usage.getAsJsonObject(), telemetry);
+            }
+            
+            JsonArray choices = data.getAsJsonArray("choices");
+            if (choices != null && choices.size() > 0) {
+                JsonObject delta = choices.get(0).getAsJsonObject().getAsJsonObject("delta");
+                if (delta != null && delta.has("content") && !delta.get("content").isJsonNull()) {
+                    String text = delta.get("content").getAsString();
+                    completion.append(text);
+                    listener.onDelta(text);
+                }
+            }
+        }
+        
+        throw new IOException("OpenAI stream ended before [DONE]");
     }
     
     /**
@@ -240,4 +663,20 @@ public class OpenAIChatCompletionService implements ChatCompletionService {
         
         return "Unknown error";
     }
-}
\ No newline at end of file
+    
+    /**
+     * Turns an HTTP response into a result.
+     */
+    @FunctionalInterface
+    private interface ResponseHandler<T> {
+        T handle(HttpClientWrapper.SimpleHttpResponse response) throws AIServiceException;
+    }
+    
+    /**
+     * Reads a result from the body of a successful response.
+     */
+    @FunctionalInterface
+    private interface BodyParser<T> {
+        T parse(InputStream body) throws Exception;
+    }
+}
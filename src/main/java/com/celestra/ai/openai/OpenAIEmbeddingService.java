@@ -0,0 +1,328 @@
+package com.celestra.ai.openai;
+
+import com.celestra.ai.EmbeddingService;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.AuthenticationException;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.exception.RateLimitException;
+import com.celestra.ai.exception.ServerException;
+import com.celestra.ai.http.HttpClientRegistry;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.telemetry.CallTelemetry;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Implementation of the EmbeddingService interface for the OpenAI embeddings API
+ * and compatible endpoints.
+ * 
+ * Vectors are requested base64-encoded, which is about a third of the size of the
+ * JSON number arrays, and decoded straight into float arrays. Number arrays are
+ * still accepted from endpoints that ignore the encoding format.
+ */
+public class OpenAIEmbeddingService implements EmbeddingService {
+    
+    private static final Logger LOGGER = Logger.getLogger(OpenAIEmbeddingService.class.getName());
+    private static final String API_URL = "https://api.openai.com/v1/embeddings";
+    private static final int DEFAULT_TIMEOUT_SECONDS = 60;
+    
+    /**
+     * The largest number of inputs the API accepts in one request
+     */
+    private static final int MAX_BATCH_SIZE = 2048;
+    
+    private final AIConfigurationManager configManager;
+    private final HttpClientWrapper httpClient;
+    private final Gson gson;
+    
+    /**
+     * Create a new OpenAI embedding service on the shared OpenAI HTTP client.
+     */
+    public OpenAIEmbeddingService() {
+        this(AIConfigurationManager.getInstance(),
+                HttpClientRegistry.getInstance().getClient(HttpClientRegistry.OPENAI));
+    }
+    
+    /**
+     * Create a new OpenAI embedding service with a custom HTTP client wrapper.
+     * This constructor is primarily used for testing.
+     */
+    public OpenAIEmbeddingService(AIConfigurationManager configManager, HttpClientWrapper httpClient) {
+        this.configManager = configManager;
+        this.httpClient = httpClient;
+        this.gson = new Gson();
+    }
+    
+    @Override
+    public List<float[]> embedAll(List<String> texts) throws Exception {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
+        if (texts.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_SIZE + " texts can be embedded in one request");
+        }
+        
+        HttpRequest request = createRequest(texts);
+        CallTelemetry telemetry = CallTelemetry.current();
+        
+        int maxRetries = configManager.getOpenAIRetryAttempts();
+        int retryDelayMs = configManager.getOpenAIRetryDelayMs();
+        
+        Exception lastException = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            try {
+                if (attempt > 0) {
+                    telemetry.recordRetry();
+                    LOGGER.info("Retrying OpenAI embeddings call (attempt " + attempt + " of " + maxRetries + ")");
+                    Thread.sleep(retryDelayMs * attempt); // Exponential backoff
+                }
+                
+                HttpClientWrapper.SimpleHttpResponse response = httpClient.sendRequest(request);
+                return handleResponse(response, texts.size(), telemetry);
+            } catch (RateLimitException e) {
+                LOGGER.warning("Rate limit exceeded: " + e.getMessage());
+                lastException = e;
+                long retryAfter = e.getRetryAfterMs();
+                if (retryAfter > 0) {
+                    Thread.sleep(retryAfter);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof InterruptedIOException || Thread.currentThread().isInterrupted()) {
+                    // The call was cancelled; don't place it again
+                    throw e;
+                }
+                LOGGER.log(Level.WARNING, "Error calling OpenAI embeddings API", e);
+                lastException = e;
+            } catch (AIServiceException e) {
+                if (e instanceof AuthenticationException || e instanceof InvalidRequestException) {
+                    throw e;
+                }
+                LOGGER.log(Level.WARNING, "OpenAI embeddings API error: " + e.getMessage(), e);
+                lastException = e;
+            }
+        }
+        
+        throw new AIServiceException("Failed to get embeddings after " + maxRetries + " retries", lastException);
+    }
+    
+    @Override
+    public String getModel() {
+        return configManager.getOpenAIEmbeddingModel();
+    }
+    
+    @Override
+    public int getMaxBatchSize() {
+        return MAX_BATCH_SIZE;
+    }
+    
+    /**
+     * Create the HTTP request for a batch of texts.
+     * 
+     * @param texts The texts
+     * @return The HTTP request
+     * @throws AuthenticationException If the API key is not configured
+     */
+    private HttpRequest createRequest(List<String> texts) throws AuthenticationException {
+        String apiKey = configManager.getOpenAIApiKey();
+        if (apiKey == null || apiKey.isEmpty() || "your-openai-api-key".equals(apiKey)) {
+            throw new AuthenticationException("OpenAI API key is not configured");
+        }
+        
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", getModel());
+        requestBody.put("input", texts);
+        requestBody.put("encoding_format", "base64");
+        int dimensions = configManager.getEmbeddingDimensions();
+        if (dimensions > 0) {
+            requestBody.put("dimensions", dimensions);
+        }
+        CallTelemetry.current().setModel(getModel());
+        
+        String apiUrl = configManager.getOpenAIEmbeddingApiUrl();
+        return HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl != null ? apiUrl : API_URL))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
+                .timeout(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS))
+                .build();
+    }
+    
+    /**
+     * Handle the HTTP response from the OpenAI embeddings API.
+     * 
+     * @param response The HTTP response
+     * @param count The number of texts in the request
+     * @param telemetry The telemetry of the call, which receives the token usage
+     * @return The embeddings in the order of the texts
+     * @throws AIServiceException If an error occurs
+     */
+    private List<float[]> handleResponse(HttpClientWrapper.SimpleHttpResponse response, int count,
+                                         CallTelemetry telemetry) throws AIServiceException {
+        int statusCode = response.statusCode();
+        if (statusCode == 200) {
+            try {
+                return readEmbeddings(new JsonReader(new InputStreamReader(response.bodyStream(),
+                        StandardCharsets.UTF_8)), count, telemetry);
+            } catch (AIServiceException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new AIServiceException("Failed to parse OpenAI embeddings response", e);
+            }
+        }
+        
+        String errorMessage = extractErrorMessage(response.body());
+        switch (statusCode) {
+            case 400:
+                throw new InvalidRequestException("Invalid request: " + errorMessage);
+            case 401:
+                throw new AuthenticationException("Authentication failed: " + errorMessage);
+            case 429:
+                long retryAfterMs = 0;
+                String retryAfter = response.headers().containsKey("Retry-After") ? response.headers().get("Retry-After").get(0) : null;
+                if (retryAfter != null) {
+                    try {
+                        retryAfterMs = Long.parseLong(retryAfter) * 1000;
+                    } catch (NumberFormatException e) {
+                        // Ignore parsing errors
+                    }
+                }
+                throw new RateLimitException("Rate limit exceeded: " + errorMessage, retryAfterMs);
+            case 500:
+            case 502:
+            case 503:
+            case 504:
+                throw new ServerException("Server error: " + errorMessage, statusCode);
+            default:
+                throw new AIServiceException("OpenAI embeddings API error: " + errorMessage, statusCode);
+        }
+    }
+    
+    /**
+     * Read the data array of the response with a streaming reader, placing each
+     * vector at the index it reports.
+     */
+    private static List<float[]> readEmbeddings(JsonReader reader, int count, CallTelemetry telemetry)
+            throws Exception {
+        float[][] embeddings = new float[count][];
+        try (reader) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("data".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    int position = 0;
+                    while (reader.hasNext()) {
+                        readEmbedding(reader, embeddings, position++);
+                    }
+                    reader.endArray();
+                } else if ("usage".equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    JsonObject usage = JsonParser.parseReader(reader).getAsJsonObject();
+                    if (usage.has("prompt_tokens")) {
+                        telemetry.recordUsage(usage.get("prompt_tokens").getAsLong(), 0, 0, 0);
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+        
+        for (int i = 0; i < count; i++) {
+            if (embeddings[i] == null) {
+                throw new AIServiceException("No embedding for input " + i + " in OpenAI embeddings response");
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+    
+    private static void readEmbedding(JsonReader reader, float[][] embeddings, int position) throws IOException {
+        int index = position;
+        float[] vector = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("index".equals(name)) {
+                index = reader.nextInt();
+            } else if ("embedding".equals(name) && reader.peek() == JsonToken.STRING) {
+                vector = decodeBase64(reader.nextString());
+            } else if ("embedding".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                vector = readFloats(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (vector != null && index >= 0 && index < embeddings.length) {
+            embeddings[index] = vector;
+        }
+    }
+    
+    /**
+     * Decode a vector sent as base64 of little-endian 32-bit floats.
+     */
+    private static float[] decodeBase64(String encoded) {
+        ByteBuffer bytes = ByteBuffer.wrap(Base64.getDecoder().decode(encoded)).order(ByteOrder.LITTLE_ENDIAN);
+        float[] vector = new float[bytes.remaining() / Float.BYTES];
+        bytes.asFloatBuffer().get(vector);
+        return vector;
+    }
+    
+    private static float[] readFloats(JsonReader reader) throws IOException {
+        float[] vector = new float[1536];
+        int size = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (size == vector.length) {
+                vector = Arrays.copyOf(vector, size * 2);
+            }
+            vector[size++] = (float) reader.nextDouble();
+        }
+        reader.endArray();
+        return size == vector.length ? vector : Arrays.copyOf(vector, size);
+    }
+    
+    /**
+     * Extract the error message from the OpenAI API error response.
+     * 
+     * @param responseBody The response body
+     * @return The error message
+     */
+    private String extractErrorMessage(String responseBody) {
+        try {
+            JsonObject jsonResponse = JsonParser.parseString(responseBody).getAsJsonObject();
+            JsonObject error = jsonResponse.getAsJsonObject("error");
+            if (error != null && error.has("message")) {
+                return error.get("message").getAsString();
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to parse error message from OpenAI embeddings response", e);
+        }
+        
+        return "Unknown error";
+    }
+}
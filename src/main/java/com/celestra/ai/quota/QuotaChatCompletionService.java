@@ -0,0 +1,156 @@
+package com.celestra.ai.quota;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.exception.QuotaExceededException;
+import com.celestra.ai.telemetry.CallTelemetry;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
+
+/**
+ * ChatCompletionService decorator that enforces the AI quotas of the caller.
+ * 
+ * Every call is reserved with the {@link QuotaManager} for the company and agent
+ * of the current {@link TelemetryContext} before it reaches the provider, at the
+ * estimated size of its prompt plus the tokens its completion may use, and is refused with
+ * a {@link QuotaExceededException} when a quota is used up. The reservation is
+ * settled with the token usage the provider reported to the {@link CallTelemetry}
+ * of the call, so this service belongs below the telemetry decorator.
+ */
+public class QuotaChatCompletionService implements ChatCompletionService {
+    
+    private final ChatCompletionService delegate;
+    private final QuotaManager quotaManager;
+    private final TokenEstimator estimator;
+    private final int defaultMaxTokens;
+    
+    /**
+     * Create a new quota service.
+     * 
+     * @param delegate The service that produces the completions
+     * @param quotaManager The quotas the calls are reserved against
+     * @param estimator The estimator of the prompt tokens
+     * @param defaultMaxTokens The max tokens the provider is configured with, used
+     *                         for calls that don't set max_completion_tokens or max_tokens
+     */
+    public QuotaChatCompletionService(ChatCompletionService delegate, QuotaManager quotaManager,
+                                      TokenEstimator estimator, int defaultMaxTokens) {
+        this.delegate = delegate;
+        this.quotaManager = quotaManager;
+        this.estimator = estimator;
+        this.defaultMaxTokens = defaultMaxTokens;
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages) throws Exception {
+        return guard(messages, null, () -> delegate.getChatCompletion(messages));
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
+        return guard(messages, parameters, () -> delegate.getChatCompletion(messages, parameters));
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return guardAsync(messages, null, () -> delegate.getChatCompletionAsync(messages));
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        return guardAsync(messages, parameters, () -> delegate.getChatCompletionAsync(messages, parameters));
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        return guard(messages, null, () -> delegate.streamChatCompletion(messages, listener));
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        return guard(messages, parameters, () -> delegate.streamChatCompletion(messages, parameters, listener));
+    }
+    
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        return guard(messages, parameters, () -> delegate.getToolCompletion(messages, parameters, tools));
+    }
+    
+    private <T> T guard(List<ChatMessage> messages, Map<String, Object> parameters, Callable<T> task)
+            throws Exception {
+        QuotaManager.Reservation reservation = reserve(messages, parameters);
+        CallTelemetry call = CallTelemetry.current();
+        try {
+            T completion = task.call();
+            settle(reservation, call, true);
+            return completion;
+        } catch (Exception e) {
+            settle(reservation, call, false);
+            throw e;
+        }
+    }
+    
+    private CompletableFuture<String> guardAsync(List<ChatMessage> messages, Map<String, Object> parameters,
+                                                 Supplier<CompletableFuture<String>> task) {
+        QuotaManager.Reservation reservation;
+        try {
+            reservation = reserve(messages, parameters);
+        } catch (QuotaExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CallTelemetry call = CallTelemetry.current();
+        CompletableFuture<String> future;
+        try {
+            future = task.get();
+        } catch (RuntimeException e) {
+            settle(reservation, call, false);
+            throw e;
+        }
+        future.whenComplete((completion, error) -> settle(reservation, call, error == null));
+        return future;
+    }
+    
+    private QuotaManager.Reservation reserve(List<ChatMessage> messages, Map<String, Object> parameters)
+            throws QuotaExceededException {
+        int tokens = estimator.estimate(messages) + getMaxTokens(parameters);
+        return quotaManager.reserve(TelemetryContext.current(), tokens);
+    }
+    
+    /**
+     * Get the number of tokens the completion may use.
+     * 
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @return The number of tokens
+     */
+    private int getMaxTokens(Map<String, Object> parameters) {
+        if (parameters != null) {
+            for (String key : new String[] {"max_completion_tokens", "max_tokens"}) {
+                Object value = parameters.get(key);
+                if (value instanceof Number) {
+                    return ((Number) value).intValue();
+                }
+            }
+        }
+        return defaultMaxTokens;
+    }
+    
+    private static void settle(QuotaManager.Reservation reservation, CallTelemetry call, boolean succeeded) {
+        // Cached prompt tokens still count against the provider's rate limit
+        long input = call.getInputTokens() + call.getCacheCreationInputTokens() + call.getCacheReadInputTokens();
+        if (succeeded) {
+            reservation.complete(input, call.getOutputTokens());
+        } else {
+            reservation.fail(input, call.getOutputTokens());
+        }
+    }
+}
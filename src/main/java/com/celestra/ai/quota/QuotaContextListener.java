@@ -0,0 +1,78 @@
+package com.celestra.ai.quota;
+
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.celestra.ai.config.AIConfigurationManager;
+
+/**
+ * Context listener that periodically flushes the AI usage counters to the database.
+ * Starts the flushes when the application starts, and stops them and flushes
+ * the remaining usage when the application stops.
+ */
+@WebListener
+public class QuotaContextListener implements ServletContextListener {
+    
+    private static final Logger LOGGER = Logger.getLogger(QuotaContextListener.class.getName());
+    
+    private ScheduledExecutorService scheduler;
+    
+    /**
+     * Called when the web application is starting.
+     * Schedules the flushes at the configured interval.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        int intervalSeconds = AIConfigurationManager.getInstance().getQuotaFlushSeconds();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-quota-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(QuotaContextListener::flush, intervalSeconds, intervalSeconds,
+                TimeUnit.SECONDS);
+        LOGGER.info("AI usage flush scheduled every " + intervalSeconds + " seconds");
+    }
+    
+    /**
+     * Called when the web application is shutting down.
+     * Stops the flushes and writes the usage counted since the last one.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flush();
+            LOGGER.info("AI usage flush stopped");
+        }
+    }
+    
+    /**
+     * Flush the usage. Failures are logged so that the scheduled executor keeps
+     * running the task; the usage is kept for the next flush.
+     */
+    private static void flush() {
+        try {
+            QuotaManager.getInstance().flush();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error flushing AI usage", e);
+        }
+    }
+}
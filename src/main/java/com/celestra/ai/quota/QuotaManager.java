@@ -0,0 +1,334 @@
+package com.celestra.ai.quota;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.QuotaExceededException;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.dao.AIUsageDao;
+import com.celestra.dao.impl.AIUsageDaoImpl;
+import com.celestra.model.AIUsageBucket;
+import com.google.gson.JsonObject;
+
+/**
+ * Enforces per-company and per-agent token and request quotas over a rolling window.
+ * 
+ * A call reserves its estimated tokens and one request against the quotas of its
+ * caller before it is sent, and is refused with a {@link QuotaExceededException}
+ * if that takes a quota over its limit, so a noisy tenant is throttled locally
+ * instead of using up the provider's shared rate limit. When the call finishes its
+ * reservation is corrected to the usage the provider reported. The counters are
+ * lock-free and live in memory; the usage is added to the hourly buckets of the
+ * ai_usage_buckets table by {@link #flush()}, in one batch for all callers.
+ * 
+ * The counters are per node, so with several nodes each enforces the limits on
+ * its own share of the calls.
+ */
+public class QuotaManager {
+    
+    private static final Logger LOGGER = Logger.getLogger(QuotaManager.class.getName());
+    
+    /**
+     * Number of slots a window is divided into; the window rolls forward one slot at a time
+     */
+    private static final int SLOTS = 60;
+    
+    private static QuotaManager instance;
+    
+    private final AIConfigurationManager configManager;
+    private final AIUsageDao usageDao;
+    private final long slotNanos;
+    private final ConcurrentMap<String, Quota> quotas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Usage> usage = new ConcurrentHashMap<>();
+    
+    /**
+     * Create a quota manager.
+     * 
+     * @param configManager The configuration the limits are read from
+     * @param usageDao The DAO the usage is flushed to
+     * @param window The rolling window over which quotas are counted
+     */
+    public QuotaManager(AIConfigurationManager configManager, AIUsageDao usageDao, Duration window) {
+        if (window == null || window.toNanos() < SLOTS) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.configManager = configManager;
+        this.usageDao = usageDao;
+        this.slotNanos = window.toNanos() / SLOTS;
+    }
+    
+    /**
+     * Get the quota manager shared by all providers, configured from the AI configuration.
+     * 
+     * @return The quota manager
+     */
+    public static synchronized QuotaManager getInstance() {
+        if (instance == null) {
+            AIConfigurationManager configManager = AIConfigurationManager.getInstance();
+            instance = new QuotaManager(configManager, new AIUsageDaoImpl(),
+                    Duration.ofMinutes(configManager.getQuotaWindowMinutes()));
+        }
+        return instance;
+    }
+    
+    /**
+     * Reserve a call against the quotas of a caller. Agent quotas and usage are
+     * keyed by the agent ID. Calls made for no company are only counted against
+     * their agent's quota, and calls made for neither only have their usage recorded.
+     * 
+     * @param context The caller
+     * @param estimatedTokens The tokens the call is expected to use
+     * @return The reservation, which must be completed or failed when the call finishes
+     * @throws QuotaExceededException If a quota of the caller is used up; nothing is reserved
+     */
+    public Reservation reserve(TelemetryContext context, int estimatedTokens) throws QuotaExceededException {
+        Integer companyId = context.getCompanyId();
+        Integer agentId = context.getAgentId();
+        int company = companyId != null ? companyId : 0;
+        int agent = agentId != null ? agentId : 0;
+        Usage callerUsage = get(usage, company + "/" + agent, () -> new Usage(company, agent));
+        
+        List<Quota> charged = new ArrayList<>(2);
+        if (companyId != null) {
+            charged.add(get(quotas, "company:" + company, () -> new Quota("company " + company,
+                    configManager.getQuotaCompanyTokens(company), configManager.getQuotaCompanyRequests(company))));
+        }
+        if (agentId != null) {
+            charged.add(get(quotas, "agent:" + company + "/" + agent, () -> new Quota("agent " + agent,
+                    configManager.getQuotaAgentTokens(agent), configManager.getQuotaAgentRequests(agent))));
+        }
+        
+        // Charge first and check after, so that concurrent calls cannot all pass the same check
+        long now = System.nanoTime();
+        long tokens = Math.max(0, estimatedTokens);
+        long[] epochs = new long[charged.size()];
+        for (int i = 0; i < charged.size(); i++) {
+            epochs[i] = charged.get(i).charge(now, tokens);
+        }
+        for (Quota quota : charged) {
+            String exceeded = quota.exceeded(now);
+            if (exceeded != null) {
+                for (int i = 0; i < charged.size(); i++) {
+                    charged.get(i).refund(epochs[i], now, tokens);
+                }
+                quota.rejected.incrementAndGet();
+                callerUsage.rejected.incrementAndGet();
+                throw new QuotaExceededException("AI " + exceeded + " quota of " + quota.name + " is used up",
+                        TimeUnit.NANOSECONDS.toMillis(quota.tokens.nanosUntilNextSlot(now)) + 1);
+            }
+        }
+        return new Reservation(callerUsage, charged, epochs, tokens);
+    }
+    
+    /**
+     * Add the usage counted since the last flush to the current hour bucket of
+     * each caller, in one batch. If the batch fails, the usage is kept for the
+     * next flush.
+     * 
+     * @return The number of buckets written
+     * @throws SQLException If the batch cannot be written
+     */
+    public int flush() throws SQLException {
+        Timestamp bucketStart = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.HOURS));
+        List<Usage> drained = new ArrayList<>();
+        List<AIUsageBucket> buckets = new ArrayList<>();
+        for (Usage callerUsage : usage.values()) {
+            AIUsageBucket bucket = callerUsage.drain(bucketStart);
+            if (bucket != null) {
+                drained.add(callerUsage);
+                buckets.add(bucket);
+            }
+        }
+        if (buckets.isEmpty()) {
+            return 0;
+        }
+        
+        try {
+            usageDao.addUsage(buckets);
+        } catch (SQLException | RuntimeException e) {
+            for (int i = 0; i < drained.size(); i++) {
+                drained.get(i).restore(buckets.get(i));
+            }
+            throw e;
+        }
+        LOGGER.fine("Flushed AI usage of " + buckets.size() + " callers");
+        return buckets.size();
+    }
+    
+    /**
+     * Get the current window of every quota as JSON.
+     * 
+     * @return The quotas keyed by company or agent
+     */
+    public JsonObject toJson() {
+        long now = System.nanoTime();
+        Map<String, Quota> sorted = new TreeMap<>(quotas);
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, Quota> entry : sorted.entrySet()) {
+            Quota quota = entry.getValue();
+            JsonObject stats = new JsonObject();
+            stats.addProperty("tokens", quota.tokens.sum(now));
+            stats.addProperty("tokenLimit", quota.tokenLimit);
+            stats.addProperty("requests", quota.requests.sum(now));
+            stats.addProperty("requestLimit", quota.requestLimit);
+            stats.addProperty("rejected", quota.rejected.get());
+            json.add(entry.getKey(), stats);
+        }
+        return json;
+    }
+    
+    private static <T> T get(ConcurrentMap<String, T> map, String key, Supplier<T> factory) {
+        // Look up without locking; only the first call of a caller creates its entry
+        T value = map.get(key);
+        return value != null ? value : map.computeIfAbsent(key, k -> factory.get());
+    }
+    
+    /**
+     * A call reserved against the quotas of its caller.
+     */
+    public static final class Reservation {
+        
+        private final Usage usage;
+        private final List<Quota> quotas;
+        private final long[] epochs;
+        private final long estimatedTokens;
+        private final AtomicBoolean settled = new AtomicBoolean();
+        
+        private Reservation(Usage usage, List<Quota> quotas, long[] epochs, long estimatedTokens) {
+            this.usage = usage;
+            this.quotas = quotas;
+            this.epochs = epochs;
+            this.estimatedTokens = estimatedTokens;
+        }
+        
+        /**
+         * Settle a call that succeeded. If the provider reported no usage, the
+         * estimate is kept.
+         * 
+         * @param inputTokens The input tokens reported by the provider
+         * @param outputTokens The output tokens reported by the provider
+         */
+        public void complete(long inputTokens, long outputTokens) {
+            settle(inputTokens, outputTokens, inputTokens + outputTokens > 0
+                    ? inputTokens + outputTokens : estimatedTokens);
+        }
+        
+        /**
+         * Settle a call that failed. Only the tokens the provider reported count;
+         * the request itself still counts.
+         * 
+         * @param inputTokens The input tokens reported by the provider
+         * @param outputTokens The output tokens reported by the provider
+         */
+        public void fail(long inputTokens, long outputTokens) {
+            settle(inputTokens, outputTokens, inputTokens + outputTokens);
+        }
+        
+        private void settle(long inputTokens, long outputTokens, long usedTokens) {
+            if (!settled.compareAndSet(false, true)) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (int i = 0; i < quotas.size(); i++) {
+                quotas.get(i).tokens.adjust(epochs[i], now, usedTokens - estimatedTokens);
+            }
+            usage.requests.incrementAndGet();
+            usage.inputTokens.addAndGet(inputTokens);
+            usage.outputTokens.addAndGet(outputTokens);
+        }
+    }
+    
+    /**
+     * The limits and rolling counts of one company or agent.
+     */
+    private final class Quota {
+        
+        private final String name;
+        private final long tokenLimit;
+        private final long requestLimit;
+        private final RollingCounter tokens = new RollingCounter(SLOTS, slotNanos);
+        private final RollingCounter requests = new RollingCounter(SLOTS, slotNanos);
+        private final AtomicLong rejected = new AtomicLong();
+        
+        private Quota(String name, long tokenLimit, long requestLimit) {
+            this.name = name;
+            this.tokenLimit = tokenLimit;
+            this.requestLimit = requestLimit;
+        }
+        
+        private long charge(long now, long estimatedTokens) {
+            requests.add(now, 1);
+            return tokens.add(now, estimatedTokens);
+        }
+        
+        private void refund(long epoch, long now, long estimatedTokens) {
+            requests.adjust(epoch, now, -1);
+            tokens.adjust(epoch, now, -estimatedTokens);
+        }
+        
+        /**
+         * Check the limits, counting the call just charged.
+         * 
+         * @return "token" or "request" for the limit that is exceeded, or null if none is
+         */
+        private String exceeded(long now) {
+            if (tokenLimit > 0 && tokens.sum(now) > tokenLimit) {
+                return "token";
+            }
+            if (requestLimit > 0 && requests.sum(now) > requestLimit) {
+                return "request";
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * The usage of one company and agent not yet flushed to the database.
+     */
+    private static final class Usage {
+        
+        private final int companyId;
+        private final int agentId;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong inputTokens = new AtomicLong();
+        private final AtomicLong outputTokens = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        
+        private Usage(int companyId, int agentId) {
+            this.companyId = companyId;
+            this.agentId = agentId;
+        }
+        
+        private AIUsageBucket drain(Timestamp bucketStart) {
+            AIUsageBucket bucket = new AIUsageBucket(bucketStart, companyId, agentId, requests.getAndSet(0),
+                    inputTokens.getAndSet(0), outputTokens.getAndSet(0), rejected.getAndSet(0));
+            if (bucket.getRequestCount() == 0 && bucket.getInputTokens() == 0 && bucket.getOutputTokens() == 0
+                    && bucket.getRejectedCount() == 0) {
+                return null;
+            }
+            return bucket;
+        }
+        
+        private void restore(AIUsageBucket bucket) {
+            requests.addAndGet(bucket.getRequestCount());
+            inputTokens.addAndGet(bucket.getInputTokens());
+            outputTokens.addAndGet(bucket.getOutputTokens());
+            rejected.addAndGet(bucket.getRejectedCount());
+        }
+    }
+}
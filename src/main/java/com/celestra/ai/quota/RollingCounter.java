@@ -0,0 +1,117 @@
+package com.celestra.ai.quota;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free count over a rolling window, kept in a ring of slots.
+ * 
+ * Each slot packs the epoch it counts for and its count into one long, so a slot
+ * is reset and incremented by the same compare-and-set: a thread that adds to a
+ * slot whose epoch has passed starts it over from zero, and no count is lost to
+ * a concurrent reset. The window rolls forward one slot at a time.
+ */
+final class RollingCounter {
+    
+    private static final int VALUE_BITS = 40;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long EPOCH_MASK = (1L << (Long.SIZE - VALUE_BITS)) - 1;
+    
+    private final AtomicLongArray slots;
+    private final long slotNanos;
+    
+    /**
+     * Create a counter.
+     * 
+     * @param slotCount The number of slots in the window
+     * @param slotNanos The length of a slot
+     */
+    RollingCounter(int slotCount, long slotNanos) {
+        if (slotCount <= 0 || slotNanos <= 0) {
+            throw new IllegalArgumentException("Slot count and length must be positive");
+        }
+        this.slots = new AtomicLongArray(slotCount);
+        this.slotNanos = slotNanos;
+    }
+    
+    /**
+     * Add to the count of the current slot.
+     * 
+     * @param now The current time on the {@link System#nanoTime()} clock
+     * @param delta The amount to add; the slot never goes below zero
+     * @return The epoch of the slot, for a later {@link #adjust}
+     */
+    long add(long now, long delta) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        int index = Math.floorMod(epoch, slots.length());
+        long tag = epoch & EPOCH_MASK;
+        while (true) {
+            long current = slots.get(index);
+            long value = (current >>> VALUE_BITS) == tag ? current & VALUE_MASK : 0;
+            if (slots.compareAndSet(index, current, pack(tag, value + delta))) {
+                return epoch;
+            }
+        }
+    }
+    
+    /**
+     * Correct an amount added earlier. The correction goes to the slot the amount
+     * was added to while that slot is still in the window; once it has rolled
+     * out, only increases are counted, in the current slot.
+     * 
+     * @param epoch The epoch returned by {@link #add}
+     * @param now The current time on the {@link System#nanoTime()} clock
+     * @param delta The correction
+     */
+    void adjust(long epoch, long now, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        int index = Math.floorMod(epoch, slots.length());
+        long tag = epoch & EPOCH_MASK;
+        while (true) {
+            long current = slots.get(index);
+            if ((current >>> VALUE_BITS) != tag) {
+                break;
+            }
+            if (slots.compareAndSet(index, current, pack(tag, (current & VALUE_MASK) + delta))) {
+                return;
+            }
+        }
+        if (delta > 0) {
+            add(now, delta);
+        }
+    }
+    
+    /**
+     * Get the count over the window ending now.
+     * 
+     * @param now The current time on the {@link System#nanoTime()} clock
+     * @return The count
+     */
+    long sum(long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        long total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long slotEpoch = epoch - i;
+            long current = slots.get(Math.floorMod(slotEpoch, slots.length()));
+            if ((current >>> VALUE_BITS) == (slotEpoch & EPOCH_MASK)) {
+                total += current & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Get the time until the window next rolls forward and its oldest slot drops out.
+     * 
+     * @param now The current time on the {@link System#nanoTime()} clock
+     * @return The time in nanoseconds
+     */
+    long nanosUntilNextSlot(long now) {
+        return slotNanos - Math.floorMod(now, slotNanos);
+    }
+    
+    private static long pack(long tag, long value) {
+        return (tag << VALUE_BITS) | Math.max(0, Math.min(VALUE_MASK, value));
+    }
+}
@@ -0,0 +1,119 @@
+package com.celestra.ai.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * The priority and deadline of the AI requests made by the current thread.
+ * 
+ * HttpRequest has no room for scheduling hints, so callers declare them around
+ * the service call and {@link RateLimitedHttpClientWrapper} reads them when the
+ * request is queued. Requests made outside a context are interactive and have no
+ * deadline.
+ */
+public final class RateLimitContext {
+    
+    private static final RateLimitContext DEFAULT = new RateLimitContext(RequestPriority.INTERACTIVE, 0);
+    
+    private static final ThreadLocal<RateLimitContext> CURRENT = new ThreadLocal<>();
+    
+    private final RequestPriority priority;
+    private final long deadlineNanos;
+    
+    private RateLimitContext(RequestPriority priority, long deadlineNanos) {
+        this.priority = priority;
+        this.deadlineNanos = deadlineNanos;
+    }
+    
+    /**
+     * Create a context.
+     * 
+     * @param priority The priority of the requests
+     * @param timeout How long the requests may wait for rate-limit budget, or null for no deadline
+     * @return The context
+     */
+    public static RateLimitContext of(RequestPriority priority, Duration timeout) {
+        if (priority == null) {
+            throw new IllegalArgumentException("Priority cannot be null");
+        }
+        long deadline = timeout != null ? System.nanoTime() + Math.max(1, timeout.toNanos()) : 0;
+        return new RateLimitContext(priority, deadline);
+    }
+    
+    /**
+     * Get the context of the current thread.
+     * 
+     * @return The context, never null
+     */
+    public static RateLimitContext current() {
+        RateLimitContext context = CURRENT.get();
+        return context != null ? context : DEFAULT;
+    }
+    
+    /**
+     * Run a call with this context installed on the current thread.
+     * 
+     * @param <T> The result type
+     * @param call The call
+     * @return The result of the call
+     * @throws Exception if the call fails
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        RateLimitContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+    
+    /**
+     * Start work with this context installed on the current thread, e.g. an
+     * asynchronous attempt that queues its request before returning.
+     * 
+     * @param <T> The result type
+     * @param supplier The work
+     * @return The result of the supplier
+     */
+    public <T> T supply(Supplier<T> supplier) {
+        RateLimitContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+    
+    public RequestPriority getPriority() {
+        return priority;
+    }
+    
+    /**
+     * Check whether the requests have a deadline.
+     * 
+     * @return true if {@link #getDeadlineNanos()} is meaningful
+     */
+    public boolean hasDeadline() {
+        return deadlineNanos != 0;
+    }
+    
+    /**
+     * Get the deadline on the {@link System#nanoTime()} clock.
+     * 
+     * @return The deadline, or 0 if there is none
+     */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+}
@@ -0,0 +1,565 @@
+package com.celestra.ai.ratelimit;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Shares the request and token budget of one AI provider between all threads.
+ * 
+ * Requests wait in a queue ordered by priority and then deadline until both the
+ * requests-per-minute and the tokens-per-minute buckets can pay for them. The
+ * buckets start from the configured limits and are corrected by the rate-limit
+ * headers of every response, and a 429 pauses the whole provider for its
+ * Retry-After instead of only the thread that received it. Requests still queued
+ * at their deadline fail with an {@link HttpTimeoutException}.
+ */
+public class RateLimitScheduler {
+    
+    private static final Logger LOGGER = Logger.getLogger(RateLimitScheduler.class.getName());
+    
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+    
+    // Used when a 429 carries no hint of how long to back off
+    private static final long DEFAULT_PAUSE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    // Matches the reset durations used by OpenAI, e.g. "20ms", "1s" or "6m0s"
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+    
+    // OpenAI and Anthropic name the same headers differently
+    private static final String[][] REQUEST_HEADERS = {
+        {"x-ratelimit-limit-requests", "x-ratelimit-remaining-requests", "x-ratelimit-reset-requests"},
+        {"anthropic-ratelimit-requests-limit", "anthropic-ratelimit-requests-remaining",
+            "anthropic-ratelimit-requests-reset"}
+    };
+    private static final String[][] TOKEN_HEADERS = {
+        {"x-ratelimit-limit-tokens", "x-ratelimit-remaining-tokens", "x-ratelimit-reset-tokens"},
+        {"anthropic-ratelimit-tokens-limit", "anthropic-ratelimit-tokens-remaining",
+            "anthropic-ratelimit-tokens-reset"}
+    };
+    
+    private final String provider;
+    private final ScheduledExecutorService scheduler;
+    private final TokenBucket requests;
+    private final TokenBucket tokens;
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>();
+    private long sequence;
+    private long pausedUntil;
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpAt;
+    
+    private final AtomicLong grantedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong throttledCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    
+    /**
+     * Create a new scheduler.
+     * 
+     * @param provider The provider name, used in log messages
+     * @param requestsPerMinute The request budget, or 0 to rely on the provider's headers only
+     * @param tokensPerMinute The token budget, or 0 to rely on the provider's headers only
+     * @param scheduler The scheduler used to wake up queued requests
+     */
+    public RateLimitScheduler(String provider, int requestsPerMinute, int tokensPerMinute,
+                              ScheduledExecutorService scheduler) {
+        if (requestsPerMinute < 0 || tokensPerMinute < 0) {
+            throw new IllegalArgumentException("Rate limits cannot be negative");
+        }
+        this.provider = provider;
+        this.scheduler = scheduler;
+        long now = System.nanoTime();
+        this.requests = new TokenBucket(requestsPerMinute, now);
+        this.tokens = new TokenBucket(tokensPerMinute, now);
+    }
+    
+    /**
+     * Wait on the calling thread until a request may be sent.
+     * 
+     * @param estimatedTokens The tokens the request is expected to use
+     * @param context The priority and deadline of the request
+     * @throws HttpTimeoutException if the deadline passes while the request is queued
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquire(int estimatedTokens, RateLimitContext context)
+            throws HttpTimeoutException, InterruptedException {
+        CompletableFuture<Void> permit = acquireAsync(estimatedTokens, context);
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            permit.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof HttpTimeoutException) {
+                throw (HttpTimeoutException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * Queue a request without blocking. Cancelling the returned future gives up
+     * the place in the queue.
+     * 
+     * @param estimatedTokens The tokens the request is expected to use
+     * @param context The priority and deadline of the request
+     * @return A future completed when the request may be sent
+     */
+    public CompletableFuture<Void> acquireAsync(int estimatedTokens, RateLimitContext context) {
+        Waiter waiter;
+        synchronized (this) {
+            waiter = new Waiter(Math.max(1, estimatedTokens), context, sequence++);
+            queue.add(waiter);
+        }
+        waiter.future.whenComplete((ignored, error) -> {
+            if (waiter.future.isCancelled()) {
+                dispatch();
+            } else {
+                totalWaitNanos.addAndGet(System.nanoTime() - waiter.queuedAt);
+            }
+        });
+        dispatch();
+        return waiter.future;
+    }
+    
+    /**
+     * Learn from the status and headers of a provider response.
+     * 
+     * @param statusCode The HTTP status code
+     * @param headers The response headers
+     */
+    public void onResponse(int statusCode, Map<String, List<String>> headers) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            for (String[] names : REQUEST_HEADERS) {
+                learn(requests, headers, names, now);
+            }
+            for (String[] names : TOKEN_HEADERS) {
+                learn(tokens, headers, names, now);
+            }
+            
+            if (statusCode == 429) {
+                throttledCount.incrementAndGet();
+                long pause = parseRetryAfter(headers);
+                if (pause < 0 && pausedUntil == 0) {
+                    pause = DEFAULT_PAUSE_NANOS;
+                }
+                if (pause > 0) {
+                    pauseUntil(now + pause);
+                }
+                LOGGER.warning("Rate limited by " + provider + ", holding queued requests for "
+                        + TimeUnit.NANOSECONDS.toMillis(Math.max(0, pausedUntil - now)) + " ms");
+            }
+        }
+        dispatch();
+    }
+    
+    /**
+     * Get the number of requests waiting for budget.
+     * 
+     * @return The queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Get the number of requests of one priority waiting for budget.
+     * 
+     * @param priority The priority
+     * @return The queue depth
+     */
+    public synchronized int getQueueDepth(RequestPriority priority) {
+        int depth = 0;
+        for (Waiter waiter : queue) {
+            if (waiter.priority == priority) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+    
+    /**
+     * Get the time left until the provider accepts requests again after a 429 or
+     * an exhausted budget reported by its headers.
+     * 
+     * @return The remaining pause in milliseconds, or 0 if not paused
+     */
+    public synchronized long getPauseRemainingMs() {
+        long remaining = pausedUntil - System.nanoTime();
+        return pausedUntil != 0 && remaining > 0 ? TimeUnit.NANOSECONDS.toMillis(remaining) : 0;
+    }
+    
+    /**
+     * Get the current requests-per-minute budget, configured or learned.
+     * 
+     * @return The budget, or 0 if unknown
+     */
+    public synchronized long getRequestsPerMinute() {
+        return (long) requests.capacity;
+    }
+    
+    /**
+     * Get the current tokens-per-minute budget, configured or learned.
+     * 
+     * @return The budget, or 0 if unknown
+     */
+    public synchronized long getTokensPerMinute() {
+        return (long) tokens.capacity;
+    }
+    
+    public long getGrantedCount() {
+        return grantedCount.get();
+    }
+    
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+    
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+    
+    /**
+     * Get the average time requests spent in the queue.
+     * 
+     * @return The average wait in milliseconds
+     */
+    public double getAverageWaitMs() {
+        long finished = grantedCount.get() + expiredCount.get();
+        return finished == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / finished;
+    }
+    
+    /**
+     * Hand budget to the waiters at the head of the queue, fail the waiters past
+     * their deadline and schedule the next wake-up.
+     */
+    private void dispatch() {
+        List<Waiter> ready = new ArrayList<>();
+        List<Waiter> late = new ArrayList<>();
+        
+        synchronized (this) {
+            long now = System.nanoTime();
+            refill(now);
+            
+            Iterator<Waiter> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                if (waiter.future.isDone()) {
+                    iterator.remove();
+                } else if (waiter.hasDeadline && waiter.deadline - now <= 0) {
+                    iterator.remove();
+                    late.add(waiter);
+                }
+            }
+            
+            long wait = 0;
+            while (!queue.isEmpty()) {
+                Waiter head = queue.peek();
+                wait = Math.max(pausedUntil != 0 ? pausedUntil - now : 0,
+                        Math.max(requests.waitNanos(1), tokens.waitNanos(head.tokens)));
+                if (wait > 0) {
+                    break;
+                }
+                requests.take(1);
+                tokens.take(head.tokens);
+                queue.poll();
+                ready.add(head);
+            }
+            
+            if (!queue.isEmpty()) {
+                long next = wait;
+                for (Waiter waiter : queue) {
+                    if (waiter.hasDeadline) {
+                        next = Math.min(next, waiter.deadline - now);
+                    }
+                }
+                scheduleWakeUp(now, Math.max(next, 1));
+            }
+        }
+        
+        boolean refunded = false;
+        // Counted before completing so that a woken caller sees its own request
+        for (Waiter waiter : ready) {
+            grantedCount.incrementAndGet();
+            if (!waiter.future.complete(null)) {
+                // Cancelled between leaving the queue and being granted
+                grantedCount.decrementAndGet();
+                synchronized (this) {
+                    requests.refund(1);
+                    tokens.refund(waiter.tokens);
+                }
+                refunded = true;
+            }
+        }
+        for (Waiter waiter : late) {
+            expiredCount.incrementAndGet();
+            if (!waiter.future.completeExceptionally(new HttpTimeoutException(
+                    "Deadline passed while waiting for " + provider + " rate limit budget"))) {
+                expiredCount.decrementAndGet();
+            }
+        }
+        if (refunded) {
+            dispatch();
+        }
+    }
+    
+    private void scheduleWakeUp(long now, long delayNanos) {
+        long at = now + delayNanos;
+        if (wakeUp != null && !wakeUp.isDone() && wakeUpAt - at <= 0) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUpAt = at;
+        wakeUp = scheduler.schedule(this::dispatch, delayNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private void refill(long now) {
+        requests.refill(now);
+        tokens.refill(now);
+        if (pausedUntil != 0 && pausedUntil - now <= 0) {
+            pausedUntil = 0;
+        }
+    }
+    
+    private void pauseUntil(long until) {
+        if (pausedUntil == 0 || until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+    }
+    
+    private void learn(TokenBucket bucket, Map<String, List<String>> headers, String[] names, long now) {
+        long limit = parseLong(header(headers, names[0]));
+        if (limit > 0) {
+            bucket.learnLimit(limit);
+        }
+        long remaining = parseLong(header(headers, names[1]));
+        if (remaining >= 0) {
+            bucket.learnRemaining(remaining);
+            if (remaining == 0) {
+                long reset = parseReset(header(headers, names[2]));
+                if (reset > 0) {
+                    pauseUntil(now + reset);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Parse Retry-After (seconds or HTTP date) or the millisecond variant sent by OpenAI.
+     * 
+     * @return The pause in nanoseconds, or -1 if the response has no hint
+     */
+    private static long parseRetryAfter(Map<String, List<String>> headers) {
+        String retryAfterMs = header(headers, "retry-after-ms");
+        if (retryAfterMs != null) {
+            try {
+                return TimeUnit.MICROSECONDS.toNanos((long) (Double.parseDouble(retryAfterMs.trim()) * 1000));
+            } catch (NumberFormatException e) {
+                // Fall back to Retry-After
+            }
+        }
+        
+        String retryAfter = header(headers, "retry-after");
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return (long) (Double.parseDouble(retryAfter.trim()) * 1_000_000_000L);
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = DateTimeFormatter.RFC_1123_DATE_TIME.parse(retryAfter.trim(), Instant::from);
+                return Math.max(0, Duration.between(Instant.now(), at).toNanos());
+            } catch (DateTimeParseException dateError) {
+                return -1;
+            }
+        }
+    }
+    
+    /**
+     * Parse a reset header, either a duration like "6m0s" or an RFC 3339 timestamp.
+     * 
+     * @return The time until the reset in nanoseconds, or -1 if it cannot be parsed
+     */
+    static long parseReset(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        
+        Matcher matcher = DURATION_PART.matcher(trimmed);
+        double nanos = 0;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "h":
+                    nanos += amount * TimeUnit.HOURS.toNanos(1);
+                    break;
+                case "m":
+                    nanos += amount * TimeUnit.MINUTES.toNanos(1);
+                    break;
+                case "s":
+                    nanos += amount * TimeUnit.SECONDS.toNanos(1);
+                    break;
+                default:
+                    nanos += amount * TimeUnit.MILLISECONDS.toNanos(1);
+                    break;
+            }
+            end = matcher.end();
+        }
+        if (end > 0 && end == trimmed.length()) {
+            return (long) nanos;
+        }
+        
+        try {
+            return Math.max(0, Duration.between(Instant.now(), Instant.parse(trimmed)).toNanos());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+    
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    /**
+     * Look up a header case-insensitively, since HTTP/2 lower-cases header names.
+     */
+    private static String header(Map<String, List<String>> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * A budget that refills continuously at its per-minute capacity.
+     * A capacity of 0 means the budget is unknown and never limits requests.
+     */
+    private static class TokenBucket {
+        private final double configuredLimit;
+        private double capacity;
+        private double available;
+        private long lastRefill;
+        
+        TokenBucket(int limitPerMinute, long now) {
+            this.configuredLimit = limitPerMinute;
+            this.capacity = limitPerMinute;
+            this.available = limitPerMinute;
+            this.lastRefill = now;
+        }
+        
+        void refill(long now) {
+            if (capacity > 0) {
+                available = Math.min(capacity, available + (now - lastRefill) * capacity / NANOS_PER_MINUTE);
+            }
+            lastRefill = now;
+        }
+        
+        long waitNanos(double cost) {
+            if (capacity <= 0) {
+                return 0;
+            }
+            // A request larger than the whole budget waits for a full bucket
+            double needed = Math.min(cost, capacity);
+            if (available >= needed) {
+                return 0;
+            }
+            return (long) Math.ceil((needed - available) * NANOS_PER_MINUTE / capacity);
+        }
+        
+        void take(double cost) {
+            if (capacity > 0) {
+                available -= Math.min(cost, capacity);
+            }
+        }
+        
+        void refund(double cost) {
+            if (capacity > 0) {
+                available = Math.min(capacity, available + Math.min(cost, capacity));
+            }
+        }
+        
+        void learnLimit(long limit) {
+            double learned = configuredLimit > 0 ? Math.min(configuredLimit, limit) : limit;
+            if (learned != capacity) {
+                available = capacity > 0 ? Math.min(available, learned) : learned;
+                capacity = learned;
+            }
+        }
+        
+        void learnRemaining(long remaining) {
+            if (capacity > 0) {
+                available = Math.min(available, remaining);
+            }
+        }
+    }
+    
+    /**
+     * A request waiting for budget.
+     */
+    private static class Waiter implements Comparable<Waiter> {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private final int tokens;
+        private final RequestPriority priority;
+        private final boolean hasDeadline;
+        private final long deadline;
+        private final long sequence;
+        private final long queuedAt = System.nanoTime();
+        
+        Waiter(int tokens, RateLimitContext context, long sequence) {
+            this.tokens = tokens;
+            this.priority = context.getPriority();
+            this.hasDeadline = context.hasDeadline();
+            this.deadline = context.getDeadlineNanos();
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public int compareTo(Waiter other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            // Earliest deadline first; requests without one go last
+            if (hasDeadline != other.hasDeadline) {
+                return hasDeadline ? -1 : 1;
+            }
+            if (hasDeadline && deadline != other.deadline) {
+                return deadline - other.deadline < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.celestra.ai.ratelimit;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.telemetry.CallTelemetry;
+
+/**
+ * HttpClientWrapper that holds each request until its provider's
+ * {@link RateLimitScheduler} has budget for it, and feeds every response back to
+ * the scheduler so that one thread's 429 slows down all of them.
+ * 
+ * The priority and deadline of a request come from the {@link RateLimitContext}
+ * of the thread that sends it. Its token cost is estimated from the size of the
+ * request body.
+ */
+public class RateLimitedHttpClientWrapper implements HttpClientWrapper {
+    
+    // Rough number of UTF-8 bytes per token for English text and JSON
+    private static final int BYTES_PER_TOKEN = 4;
+    
+    private final HttpClientWrapper delegate;
+    private final RateLimitScheduler scheduler;
+    
+    /**
+     * Create a new rate-limited wrapper.
+     * 
+     * @param delegate The wrapper that sends the requests
+     * @param scheduler The scheduler of the provider
+     */
+    public RateLimitedHttpClientWrapper(HttpClientWrapper delegate, RateLimitScheduler scheduler) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public SimpleHttpResponse sendRequest(HttpRequest request) throws IOException, InterruptedException {
+        scheduler.acquire(estimateTokens(request), RateLimitContext.current());
+        SimpleHttpResponse response = delegate.sendRequest(request);
+        scheduler.onResponse(response.statusCode(), response.headers());
+        return response;
+    }
+    
+    @Override
+    public StreamingHttpResponse sendStreamingRequest(HttpRequest request) throws IOException, InterruptedException {
+        scheduler.acquire(estimateTokens(request), RateLimitContext.current());
+        StreamingHttpResponse response = delegate.sendStreamingRequest(request);
+        scheduler.onResponse(response.statusCode(), response.headers());
+        return response;
+    }
+    
+    @Override
+    public CompletableFuture<SimpleHttpResponse> sendRequestAsync(HttpRequest request) {
+        // The exchange starts on the thread that releases the permit
+        CallTelemetry telemetry = CallTelemetry.current();
+        CompletableFuture<Void> permit = scheduler.acquireAsync(estimateTokens(request), RateLimitContext.current());
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        
+        permit.whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                return;
+            }
+            
+            CompletableFuture<SimpleHttpResponse> exchange;
+            try {
+                exchange = telemetry.supply(() -> delegate.sendRequestAsync(request));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            exchange.whenComplete((response, exchangeError) -> {
+                if (exchangeError != null) {
+                    result.completeExceptionally(exchangeError);
+                } else {
+                    scheduler.onResponse(response.statusCode(), response.headers());
+                    result.complete(response);
+                }
+            });
+            // Cancelling the result aborts the exchange
+            result.whenComplete((response, resultError) -> exchange.cancel(true));
+        });
+        
+        // Cancelling the result while queued gives up the place in the queue
+        result.whenComplete((response, error) -> permit.cancel(false));
+        return result;
+    }
+    
+    public RateLimitScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Estimate the tokens a request will consume from the length of its body.
+     * 
+     * @param request The request
+     * @return The estimated number of tokens, at least 1
+     */
+    static int estimateTokens(HttpRequest request) {
+        long length = request.bodyPublisher()
+                .map(HttpRequest.BodyPublisher::contentLength)
+                .orElse(0L);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, length / BYTES_PER_TOKEN));
+    }
+}
@@ -0,0 +1,35 @@
+package com.celestra.ai.ratelimit;
+
+/**
+ * Priority of an AI request while it waits for rate-limit budget.
+ * Interactive requests are always dispatched before batch requests.
+ */
+public enum RequestPriority {
+    /**
+     * A user is waiting for the response
+     */
+    INTERACTIVE,
+    
+    /**
+     * Background or bulk work that can wait
+     */
+    BATCH;
+    
+    /**
+     * Convert a string to the corresponding enum value.
+     * 
+     * @param value The string value
+     * @return The enum value, or null if not found
+     */
+    public static RequestPriority fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        try {
+            return RequestPriority.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.celestra.ai.routing;
+
+/**
+ * State of the circuit breaker of an AI provider.
+ */
+public enum CircuitState {
+    /**
+     * The provider is healthy and receives requests
+     */
+    CLOSED,
+    
+    /**
+     * The provider failed too often and is skipped until the open period ends
+     */
+    OPEN,
+    
+    /**
+     * The open period ended and a single trial request decides whether to close again
+     */
+    HALF_OPEN
+}
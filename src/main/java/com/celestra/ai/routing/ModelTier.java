@@ -0,0 +1,42 @@
+package com.celestra.ai.routing;
+
+import java.util.Locale;
+
+/**
+ * Size class of the model a call is sent to. Each provider maps the tiers to
+ * models in its configuration, from the cheapest and fastest to the most capable.
+ */
+public enum ModelTier {
+    /**
+     * A small, fast model for classification and other short, well-defined steps
+     */
+    SMALL,
+    
+    /**
+     * A mid-sized model for extraction and routine generation
+     */
+    MEDIUM,
+    
+    /**
+     * The most capable model, for long-form reasoning
+     */
+    LARGE;
+    
+    /**
+     * Parse a tier name, ignoring case.
+     * 
+     * @param name The tier name, or null
+     * @return The tier, or null if the name is null or empty
+     * @throws IllegalArgumentException If the name is not a tier
+     */
+    public static ModelTier parse(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown model tier: " + name);
+        }
+    }
+}
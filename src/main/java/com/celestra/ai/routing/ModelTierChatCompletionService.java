@@ -0,0 +1,207 @@
+package com.celestra.ai.routing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.exception.StructuredOutputException;
+import com.celestra.ai.structured.OutputSchema;
+import com.celestra.ai.structured.StructuredOutputService;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
+import com.google.gson.JsonObject;
+
+/**
+ * ChatCompletionService decorator that sends each call to the model of its task's tier.
+ * 
+ * Calls name their task with the {@link #TASK_PARAMETER} parameter, which is
+ * replaced by a "model" parameter before the call reaches the provider. Calls
+ * without a task, calls that already name a model and calls to a provider without
+ * configured tiers use the configured model as before. The latency of every
+ * routed call, and every output rejected by a structured completion, is reported
+ * to the {@link ModelTierPolicy}, which moves the task between tiers.
+ */
+public class ModelTierChatCompletionService implements ChatCompletionService {
+    
+    /**
+     * Parameter that names the task of a call, e.g. "investigator.type_detection"
+     */
+    public static final String TASK_PARAMETER = "task";
+    
+    private final ChatCompletionService delegate;
+    private final String provider;
+    private final ModelTierPolicy policy;
+    
+    /**
+     * Create a new model tier service.
+     * 
+     * @param delegate The service that produces the completions
+     * @param provider The provider name, which selects the configured tiers
+     * @param policy The policy that chooses the tiers
+     */
+    public ModelTierChatCompletionService(ChatCompletionService delegate, String provider, ModelTierPolicy policy) {
+        this.delegate = delegate;
+        this.provider = provider;
+        this.policy = policy;
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages) throws Exception {
+        return delegate.getChatCompletion(messages);
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
+        ModelTierPolicy.Selection selection = select(messages, parameters);
+        Map<String, Object> upstream = route(parameters, selection);
+        if (selection == null) {
+            return delegate.getChatCompletion(messages, upstream);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            String completion = delegate.getChatCompletion(messages, upstream);
+            policy.recordSuccess(selection, System.nanoTime() - start);
+            return completion;
+        } catch (Exception e) {
+            policy.recordError(selection);
+            throw e;
+        }
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return delegate.getChatCompletionAsync(messages);
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        ModelTierPolicy.Selection selection = select(messages, parameters);
+        Map<String, Object> upstream = route(parameters, selection);
+        if (selection == null) {
+            return delegate.getChatCompletionAsync(messages, upstream);
+        }
+        
+        long start = System.nanoTime();
+        CompletableFuture<String> call = delegate.getChatCompletionAsync(messages, upstream);
+        call.whenComplete((completion, error) -> {
+            if (error != null) {
+                policy.recordError(selection);
+            } else {
+                policy.recordSuccess(selection, System.nanoTime() - start);
+            }
+        });
+        return call;
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        return delegate.streamChatCompletion(messages, listener);
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        ModelTierPolicy.Selection selection = select(messages, parameters);
+        Map<String, Object> upstream = route(parameters, selection);
+        if (selection == null) {
+            return delegate.streamChatCompletion(messages, upstream, listener);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            String completion = delegate.streamChatCompletion(messages, upstream, listener);
+            policy.recordSuccess(selection, System.nanoTime() - start);
+            return completion;
+        } catch (Exception e) {
+            policy.recordError(selection);
+            throw e;
+        }
+    }
+    
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        ModelTierPolicy.Selection selection = select(messages, parameters);
+        Map<String, Object> upstream = route(parameters, selection);
+        if (selection == null) {
+            return delegate.getToolCompletion(messages, upstream, tools);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            ToolCompletion completion = delegate.getToolCompletion(messages, upstream, tools);
+            policy.recordSuccess(selection, System.nanoTime() - start);
+            return completion;
+        } catch (Exception e) {
+            policy.recordError(selection);
+            throw e;
+        }
+    }
+    
+    /**
+     * Get a structured completion from the model of the task's tier. Each rejected
+     * attempt counts against the tier, so a model that keeps producing invalid
+     * output moves its task up.
+     */
+    @Override
+    public <T> T getStructuredCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                         Class<T> type) throws Exception {
+        return getStructuredCompletion(messages, parameters, OutputSchema.forType(type), type);
+    }
+    
+    @Override
+    public JsonObject getStructuredCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                              OutputSchema schema) throws Exception {
+        return getStructuredCompletion(messages, parameters, schema, JsonObject.class);
+    }
+    
+    private <T> T getStructuredCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                          OutputSchema schema, Class<T> type) throws Exception {
+        ModelTierPolicy.Selection selection = select(messages, parameters);
+        Map<String, Object> upstream = route(parameters, selection);
+        if (selection == null) {
+            return new StructuredOutputService(delegate).complete(messages, upstream, schema, type);
+        }
+        
+        long start = System.nanoTime();
+        try {
+            T output = new StructuredOutputService(delegate, StructuredOutputService.DEFAULT_MAX_ATTEMPTS,
+                    rejection -> policy.recordRejection(selection)).complete(messages, upstream, schema, type);
+            policy.recordSuccess(selection, System.nanoTime() - start);
+            return output;
+        } catch (StructuredOutputException e) {
+            // Every attempt was already recorded as a rejection
+            throw e;
+        } catch (Exception e) {
+            policy.recordError(selection);
+            throw e;
+        }
+    }
+    
+    private ModelTierPolicy.Selection select(List<ChatMessage> messages, Map<String, Object> parameters) {
+        if (parameters == null || parameters.containsKey("model")) {
+            return null;
+        }
+        Object task = parameters.get(TASK_PARAMETER);
+        return task != null ? policy.select(provider, task.toString(), messages) : null;
+    }
+    
+    /**
+     * Replace the task parameter by the model of the selection.
+     */
+    private static Map<String, Object> route(Map<String, Object> parameters, ModelTierPolicy.Selection selection) {
+        if (parameters == null || !parameters.containsKey(TASK_PARAMETER)) {
+            return parameters;
+        }
+        Map<String, Object> upstream = new HashMap<>(parameters);
+        upstream.remove(TASK_PARAMETER);
+        if (selection != null) {
+            upstream.put("model", selection.getModel());
+        }
+        return upstream;
+    }
+}
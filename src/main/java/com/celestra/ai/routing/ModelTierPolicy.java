@@ -0,0 +1,382 @@
+package com.celestra.ai.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.telemetry.LatencyHistogram;
+import com.google.gson.JsonObject;
+
+/**
+ * Chooses the model tier of each task and adapts it to the outcomes of its calls.
+ * 
+ * A task is a named kind of call, such as a workflow step ("investigator.type_detection")
+ * or an agent ("agent.42"). It starts at its configured tier, or at a tier picked
+ * from the size of its first prompt, and then moves within its configured bounds:
+ * <ul>
+ *   <li>up one tier when too many outputs in the window are rejected, after which
+ *       it holds that tier for the hold period;</li>
+ *   <li>down one tier after a long run of accepted outputs, to find out whether the
+ *       cheaper model is good enough;</li>
+ *   <li>down one tier when its average latency over the window exceeds the task's
+ *       latency budget.</li>
+ * </ul>
+ * Outcomes of calls made at a tier the task has already left are recorded in the
+ * statistics but do not move the task again.
+ */
+public class ModelTierPolicy {
+    
+    private static final Logger LOGGER = Logger.getLogger(ModelTierPolicy.class.getName());
+    
+    private static ModelTierPolicy instance;
+    
+    /**
+     * The tier and model chosen for a call.
+     */
+    public static final class Selection {
+        private final String task;
+        private final ModelTier tier;
+        private final String model;
+        
+        Selection(String task, ModelTier tier, String model) {
+            this.task = task;
+            this.tier = tier;
+            this.model = model;
+        }
+        
+        public String getTask() {
+            return task;
+        }
+        
+        public ModelTier getTier() {
+            return tier;
+        }
+        
+        public String getModel() {
+            return model;
+        }
+    }
+    
+    private final AIConfigurationManager configManager;
+    private final TokenEstimator estimator;
+    private final int window;
+    private final double upgradeRejectionRate;
+    private final int downgradeSuccesses;
+    private final long holdNanos;
+    private final Map<String, TaskState> tasks = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the policy shared by all services.
+     * 
+     * @return The policy
+     */
+    public static synchronized ModelTierPolicy getInstance() {
+        if (instance == null) {
+            AIConfigurationManager configManager = AIConfigurationManager.getInstance();
+            instance = new ModelTierPolicy(configManager, new TokenEstimator(), configManager.getModelAdaptWindow(),
+                    configManager.getModelAdaptUpgradeRejectionRate(), configManager.getModelAdaptDowngradeSuccesses(),
+                    TimeUnit.MINUTES.toMillis(configManager.getModelAdaptHoldMinutes()));
+        }
+        return instance;
+    }
+    
+    /**
+     * Create a new policy.
+     * 
+     * @param configManager The configuration of the tiers and tasks
+     * @param estimator The estimator that sizes the first prompt of unconfigured tasks
+     * @param window The number of calls of a task its tier is evaluated over
+     * @param upgradeRejectionRate The rate of rejected outputs in the window (0 to 1) that moves a task up
+     * @param downgradeSuccesses The number of consecutive accepted outputs after which a task tries a smaller tier
+     * @param holdMillis How long a task stays at a tier it was upgraded to before it may move down
+     */
+    public ModelTierPolicy(AIConfigurationManager configManager, TokenEstimator estimator, int window,
+                           double upgradeRejectionRate, int downgradeSuccesses, long holdMillis) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        if (upgradeRejectionRate <= 0 || upgradeRejectionRate > 1) {
+            throw new IllegalArgumentException("Upgrade rejection rate must be in (0, 1]");
+        }
+        if (downgradeSuccesses <= 0) {
+            throw new IllegalArgumentException("Downgrade successes must be positive");
+        }
+        this.configManager = configManager;
+        this.estimator = estimator;
+        this.window = window;
+        this.upgradeRejectionRate = upgradeRejectionRate;
+        this.downgradeSuccesses = downgradeSuccesses;
+        this.holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMillis);
+    }
+    
+    /**
+     * Choose the model for a call of a task.
+     * 
+     * @param provider The provider the call is sent to
+     * @param task The task
+     * @param messages The messages of the call, which size the first prompt of an unconfigured task
+     * @return The selection, or null if the provider has no tiers configured
+     */
+    public Selection select(String provider, String task, List<ChatMessage> messages) {
+        List<String> models = getModels(provider);
+        if (models.isEmpty()) {
+            return null;
+        }
+        TaskState state = tasks.computeIfAbsent(task, key -> createState(key, messages));
+        ModelTier tier = state.getTier();
+        return new Selection(task, tier, models.get(Math.min(tier.ordinal(), models.size() - 1)));
+    }
+    
+    /**
+     * Record a call that returned an output, which counts as accepted.
+     * 
+     * @param selection The selection the call was made with
+     * @param latencyNanos The duration of the call
+     */
+    public void recordSuccess(Selection selection, long latencyNanos) {
+        state(selection.getTask()).record(selection.getTier(), latencyNanos, false);
+    }
+    
+    /**
+     * Record an output that was rejected, e.g. because it did not match its schema.
+     * 
+     * @param selection The selection the call was made with
+     */
+    public void recordRejection(Selection selection) {
+        state(selection.getTask()).record(selection.getTier(), -1, true);
+    }
+    
+    /**
+     * Record a call that failed without an output. Errors are counted but do not
+     * move the task, since a larger model does not fix an unavailable provider.
+     * 
+     * @param selection The selection the call was made with
+     */
+    public void recordError(Selection selection) {
+        state(selection.getTask()).recordError(selection.getTier());
+    }
+    
+    /**
+     * Report that an output of a task was rejected by its caller after the call
+     * returned, e.g. by a validation step further down the line.
+     * 
+     * @param task The task
+     */
+    public void reportRejection(String task) {
+        TaskState state = tasks.get(task);
+        if (state != null) {
+            state.record(state.getTier(), -1, true);
+        }
+    }
+    
+    /**
+     * Get the current tier of a task.
+     * 
+     * @param task The task
+     * @return The tier, or null if the task has not made a call yet
+     */
+    public ModelTier getTier(String task) {
+        TaskState state = tasks.get(task);
+        return state != null ? state.getTier() : null;
+    }
+    
+    /**
+     * Get the tiers and per-tier outcomes of all tasks.
+     * 
+     * @return A JSON object keyed by task
+     */
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, TaskState> entry : tasks.entrySet()) {
+            json.add(entry.getKey(), entry.getValue().toJson());
+        }
+        return json;
+    }
+    
+    private List<String> getModels(String provider) {
+        List<String> models = new ArrayList<>();
+        for (String model : configManager.getModelTiers(provider).split(",")) {
+            if (!model.trim().isEmpty()) {
+                models.add(model.trim());
+            }
+        }
+        return models;
+    }
+    
+    private TaskState state(String task) {
+        TaskState state = tasks.get(task);
+        if (state == null) {
+            throw new IllegalArgumentException("No call was selected for task " + task);
+        }
+        return state;
+    }
+    
+    private TaskState createState(String task, List<ChatMessage> messages) {
+        ModelTier min = bound(task, configManager.getModelTaskMinTier(task), ModelTier.SMALL);
+        ModelTier max = bound(task, configManager.getModelTaskMaxTier(task), ModelTier.LARGE);
+        if (min.compareTo(max) > 0) {
+            LOGGER.warning("Minimum tier of task " + task + " is above its maximum, using " + max);
+            min = max;
+        }
+        
+        ModelTier initial = bound(task, configManager.getModelTaskTier(task), null);
+        if (initial == null) {
+            int tokens = estimator.estimate(messages);
+            initial = tokens <= configManager.getModelSmallMaxPromptTokens() ? ModelTier.SMALL
+                    : tokens >= configManager.getModelLargeMinPromptTokens() ? ModelTier.LARGE : ModelTier.MEDIUM;
+        }
+        ModelTier tier = initial.compareTo(min) < 0 ? min : initial.compareTo(max) > 0 ? max : initial;
+        return new TaskState(task, tier, min, max,
+                TimeUnit.MILLISECONDS.toNanos(configManager.getModelTaskLatencyBudgetMs(task)));
+    }
+    
+    private static ModelTier bound(String task, String name, ModelTier defaultTier) {
+        try {
+            ModelTier tier = ModelTier.parse(name);
+            return tier != null ? tier : defaultTier;
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Invalid model tier " + name + " for task " + task + ", using " + defaultTier);
+            return defaultTier;
+        }
+    }
+    
+    /**
+     * The tier, bounds and outcomes of one task.
+     */
+    private final class TaskState {
+        private final String task;
+        private final ModelTier min;
+        private final ModelTier max;
+        private final long latencyBudgetNanos;
+        private final LatencyHistogram[] latencies = new LatencyHistogram[ModelTier.values().length];
+        private final long[] accepted = new long[ModelTier.values().length];
+        private final long[] rejections = new long[ModelTier.values().length];
+        private final long[] errors = new long[ModelTier.values().length];
+        
+        // Guarded by this
+        private ModelTier tier;
+        private int windowOutcomes;
+        private int windowRejections;
+        private int windowLatencyCount;
+        private long windowLatencyNanos;
+        private int consecutiveSuccesses;
+        private long holdUntil;
+        private boolean holding;
+        
+        private TaskState(String task, ModelTier tier, ModelTier min, ModelTier max, long latencyBudgetNanos) {
+            this.task = task;
+            this.tier = tier;
+            this.min = min;
+            this.max = max;
+            this.latencyBudgetNanos = latencyBudgetNanos;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+        
+        private synchronized ModelTier getTier() {
+            return tier;
+        }
+        
+        private synchronized void recordError(ModelTier used) {
+            errors[used.ordinal()]++;
+        }
+        
+        private synchronized void record(ModelTier used, long latencyNanos, boolean rejected) {
+            if (rejected) {
+                rejections[used.ordinal()]++;
+            } else {
+                accepted[used.ordinal()]++;
+                latencies[used.ordinal()].record(latencyNanos);
+            }
+            if (used != tier) {
+                return;
+            }
+            
+            windowOutcomes++;
+            if (rejected) {
+                windowRejections++;
+                consecutiveSuccesses = 0;
+            } else {
+                consecutiveSuccesses++;
+                windowLatencyCount++;
+                windowLatencyNanos += latencyNanos;
+            }
+            
+            if (windowRejections >= Math.max(1, Math.ceil(window * upgradeRejectionRate))) {
+                if (tier.compareTo(max) < 0) {
+                    move(ModelTier.values()[tier.ordinal() + 1], windowRejections + " of the last "
+                            + windowOutcomes + " outputs were rejected");
+                    holding = true;
+                    holdUntil = System.nanoTime() + holdNanos;
+                } else {
+                    resetWindow();
+                }
+            } else if (!rejected && consecutiveSuccesses >= downgradeSuccesses && canDowngrade()) {
+                move(ModelTier.values()[tier.ordinal() - 1], consecutiveSuccesses + " outputs in a row were accepted");
+            } else if (windowOutcomes >= window) {
+                long averageNanos = windowLatencyCount > 0 ? windowLatencyNanos / windowLatencyCount : 0;
+                if (latencyBudgetNanos > 0 && averageNanos > latencyBudgetNanos && canDowngrade()) {
+                    move(ModelTier.values()[tier.ordinal() - 1], "average latency of "
+                            + TimeUnit.NANOSECONDS.toMillis(averageNanos) + " ms is over the budget");
+                } else {
+                    resetWindow();
+                }
+            }
+        }
+        
+        private boolean canDowngrade() {
+            if (tier.compareTo(min) <= 0) {
+                return false;
+            }
+            if (holding && System.nanoTime() - holdUntil < 0) {
+                return false;
+            }
+            holding = false;
+            return true;
+        }
+        
+        private void move(ModelTier next, String reason) {
+            LOGGER.info("Moving task " + task + " from the " + tier + " to the " + next + " model tier: " + reason);
+            tier = next;
+            consecutiveSuccesses = 0;
+            resetWindow();
+        }
+        
+        private void resetWindow() {
+            windowOutcomes = 0;
+            windowRejections = 0;
+            windowLatencyCount = 0;
+            windowLatencyNanos = 0;
+        }
+        
+        private synchronized JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("tier", tier.name());
+            json.addProperty("minTier", min.name());
+            json.addProperty("maxTier", max.name());
+            JsonObject tiers = new JsonObject();
+            for (ModelTier each : ModelTier.values()) {
+                int i = each.ordinal();
+                if (accepted[i] == 0 && rejections[i] == 0 && errors[i] == 0) {
+                    continue;
+                }
+                JsonObject stats = new JsonObject();
+                stats.addProperty("accepted", accepted[i]);
+                stats.addProperty("rejections", rejections[i]);
+                stats.addProperty("errors", errors[i]);
+                stats.addProperty("averageMs", latencies[i].getAverageMs());
+                stats.addProperty("p95Ms", latencies[i].getPercentileMs(95));
+                tiers.add(each.name(), stats);
+            }
+            json.add("tiers", tiers);
+            return json;
+        }
+    }
+}
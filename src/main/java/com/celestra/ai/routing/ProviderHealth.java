@@ -0,0 +1,220 @@
+package com.celestra.ai.routing;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Latency and error statistics of one AI provider over a sliding window of
+ * recent calls, together with the circuit breaker they drive.
+ * 
+ * The circuit opens when the failure rate of the last calls reaches the
+ * threshold. While open the provider is skipped; once the open period has
+ * passed a single trial call is let through, and its outcome closes the circuit
+ * or opens it again.
+ */
+public class ProviderHealth {
+    
+    private static final Logger LOGGER = Logger.getLogger(ProviderHealth.class.getName());
+    
+    private static final int LATENCY_WINDOW = 256;
+    
+    private final String provider;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    
+    private final boolean[] outcomes;
+    private int outcomeCount;
+    private int outcomeIndex;
+    private int failureCount;
+    
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyIndex;
+    
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+    
+    private long totalCalls;
+    private long totalFailures;
+    
+    /**
+     * Create new provider statistics.
+     * 
+     * @param provider The provider name, used in log messages
+     * @param window The number of recent calls the failure rate is computed over
+     * @param minCalls The number of calls in the window before the circuit may open
+     * @param failureRateThreshold The failure rate (0 to 1) that opens the circuit
+     * @param openMillis How long the circuit stays open before a trial call
+     */
+    public ProviderHealth(String provider, int window, int minCalls, double failureRateThreshold, long openMillis) {
+        if (window <= 0 || minCalls <= 0 || minCalls > window) {
+            throw new IllegalArgumentException("Minimum calls must be between 1 and the window size");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("Failure rate threshold must be in (0, 1]");
+        }
+        this.provider = provider;
+        this.outcomes = new boolean[window];
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+    
+    /**
+     * Check whether a call may be sent to the provider, claiming the trial call
+     * if the open period has just ended.
+     * 
+     * @return true if the provider should be called
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = CircuitState.HALF_OPEN;
+                trialInFlight = true;
+                LOGGER.info("Circuit of " + provider + " is half-open, sending a trial request");
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+    
+    /**
+     * Record a successful call.
+     * 
+     * @param latencyNanos The duration of the call
+     */
+    public synchronized void recordSuccess(long latencyNanos) {
+        totalCalls++;
+        latencies[latencyIndex] = latencyNanos;
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_WINDOW);
+        
+        if (state == CircuitState.HALF_OPEN) {
+            LOGGER.info("Circuit of " + provider + " closed after a successful trial request");
+            state = CircuitState.CLOSED;
+            trialInFlight = false;
+            resetOutcomes();
+        }
+        recordOutcome(false);
+    }
+    
+    /**
+     * Record a failed call.
+     */
+    public synchronized void recordFailure() {
+        totalCalls++;
+        totalFailures++;
+        
+        if (state == CircuitState.HALF_OPEN) {
+            open();
+            return;
+        }
+        recordOutcome(true);
+        if (state == CircuitState.CLOSED && outcomeCount >= minCalls
+                && getFailureRateLocked() >= failureRateThreshold) {
+            open();
+        }
+    }
+    
+    /**
+     * Give back a trial call that ended without an outcome, e.g. a cancelled hedge.
+     */
+    public synchronized void release() {
+        if (state == CircuitState.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+    
+    /**
+     * Get a latency percentile of the recent successful calls.
+     * 
+     * @param percentile The percentile (0 to 100)
+     * @return The latency in milliseconds, or -1 if no call has succeeded yet
+     */
+    public synchronized long getLatencyPercentileMs(double percentile) {
+        if (latencyCount == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * latencyCount) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(latencyCount - 1, index))]);
+    }
+    
+    /**
+     * Get the number of successful calls the latency percentiles are based on.
+     * 
+     * @return The number of samples
+     */
+    public synchronized int getLatencySampleCount() {
+        return latencyCount;
+    }
+    
+    /**
+     * Get the failure rate over the window of recent calls.
+     * 
+     * @return The failure rate (0 to 1)
+     */
+    public synchronized double getFailureRate() {
+        return getFailureRateLocked();
+    }
+    
+    public synchronized CircuitState getState() {
+        return state;
+    }
+    
+    public String getProvider() {
+        return provider;
+    }
+    
+    public synchronized long getTotalCalls() {
+        return totalCalls;
+    }
+    
+    public synchronized long getTotalFailures() {
+        return totalFailures;
+    }
+    
+    private void open() {
+        LOGGER.warning("Opening circuit of " + provider + " for " + TimeUnit.NANOSECONDS.toMillis(openNanos)
+                + " ms (failure rate " + Math.round(getFailureRateLocked() * 100) + "%)");
+        state = CircuitState.OPEN;
+        openedAt = System.nanoTime();
+        trialInFlight = false;
+    }
+    
+    private void recordOutcome(boolean failure) {
+        if (outcomeCount == outcomes.length && outcomes[outcomeIndex]) {
+            failureCount--;
+        }
+        outcomes[outcomeIndex] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+        outcomeCount = Math.min(outcomeCount + 1, outcomes.length);
+    }
+    
+    private void resetOutcomes() {
+        Arrays.fill(outcomes, false);
+        outcomeCount = 0;
+        outcomeIndex = 0;
+        failureCount = 0;
+    }
+    
+    private double getFailureRateLocked() {
+        return outcomeCount == 0 ? 0 : (double) failureCount / outcomeCount;
+    }
+}
@@ -0,0 +1,445 @@
+package com.celestra.ai.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.exception.QuotaExceededException;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
+
+/**
+ * ChatCompletionService that spreads calls over several providers.
+ * 
+ * Providers are tried in preference order. A provider whose circuit is open is
+ * skipped, and a call that fails on one provider fails over to the next. When
+ * hedging is enabled and the preferred provider has not answered within its
+ * recent latency percentile, the call is also sent to the next provider; the
+ * first answer wins and the other call is cancelled.
+ * 
+ * Invalid requests are not failed over, since every provider would reject them,
+ * and neither are calls refused by the caller's quota, which spans all providers.
+ */
+public class RoutingChatCompletionService implements ChatCompletionService {
+    
+    private static final Logger LOGGER = Logger.getLogger(RoutingChatCompletionService.class.getName());
+    
+    // Hedging waits until the percentile is based on enough calls
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    
+    private final Map<String, ChatCompletionService> services;
+    private final Map<String, ProviderHealth> health;
+    private final boolean hedgingEnabled;
+    private final double hedgePercentile;
+    private final long minHedgeDelayMs;
+    private final ScheduledExecutorService scheduler;
+    
+    private final AtomicLong failoverCount = new AtomicLong();
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+    
+    /**
+     * Create a routing service without hedging.
+     * 
+     * @param services The services keyed by provider name, in preference order
+     * @param health The statistics of each provider
+     */
+    public RoutingChatCompletionService(Map<String, ChatCompletionService> services,
+                                        Map<String, ProviderHealth> health) {
+        this(services, health, false, 95, 0, null);
+    }
+    
+    /**
+     * Create a routing service.
+     * 
+     * @param services The services keyed by provider name, in preference order
+     * @param health The statistics of each provider
+     * @param hedgingEnabled Whether slow calls are also sent to the next provider
+     * @param hedgePercentile The latency percentile of the first provider after which the call is hedged
+     * @param minHedgeDelayMs The minimum time to wait before hedging
+     * @param scheduler The scheduler that triggers hedged calls (required when hedging is enabled)
+     */
+    public RoutingChatCompletionService(Map<String, ChatCompletionService> services,
+                                        Map<String, ProviderHealth> health, boolean hedgingEnabled,
+                                        double hedgePercentile, long minHedgeDelayMs,
+                                        ScheduledExecutorService scheduler) {
+        if (services.isEmpty()) {
+            throw new IllegalArgumentException("At least one provider is required");
+        }
+        for (String provider : services.keySet()) {
+            if (!health.containsKey(provider)) {
+                throw new IllegalArgumentException("No health statistics for provider: " + provider);
+            }
+        }
+        if (hedgingEnabled && scheduler == null) {
+            throw new IllegalArgumentException("A scheduler is required for hedging");
+        }
+        this.services = new LinkedHashMap<>(services);
+        this.health = new LinkedHashMap<>(health);
+        this.hedgingEnabled = hedgingEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.minHedgeDelayMs = minHedgeDelayMs;
+        this.scheduler = scheduler;
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages) throws Exception {
+        return await(getChatCompletionAsync(messages));
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
+        return await(getChatCompletionAsync(messages, parameters));
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return new RoutedCall(messages, null).start();
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        return new RoutedCall(messages, parameters).start();
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        return stream(messages, null, listener);
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        return stream(messages, parameters, listener);
+    }
+    
+    /**
+     * Get a chat completion with tools from the first available provider, failing
+     * over in order. Tool calls are not hedged, since a tool conversation is
+     * usually short and its cost is in the tools rather than the model.
+     */
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        Exception lastException = null;
+        boolean first = true;
+        
+        for (Map.Entry<String, ChatCompletionService> entry : services.entrySet()) {
+            ProviderHealth providerHealth = health.get(entry.getKey());
+            if (!providerHealth.tryAcquire()) {
+                continue;
+            }
+            if (!first) {
+                failoverCount.incrementAndGet();
+                LOGGER.warning("Failing over tool call to " + entry.getKey());
+            }
+            first = false;
+            
+            long start = System.nanoTime();
+            try {
+                ToolCompletion completion = entry.getValue().getToolCompletion(messages, parameters, tools);
+                providerHealth.recordSuccess(System.nanoTime() - start);
+                return completion;
+            } catch (InvalidRequestException | QuotaExceededException | UnsupportedOperationException e) {
+                providerHealth.release();
+                throw e;
+            } catch (Exception e) {
+                providerHealth.recordFailure();
+                lastException = e;
+            }
+        }
+        
+        throw noProviderLeft(lastException);
+    }
+    
+    /**
+     * Get the statistics of each provider.
+     * 
+     * @return The statistics keyed by provider name, in preference order
+     */
+    public Map<String, ProviderHealth> getHealth() {
+        return Collections.unmodifiableMap(health);
+    }
+    
+    public long getFailoverCount() {
+        return failoverCount.get();
+    }
+    
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+    
+    /**
+     * Get the number of hedged calls where the second provider answered first.
+     * 
+     * @return The number of hedged calls won by the hedge
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+    
+    /**
+     * Stream from the first available provider. A stream can only fail over before
+     * its first fragment, and is never hedged since the listener would see both.
+     * An exception thrown by the caller's listener, e.g. because the client went
+     * away, ends the stream without counting against the provider's health.
+     */
+    private String stream(List<ChatMessage> messages, Map<String, Object> parameters, StreamListener listener)
+            throws Exception {
+        Exception lastException = null;
+        boolean first = true;
+        
+        for (Map.Entry<String, ChatCompletionService> entry : services.entrySet()) {
+            ProviderHealth providerHealth = health.get(entry.getKey());
+            if (!providerHealth.tryAcquire()) {
+                continue;
+            }
+            if (!first) {
+                failoverCount.incrementAndGet();
+                LOGGER.warning("Failing over stream to " + entry.getKey());
+            }
+            first = false;
+            
+            boolean[] started = new boolean[1];
+            boolean[] listenerFailed = new boolean[1];
+            StreamListener tracking = new StreamListener() {
+                @Override
+                public void onDelta(String delta) {
+                    started[0] = true;
+                    try {
+                        listener.onDelta(delta);
+                    } catch (RuntimeException e) {
+                        listenerFailed[0] = true;
+                        throw e;
+                    }
+                }
+                
+                @Override
+                public void onComplete(String completion) {
+                    try {
+                        listener.onComplete(completion);
+                    } catch (RuntimeException e) {
+                        listenerFailed[0] = true;
+                        throw e;
+                    }
+                }
+            };
+            
+            long start = System.nanoTime();
+            try {
+                String completion = parameters != null
+                        ? entry.getValue().streamChatCompletion(messages, parameters, tracking)
+                        : entry.getValue().streamChatCompletion(messages, tracking);
+                providerHealth.recordSuccess(System.nanoTime() - start);
+                return completion;
+            } catch (InvalidRequestException | QuotaExceededException e) {
+                providerHealth.release();
+                throw e;
+            } catch (Exception e) {
+                if (listenerFailed[0]) {
+                    providerHealth.release();
+                    throw e;
+                }
+                providerHealth.recordFailure();
+                if (started[0]) {
+                    throw e;
+                }
+                lastException = e;
+            }
+        }
+        
+        throw noProviderLeft(lastException);
+    }
+    
+    private static String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    private static AIServiceException noProviderLeft(Throwable lastError) {
+        if (lastError == null) {
+            return new AIServiceException("No AI provider is available: all circuits are open");
+        }
+        return new AIServiceException("All AI providers failed", lastError);
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+    
+    /**
+     * One logical call, which may be sent to several providers.
+     */
+    private class RoutedCall {
+        private final List<ChatMessage> messages;
+        private final Map<String, Object> parameters;
+        private final List<String> providers = new ArrayList<>(services.keySet());
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final List<Future<?>> pending = new ArrayList<>();
+        private int nextProvider;
+        private int running;
+        private boolean hedged;
+        private Throwable lastError;
+        
+        RoutedCall(List<ChatMessage> messages, Map<String, Object> parameters) {
+            this.messages = messages;
+            this.parameters = parameters;
+        }
+        
+        CompletableFuture<String> start() {
+            // Completing or cancelling the result cancels the calls still in flight
+            result.whenComplete((value, error) -> {
+                List<Future<?>> toCancel;
+                synchronized (this) {
+                    toCancel = new ArrayList<>(pending);
+                }
+                toCancel.forEach(future -> future.cancel(true));
+            });
+            
+            synchronized (this) {
+                String primary = launchNext();
+                if (primary == null) {
+                    result.completeExceptionally(noProviderLeft(null));
+                } else {
+                    scheduleHedge(primary);
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Send the call to the next provider whose circuit allows it.
+         * 
+         * @return The provider name, or null if none is left
+         */
+        private String launchNext() {
+            while (nextProvider < providers.size()) {
+                String provider = providers.get(nextProvider++);
+                ProviderHealth providerHealth = health.get(provider);
+                if (!providerHealth.tryAcquire()) {
+                    continue;
+                }
+                
+                ChatCompletionService service = services.get(provider);
+                long start = System.nanoTime();
+                CompletableFuture<String> future;
+                try {
+                    future = parameters != null
+                            ? service.getChatCompletionAsync(messages, parameters)
+                            : service.getChatCompletionAsync(messages);
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                running++;
+                pending.add(future);
+                future.whenComplete((value, error) -> onAttemptComplete(provider, start, value, error));
+                return provider;
+            }
+            return null;
+        }
+        
+        private void onAttemptComplete(String provider, long start, String value, Throwable error) {
+            ProviderHealth providerHealth = health.get(provider);
+            if (error == null) {
+                providerHealth.recordSuccess(System.nanoTime() - start);
+                // Count the win before completing, so that callers see the count with the result
+                synchronized (this) {
+                    if (!result.isDone() && hedged && !provider.equals(providers.get(0))) {
+                        hedgeWinCount.incrementAndGet();
+                    }
+                }
+                result.complete(value);
+                return;
+            }
+            
+            Throwable cause = unwrap(error);
+            if (cause instanceof CancellationException || result.isDone()) {
+                providerHealth.release();
+                synchronized (this) {
+                    running--;
+                }
+                return;
+            }
+            if (cause instanceof InvalidRequestException || cause instanceof QuotaExceededException) {
+                providerHealth.release();
+                result.completeExceptionally(cause);
+                return;
+            }
+            
+            providerHealth.recordFailure();
+            synchronized (this) {
+                running--;
+                lastError = cause;
+                if (running > 0) {
+                    // A hedged call to another provider is still in flight
+                    return;
+                }
+                String next = launchNext();
+                if (next != null) {
+                    failoverCount.incrementAndGet();
+                    LOGGER.warning("Failing over from " + provider + " to " + next + ": " + cause.getMessage());
+                    return;
+                }
+            }
+            result.completeExceptionally(noProviderLeft(lastError));
+        }
+        
+        private void scheduleHedge(String primary) {
+            if (!hedgingEnabled || nextProvider >= providers.size()) {
+                return;
+            }
+            ProviderHealth primaryHealth = health.get(primary);
+            if (primaryHealth.getLatencySampleCount() < MIN_HEDGE_SAMPLES) {
+                return;
+            }
+            
+            long delayMs = Math.max(minHedgeDelayMs, primaryHealth.getLatencyPercentileMs(hedgePercentile));
+            pending.add(scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (result.isDone() || running == 0) {
+                        return;
+                    }
+                    // Set first, since the hedge may complete before launchNext returns
+                    hedged = true;
+                    hedgeCount.incrementAndGet();
+                    String hedge = launchNext();
+                    if (hedge == null) {
+                        hedged = false;
+                        hedgeCount.decrementAndGet();
+                    } else {
+                        LOGGER.info("Hedging call to " + primary + " with " + hedge + " after " + delayMs + " ms");
+                    }
+                }
+            }, delayMs, TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.celestra.ai.structured;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * The shape of the JSON object an AI call must answer with: its top-level
+ * fields, their types, the values allowed for enumerated strings and the range
+ * of numbers.
+ * 
+ * Nested objects and arrays are checked for their type only. Schemas are built
+ * with the fluent field methods or derived from a Java type with
+ * {@link #forType(Class)}.
+ */
+public class OutputSchema {
+    
+    /**
+     * The JSON type of a field.
+     */
+    public enum FieldType {
+        STRING, NUMBER, BOOLEAN, OBJECT, ARRAY
+    }
+    
+    /**
+     * A top-level field of the schema.
+     */
+    public static class FieldSpec {
+        private final String name;
+        private final FieldType type;
+        private final boolean required;
+        private final List<String> allowedValues;
+        private final double min;
+        private final double max;
+        
+        FieldSpec(String name, FieldType type, boolean required, List<String> allowedValues, double min, double max) {
+            this.name = name;
+            this.type = type;
+            this.required = required;
+            this.allowedValues = allowedValues;
+            this.min = min;
+            this.max = max;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public FieldType getType() {
+            return type;
+        }
+        
+        public boolean isRequired() {
+            return required;
+        }
+        
+        /**
+         * Get the values a string field may take.
+         * 
+         * @return The allowed values, or an empty list if any string is allowed
+         */
+        public List<String> getAllowedValues() {
+            return allowedValues;
+        }
+        
+        public double getMin() {
+            return min;
+        }
+        
+        public double getMax() {
+            return max;
+        }
+    }
+    
+    private final Map<String, FieldSpec> fields = new LinkedHashMap<>();
+    private boolean additionalFields;
+    
+    /**
+     * Add a required string field.
+     * 
+     * @param name The field name
+     * @param allowedValues The values the field may take; none to allow any string
+     * @return This schema
+     */
+    public OutputSchema string(String name, String... allowedValues) {
+        return add(new FieldSpec(name, FieldType.STRING, true, List.of(allowedValues),
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+    }
+    
+    /**
+     * Add a required number field.
+     * 
+     * @param name The field name
+     * @param min The smallest allowed value
+     * @param max The largest allowed value
+     * @return This schema
+     */
+    public OutputSchema number(String name, double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Invalid range for " + name + ": " + min + " to " + max);
+        }
+        return add(new FieldSpec(name, FieldType.NUMBER, true, List.of(), min, max));
+    }
+    
+    /**
+     * Add a required number field of any value.
+     * 
+     * @param name The field name
+     * @return This schema
+     */
+    public OutputSchema number(String name) {
+        return number(name, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+    
+    /**
+     * Add a required field of a type without further constraints.
+     * 
+     * @param name The field name
+     * @param type The JSON type
+     * @return This schema
+     */
+    public OutputSchema field(String name, FieldType type) {
+        return add(new FieldSpec(name, type, true, List.of(), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+    }
+    
+    /**
+     * Make fields optional; they may be missing or null.
+     * 
+     * @param names The field names
+     * @return This schema
+     */
+    public OutputSchema optional(String... names) {
+        for (String name : names) {
+            FieldSpec spec = fields.get(name);
+            if (spec == null) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            fields.put(name, new FieldSpec(name, spec.type, false, spec.allowedValues, spec.min, spec.max));
+        }
+        return this;
+    }
+    
+    /**
+     * Allow fields that are not in the schema. By default they are a violation.
+     * 
+     * @return This schema
+     */
+    public OutputSchema allowAdditionalFields() {
+        this.additionalFields = true;
+        return this;
+    }
+    
+    /**
+     * Derive a schema from the fields of a Java type, as Gson maps them: the
+     * {@link SerializedName} or the field name. All fields are required; enums
+     * become strings that only allow the names of their constants.
+     * 
+     * @param type The type the output is mapped to
+     * @return The schema
+     */
+    public static OutputSchema forType(Class<?> type) {
+        OutputSchema schema = new OutputSchema();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                String name = serializedName != null ? serializedName.value() : field.getName();
+                Class<?> fieldType = field.getType();
+                if (fieldType.isEnum()) {
+                    schema.string(name, enumValues(fieldType));
+                } else {
+                    schema.field(name, typeOf(fieldType));
+                }
+            }
+        }
+        return schema;
+    }
+    
+    public FieldSpec getField(String name) {
+        return fields.get(name);
+    }
+    
+    public Collection<FieldSpec> getFields() {
+        return Collections.unmodifiableCollection(fields.values());
+    }
+    
+    public boolean isAdditionalFieldsAllowed() {
+        return additionalFields;
+    }
+    
+    /**
+     * Describe the expected output for a prompt, e.g. when asking the model to
+     * correct an invalid answer.
+     * 
+     * @return A description of the fields
+     */
+    public String describe() {
+        List<String> parts = new ArrayList<>();
+        for (FieldSpec spec : fields.values()) {
+            StringBuilder part = new StringBuilder("\"").append(spec.name).append("\": ")
+                    .append(spec.type.name().toLowerCase());
+            if (!spec.allowedValues.isEmpty()) {
+                part.append(" (one of ").append(String.join(" | ", spec.allowedValues)).append(")");
+            }
+            if (spec.min != Double.NEGATIVE_INFINITY || spec.max != Double.POSITIVE_INFINITY) {
+                part.append(" (").append(spec.min).append(" to ").append(spec.max).append(")");
+            }
+            if (!spec.required) {
+                part.append(", optional");
+            }
+            parts.add(part.toString());
+        }
+        return "{" + String.join(", ", parts) + "}";
+    }
+    
+    /**
+     * Convert the schema to a JSON Schema, e.g. to declare the parameters of a tool.
+     * 
+     * @return The JSON Schema of an object with the fields of this schema
+     */
+    public JsonObject toJsonSchema() {
+        JsonObject properties = new JsonObject();
+        JsonArray required = new JsonArray();
+        for (FieldSpec spec : fields.values()) {
+            JsonObject property = new JsonObject();
+            property.addProperty("type", spec.type.name().toLowerCase());
+            if (!spec.allowedValues.isEmpty()) {
+                JsonArray values = new JsonArray();
+                spec.allowedValues.forEach(values::add);
+                property.add("enum", values);
+            }
+            if (spec.min != Double.NEGATIVE_INFINITY) {
+                property.addProperty("minimum", spec.min);
+            }
+            if (spec.max != Double.POSITIVE_INFINITY) {
+                property.addProperty("maximum", spec.max);
+            }
+            properties.add(spec.name, property);
+            if (spec.required) {
+                required.add(spec.name);
+            }
+        }
+        
+        JsonObject schema = new JsonObject();
+        schema.addProperty("type", "object");
+        schema.add("properties", properties);
+        schema.add("required", required);
+        schema.addProperty("additionalProperties", additionalFields);
+        return schema;
+    }
+    
+    private OutputSchema add(FieldSpec spec) {
+        if (spec.name == null || spec.name.isEmpty()) {
+            throw new IllegalArgumentException("Field name is required");
+        }
+        if (fields.putIfAbsent(spec.name, spec) != null) {
+            throw new IllegalArgumentException("Duplicate field: " + spec.name);
+        }
+        return this;
+    }
+    
+    private static String[] enumValues(Class<?> enumType) {
+        return Arrays.stream(enumType.getEnumConstants())
+                .map(constant -> {
+                    try {
+                        SerializedName name = enumType.getField(((Enum<?>) constant).name())
+                                .getAnnotation(SerializedName.class);
+                        return name != null ? name.value() : ((Enum<?>) constant).name();
+                    } catch (NoSuchFieldException e) {
+                        return ((Enum<?>) constant).name();
+                    }
+                })
+                .toArray(String[]::new);
+    }
+    
+    private static FieldType typeOf(Class<?> type) {
+        if (type == String.class || type == char.class || type == Character.class) {
+            return FieldType.STRING;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return FieldType.BOOLEAN;
+        }
+        if (type.isPrimitive() || Number.class.isAssignableFrom(type)) {
+            return FieldType.NUMBER;
+        }
+        if (type.isArray() || Collection.class.isAssignableFrom(type)) {
+            return FieldType.ARRAY;
+        }
+        return FieldType.OBJECT;
+    }
+}
@@ -0,0 +1,398 @@
+package com.celestra.ai.structured;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.celestra.ai.exception.StructuredOutputException;
+import com.celestra.ai.structured.OutputSchema.FieldSpec;
+import com.celestra.ai.structured.OutputSchema.FieldType;
+
+/**
+ * Parses a JSON object as it is streamed and checks it against an
+ * {@link OutputSchema}, failing at the first character after which the output
+ * can no longer match.
+ * 
+ * Text before the object, such as a code fence, is skipped up to
+ * {@link #MAX_PREFIX_CHARS}; text after it is ignored. A field that is not in the
+ * schema fails as soon as its name is complete, a value of the wrong type at its
+ * first character, and an enumerated string as soon as it is not the prefix of
+ * an allowed value. Missing required fields fail when the object closes.
+ * 
+ * Instances are not thread-safe; use one per response.
+ */
+public class StreamingJsonValidator {
+    
+    /**
+     * The number of characters tolerated before the object starts
+     */
+    static final int MAX_PREFIX_CHARS = 200;
+    
+    private enum Expect {
+        KEY_OR_END, KEY, COLON, VALUE_OR_END, VALUE, COMMA_OR_END
+    }
+    
+    private static final class Frame {
+        private final boolean object;
+        private Expect expect;
+        
+        private Frame(boolean object, Expect expect) {
+            this.object = object;
+            this.expect = expect;
+        }
+    }
+    
+    private final OutputSchema schema;
+    private final StringBuilder received = new StringBuilder();
+    private final StringBuilder json = new StringBuilder();
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private final Set<String> seenFields = new HashSet<>();
+    private boolean complete;
+    
+    // The string, number or literal being read, or null between tokens
+    private StringBuilder token;
+    private char tokenKind;
+    private boolean tokenIsKey;
+    private boolean tokenIsField;
+    private boolean escape;
+    private int unicodeDigits;
+    private int unicode;
+    private String currentField;
+    
+    /**
+     * Create a validator for one response.
+     * 
+     * @param schema The schema the response must match
+     */
+    public StreamingJsonValidator(OutputSchema schema) {
+        this.schema = schema;
+    }
+    
+    /**
+     * Add the next fragment of the response.
+     * 
+     * @param chunk The fragment
+     * @throws StructuredOutputException If the response can no longer match the schema
+     */
+    public void accept(CharSequence chunk) throws StructuredOutputException {
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            accept(chunk.charAt(i));
+        }
+    }
+    
+    /**
+     * Check that the response is complete, once it has ended.
+     * 
+     * @throws StructuredOutputException If the object is not complete
+     */
+    public void finish() throws StructuredOutputException {
+        if (!complete) {
+            throw fail(stack.isEmpty() ? "No JSON object in the output" : "Output ended inside the JSON object");
+        }
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    /**
+     * Get the JSON object, without any text around it.
+     * 
+     * @return The object, or null if it is not complete
+     */
+    public String getJson() {
+        return complete ? json.toString() : null;
+    }
+    
+    private void accept(char c) throws StructuredOutputException {
+        received.append(c);
+        if (stack.isEmpty()) {
+            if (c == '{') {
+                json.append(c);
+                stack.push(new Frame(true, Expect.KEY_OR_END));
+            } else if (received.length() > MAX_PREFIX_CHARS) {
+                throw fail("No JSON object in the first " + MAX_PREFIX_CHARS + " characters");
+            }
+            return;
+        }
+        
+        json.append(c);
+        if (token != null) {
+            if (tokenKind == '"') {
+                readStringChar(c);
+                return;
+            }
+            if (tokenKind == '0') {
+                if (isNumberChar(c)) {
+                    token.append(c);
+                    return;
+                }
+                endNumber();
+            } else {
+                if (Character.isLetter(c)) {
+                    token.append(c);
+                    checkLiteral(false);
+                    return;
+                }
+                checkLiteral(true);
+                endScalar();
+            }
+        }
+        readStructural(c);
+    }
+    
+    private void readStructural(char c) throws StructuredOutputException {
+        if (Character.isWhitespace(c)) {
+            return;
+        }
+        
+        Frame frame = stack.peek();
+        switch (frame.expect) {
+            case KEY_OR_END:
+            case KEY:
+                if (c == '}' && frame.expect == Expect.KEY_OR_END) {
+                    closeObject();
+                    return;
+                }
+                if (c != '"') {
+                    throw fail("Expected a field name but got '" + c + "'");
+                }
+                startToken('"', true, false);
+                return;
+            case COLON:
+                if (c != ':') {
+                    throw fail("Expected ':' but got '" + c + "'");
+                }
+                frame.expect = Expect.VALUE;
+                return;
+            case VALUE_OR_END:
+            case VALUE:
+                if (c == ']' && frame.expect == Expect.VALUE_OR_END) {
+                    stack.pop();
+                    return;
+                }
+                startValue(c, frame);
+                return;
+            default:
+                if (c == ',') {
+                    frame.expect = frame.object ? Expect.KEY : Expect.VALUE;
+                } else if (c == '}' && frame.object) {
+                    closeObject();
+                } else if (c == ']' && !frame.object) {
+                    stack.pop();
+                } else {
+                    throw fail("Expected ',' or the end of the " + (frame.object ? "object" : "array")
+                            + " but got '" + c + "'");
+                }
+        }
+    }
+    
+    private void startValue(char c, Frame frame) throws StructuredOutputException {
+        boolean field = stack.size() == 1;
+        FieldType type;
+        if (c == '"') {
+            type = FieldType.STRING;
+        } else if (c == '{') {
+            type = FieldType.OBJECT;
+        } else if (c == '[') {
+            type = FieldType.ARRAY;
+        } else if (c == '-' || Character.isDigit(c)) {
+            type = FieldType.NUMBER;
+        } else if (c == 't' || c == 'f') {
+            type = FieldType.BOOLEAN;
+        } else if (c == 'n') {
+            type = null;
+        } else {
+            throw fail("Unexpected character '" + c + "'");
+        }
+        if (field) {
+            checkType(type);
+        }
+        
+        // The container's next token follows this value
+        frame.expect = Expect.COMMA_OR_END;
+        if (type == FieldType.OBJECT) {
+            stack.push(new Frame(true, Expect.KEY_OR_END));
+        } else if (type == FieldType.ARRAY) {
+            stack.push(new Frame(false, Expect.VALUE_OR_END));
+        } else if (type == FieldType.STRING) {
+            startToken('"', false, field);
+        } else if (type == FieldType.NUMBER) {
+            startToken('0', false, field);
+            token.append(c);
+        } else {
+            startToken('l', false, field);
+            token.append(c);
+        }
+    }
+    
+    private void startToken(char kind, boolean key, boolean field) {
+        token = new StringBuilder();
+        tokenKind = kind;
+        tokenIsKey = key;
+        tokenIsField = field;
+    }
+    
+    private void readStringChar(char c) throws StructuredOutputException {
+        if (unicodeDigits > 0) {
+            int digit = Character.digit(c, 16);
+            if (digit < 0) {
+                throw fail("Invalid unicode escape");
+            }
+            unicode = unicode * 16 + digit;
+            if (--unicodeDigits == 0) {
+                appendStringChar((char) unicode);
+            }
+            return;
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    appendStringChar(c);
+                    return;
+                case 'b':
+                    appendStringChar('\b');
+                    return;
+                case 'f':
+                    appendStringChar('\f');
+                    return;
+                case 'n':
+                    appendStringChar('\n');
+                    return;
+                case 'r':
+                    appendStringChar('\r');
+                    return;
+                case 't':
+                    appendStringChar('\t');
+                    return;
+                case 'u':
+                    unicodeDigits = 4;
+                    unicode = 0;
+                    return;
+                default:
+                    throw fail("Invalid escape '\\" + c + "'");
+            }
+        }
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            endString();
+        } else if (c < 0x20) {
+            throw fail("Control character in string");
+        } else {
+            appendStringChar(c);
+        }
+    }
+    
+    private void appendStringChar(char c) throws StructuredOutputException {
+        token.append(c);
+        if (tokenIsField) {
+            FieldSpec spec = schema.getField(currentField);
+            if (spec != null && !spec.getAllowedValues().isEmpty()
+                    && spec.getAllowedValues().stream().noneMatch(value -> value.startsWith(token.toString()))) {
+                throw fail("\"" + token + "\" is not a value of " + currentField + " ("
+                        + String.join(" | ", spec.getAllowedValues()) + ")");
+            }
+        }
+    }
+    
+    private void endString() throws StructuredOutputException {
+        String value = token.toString();
+        if (tokenIsKey) {
+            token = null;
+            if (stack.size() == 1) {
+                checkField(value);
+            }
+            stack.peek().expect = Expect.COLON;
+            return;
+        }
+        if (tokenIsField) {
+            FieldSpec spec = schema.getField(currentField);
+            if (spec != null && !spec.getAllowedValues().isEmpty() && !spec.getAllowedValues().contains(value)) {
+                throw fail("\"" + value + "\" is not a value of " + currentField + " ("
+                        + String.join(" | ", spec.getAllowedValues()) + ")");
+            }
+        }
+        endScalar();
+    }
+    
+    private void endNumber() throws StructuredOutputException {
+        double value;
+        try {
+            value = Double.parseDouble(token.toString());
+        } catch (NumberFormatException e) {
+            throw fail("Invalid number " + token);
+        }
+        if (tokenIsField) {
+            FieldSpec spec = schema.getField(currentField);
+            if (spec != null && (value < spec.getMin() || value > spec.getMax())) {
+                throw fail(currentField + " must be between " + spec.getMin() + " and " + spec.getMax()
+                        + " but is " + token);
+            }
+        }
+        endScalar();
+    }
+    
+    private void endScalar() {
+        token = null;
+    }
+    
+    private void checkLiteral(boolean ended) throws StructuredOutputException {
+        String value = token.toString();
+        boolean matches = ended
+                ? "true".equals(value) || "false".equals(value) || "null".equals(value)
+                : "true".startsWith(value) || "false".startsWith(value) || "null".startsWith(value);
+        if (!matches) {
+            throw fail("Invalid literal " + value);
+        }
+    }
+    
+    private void checkField(String name) throws StructuredOutputException {
+        if (!seenFields.add(name)) {
+            throw fail("Duplicate field " + name);
+        }
+        if (schema.getField(name) == null && !schema.isAdditionalFieldsAllowed()) {
+            throw fail("Unexpected field " + name);
+        }
+        currentField = name;
+    }
+    
+    private void checkType(FieldType type) throws StructuredOutputException {
+        FieldSpec spec = schema.getField(currentField);
+        if (spec == null) {
+            return;
+        }
+        if (type == null) {
+            if (spec.isRequired()) {
+                throw fail(currentField + " must not be null");
+            }
+        } else if (type != spec.getType()) {
+            throw fail(currentField + " must be a " + spec.getType().name().toLowerCase()
+                    + " but is a " + type.name().toLowerCase());
+        }
+    }
+    
+    private void closeObject() throws StructuredOutputException {
+        stack.pop();
+        if (stack.isEmpty()) {
+            for (FieldSpec spec : schema.getFields()) {
+                if (spec.isRequired() && !seenFields.contains(spec.getName())) {
+                    throw fail("Missing required field " + spec.getName());
+                }
+            }
+            complete = true;
+        }
+    }
+    
+    private static boolean isNumberChar(char c) {
+        return Character.isDigit(c) || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+    
+    private StructuredOutputException fail(String message) {
+        return new StructuredOutputException(message, received.toString());
+    }
+}
@@ -0,0 +1,192 @@
+package com.celestra.ai.structured;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionService.StreamListener;
+import com.celestra.ai.exception.StructuredOutputException;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Gets completions that must be a JSON object of a given schema and maps them to
+ * typed objects.
+ * 
+ * The completion is streamed through a {@link StreamingJsonValidator}, and the
+ * stream is aborted at the first fragment after which the output can no longer
+ * match. The call is then retried with a note to the model about what was wrong,
+ * so a malformed answer costs the time to its first mistake rather than the time
+ * to generate all of it.
+ */
+public class StructuredOutputService {
+    
+    private static final Logger LOGGER = Logger.getLogger(StructuredOutputService.class.getName());
+    
+    /**
+     * The default number of attempts per call
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    
+    private final ChatCompletionService service;
+    private final int maxAttempts;
+    private final Consumer<StructuredOutputException> rejectionListener;
+    private final Gson gson = new Gson();
+    
+    /**
+     * Create a new structured output service with the default number of attempts.
+     * 
+     * @param service The service that produces the completions
+     */
+    public StructuredOutputService(ChatCompletionService service) {
+        this(service, DEFAULT_MAX_ATTEMPTS);
+    }
+    
+    /**
+     * Create a new structured output service.
+     * 
+     * @param service The service that produces the completions
+     * @param maxAttempts The number of attempts before an invalid output fails the call
+     */
+    public StructuredOutputService(ChatCompletionService service, int maxAttempts) {
+        this(service, maxAttempts, rejection -> { });
+    }
+    
+    /**
+     * Create a new structured output service that reports every rejected output.
+     * 
+     * @param service The service that produces the completions
+     * @param maxAttempts The number of attempts before an invalid output fails the call
+     * @param rejectionListener Called with the reason of each rejected attempt
+     */
+    public StructuredOutputService(ChatCompletionService service, int maxAttempts,
+                                   Consumer<StructuredOutputException> rejectionListener) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        this.service = service;
+        this.maxAttempts = maxAttempts;
+        this.rejectionListener = rejectionListener;
+    }
+    
+    /**
+     * Get a completion mapped to a type, validated against the schema derived from the type.
+     * 
+     * @param <T> The result type
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @param type The type the output is mapped to
+     * @return The output
+     * @throws StructuredOutputException If no attempt produced a valid output
+     * @throws Exception If the call fails
+     * @see OutputSchema#forType(Class)
+     */
+    public <T> T complete(List<ChatMessage> messages, Map<String, Object> parameters, Class<T> type)
+            throws Exception {
+        return complete(messages, parameters, OutputSchema.forType(type), type);
+    }
+    
+    /**
+     * Get a completion mapped to a type, validated against a schema.
+     * 
+     * @param <T> The result type
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @param schema The schema the output must match
+     * @param type The type the output is mapped to
+     * @return The output
+     * @throws StructuredOutputException If no attempt produced a valid output
+     * @throws Exception If the call fails
+     */
+    public <T> T complete(List<ChatMessage> messages, Map<String, Object> parameters, OutputSchema schema,
+                          Class<T> type) throws Exception {
+        return gson.fromJson(completeJson(messages, parameters, schema), type);
+    }
+    
+    /**
+     * Get a completion validated against a schema.
+     * 
+     * @param messages The list of chat messages
+     * @param parameters Custom parameters for the API call, or null for the defaults
+     * @param schema The schema the output must match
+     * @return The output
+     * @throws StructuredOutputException If no attempt produced a valid output
+     * @throws Exception If the call fails
+     */
+    public JsonObject complete(List<ChatMessage> messages, Map<String, Object> parameters, OutputSchema schema)
+            throws Exception {
+        return JsonParser.parseString(completeJson(messages, parameters, schema)).getAsJsonObject();
+    }
+    
+    private String completeJson(List<ChatMessage> messages, Map<String, Object> parameters, OutputSchema schema)
+            throws Exception {
+        List<ChatMessage> attemptMessages = messages;
+        StructuredOutputException lastException = null;
+        
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            StreamingJsonValidator validator = new StreamingJsonValidator(schema);
+            StreamListener listener = delta -> {
+                try {
+                    validator.accept(delta);
+                } catch (StructuredOutputException e) {
+                    // Unwinds the provider's stream, which closes the connection
+                    throw new OutputRejectedException(e);
+                }
+            };
+            
+            try {
+                if (parameters != null) {
+                    service.streamChatCompletion(attemptMessages, parameters, listener);
+                } else {
+                    service.streamChatCompletion(attemptMessages, listener);
+                }
+                validator.finish();
+                return validator.getJson();
+            } catch (OutputRejectedException e) {
+                lastException = e.getCause();
+            } catch (StructuredOutputException e) {
+                lastException = e;
+            }
+            
+            LOGGER.info("Rejected structured output (attempt " + attempt + " of " + maxAttempts + "): "
+                    + lastException.getMessage());
+            rejectionListener.accept(lastException);
+            attemptMessages = withCorrection(messages, lastException, schema);
+        }
+        
+        throw lastException;
+    }
+    
+    /**
+     * Ask the model to correct its previous answer.
+     */
+    private static List<ChatMessage> withCorrection(List<ChatMessage> messages, StructuredOutputException error,
+                                                    OutputSchema schema) {
+        List<ChatMessage> corrected = new ArrayList<>(messages);
+        corrected.add(new ChatMessage("user", "Your previous answer was rejected: " + error.getMessage()
+                + ". Answer with a single JSON object of the form " + schema.describe() + " and nothing else."));
+        return corrected;
+    }
+    
+    /**
+     * Carries a rejection out of the stream listener, which cannot throw checked exceptions.
+     */
+    private static class OutputRejectedException extends RuntimeException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        OutputRejectedException(StructuredOutputException cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+        
+        @Override
+        public synchronized StructuredOutputException getCause() {
+            return (StructuredOutputException) super.getCause();
+        }
+    }
+}
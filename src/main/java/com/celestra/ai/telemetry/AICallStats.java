@@ -0,0 +1,131 @@
+package com.celestra.ai.telemetry;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated telemetry of the AI calls that share a provider, model, company and
+ * agent. All methods are thread-safe and lock-free.
+ */
+public class AICallStats {
+    
+    private final String provider;
+    private final String model;
+    private final Integer companyId;
+    private final String agent;
+    
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder inputTokens = new LongAdder();
+    private final LongAdder outputTokens = new LongAdder();
+    private final LongAdder cacheCreationInputTokens = new LongAdder();
+    private final LongAdder cacheReadInputTokens = new LongAdder();
+    private final DoubleAdder cost = new DoubleAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    
+    AICallStats(String provider, String model, Integer companyId, String agent) {
+        this.provider = provider;
+        this.model = model;
+        this.companyId = companyId;
+        this.agent = agent;
+    }
+    
+    /**
+     * Add a finished call.
+     * 
+     * @param telemetry The telemetry of the call
+     * @param latencyNanos The duration of the call
+     * @param errorClass The class of the error the call failed with, or null if it succeeded
+     * @param callCost The estimated cost of the call
+     */
+    void record(CallTelemetry telemetry, long latencyNanos, String errorClass, double callCost) {
+        calls.increment();
+        retries.add(telemetry.getRetries());
+        inputTokens.add(telemetry.getInputTokens());
+        outputTokens.add(telemetry.getOutputTokens());
+        cacheCreationInputTokens.add(telemetry.getCacheCreationInputTokens());
+        cacheReadInputTokens.add(telemetry.getCacheReadInputTokens());
+        cost.add(callCost);
+        latency.record(latencyNanos);
+        if (telemetry.getFirstByteNanos() >= 0) {
+            timeToFirstByte.record(telemetry.getFirstByteNanos());
+        }
+        if (errorClass != null) {
+            failures.increment();
+            errors.computeIfAbsent(errorClass, key -> new LongAdder()).increment();
+        }
+    }
+    
+    public String getProvider() {
+        return provider;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public Integer getCompanyId() {
+        return companyId;
+    }
+    
+    public String getAgent() {
+        return agent;
+    }
+    
+    public long getCalls() {
+        return calls.sum();
+    }
+    
+    public long getFailures() {
+        return failures.sum();
+    }
+    
+    public long getRetries() {
+        return retries.sum();
+    }
+    
+    public long getInputTokens() {
+        return inputTokens.sum();
+    }
+    
+    public long getOutputTokens() {
+        return outputTokens.sum();
+    }
+    
+    public long getCacheCreationInputTokens() {
+        return cacheCreationInputTokens.sum();
+    }
+    
+    public long getCacheReadInputTokens() {
+        return cacheReadInputTokens.sum();
+    }
+    
+    public double getCost() {
+        return cost.sum();
+    }
+    
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+    
+    public LatencyHistogram getTimeToFirstByte() {
+        return timeToFirstByte;
+    }
+    
+    /**
+     * Get the number of failed calls per error class.
+     * 
+     * @return The counts keyed by exception class name, sorted by name
+     */
+    public Map<String, Long> getErrors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((errorClass, count) -> counts.put(errorClass, count.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,183 @@
+package com.celestra.ai.telemetry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AIServiceException;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+/**
+ * Process-wide registry of AI call telemetry, aggregated by provider, model,
+ * company and agent.
+ * 
+ * Calls are recorded by {@link TelemetryChatCompletionService}. The totals are
+ * exposed as JSON by the AI metrics endpoint and logged periodically by
+ * {@link AITelemetryContextListener}.
+ */
+public class AITelemetry {
+    
+    private static final Logger LOGGER = Logger.getLogger(AITelemetry.class.getName());
+    
+    private static AITelemetry instance;
+    
+    private final ModelPricing pricing;
+    private final Map<String, AICallStats> stats = new ConcurrentHashMap<>();
+    
+    /**
+     * Create a new registry.
+     * 
+     * @param pricing The prices used to estimate the cost of calls
+     */
+    public AITelemetry(ModelPricing pricing) {
+        this.pricing = pricing;
+    }
+    
+    /**
+     * Get the registry shared by all services created by the factory.
+     * 
+     * @return The shared registry
+     */
+    public static synchronized AITelemetry getInstance() {
+        if (instance == null) {
+            instance = new AITelemetry(new ModelPricing(AIConfigurationManager.getInstance()));
+        }
+        return instance;
+    }
+    
+    /**
+     * Record a finished call.
+     * 
+     * @param telemetry The telemetry collected during the call
+     * @param context The caller of the call
+     * @param latencyNanos The duration of the call
+     * @param error The error the call failed with, or null if it succeeded
+     */
+    public void record(CallTelemetry telemetry, TelemetryContext context, long latencyNanos, Throwable error) {
+        String model = telemetry.getModel() != null ? telemetry.getModel() : "unknown";
+        String key = telemetry.getProvider() + "|" + model + "|" + context.getCompanyId() + "|" + context.getAgent();
+        AICallStats entry = stats.computeIfAbsent(key,
+                k -> new AICallStats(telemetry.getProvider(), model, context.getCompanyId(), context.getAgent()));
+        entry.record(telemetry, latencyNanos, error != null ? classify(error) : null, pricing.estimateCost(telemetry));
+    }
+    
+    /**
+     * Get the statistics of every combination of provider, model, company and agent seen so far.
+     * 
+     * @return The statistics, sorted by provider and model
+     */
+    public List<AICallStats> getStats() {
+        List<AICallStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparing(AICallStats::getProvider)
+                .thenComparing(AICallStats::getModel)
+                .thenComparing(s -> s.getCompanyId() != null ? s.getCompanyId() : -1)
+                .thenComparing(s -> s.getAgent() != null ? s.getAgent() : ""));
+        return result;
+    }
+    
+    /**
+     * Render the statistics as JSON for the metrics endpoint.
+     * 
+     * @return An object with one entry per provider, model, company and agent
+     */
+    public JsonObject toJson() {
+        JsonArray entries = new JsonArray();
+        for (AICallStats entry : getStats()) {
+            JsonObject json = new JsonObject();
+            json.addProperty("provider", entry.getProvider());
+            json.addProperty("model", entry.getModel());
+            json.addProperty("companyId", entry.getCompanyId());
+            json.addProperty("agent", entry.getAgent());
+            json.addProperty("calls", entry.getCalls());
+            json.addProperty("failures", entry.getFailures());
+            json.addProperty("retries", entry.getRetries());
+            json.addProperty("inputTokens", entry.getInputTokens());
+            json.addProperty("outputTokens", entry.getOutputTokens());
+            json.addProperty("cacheCreationInputTokens", entry.getCacheCreationInputTokens());
+            json.addProperty("cacheReadInputTokens", entry.getCacheReadInputTokens());
+            json.addProperty("estimatedCost", entry.getCost());
+            json.add("latency", toJson(entry.getLatency()));
+            json.add("timeToFirstByte", toJson(entry.getTimeToFirstByte()));
+            JsonObject errors = new JsonObject();
+            entry.getErrors().forEach(errors::addProperty);
+            json.add("errors", errors);
+            entries.add(json);
+        }
+        
+        JsonObject result = new JsonObject();
+        result.add("calls", entries);
+        return result;
+    }
+    
+    /**
+     * Log one line per provider and model with the totals over all callers.
+     */
+    public void logSummary() {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        Map<String, Double> costs = new LinkedHashMap<>();
+        Map<String, Double> p95 = new LinkedHashMap<>();
+        for (AICallStats entry : getStats()) {
+            String key = entry.getProvider() + "/" + entry.getModel();
+            long[] counts = totals.computeIfAbsent(key, k -> new long[5]);
+            counts[0] += entry.getCalls();
+            counts[1] += entry.getFailures();
+            counts[2] += entry.getRetries();
+            counts[3] += entry.getInputTokens() + entry.getCacheCreationInputTokens() + entry.getCacheReadInputTokens();
+            counts[4] += entry.getOutputTokens();
+            costs.merge(key, entry.getCost(), Double::sum);
+            // The slowest caller's p95 bounds the p95 of the model
+            p95.merge(key, entry.getLatency().getPercentileMs(95), Math::max);
+        }
+        
+        if (totals.isEmpty()) {
+            return;
+        }
+        totals.forEach((key, counts) -> LOGGER.info(String.format(
+                "AI calls %s: %d calls, %d failed, %d retries, %d input / %d output tokens, p95 <= %.0f ms, cost %.4f",
+                key, counts[0], counts[1], counts[2], counts[3], counts[4], p95.get(key), costs.get(key))));
+    }
+    
+    private static JsonObject toJson(LatencyHistogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("averageMs", histogram.getAverageMs());
+        json.addProperty("p50Ms", histogram.getPercentileMs(50));
+        json.addProperty("p95Ms", histogram.getPercentileMs(95));
+        json.addProperty("p99Ms", histogram.getPercentileMs(99));
+        json.addProperty("maxMs", histogram.getMaxMs());
+        JsonObject buckets = new JsonObject();
+        long[] counts = histogram.getBucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            String bound = i < LatencyHistogram.BOUNDS_MS.length ? "le" + LatencyHistogram.BOUNDS_MS[i] : "inf";
+            buckets.addProperty(bound, counts[i]);
+        }
+        json.add("buckets", buckets);
+        return json;
+    }
+    
+    /**
+     * Name the class of an error. The generic "failed after retries" wrapper is
+     * looked through, so that e.g. repeated rate limiting shows up as such.
+     */
+    static String classify(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && (cause instanceof CompletionException
+                || cause instanceof ExecutionException
+                || cause.getClass() == AIServiceException.class)) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof CancellationException) {
+            return "Cancelled";
+        }
+        return cause.getClass().getSimpleName();
+    }
+}
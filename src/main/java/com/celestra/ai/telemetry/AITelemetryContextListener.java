@@ -0,0 +1,64 @@
+package com.celestra.ai.telemetry;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.celestra.ai.config.AIConfigurationManager;
+
+/**
+ * Context listener that periodically logs a summary of the AI calls.
+ * Starts the summary when the application starts, and stops it and logs a
+ * final summary when the application stops.
+ */
+@WebListener
+public class AITelemetryContextListener implements ServletContextListener {
+    
+    private static final Logger LOGGER = Logger.getLogger(AITelemetryContextListener.class.getName());
+    
+    private ScheduledExecutorService scheduler;
+    
+    /**
+     * Called when the web application is starting.
+     * Schedules the summary at the configured interval.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        int intervalSeconds = AIConfigurationManager.getInstance().getTelemetryLogIntervalSeconds();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-telemetry-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(AITelemetry.getInstance()::logSummary,
+                intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        LOGGER.info("AI call summary scheduled every " + intervalSeconds + " seconds");
+    }
+    
+    /**
+     * Called when the web application is shutting down.
+     * Stops the summary.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            AITelemetry.getInstance().logSummary();
+            LOGGER.info("AI call summary stopped");
+        }
+    }
+}
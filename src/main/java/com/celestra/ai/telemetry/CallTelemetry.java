@@ -0,0 +1,198 @@
+package com.celestra.ai.telemetry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collects what the layers below a service call learn about that call: the model
+ * actually used, the time to the first response byte, the retries and the token
+ * usage reported by the provider.
+ * 
+ * {@link TelemetryChatCompletionService} creates one per call and installs it on
+ * the calling thread; the provider services, the HTTP client and the retry
+ * executor capture it with {@link #current()} before they hand work to other
+ * threads. Outside a telemetry call, {@link #current()} returns an instance that
+ * ignores everything, so the lower layers never need to check.
+ */
+public class CallTelemetry {
+    
+    private static final CallTelemetry DISABLED = new CallTelemetry(null, null, 0) {
+        @Override
+        public void setModel(String model) {
+            // Not measured
+        }
+        
+        @Override
+        public void recordFirstByte() {
+            // Not measured
+        }
+        
+        @Override
+        public void recordRetry() {
+            // Not measured
+        }
+        
+        @Override
+        public void recordUsage(long input, long output, long cacheCreation, long cacheRead) {
+            // Not measured
+        }
+    };
+    
+    private static final ThreadLocal<CallTelemetry> CURRENT = new ThreadLocal<>();
+    
+    private final String provider;
+    private final long startNanos;
+    private volatile String model;
+    private final AtomicLong firstByteNanos = new AtomicLong(-1);
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicLong inputTokens = new AtomicLong();
+    private final AtomicLong outputTokens = new AtomicLong();
+    private final AtomicLong cacheCreationInputTokens = new AtomicLong();
+    private final AtomicLong cacheReadInputTokens = new AtomicLong();
+    
+    /**
+     * Start the telemetry of a call.
+     * 
+     * @param provider The provider the call is sent to
+     * @param model The model configured for the provider; the service may replace it
+     * @param startNanos The {@link System#nanoTime()} at which the call started
+     */
+    public CallTelemetry(String provider, String model, long startNanos) {
+        this.provider = provider;
+        this.model = model;
+        this.startNanos = startNanos;
+    }
+    
+    /**
+     * Get the telemetry of the call running on the current thread.
+     * 
+     * @return The call's telemetry, or an instance that records nothing
+     */
+    public static CallTelemetry current() {
+        CallTelemetry telemetry = CURRENT.get();
+        return telemetry != null ? telemetry : DISABLED;
+    }
+    
+    /**
+     * Run work with this telemetry installed on the current thread.
+     * 
+     * @param <T> The result type
+     * @param task The task
+     * @return The result of the task
+     * @throws Exception if the task fails
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        CallTelemetry previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    /**
+     * Start work with this telemetry installed on the current thread, e.g. an
+     * asynchronous attempt that sends its request before returning.
+     * 
+     * @param <T> The result type
+     * @param task The task
+     * @return The result of the task
+     */
+    public <T> T supply(Supplier<T> task) {
+        CallTelemetry previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    /**
+     * Record the model the request was actually sent to.
+     * 
+     * @param model The model
+     */
+    public void setModel(String model) {
+        this.model = model;
+    }
+    
+    /**
+     * Record that the first byte of a response arrived. Only the first call counts,
+     * so a retried call reports the time to its first response of any attempt.
+     */
+    public void recordFirstByte() {
+        firstByteNanos.compareAndSet(-1, System.nanoTime() - startNanos);
+    }
+    
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+    
+    /**
+     * Add the token usage reported by the provider.
+     * 
+     * @param input The uncached input tokens
+     * @param output The output tokens
+     * @param cacheCreation The input tokens written to the prompt cache
+     * @param cacheRead The input tokens read from the prompt cache
+     */
+    public void recordUsage(long input, long output, long cacheCreation, long cacheRead) {
+        inputTokens.addAndGet(input);
+        outputTokens.addAndGet(output);
+        cacheCreationInputTokens.addAndGet(cacheCreation);
+        cacheReadInputTokens.addAndGet(cacheRead);
+    }
+    
+    public String getProvider() {
+        return provider;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public long getStartNanos() {
+        return startNanos;
+    }
+    
+    /**
+     * Get the time from the start of the call to the first response byte.
+     * 
+     * @return The time in nanoseconds, or -1 if no response arrived
+     */
+    public long getFirstByteNanos() {
+        return firstByteNanos.get();
+    }
+    
+    public int getRetries() {
+        return retries.get();
+    }
+    
+    public long getInputTokens() {
+        return inputTokens.get();
+    }
+    
+    public long getOutputTokens() {
+        return outputTokens.get();
+    }
+    
+    public long getCacheCreationInputTokens() {
+        return cacheCreationInputTokens.get();
+    }
+    
+    public long getCacheReadInputTokens() {
+        return cacheReadInputTokens.get();
+    }
+    
+    private static void restore(CallTelemetry previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.celestra.ai.telemetry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with fixed buckets from 50 ms to 2 minutes,
+ * which covers AI calls from short classifications to long generations.
+ */
+public class LatencyHistogram {
+    
+    /**
+     * The upper bounds of the buckets in milliseconds; a last bucket holds everything slower.
+     */
+    static final long[] BOUNDS_MS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, 20000, 30000, 60000, 120000};
+    
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Record a duration.
+     * 
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BOUNDS_MS.length && millis > BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    public double getAverageMs() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+    
+    public double getMaxMs() {
+        return maxNanos.get() / 1e6;
+    }
+    
+    /**
+     * Estimate a percentile as the upper bound of the bucket that contains it.
+     * 
+     * @param percentile The percentile (0 to 100)
+     * @return The estimated duration in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentileMs(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                return i < BOUNDS_MS.length ? Math.min(BOUNDS_MS[i], getMaxMs()) : getMaxMs();
+            }
+        }
+        return getMaxMs();
+    }
+    
+    /**
+     * Get the number of durations in each bucket.
+     * 
+     * @return The counts, one per bound in {@link #BOUNDS_MS} plus one for slower durations
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+}
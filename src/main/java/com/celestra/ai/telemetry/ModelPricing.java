@@ -0,0 +1,48 @@
+package com.celestra.ai.telemetry;
+
+import com.celestra.ai.config.AIConfigurationManager;
+
+/**
+ * Estimates the cost of AI calls from their token usage and the prices
+ * configured per model.
+ * 
+ * Prices are read as {@code ai.pricing.<model>.input.per.million} and
+ * {@code ai.pricing.<model>.output.per.million}. Input written to the prompt
+ * cache and input read from it are priced as multiples of the input price. A
+ * model without a configured price costs 0, so unknown models show up in the
+ * token counts but not in the cost.
+ */
+public class ModelPricing {
+    
+    private static final double TOKENS_PER_MILLION = 1_000_000.0;
+    
+    private final AIConfigurationManager configManager;
+    
+    /**
+     * Create a new pricing table.
+     * 
+     * @param configManager The configuration that holds the prices
+     */
+    public ModelPricing(AIConfigurationManager configManager) {
+        this.configManager = configManager;
+    }
+    
+    /**
+     * Estimate the cost of a call.
+     * 
+     * @param telemetry The telemetry of the call
+     * @return The estimated cost in the currency of the configured prices
+     */
+    public double estimateCost(CallTelemetry telemetry) {
+        String model = telemetry.getModel();
+        if (model == null) {
+            return 0;
+        }
+        double inputPrice = configManager.getPricingInputPerMillion(model);
+        double outputPrice = configManager.getPricingOutputPerMillion(model);
+        double input = telemetry.getInputTokens()
+                + telemetry.getCacheCreationInputTokens() * configManager.getPricingCacheWriteMultiplier()
+                + telemetry.getCacheReadInputTokens() * configManager.getPricingCacheReadMultiplier();
+        return (input * inputPrice + telemetry.getOutputTokens() * outputPrice) / TOKENS_PER_MILLION;
+    }
+}
@@ -0,0 +1,142 @@
+package com.celestra.ai.telemetry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.tool.ToolCompletion;
+import com.celestra.ai.tool.ToolDefinition;
+
+/**
+ * ChatCompletionService decorator that records the telemetry of every call.
+ * 
+ * Each call gets a {@link CallTelemetry} installed on the calling thread, which
+ * the layers below fill with the model, retries, token usage and time to first
+ * byte. When the call finishes it is recorded in {@link AITelemetry} together
+ * with its latency, its error class and the caller from the current
+ * {@link TelemetryContext}.
+ * 
+ * The time to first byte is when the response headers arrive; for streamed
+ * calls it is when the first text arrives, i.e. the time to the first token.
+ */
+public class TelemetryChatCompletionService implements ChatCompletionService {
+    
+    private final ChatCompletionService delegate;
+    private final String provider;
+    private final String model;
+    private final AITelemetry telemetry;
+    
+    /**
+     * Create a new telemetry service.
+     * 
+     * @param delegate The service that produces the completions
+     * @param provider The provider name the calls are recorded under
+     * @param model The configured model, recorded unless the service reports another one
+     * @param telemetry The registry the calls are recorded in
+     */
+    public TelemetryChatCompletionService(ChatCompletionService delegate, String provider, String model,
+                                          AITelemetry telemetry) {
+        this.delegate = delegate;
+        this.provider = provider;
+        this.model = model;
+        this.telemetry = telemetry;
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages) throws Exception {
+        return measure(() -> delegate.getChatCompletion(messages));
+    }
+    
+    @Override
+    public String getChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters) throws Exception {
+        return measure(() -> delegate.getChatCompletion(messages, parameters));
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages) {
+        return measureAsync(() -> delegate.getChatCompletionAsync(messages));
+    }
+    
+    @Override
+    public CompletableFuture<String> getChatCompletionAsync(List<ChatMessage> messages,
+                                                            Map<String, Object> parameters) {
+        return measureAsync(() -> delegate.getChatCompletionAsync(messages, parameters));
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, StreamListener listener) throws Exception {
+        CallTelemetry call = start();
+        return measure(call, () -> delegate.streamChatCompletion(messages, firstByte(call, listener)));
+    }
+    
+    @Override
+    public String streamChatCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                       StreamListener listener) throws Exception {
+        CallTelemetry call = start();
+        return measure(call, () -> delegate.streamChatCompletion(messages, parameters, firstByte(call, listener)));
+    }
+    
+    @Override
+    public ToolCompletion getToolCompletion(List<ChatMessage> messages, Map<String, Object> parameters,
+                                            List<ToolDefinition> tools) throws Exception {
+        return measure(() -> delegate.getToolCompletion(messages, parameters, tools));
+    }
+    
+    private CallTelemetry start() {
+        return new CallTelemetry(provider, model, System.nanoTime());
+    }
+    
+    private <T> T measure(Callable<T> task) throws Exception {
+        return measure(start(), task);
+    }
+    
+    private <T> T measure(CallTelemetry call, Callable<T> task) throws Exception {
+        TelemetryContext context = TelemetryContext.current();
+        try {
+            T completion = call.call(task);
+            record(call, context, null);
+            return completion;
+        } catch (Exception e) {
+            record(call, context, e);
+            throw e;
+        }
+    }
+    
+    private CompletableFuture<String> measureAsync(Supplier<CompletableFuture<String>> task) {
+        CallTelemetry call = start();
+        TelemetryContext context = TelemetryContext.current();
+        CompletableFuture<String> future;
+        try {
+            future = call.supply(task);
+        } catch (RuntimeException e) {
+            record(call, context, e);
+            throw e;
+        }
+        
+        // The caller keeps the delegate's future, so cancelling it still reaches the call
+        future.whenComplete((completion, error) -> record(call, context, error));
+        return future;
+    }
+    
+    private void record(CallTelemetry call, TelemetryContext context, Throwable error) {
+        telemetry.record(call, context, System.nanoTime() - call.getStartNanos(), error);
+    }
+    
+    private static StreamListener firstByte(CallTelemetry call, StreamListener listener) {
+        return new StreamListener() {
+            @Override
+            public void onDelta(String delta) {
+                call.recordFirstByte();
+                listener.onDelta(delta);
+            }
+            
+            @Override
+            public void onComplete(String completion) {
+                listener.onComplete(completion);
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package com.celestra.ai.telemetry;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * The caller of AI calls made on the current thread, used to tag their telemetry.
+ * 
+ * Code acting for a company or an agent runs its AI calls inside
+ * {@link #call(Callable)} or {@link #supply(Supplier)}; calls made outside any
+ * context are tagged as unattributed.
+ */
+public final class TelemetryContext {
+    
+    private static final TelemetryContext NONE = new TelemetryContext(null, null, null);
+    
+    private static final ThreadLocal<TelemetryContext> CURRENT = new ThreadLocal<>();
+    
+    private final Integer companyId;
+    private final Integer agentId;
+    private final String agent;
+    
+    private TelemetryContext(Integer companyId, Integer agentId, String agent) {
+        this.companyId = companyId;
+        this.agentId = agentId;
+        this.agent = agent;
+    }
+    
+    /**
+     * Create a context. Its calls are counted against the company quota only,
+     * since no agent ID is known.
+     * 
+     * @param companyId The company the calls are made for, or null
+     * @param agent The agent making the calls, or null
+     * @return The context
+     */
+    public static TelemetryContext of(Integer companyId, String agent) {
+        return new TelemetryContext(companyId, null, agent);
+    }
+    
+    /**
+     * Create a context for a stored agent. Quotas and usage are keyed by the
+     * agent ID, so renaming the agent keeps its counts.
+     * 
+     * @param companyId The company the calls are made for, or null
+     * @param agentId The ID of the agent making the calls
+     * @param agent The name of the agent, used to tag telemetry
+     * @return The context
+     */
+    public static TelemetryContext of(Integer companyId, Integer agentId, String agent) {
+        return new TelemetryContext(companyId, agentId, agent);
+    }
+    
+    /**
+     * Get the context of the current thread.
+     * 
+     * @return The current context, never null
+     */
+    public static TelemetryContext current() {
+        TelemetryContext context = CURRENT.get();
+        return context != null ? context : NONE;
+    }
+    
+    /**
+     * Run a task with this context installed on the current thread.
+     * 
+     * @param <T> The result type
+     * @param task The task
+     * @return The result of the task
+     * @throws Exception if the task fails
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        TelemetryContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    /**
+     * Run a task that throws no checked exceptions with this context installed.
+     * 
+     * @param <T> The result type
+     * @param task The task
+     * @return The result of the task
+     */
+    public <T> T supply(Supplier<T> task) {
+        TelemetryContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+    
+    /**
+     * Install this context on the current thread until the returned scope is
+     * closed, for callers that cannot hand over their work as a task, such as a
+     * servlet filter.
+     * 
+     * @return The scope, which restores the previous context when closed
+     */
+    public Scope open() {
+        TelemetryContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> restore(previous);
+    }
+    
+    public Integer getCompanyId() {
+        return companyId;
+    }
+    
+    public Integer getAgentId() {
+        return agentId;
+    }
+    
+    public String getAgent() {
+        return agent;
+    }
+    
+    /**
+     * A context installed with {@link #open()}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+    
+    private static void restore(TelemetryContext previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.celestra.ai.tool;
+
+import com.google.gson.JsonObject;
+
+/**
+ * A tool the model may call, with the code that runs it.
+ */
+public class Tool {
+    
+    /**
+     * Runs a tool call.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        
+        /**
+         * Run the tool.
+         * 
+         * @param arguments The arguments, checked against the tool's parameters
+         * @return The result, sent to the model as text
+         * @throws Exception If the tool fails; the message is sent to the model
+         */
+        String execute(JsonObject arguments) throws Exception;
+    }
+    
+    private final ToolDefinition definition;
+    private final Handler handler;
+    private final long timeoutMillis;
+    
+    /**
+     * Create a tool with the executor's default timeout.
+     * 
+     * @param definition The definition sent to the model
+     * @param handler The code that runs the tool
+     */
+    public Tool(ToolDefinition definition, Handler handler) {
+        this(definition, handler, 0);
+    }
+    
+    /**
+     * Create a tool.
+     * 
+     * @param definition The definition sent to the model
+     * @param handler The code that runs the tool
+     * @param timeoutMillis How long a call may run, or 0 for the executor's default
+     */
+    public Tool(ToolDefinition definition, Handler handler, long timeoutMillis) {
+        if (definition == null || handler == null) {
+            throw new IllegalArgumentException("Definition and handler are required");
+        }
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        this.definition = definition;
+        this.handler = handler;
+        this.timeoutMillis = timeoutMillis;
+    }
+    
+    public ToolDefinition getDefinition() {
+        return definition;
+    }
+    
+    public Handler getHandler() {
+        return handler;
+    }
+    
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
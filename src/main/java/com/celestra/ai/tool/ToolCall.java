@@ -0,0 +1,61 @@
+package com.celestra.ai.tool;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+/**
+ * A call of a tool requested by the model.
+ */
+public class ToolCall {
+    
+    private final String id;
+    private final String name;
+    private final String arguments;
+    
+    /**
+     * Create a new tool call.
+     * 
+     * @param id The id the provider gave the call, which its result must refer to
+     * @param name The name of the tool
+     * @param arguments The arguments as the model wrote them, a JSON object
+     */
+    public ToolCall(String id, String name, String arguments) {
+        this.id = id;
+        this.name = name;
+        this.arguments = arguments;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Get the arguments as the model wrote them. They are not guaranteed to be
+     * valid JSON or to match the tool's parameters.
+     * 
+     * @return The arguments
+     */
+    public String getArguments() {
+        return arguments;
+    }
+    
+    /**
+     * Create the message that returns the result of this call to the model.
+     * 
+     * @param result The result of the call
+     * @return A message with the "tool" role
+     */
+    public ChatMessage toResultMessage(String result) {
+        ChatMessage message = new ChatMessage("tool", result);
+        message.setToolCallId(id);
+        return message;
+    }
+    
+    @Override
+    public String toString() {
+        return name + "(" + arguments + ")";
+    }
+}
@@ -0,0 +1,61 @@
+package com.celestra.ai.tool;
+
+import java.util.List;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+/**
+ * The reply of the model in a conversation with tools: text, tool calls or both.
+ */
+public class ToolCompletion {
+    
+    private final String content;
+    private final List<ToolCall> toolCalls;
+    
+    /**
+     * Create a new tool completion.
+     * 
+     * @param content The generated text, or null if there is none
+     * @param toolCalls The tool calls the model asked for, in order
+     */
+    public ToolCompletion(String content, List<ToolCall> toolCalls) {
+        this.content = content;
+        this.toolCalls = List.copyOf(toolCalls);
+    }
+    
+    /**
+     * Get the generated text.
+     * 
+     * @return The text, or null if the model only called tools
+     */
+    public String getContent() {
+        return content;
+    }
+    
+    public List<ToolCall> getToolCalls() {
+        return toolCalls;
+    }
+    
+    /**
+     * Check whether the model asked for tool calls, i.e. whether the conversation
+     * continues with their results.
+     * 
+     * @return true if there are tool calls
+     */
+    public boolean hasToolCalls() {
+        return !toolCalls.isEmpty();
+    }
+    
+    /**
+     * Create the assistant message that records this reply in the conversation.
+     * 
+     * @return The message
+     */
+    public ChatMessage toMessage() {
+        ChatMessage message = new ChatMessage("assistant", content);
+        if (hasToolCalls()) {
+            message.setToolCalls(toolCalls);
+        }
+        return message;
+    }
+}
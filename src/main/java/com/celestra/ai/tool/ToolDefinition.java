@@ -0,0 +1,55 @@
+package com.celestra.ai.tool;
+
+import java.util.regex.Pattern;
+
+import com.celestra.ai.structured.OutputSchema;
+
+/**
+ * A tool the model may call: its name, what it does and the arguments it takes.
+ * 
+ * The arguments are declared as an {@link OutputSchema}, which is sent to the
+ * provider as a JSON Schema and also checks the arguments the model sends.
+ */
+public class ToolDefinition {
+    
+    // The names both providers accept
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z0-9_-]{1,64}");
+    
+    private final String name;
+    private final String description;
+    private final OutputSchema parameters;
+    
+    /**
+     * Create a new tool definition.
+     * 
+     * @param name The name the model calls the tool by
+     * @param description What the tool does and when to use it
+     * @param parameters The arguments of the tool
+     */
+    public ToolDefinition(String name, String description, OutputSchema parameters) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Tool name must be 1 to 64 letters, digits, '_' or '-': " + name);
+        }
+        if (description == null || description.isEmpty()) {
+            throw new IllegalArgumentException("Tool description is required");
+        }
+        if (parameters == null) {
+            throw new IllegalArgumentException("Tool parameters are required");
+        }
+        this.name = name;
+        this.description = description;
+        this.parameters = parameters;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public OutputSchema getParameters() {
+        return parameters;
+    }
+}
@@ -0,0 +1,193 @@
+package com.celestra.ai.tool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.StructuredOutputException;
+import com.celestra.ai.ratelimit.RateLimitContext;
+import com.celestra.ai.structured.StreamingJsonValidator;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Runs conversations in which the model calls tools.
+ * 
+ * All tool calls the model asks for in one turn are independent, so they are run
+ * concurrently, each with its own timeout, and all their results go back to the
+ * model in a single follow-up call. A turn that fans out to several lookups costs
+ * the latency of the slowest lookup rather than the sum of all of them.
+ * 
+ * A tool that fails, times out, does not exist or gets arguments that do not
+ * match its parameters produces an error result, so the model can recover in
+ * the next turn instead of the whole conversation failing.
+ */
+public class ToolExecutor {
+    
+    private static final Logger LOGGER = Logger.getLogger(ToolExecutor.class.getName());
+    
+    private static ToolExecutor instance;
+    
+    private final ExecutorService executor;
+    private final long defaultTimeoutMillis;
+    private final int maxRounds;
+    
+    /**
+     * Get the executor shared by all callers, configured from the AI configuration.
+     * 
+     * @return The tool executor
+     */
+    public static synchronized ToolExecutor getInstance() {
+        if (instance == null) {
+            AIConfigurationManager configManager = AIConfigurationManager.getInstance();
+            instance = new ToolExecutor(Executors.newFixedThreadPool(configManager.getToolMaxThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "ai-tool");
+                thread.setDaemon(true);
+                return thread;
+            }), configManager.getToolTimeoutMs(), configManager.getToolMaxRounds());
+        }
+        return instance;
+    }
+    
+    /**
+     * Create a new tool executor.
+     * 
+     * @param executor The executor the tool calls run on; its size bounds the calls running at once
+     * @param defaultTimeoutMillis How long a tool call may run unless the tool sets its own timeout
+     * @param maxRounds The largest number of turns with tool calls in one conversation
+     */
+    public ToolExecutor(ExecutorService executor, long defaultTimeoutMillis, int maxRounds) {
+        if (defaultTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Default timeout must be positive");
+        }
+        if (maxRounds <= 0) {
+            throw new IllegalArgumentException("Max rounds must be positive");
+        }
+        this.executor = executor;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.maxRounds = maxRounds;
+    }
+    
+    /**
+     * Run a conversation with tools until the model answers without calling tools.
+     * 
+     * @param service The service that produces the completions
+     * @param messages The conversation so far
+     * @param parameters Custom parameters for the API calls
+     * @param tools The tools the model may call
+     * @return The final answer of the model
+     * @throws AIServiceException If the model still calls tools after the maximum number of rounds
+     * @throws Exception If a completion call fails
+     */
+    public String run(ChatCompletionService service, List<ChatMessage> messages, Map<String, Object> parameters,
+                      List<Tool> tools) throws Exception {
+        Map<String, Tool> toolsByName = new LinkedHashMap<>();
+        List<ToolDefinition> definitions = new ArrayList<>();
+        for (Tool tool : tools) {
+            if (toolsByName.putIfAbsent(tool.getDefinition().getName(), tool) != null) {
+                throw new IllegalArgumentException("Duplicate tool: " + tool.getDefinition().getName());
+            }
+            definitions.add(tool.getDefinition());
+        }
+        
+        List<ChatMessage> conversation = new ArrayList<>(messages);
+        for (int round = 0; round < maxRounds; round++) {
+            ToolCompletion completion = service.getToolCompletion(conversation, parameters, definitions);
+            if (!completion.hasToolCalls()) {
+                return completion.getContent();
+            }
+            conversation.add(completion.toMessage());
+            conversation.addAll(execute(completion.getToolCalls(), toolsByName));
+        }
+        
+        throw new AIServiceException("The model was still calling tools after " + maxRounds + " rounds");
+    }
+    
+    /**
+     * Run tool calls concurrently and collect their results.
+     * 
+     * @param calls The tool calls of one model turn
+     * @param tools The tools by name
+     * @return The result messages, in the order of the calls
+     * @throws InterruptedException If the thread is interrupted while waiting; the calls are cancelled
+     */
+    public List<ChatMessage> execute(List<ToolCall> calls, Map<String, Tool> tools) throws InterruptedException {
+        RateLimitContext rateLimitContext = RateLimitContext.current();
+        TelemetryContext telemetryContext = TelemetryContext.current();
+        long start = System.nanoTime();
+        
+        Map<ToolCall, Future<String>> futures = new HashMap<>();
+        for (ToolCall call : calls) {
+            Tool tool = tools.get(call.getName());
+            if (tool != null) {
+                // Tools may call AI services themselves, on behalf of the same caller
+                futures.put(call, executor.submit(() -> rateLimitContext.call(
+                        () -> telemetryContext.call(() -> invoke(tool, call)))));
+            }
+        }
+        
+        List<ChatMessage> results = new ArrayList<>(calls.size());
+        try {
+            for (ToolCall call : calls) {
+                Tool tool = tools.get(call.getName());
+                if (tool == null) {
+                    results.add(call.toResultMessage("Error: unknown tool " + call.getName()));
+                    continue;
+                }
+                long timeoutMillis = tool.getTimeoutMillis() > 0 ? tool.getTimeoutMillis() : defaultTimeoutMillis;
+                // The calls run at the same time, so each timeout counts from the start of the turn
+                long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - (System.nanoTime() - start);
+                results.add(call.toResultMessage(await(call, futures.get(call), remainingNanos, timeoutMillis)));
+            }
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+    
+    private static String invoke(Tool tool, ToolCall call) throws Exception {
+        JsonObject arguments;
+        try {
+            StreamingJsonValidator validator = new StreamingJsonValidator(tool.getDefinition().getParameters());
+            validator.accept(call.getArguments() != null ? call.getArguments() : "{}");
+            validator.finish();
+            arguments = JsonParser.parseString(validator.getJson()).getAsJsonObject();
+        } catch (StructuredOutputException e) {
+            return "Error: invalid arguments: " + e.getMessage();
+        }
+        return tool.getHandler().execute(arguments);
+    }
+    
+    private static String await(ToolCall call, Future<String> future, long remainingNanos, long timeoutMillis)
+            throws InterruptedException {
+        try {
+            String result = future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+            return result != null ? result : "";
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            LOGGER.warning("Tool call " + call.getName() + " timed out after " + timeoutMillis + " ms");
+            return "Error: the tool did not answer within " + timeoutMillis + " ms";
+        } catch (CancellationException e) {
+            return "Error: the tool call was cancelled";
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            LOGGER.warning("Tool call " + call + " failed: " + cause.getMessage());
+            return "Error: " + cause.getMessage();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.celestra.ai.workflow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.ai.routing.ModelTierChatCompletionService;
+import com.celestra.ai.structured.OutputSchema;
+
+/**
+ * The deviation investigation workflow described in docs/features/investigator.md.
+ * 
+ * Type detection and unified extraction run first; validation, impact assessment
+ * and Ishikawa factor identification only need the extraction and run in
+ * parallel; severity assessment follows the impact assessment and task
+ * generation follows the factor identification.
+ * 
+ * The product master data and historical deviation data are not queried by the
+ * workflow; the caller passes them as the {@link #INPUT_PRODUCT_DATA} and
+ * {@link #INPUT_HISTORICAL_DATA} inputs along with the {@link #INPUT_DESCRIPTION}.
+ * 
+ * Each step is its own model tier task, "investigator." followed by the step id,
+ * so that e.g. type detection can run on a small model while the assessments stay
+ * on a large one.
+ */
+public final class InvestigatorWorkflow {
+    
+    public static final String INPUT_DESCRIPTION = "description";
+    public static final String INPUT_PRODUCT_DATA = "product_data";
+    public static final String INPUT_HISTORICAL_DATA = "historical_data";
+    
+    public static final String TYPE_DETECTION = "type_detection";
+    public static final String INFORMATION_EXTRACTION = "information_extraction";
+    public static final String VALIDATION = "validation";
+    public static final String IMPACT_ASSESSMENT = "impact_assessment";
+    public static final String SEVERITY_ASSESSMENT = "severity_assessment";
+    public static final String FACTOR_IDENTIFICATION = "factor_identification";
+    public static final String TASK_GENERATION = "task_generation";
+    
+    /**
+     * Prefix of the model tier task of each step
+     */
+    public static final String TASK_PREFIX = "investigator.";
+    
+    private static final String SYSTEM_PROMPT = "You are a pharmaceutical quality investigator. "
+            + "Answer with a single JSON object and nothing else.";
+    
+    private static final String TYPE_DETECTION_PROMPT = "Given the following deviation description:\n"
+            + "{{input.description}}\n\n"
+            + "Classify this deviation as one of the following types (only these three options are allowed):\n"
+            + "OOS (Out of Specification): The result falls outside established specification limits.\n"
+            + "OOT (Out of Trend): The result shows unusual trends or variability beyond acceptable limits.\n"
+            + "Yield Deviation: The process yield is outside the acceptable range defined by product yield standards.\n\n"
+            + "Provide your output in the following JSON format:\n"
+            + "{\"primary_deviation_type\": \"<OOS | OOT | Yield Deviation>\", "
+            + "\"confidence\": \"<HIGH | MEDIUM | LOW>\", "
+            + "\"reasoning\": \"<explanation based solely on the description>\"}\n\n"
+            + "Base your classification strictly on the description. If it is ambiguous or lacks detail, "
+            + "say so in your reasoning and assign a lower confidence.";
+    
+    private static final String EXTRACTION_PROMPT = "Given the deviation description below and knowing that the "
+            + "deviation type has already been classified as {{steps.type_detection.primary_deviation_type}}, "
+            + "extract the following information into the unified JSON format.\n\n"
+            + "Unified format: {\"deviation_type\": \"\", "
+            + "\"product_information\": {\"product_code\", \"batch_number\", \"manufacturing_stage\", \"batch_size\"}, "
+            + "\"measurement_information\": {\"measurement_parameter\", \"measurement_method\", \"observed_value\", "
+            + "\"expected_value\", \"unit\", \"additional_details\"}, "
+            + "\"context_information\": {\"timestamp\", \"operator\", \"location\", \"observations\"}}, "
+            + "where every element is an object {\"value\": \"\", \"confidence\": \"<HIGH | MEDIUM | LOW>\"}.\n\n"
+            + "Base your extraction solely on the description, use the key names exactly as shown and do not "
+            + "re-classify the deviation type.\n\n"
+            + "Deviation Description:\n{{input.description}}";
+    
+    private static final String VALIDATION_PROMPT = "Using the extracted deviation information and the "
+            + "authoritative product data below, validate whether this quality event is a genuine deviation.\n\n"
+            + "Extracted Deviation Information:\n{{steps.information_extraction}}\n\n"
+            + "Product Data (specification limits, trend rules or yield standards):\n{{input.product_data}}\n\n"
+            + "Compare the observed value with the expected value or standard and confirm whether the deviation "
+            + "criteria are met. Return a JSON object with the keys validation_result (\"Confirmed\" or "
+            + "\"Not Confirmed\"), triggered_rules (list), confidence (HIGH, MEDIUM or LOW) and supporting_evidence.";
+    
+    private static final String IMPACT_PROMPT = "Using the following inputs, perform a comprehensive impact "
+            + "assessment for the deviation.\n\n"
+            + "A. Extracted Deviation Information:\n{{steps.information_extraction}}\n\n"
+            + "B. Product Master Data:\n{{input.product_data}}\n\n"
+            + "C. Historical Deviation Data:\n{{input.historical_data}}\n\n"
+            + "Assess the quality, manufacturing and batch impact, each with supporting evidence from the master "
+            + "data and historical data. Return a JSON object with the keys quality_impact, manufacturing_impact "
+            + "and batch_impact (each {\"evaluation\", \"confidence\", \"supporting_evidence\"}), recommendations "
+            + "and overall_confidence. If key data is ambiguous or missing, note it in the recommendations and "
+            + "lower the confidence.";
+    
+    private static final String SEVERITY_PROMPT = "Using the inputs below, perform a severity assessment for "
+            + "the deviation.\n\n"
+            + "A. Impact Assessment:\n{{steps.impact_assessment}}\n\n"
+            + "B. Master Product Data:\n{{input.product_data}}\n\n"
+            + "C. Historical Deviation Data:\n{{input.historical_data}}\n\n"
+            + "Evaluate the criteria exceeded, compare with similar historical cases and recommend a severity of "
+            + "CRITICAL, MAJOR or MINOR. Return a JSON object with the key severity_assessment containing "
+            + "criteria_evaluation, historical_comparison, classification_decision (with recommended_severity and "
+            + "rationale), confidence_assessment and additional_considerations.";
+    
+    private static final String FACTOR_PROMPT = "Using the provided information, identify potential contributing "
+            + "factors for the quality deviation under the six Ishikawa categories: People, Methods, Machines, "
+            + "Materials, Measurements and Environment.\n\n"
+            + "Unified Deviation Information:\n{{steps.information_extraction}}\n\n"
+            + "Master Product Data:\n{{input.product_data}}\n\n"
+            + "Historical Deviation Data:\n{{input.historical_data}}\n\n"
+            + "Return a JSON object with the key ishikawa_factors, mapping each category to a list of "
+            + "{\"factor\", \"confidence\" (HIGH, MEDIUM or LOW), \"rationale\"}. Use an empty list for a category "
+            + "without clear factors.";
+    
+    private static final String TASK_PROMPT = "Using the identified Ishikawa factors below, generate an "
+            + "investigative task for each factor.\n\n"
+            + "Ishikawa Factors:\n{{steps.factor_identification}}\n\n"
+            + "Return a JSON object with the key investigative_tasks, mapping each category to a list of "
+            + "{\"task_description\", \"evidence_required\" (list), \"instructions\", \"rationale\", "
+            + "\"initial_confidence\"}.";
+    
+    private InvestigatorWorkflow() {
+        // Utility class
+    }
+    
+    /**
+     * Create the schema of the type detection output, for callers that classify a
+     * deviation on its own with a structured completion.
+     * 
+     * @return The schema
+     */
+    public static OutputSchema typeDetectionSchema() {
+        return new OutputSchema()
+                .string("primary_deviation_type", "OOS", "OOT", "Yield Deviation")
+                .string("confidence", "HIGH", "MEDIUM", "LOW")
+                .string("reasoning");
+    }
+    
+    /**
+     * Create the investigation workflow.
+     * 
+     * @return The workflow definition
+     */
+    public static WorkflowDefinition create() {
+        return new WorkflowDefinition("deviation-investigation", Arrays.asList(
+                step(TYPE_DETECTION, TYPE_DETECTION_PROMPT, Collections.emptyList(),
+                        "primary_deviation_type", "confidence", "reasoning"),
+                step(INFORMATION_EXTRACTION, EXTRACTION_PROMPT, List.of(TYPE_DETECTION),
+                        "deviation_type", "product_information", "measurement_information", "context_information"),
+                step(VALIDATION, VALIDATION_PROMPT, List.of(INFORMATION_EXTRACTION),
+                        "validation_result", "confidence"),
+                step(IMPACT_ASSESSMENT, IMPACT_PROMPT, List.of(INFORMATION_EXTRACTION),
+                        "quality_impact", "manufacturing_impact", "batch_impact", "overall_confidence"),
+                step(SEVERITY_ASSESSMENT, SEVERITY_PROMPT, List.of(IMPACT_ASSESSMENT),
+                        "severity_assessment"),
+                step(FACTOR_IDENTIFICATION, FACTOR_PROMPT, List.of(INFORMATION_EXTRACTION),
+                        "ishikawa_factors"),
+                step(TASK_GENERATION, TASK_PROMPT, List.of(FACTOR_IDENTIFICATION),
+                        "investigative_tasks")));
+    }
+    
+    private static WorkflowStep step(String id, String prompt, List<String> dependencies, String... requiredFields) {
+        WorkflowStep step = new WorkflowStep(id, prompt, dependencies);
+        step.setSystemPrompt(SYSTEM_PROMPT);
+        step.setRequiredFields(Arrays.asList(requiredFields));
+        step.setParameters(Map.of(ModelTierChatCompletionService.TASK_PARAMETER, TASK_PREFIX + id));
+        return step;
+    }
+}
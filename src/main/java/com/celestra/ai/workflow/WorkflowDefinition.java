@@ -0,0 +1,125 @@
+package com.celestra.ai.workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A workflow: a set of steps whose dependencies form a directed acyclic graph.
+ * 
+ * The graph is checked when the workflow is created, so a missing dependency, a
+ * template that references a step it does not depend on, or a cycle is reported
+ * before any prompt is sent.
+ */
+public class WorkflowDefinition {
+    
+    private final String name;
+    private final Map<String, WorkflowStep> steps;
+    private final List<WorkflowStep> executionOrder;
+    
+    /**
+     * Create a new workflow.
+     * 
+     * @param name The workflow name
+     * @param steps The steps, in any order
+     */
+    public WorkflowDefinition(String name, List<WorkflowStep> steps) {
+        if (steps == null || steps.isEmpty()) {
+            throw new IllegalArgumentException("Workflow " + name + " has no steps");
+        }
+        
+        Map<String, WorkflowStep> byId = new LinkedHashMap<>();
+        for (WorkflowStep step : steps) {
+            if (byId.put(step.getId(), step) != null) {
+                throw new IllegalArgumentException("Duplicate step ID: " + step.getId());
+            }
+        }
+        for (WorkflowStep step : steps) {
+            for (String dependency : step.getDependencies()) {
+                if (!byId.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Step " + step.getId() + " depends on unknown step " + dependency);
+                }
+            }
+            for (String referenced : step.getReferencedSteps()) {
+                if (!step.getDependencies().contains(referenced)) {
+                    throw new IllegalArgumentException("Step " + step.getId() + " references step " + referenced
+                            + " without depending on it");
+                }
+            }
+        }
+        
+        this.name = name;
+        this.steps = Collections.unmodifiableMap(byId);
+        this.executionOrder = Collections.unmodifiableList(sort(byId));
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Get a step by ID.
+     * 
+     * @param id The step ID
+     * @return The step, or null if there is none with that ID
+     */
+    public WorkflowStep getStep(String id) {
+        return steps.get(id);
+    }
+    
+    /**
+     * Get the steps in an order where every step comes after its dependencies.
+     * 
+     * @return The steps in execution order
+     */
+    public List<WorkflowStep> getSteps() {
+        return executionOrder;
+    }
+    
+    /**
+     * Sort the steps topologically (Kahn's algorithm), keeping declaration order
+     * among steps that are ready at the same time.
+     */
+    private static List<WorkflowStep> sort(Map<String, WorkflowStep> steps) {
+        Map<String, Integer> remaining = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (WorkflowStep step : steps.values()) {
+            remaining.put(step.getId(), step.getDependencies().size());
+            for (String dependency : step.getDependencies()) {
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(step.getId());
+            }
+        }
+        
+        List<WorkflowStep> sorted = new ArrayList<>(steps.size());
+        List<String> ready = new ArrayList<>();
+        for (WorkflowStep step : steps.values()) {
+            if (step.getDependencies().isEmpty()) {
+                ready.add(step.getId());
+            }
+        }
+        while (!ready.isEmpty()) {
+            String id = ready.remove(0);
+            sorted.add(steps.get(id));
+            for (String dependent : dependents.getOrDefault(id, Collections.emptyList())) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        
+        if (sorted.size() < steps.size()) {
+            List<String> cyclic = new ArrayList<>();
+            remaining.forEach((id, count) -> {
+                if (count > 0) {
+                    cyclic.add(id);
+                }
+            });
+            Collections.sort(cyclic);
+            throw new IllegalArgumentException("Workflow steps form a cycle: " + cyclic);
+        }
+        return sorted;
+    }
+}
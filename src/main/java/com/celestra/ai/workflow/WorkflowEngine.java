@@ -0,0 +1,293 @@
+package com.celestra.ai.workflow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.ratelimit.RateLimitContext;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Runs workflows of prompt steps against a ChatCompletionService.
+ * 
+ * Each step starts as soon as its dependencies have finished, using the service's
+ * non-blocking API, so independent steps run in parallel and a run takes as long
+ * as its critical path. Step outputs are memoized per investigation: a step whose
+ * rendered prompt is unchanged since the last run reuses its earlier output, so
+ * re-running an investigation after editing one input only recomputes the steps
+ * downstream of that input.
+ * 
+ * When a step fails, the steps that do not depend on it still finish and are
+ * memoized, and the run fails with the error of the first failed step.
+ */
+public class WorkflowEngine {
+    
+    private static final Logger LOGGER = Logger.getLogger(WorkflowEngine.class.getName());
+    
+    private static final Gson GSON = new Gson();
+    
+    private final ChatCompletionService service;
+    private final WorkflowMemoStore memoStore;
+    
+    /**
+     * Create a new workflow engine.
+     * 
+     * @param service The service that completes the prompts
+     * @param memoStore The store of memoized step outputs
+     */
+    public WorkflowEngine(ChatCompletionService service, WorkflowMemoStore memoStore) {
+        this.service = service;
+        this.memoStore = memoStore;
+    }
+    
+    /**
+     * Run a workflow and wait for it to finish.
+     * 
+     * @param workflow The workflow
+     * @param investigationId The investigation whose memoized outputs are used
+     * @param inputs The workflow inputs referenced as {{input.name}}
+     * @return The outputs of all steps
+     * @throws Exception if a step fails
+     */
+    public WorkflowResult execute(WorkflowDefinition workflow, String investigationId, Map<String, String> inputs)
+            throws Exception {
+        CompletableFuture<WorkflowResult> future = executeAsync(workflow, investigationId, inputs);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Run a workflow asynchronously. Cancelling the returned future cancels the
+     * completion calls in flight. Every step is made for the caller of the
+     * current {@link TelemetryContext}, whichever thread starts it.
+     * 
+     * @param workflow The workflow
+     * @param investigationId The investigation whose memoized outputs are used
+     * @param inputs The workflow inputs referenced as {{input.name}}
+     * @return A future that completes with the outputs of all steps
+     */
+    public CompletableFuture<WorkflowResult> executeAsync(WorkflowDefinition workflow, String investigationId,
+                                                          Map<String, String> inputs) {
+        if (investigationId == null || investigationId.isEmpty()) {
+            throw new IllegalArgumentException("Investigation ID is required");
+        }
+        return new Run(workflow, investigationId, inputs).start();
+    }
+    
+    /**
+     * Render a step's prompt template.
+     * 
+     * @param step The step
+     * @param inputs The workflow inputs
+     * @param outputs The outputs of the step's dependencies
+     * @return The prompt
+     * @throws AIServiceException if a placeholder cannot be resolved
+     */
+    static String render(WorkflowStep step, Map<String, String> inputs, Map<String, JsonObject> outputs)
+            throws AIServiceException {
+        Matcher matcher = WorkflowStep.PLACEHOLDER.matcher(step.getPromptTemplate());
+        StringBuilder prompt = new StringBuilder();
+        while (matcher.find()) {
+            String[] path = matcher.group(1).split("\\.");
+            String value;
+            if ("input".equals(path[0]) && path.length == 2) {
+                value = inputs.get(path[1]);
+            } else if ("steps".equals(path[0]) && path.length >= 2) {
+                JsonElement element = outputs.get(path[1]);
+                for (int i = 2; i < path.length && element != null; i++) {
+                    element = element.isJsonObject() ? element.getAsJsonObject().get(path[i]) : null;
+                }
+                value = element == null || element.isJsonNull() ? null
+                        : element.isJsonPrimitive() ? element.getAsString() : GSON.toJson(element);
+            } else {
+                throw new AIServiceException("Step " + step.getId() + " has an invalid placeholder: " + matcher.group());
+            }
+            if (value == null) {
+                throw new AIServiceException("Step " + step.getId() + " cannot resolve " + matcher.group());
+            }
+            matcher.appendReplacement(prompt, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(prompt);
+        return prompt.toString();
+    }
+    
+    /**
+     * Extract the JSON object from a completion. Models often wrap the object in a
+     * Markdown code fence or a sentence, so everything outside the outermost
+     * braces is ignored.
+     * 
+     * @param stepId The step that produced the completion
+     * @param completion The completion
+     * @return The JSON object
+     * @throws AIServiceException if the completion holds no JSON object
+     */
+    static JsonObject parseOutput(String stepId, String completion) throws AIServiceException {
+        int start = completion != null ? completion.indexOf('{') : -1;
+        int end = completion != null ? completion.lastIndexOf('}') : -1;
+        if (start < 0 || end < start) {
+            throw new AIServiceException("Step " + stepId + " did not return a JSON object");
+        }
+        try {
+            return JsonParser.parseString(completion.substring(start, end + 1)).getAsJsonObject();
+        } catch (RuntimeException e) {
+            throw new AIServiceException("Step " + stepId + " returned invalid JSON", e);
+        }
+    }
+    
+    private static String fingerprint(WorkflowStep step, String prompt) {
+        JsonObject json = new JsonObject();
+        json.addProperty("system", step.getSystemPrompt());
+        json.addProperty("prompt", prompt);
+        json.add("parameters", step.getParameters() != null ? GSON.toJsonTree(step.getParameters()) : null);
+        json.add("required", GSON.toJsonTree(step.getRequiredFields()));
+        return WorkflowMemoStore.sha256(json.toString());
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+    
+    /**
+     * The state of one workflow run.
+     */
+    private class Run {
+        private final WorkflowDefinition workflow;
+        private final String investigationId;
+        private final Map<String, String> inputs;
+        private final RateLimitContext context = RateLimitContext.current();
+        private final TelemetryContext caller = TelemetryContext.current();
+        private final Map<String, CompletableFuture<JsonObject>> futures = new LinkedHashMap<>();
+        private final Set<String> memoized = ConcurrentHashMap.newKeySet();
+        private final Set<CompletableFuture<String>> inFlight = ConcurrentHashMap.newKeySet();
+        private final long start = System.nanoTime();
+        
+        Run(WorkflowDefinition workflow, String investigationId, Map<String, String> inputs) {
+            this.workflow = workflow;
+            this.investigationId = investigationId;
+            this.inputs = inputs != null ? inputs : Map.of();
+        }
+        
+        CompletableFuture<WorkflowResult> start() {
+            for (WorkflowStep step : workflow.getSteps()) {
+                CompletableFuture<?>[] dependencies = step.getDependencies().stream()
+                        .map(futures::get)
+                        .toArray(CompletableFuture[]::new);
+                futures.put(step.getId(), CompletableFuture.allOf(dependencies)
+                        .thenCompose(ignored -> runStep(step)));
+            }
+            
+            CompletableFuture<WorkflowResult> result = CompletableFuture
+                    .allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                    .handle((ignored, error) -> finish());
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled()) {
+                    new ArrayList<>(inFlight).forEach(call -> call.cancel(true));
+                }
+            });
+            return result;
+        }
+        
+        private CompletableFuture<JsonObject> runStep(WorkflowStep step) {
+            Map<String, JsonObject> outputs = new LinkedHashMap<>();
+            for (String dependency : step.getDependencies()) {
+                outputs.put(dependency, futures.get(dependency).join());
+            }
+            
+            String fingerprint;
+            List<ChatMessage> messages = new ArrayList<>();
+            try {
+                String prompt = render(step, inputs, outputs);
+                fingerprint = fingerprint(step, prompt);
+                JsonObject output = memoStore.get(investigationId, step.getId(), fingerprint);
+                if (output != null) {
+                    memoized.add(step.getId());
+                    return CompletableFuture.completedFuture(output);
+                }
+                if (step.getSystemPrompt() != null) {
+                    messages.add(new ChatMessage("system", step.getSystemPrompt()));
+                }
+                messages.add(new ChatMessage("user", prompt));
+            } catch (AIServiceException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            
+            CompletableFuture<String> call = caller.supply(() -> context.supply(() -> step.getParameters() != null
+                    ? service.getChatCompletionAsync(messages, step.getParameters())
+                    : service.getChatCompletionAsync(messages)));
+            inFlight.add(call);
+            call.whenComplete((value, error) -> inFlight.remove(call));
+            
+            return call.handle((completion, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    throw new CompletionException(new AIServiceException(
+                            "Step " + step.getId() + " failed: " + cause.getMessage(), cause));
+                }
+                try {
+                    JsonObject output = parseOutput(step.getId(), completion);
+                    for (String field : step.getRequiredFields()) {
+                        if (!output.has(field)) {
+                            throw new AIServiceException("Step " + step.getId() + " output is missing " + field);
+                        }
+                    }
+                    memoStore.put(investigationId, step.getId(), fingerprint, output);
+                    return output;
+                } catch (AIServiceException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+        
+        private WorkflowResult finish() {
+            Map<String, JsonObject> outputs = new LinkedHashMap<>();
+            for (Map.Entry<String, CompletableFuture<JsonObject>> entry : futures.entrySet()) {
+                CompletableFuture<JsonObject> future = entry.getValue();
+                if (future.isCompletedExceptionally()) {
+                    // Dependents fail with the same error, so the first failure in
+                    // execution order is the step that actually failed
+                    Throwable cause = unwrap(future.handle((value, error) -> error).join());
+                    LOGGER.warning("Workflow " + workflow.getName() + " failed for investigation "
+                            + investigationId + ": " + cause.getMessage());
+                    throw cause instanceof CompletionException
+                            ? (CompletionException) cause : new CompletionException(cause);
+                }
+                outputs.put(entry.getKey(), future.join());
+            }
+            
+            WorkflowResult result = new WorkflowResult(investigationId, outputs, memoized,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            LOGGER.info("Finished workflow " + workflow.getName() + ": " + result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.celestra.ai.workflow;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Memoized step outputs, kept per investigation.
+ * 
+ * Each output is stored with the fingerprint of the prompt that produced it; a
+ * lookup only hits if the fingerprint still matches, so a step is recomputed
+ * exactly when its prompt, parameters or upstream outputs change. Like the
+ * completion cache, the store has a bounded in-memory tier and an optional disk
+ * tier with one JSON file per step, so an investigation can be resumed after a
+ * restart.
+ */
+public class WorkflowMemoStore {
+    
+    private static final Logger LOGGER = Logger.getLogger(WorkflowMemoStore.class.getName());
+    
+    /**
+     * A memoized output with the fingerprint of the prompt that produced it.
+     */
+    private static class Entry {
+        private final String fingerprint;
+        private final JsonObject output;
+        
+        Entry(String fingerprint, JsonObject output) {
+            this.fingerprint = fingerprint;
+            this.output = output;
+        }
+    }
+    
+    private final Map<String, Map<String, Entry>> memory;
+    private final Path directory;
+    
+    /**
+     * Create a new memo store.
+     * 
+     * @param memoryInvestigations The maximum number of investigations in the memory tier
+     * @param directory The directory of the disk tier, or null to memoize in memory only
+     */
+    public WorkflowMemoStore(int memoryInvestigations, Path directory) {
+        if (memoryInvestigations <= 0) {
+            throw new IllegalArgumentException("Memory investigations must be positive");
+        }
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Entry>> eldest) {
+                return size() > memoryInvestigations;
+            }
+        };
+        this.directory = directory;
+    }
+    
+    /**
+     * Look up the output of a step.
+     * 
+     * @param investigationId The investigation
+     * @param stepId The step
+     * @param fingerprint The fingerprint of the step's current prompt
+     * @return A copy of the output, or null if it is not memoized or was produced by another prompt
+     */
+    public JsonObject get(String investigationId, String stepId, String fingerprint) {
+        Entry entry;
+        synchronized (memory) {
+            Map<String, Entry> steps = memory.get(investigationId);
+            entry = steps != null ? steps.get(stepId) : null;
+        }
+        if (entry == null) {
+            entry = readFromDisk(investigationId, stepId);
+            if (entry != null) {
+                synchronized (memory) {
+                    memory.computeIfAbsent(investigationId, key -> new ConcurrentHashMap<>()).put(stepId, entry);
+                }
+            }
+        }
+        if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+            return null;
+        }
+        return entry.output.deepCopy();
+    }
+    
+    /**
+     * Store the output of a step, replacing any earlier output.
+     * 
+     * @param investigationId The investigation
+     * @param stepId The step
+     * @param fingerprint The fingerprint of the prompt that produced the output
+     * @param output The output
+     */
+    public void put(String investigationId, String stepId, String fingerprint, JsonObject output) {
+        Entry entry = new Entry(fingerprint, output.deepCopy());
+        synchronized (memory) {
+            memory.computeIfAbsent(investigationId, key -> new ConcurrentHashMap<>()).put(stepId, entry);
+        }
+        writeToDisk(investigationId, stepId, entry);
+    }
+    
+    /**
+     * Forget every output of an investigation.
+     * 
+     * @param investigationId The investigation
+     */
+    public void invalidate(String investigationId) {
+        synchronized (memory) {
+            memory.remove(investigationId);
+        }
+        if (directory == null) {
+            return;
+        }
+        
+        Path investigationDirectory = getDirectory(investigationId);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(investigationDirectory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(investigationDirectory);
+        } catch (NoSuchFileException e) {
+            // Nothing was written for this investigation
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete memoized outputs of investigation " + investigationId, e);
+        }
+    }
+    
+    private Entry readFromDisk(String investigationId, String stepId) {
+        if (directory == null) {
+            return null;
+        }
+        
+        Path path = getDirectory(investigationId).resolve(stepId + ".json");
+        try {
+            JsonObject json = JsonParser.parseString(Files.readString(path, StandardCharsets.UTF_8)).getAsJsonObject();
+            return new Entry(json.get("fingerprint").getAsString(), json.getAsJsonObject("output"));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // A corrupt entry is treated as a miss and replaced when the step runs again
+            LOGGER.log(Level.WARNING, "Could not read memoized output of step " + stepId, e);
+            return null;
+        }
+    }
+    
+    private void writeToDisk(String investigationId, String stepId, Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        
+        JsonObject json = new JsonObject();
+        json.addProperty("fingerprint", entry.fingerprint);
+        json.add("output", entry.output);
+        
+        Path parent = getDirectory(investigationId);
+        try {
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, stepId, ".tmp");
+            try {
+                Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+                Files.move(temp, parent.resolve(stepId + ".json"),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // The disk tier is best effort; the memory tier still holds the output
+            LOGGER.log(Level.WARNING, "Could not write memoized output of step " + stepId, e);
+        }
+    }
+    
+    /**
+     * Get the directory of an investigation. Investigation IDs are hashed so that
+     * any ID maps to a safe file name.
+     */
+    private Path getDirectory(String investigationId) {
+        return directory.resolve(sha256(investigationId));
+    }
+    
+    /**
+     * Compute the hex-encoded SHA-256 hash of a string.
+     * 
+     * @param value The string
+     * @return The hex-encoded hash
+     */
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.celestra.ai.workflow;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonObject;
+
+/**
+ * The outputs of a completed workflow run.
+ */
+public class WorkflowResult {
+    
+    private final String investigationId;
+    private final Map<String, JsonObject> outputs;
+    private final Set<String> memoizedSteps;
+    private final long elapsedMillis;
+    
+    /**
+     * Create a new result.
+     * 
+     * @param investigationId The investigation
+     * @param outputs The output of each step, in execution order
+     * @param memoizedSteps The steps whose output was memoized rather than recomputed
+     * @param elapsedMillis The wall-clock time of the run
+     */
+    public WorkflowResult(String investigationId, Map<String, JsonObject> outputs, Set<String> memoizedSteps,
+                          long elapsedMillis) {
+        this.investigationId = investigationId;
+        this.outputs = Collections.unmodifiableMap(new LinkedHashMap<>(outputs));
+        this.memoizedSteps = Collections.unmodifiableSet(memoizedSteps);
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public String getInvestigationId() {
+        return investigationId;
+    }
+    
+    /**
+     * Get the output of a step.
+     * 
+     * @param stepId The step
+     * @return The output, or null if the workflow has no such step
+     */
+    public JsonObject getOutput(String stepId) {
+        return outputs.get(stepId);
+    }
+    
+    public Map<String, JsonObject> getOutputs() {
+        return outputs;
+    }
+    
+    public Set<String> getMemoizedSteps() {
+        return memoizedSteps;
+    }
+    
+    /**
+     * Check whether a step's output was taken from an earlier run.
+     * 
+     * @param stepId The step
+     * @return true if the step was not recomputed
+     */
+    public boolean isMemoized(String stepId) {
+        return memoizedSteps.contains(stepId);
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return "WorkflowResult{investigationId=" + investigationId + ", steps=" + outputs.size()
+                + ", memoized=" + memoizedSteps.size() + ", elapsedMillis=" + elapsedMillis + "}";
+    }
+}
@@ -0,0 +1,116 @@
+package com.celestra.ai.workflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One step of a workflow: a prompt template whose answer is a JSON object.
+ * 
+ * The template may reference the inputs of the workflow as {@code {{input.name}}},
+ * the whole output of an earlier step as {@code {{steps.id}}}, and a field of that
+ * output as {@code {{steps.id.field.subfield}}}. Every step referenced by the
+ * template must be listed as a dependency.
+ */
+public class WorkflowStep {
+    
+    static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([A-Za-z0-9_.-]+)\\s*\\}\\}");
+    
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_-]+");
+    
+    private final String id;
+    private final String promptTemplate;
+    private final List<String> dependencies;
+    private String systemPrompt;
+    private Map<String, Object> parameters;
+    private List<String> requiredFields = Collections.emptyList();
+    
+    /**
+     * Create a new step.
+     * 
+     * @param id The step ID, made of letters, digits, '_' and '-'
+     * @param promptTemplate The prompt template
+     * @param dependencies The IDs of the steps whose outputs this step uses
+     */
+    public WorkflowStep(String id, String promptTemplate, List<String> dependencies) {
+        if (id == null || !ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("Invalid step ID: " + id);
+        }
+        if (promptTemplate == null || promptTemplate.isBlank()) {
+            throw new IllegalArgumentException("Step " + id + " has no prompt template");
+        }
+        this.id = id;
+        this.promptTemplate = promptTemplate;
+        this.dependencies = dependencies != null
+                ? Collections.unmodifiableList(new ArrayList<>(dependencies)) : Collections.emptyList();
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getPromptTemplate() {
+        return promptTemplate;
+    }
+    
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+    
+    public String getSystemPrompt() {
+        return systemPrompt;
+    }
+    
+    public void setSystemPrompt(String systemPrompt) {
+        this.systemPrompt = systemPrompt;
+    }
+    
+    /**
+     * Get the parameters sent with the step's completion call.
+     * 
+     * @return The parameters, or null to use the service defaults
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+    
+    public void setParameters(Map<String, Object> parameters) {
+        this.parameters = parameters;
+    }
+    
+    /**
+     * Get the top-level fields the step's output must contain.
+     * 
+     * @return The required fields
+     */
+    public List<String> getRequiredFields() {
+        return requiredFields;
+    }
+    
+    public void setRequiredFields(List<String> requiredFields) {
+        this.requiredFields = requiredFields != null
+                ? Collections.unmodifiableList(new ArrayList<>(requiredFields)) : Collections.emptyList();
+    }
+    
+    /**
+     * Get the IDs of the steps referenced by the prompt template.
+     * 
+     * @return The referenced step IDs
+     */
+    Set<String> getReferencedSteps() {
+        Set<String> referenced = new LinkedHashSet<>();
+        Matcher matcher = PLACEHOLDER.matcher(promptTemplate);
+        while (matcher.find()) {
+            String[] path = matcher.group(1).split("\\.");
+            if ("steps".equals(path[0]) && path.length > 1) {
+                referenced.add(path[1]);
+            }
+        }
+        return referenced;
+    }
+}
@@ -0,0 +1,49 @@
+package com.celestra.audit.archive;
+
+/**
+ * Describes one column of an archived table.
+ */
+public class ArchiveColumn {
+    
+    /**
+     * Physical type of an archived column. All types are nullable.
+     */
+    public enum Type {
+        /**
+         * 32-bit integer, stored as zigzag delta varints
+         */
+        INT,
+        
+        /**
+         * 64-bit integer (timestamps as epoch milliseconds), stored as zigzag delta varints
+         */
+        LONG,
+        
+        /**
+         * UTF-8 text, stored as length-prefixed bytes
+         */
+        STRING
+    }
+    
+    private final String name;
+    private final Type type;
+    
+    /**
+     * Create a new column description.
+     * 
+     * @param name The column name
+     * @param type The column type
+     */
+    public ArchiveColumn(String name, Type type) {
+        this.name = name;
+        this.type = type;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,173 @@
+package com.celestra.audit.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes and decodes a single column block of an archive segment.
+ * 
+ * A block starts with a presence bitmap (one bit per row, set when the value is
+ * not null) followed by the non-null values: integers as zigzag varints of the
+ * delta to the previous value, so that ascending IDs and timestamps shrink to one
+ * or two bytes, and strings as a varint length followed by UTF-8 bytes. The block
+ * is then deflated as a whole; columns of low-cardinality text such as event types
+ * compress very well because all values of the column are adjacent.
+ */
+final class ArchiveColumnCodec {
+    
+    private ArchiveColumnCodec() {
+        // Utility class
+    }
+    
+    /**
+     * Encode one column of a list of rows.
+     * 
+     * @param type The column type
+     * @param rows The rows
+     * @param column The column index
+     * @return The uncompressed block
+     */
+    static byte[] encode(ArchiveColumn.Type type, List<Object[]> rows, int column) {
+        int rowCount = rows.size();
+        byte[] bitmap = new byte[(rowCount + 7) / 8];
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+        long previous = 0;
+        
+        for (int row = 0; row < rowCount; row++) {
+            Object value = rows.get(row)[column];
+            if (value == null) {
+                continue;
+            }
+            bitmap[row >>> 3] |= 1 << (row & 7);
+            
+            if (type == ArchiveColumn.Type.STRING) {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                writeVarLong(values, bytes.length);
+                values.write(bytes, 0, bytes.length);
+            } else {
+                long current = ((Number) value).longValue();
+                long delta = current - previous;
+                writeVarLong(values, (delta << 1) ^ (delta >> 63));
+                previous = current;
+            }
+        }
+        
+        ByteArrayOutputStream block = new ByteArrayOutputStream(bitmap.length + values.size());
+        block.write(bitmap, 0, bitmap.length);
+        block.write(values.toByteArray(), 0, values.size());
+        return block.toByteArray();
+    }
+    
+    /**
+     * Decode an uncompressed column block.
+     * 
+     * @param type The column type
+     * @param block The uncompressed block
+     * @param rowCount The number of rows in the segment
+     * @return The values, boxed as Integer, Long or String (null where absent)
+     */
+    static Object[] decode(ArchiveColumn.Type type, byte[] block, int rowCount) {
+        Object[] values = new Object[rowCount];
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        int bitmapLength = (rowCount + 7) / 8;
+        buffer.position(bitmapLength);
+        long previous = 0;
+        
+        for (int row = 0; row < rowCount; row++) {
+            if ((block[row >>> 3] & (1 << (row & 7))) == 0) {
+                continue;
+            }
+            
+            if (type == ArchiveColumn.Type.STRING) {
+                int length = (int) readVarLong(buffer);
+                values[row] = new String(block, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            } else {
+                long zigzag = readVarLong(buffer);
+                previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                if (type == ArchiveColumn.Type.INT) {
+                    values[row] = Integer.valueOf((int) previous);
+                } else {
+                    values[row] = Long.valueOf(previous);
+                }
+            }
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Deflate a block.
+     * 
+     * @param block The uncompressed block
+     * @return The compressed block
+     */
+    static byte[] compress(byte[] block) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(block);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, block.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    /**
+     * Inflate a block directly from a (memory-mapped) buffer.
+     * 
+     * @param compressed The compressed block, positioned at its start and limited to its end
+     * @param uncompressedLength The length recorded in the segment footer
+     * @return The uncompressed block
+     * @throws DataFormatException if the block is corrupt
+     */
+    static byte[] decompress(ByteBuffer compressed, int uncompressedLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] block = new byte[uncompressedLength];
+            int offset = 0;
+            while (offset < uncompressedLength) {
+                int length = inflater.inflate(block, offset, uncompressedLength - offset);
+                if (length == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("Column block is shorter than " + uncompressedLength + " bytes");
+                }
+                offset += length;
+            }
+            return block;
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
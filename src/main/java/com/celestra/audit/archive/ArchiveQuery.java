@@ -0,0 +1,106 @@
+package com.celestra.audit.archive;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Predicates for a scan over archived rows. Every predicate is optional; the
+ * time range applies to created_at for audit and change logs and to attempted_at
+ * for failed logins.
+ */
+public class ArchiveQuery {
+    
+    private Timestamp from;
+    private Timestamp to;
+    private Integer userId;
+    private Set<String> eventTypes;
+    
+    /**
+     * Default constructor, matching every archived row.
+     */
+    public ArchiveQuery() {
+        // Default constructor
+    }
+    
+    /**
+     * Constructor with a time range.
+     * 
+     * @param from The start of the range (inclusive), or null for no lower bound
+     * @param to The end of the range (exclusive), or null for no upper bound
+     */
+    public ArchiveQuery(Timestamp from, Timestamp to) {
+        this.from = from;
+        this.to = to;
+    }
+    
+    /**
+     * Check whether a row matches the query.
+     * 
+     * @param timestamp The row timestamp in epoch milliseconds, or null
+     * @param rowUserId The row user ID, or null
+     * @param eventType The row event type, or null
+     * @return true if the row matches
+     */
+    public boolean matches(Long timestamp, Integer rowUserId, String eventType) {
+        if ((from != null || to != null) && timestamp == null) {
+            return false;
+        }
+        if (from != null && timestamp < from.getTime()) {
+            return false;
+        }
+        if (to != null && timestamp >= to.getTime()) {
+            return false;
+        }
+        if (userId != null && !userId.equals(rowUserId)) {
+            return false;
+        }
+        return eventTypes == null || eventTypes.contains(eventType);
+    }
+    
+    // Getters and Setters
+    
+    public Timestamp getFrom() {
+        return from;
+    }
+    
+    public void setFrom(Timestamp from) {
+        this.from = from;
+    }
+    
+    public Timestamp getTo() {
+        return to;
+    }
+    
+    public void setTo(Timestamp to) {
+        this.to = to;
+    }
+    
+    public Integer getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+    
+    public Set<String> getEventTypes() {
+        return eventTypes;
+    }
+    
+    public void setEventTypes(Set<String> eventTypes) {
+        this.eventTypes = eventTypes != null
+                ? Collections.unmodifiableSet(new LinkedHashSet<>(eventTypes)) : null;
+    }
+    
+    @Override
+    public String toString() {
+        return "ArchiveQuery{" +
+                "from=" + from +
+                ", to=" + to +
+                ", userId=" + userId +
+                ", eventTypes=" + eventTypes +
+                '}';
+    }
+}
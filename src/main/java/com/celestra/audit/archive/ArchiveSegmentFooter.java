@@ -0,0 +1,218 @@
+package com.celestra.audit.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Footer of an archive segment: row count, min/max statistics used to skip whole
+ * segments during a scan, and the location of each compressed column block.
+ */
+public class ArchiveSegmentFooter {
+    
+    private final int rowCount;
+    private final long minId;
+    private final long maxId;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final boolean hasUserIds;
+    private final long minUserId;
+    private final long maxUserId;
+    private final Set<String> eventTypes;
+    private final long[] columnOffsets;
+    private final int[] compressedLengths;
+    private final int[] uncompressedLengths;
+    
+    /**
+     * Create a new footer.
+     */
+    public ArchiveSegmentFooter(int rowCount, long minId, long maxId, long minTimestamp, long maxTimestamp,
+                                boolean hasUserIds, long minUserId, long maxUserId, Set<String> eventTypes,
+                                long[] columnOffsets, int[] compressedLengths, int[] uncompressedLengths) {
+        this.rowCount = rowCount;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+        this.hasUserIds = hasUserIds;
+        this.minUserId = minUserId;
+        this.maxUserId = maxUserId;
+        this.eventTypes = Collections.unmodifiableSet(new LinkedHashSet<>(eventTypes));
+        this.columnOffsets = columnOffsets;
+        this.compressedLengths = compressedLengths;
+        this.uncompressedLengths = uncompressedLengths;
+    }
+    
+    /**
+     * Check whether any row of the segment can match a query, using only the footer statistics.
+     * 
+     * @param query The query
+     * @return false if the segment can be skipped
+     */
+    public boolean mayMatch(ArchiveQuery query) {
+        if (rowCount == 0) {
+            return false;
+        }
+        if (query.getFrom() != null && maxTimestamp < query.getFrom().getTime()) {
+            return false;
+        }
+        if (query.getTo() != null && minTimestamp >= query.getTo().getTime()) {
+            return false;
+        }
+        if (query.getUserId() != null
+                && (!hasUserIds || query.getUserId() < minUserId || query.getUserId() > maxUserId)) {
+            return false;
+        }
+        if (query.getEventTypes() != null && Collections.disjoint(query.getEventTypes(), eventTypes)) {
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Serialize the footer.
+     * 
+     * @return The encoded footer
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out);
+        } catch (IOException e) {
+            // Cannot happen with an in-memory stream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(rowCount);
+        out.writeLong(minId);
+        out.writeLong(maxId);
+        out.writeLong(minTimestamp);
+        out.writeLong(maxTimestamp);
+        out.writeBoolean(hasUserIds);
+        out.writeLong(minUserId);
+        out.writeLong(maxUserId);
+        out.writeInt(eventTypes.size());
+        for (String eventType : eventTypes) {
+            out.writeUTF(eventType);
+        }
+        out.writeInt(columnOffsets.length);
+        for (int i = 0; i < columnOffsets.length; i++) {
+            out.writeLong(columnOffsets[i]);
+            out.writeInt(compressedLengths[i]);
+            out.writeInt(uncompressedLengths[i]);
+        }
+    }
+    
+    /**
+     * Deserialize a footer.
+     * 
+     * @param in The encoded footer
+     * @return The footer
+     * @throws IOException if the footer is truncated
+     */
+    public static ArchiveSegmentFooter read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int rowCount = data.readInt();
+        long minId = data.readLong();
+        long maxId = data.readLong();
+        long minTimestamp = data.readLong();
+        long maxTimestamp = data.readLong();
+        boolean hasUserIds = data.readBoolean();
+        long minUserId = data.readLong();
+        long maxUserId = data.readLong();
+        
+        int eventTypeCount = data.readInt();
+        Set<String> eventTypes = new LinkedHashSet<>();
+        for (int i = 0; i < eventTypeCount; i++) {
+            eventTypes.add(data.readUTF());
+        }
+        
+        int columnCount = data.readInt();
+        long[] columnOffsets = new long[columnCount];
+        int[] compressedLengths = new int[columnCount];
+        int[] uncompressedLengths = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnOffsets[i] = data.readLong();
+            compressedLengths[i] = data.readInt();
+            uncompressedLengths[i] = data.readInt();
+        }
+        
+        return new ArchiveSegmentFooter(rowCount, minId, maxId, minTimestamp, maxTimestamp,
+                hasUserIds, minUserId, maxUserId, eventTypes,
+                columnOffsets, compressedLengths, uncompressedLengths);
+    }
+    
+    // Getters
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public long getMinId() {
+        return minId;
+    }
+    
+    public long getMaxId() {
+        return maxId;
+    }
+    
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+    
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+    
+    public boolean hasUserIds() {
+        return hasUserIds;
+    }
+    
+    public long getMinUserId() {
+        return minUserId;
+    }
+    
+    public long getMaxUserId() {
+        return maxUserId;
+    }
+    
+    public Set<String> getEventTypes() {
+        return eventTypes;
+    }
+    
+    public int getColumnCount() {
+        return columnOffsets.length;
+    }
+    
+    public long getColumnOffset(int column) {
+        return columnOffsets[column];
+    }
+    
+    public int getCompressedLength(int column) {
+        return compressedLengths[column];
+    }
+    
+    public int getUncompressedLength(int column) {
+        return uncompressedLengths[column];
+    }
+    
+    @Override
+    public String toString() {
+        return "ArchiveSegmentFooter{" +
+                "rowCount=" + rowCount +
+                ", minId=" + minId +
+                ", maxId=" + maxId +
+                ", minTimestamp=" + minTimestamp +
+                ", maxTimestamp=" + maxTimestamp +
+                ", eventTypes=" + eventTypes +
+                '}';
+    }
+}
@@ -0,0 +1,160 @@
+package com.celestra.audit.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+
+/**
+ * Reads an archive segment through a read-only memory mapping.
+ * 
+ * Predicates are pushed down in two steps: the footer statistics decide whether the
+ * segment is read at all, and then only the timestamp, user ID and event type columns
+ * are inflated to select rows. The remaining columns are inflated only if at least
+ * one row matches.
+ */
+public class ArchiveSegmentReader {
+    
+    private final Path path;
+    private final ArchiveTable table;
+    private final ArchiveSegmentFooter footer;
+    
+    /**
+     * Create a reader for a segment whose footer has already been read.
+     * 
+     * @param path The segment file
+     * @param table The table layout
+     * @param footer The segment footer
+     */
+    public ArchiveSegmentReader(Path path, ArchiveTable table, ArchiveSegmentFooter footer) {
+        this.path = path;
+        this.table = table;
+        this.footer = footer;
+    }
+    
+    /**
+     * Read the footer of a segment without mapping the column blocks.
+     * 
+     * @param path The segment file
+     * @return The footer
+     * @throws IOException if the file is not a complete segment
+     */
+    public static ArchiveSegmentFooter readFooter(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < ArchiveSegmentWriter.HEADER_LENGTH + ArchiveSegmentWriter.TRAILER_LENGTH) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            
+            ByteBuffer trailer = ByteBuffer.allocate(ArchiveSegmentWriter.TRAILER_LENGTH);
+            readFully(channel, trailer, size - ArchiveSegmentWriter.TRAILER_LENGTH);
+            int footerLength = trailer.getInt(0);
+            if (trailer.getInt(4) != ArchiveSegmentWriter.MAGIC || footerLength <= 0
+                    || footerLength > size - ArchiveSegmentWriter.HEADER_LENGTH - ArchiveSegmentWriter.TRAILER_LENGTH) {
+                throw new IOException("Corrupt archive segment trailer: " + path);
+            }
+            
+            ByteBuffer footer = ByteBuffer.allocate(footerLength);
+            readFully(channel, footer, size - ArchiveSegmentWriter.TRAILER_LENGTH - footerLength);
+            return ArchiveSegmentFooter.read(new ByteArrayInputStream(footer.array()));
+        }
+    }
+    
+    /**
+     * Scan the segment.
+     * 
+     * @param query The predicates
+     * @param consumer Receives each matching row, with values boxed per column type
+     * @return The number of matching rows
+     * @throws IOException if the segment cannot be read
+     */
+    public int scan(ArchiveQuery query, Consumer<Object[]> consumer) throws IOException {
+        if (!footer.mayMatch(query)) {
+            return 0;
+        }
+        
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        
+        int rowCount = footer.getRowCount();
+        Object[][] columns = new Object[table.getColumnCount()][];
+        boolean[] selected = new boolean[rowCount];
+        int matches = 0;
+        
+        Object[] timestamps = readColumn(mapped, columns, table.getTimestampIndex());
+        Object[] userIds = query.getUserId() != null ? readColumn(mapped, columns, table.getUserIdIndex()) : null;
+        Object[] eventTypes = query.getEventTypes() != null && table.getEventTypeIndex() >= 0
+                ? readColumn(mapped, columns, table.getEventTypeIndex()) : null;
+        
+        for (int row = 0; row < rowCount; row++) {
+            String eventType = eventTypes != null ? (String) eventTypes[row] : table.getFixedEventType();
+            if (query.matches((Long) timestamps[row],
+                    userIds != null ? (Integer) userIds[row] : query.getUserId(),
+                    eventType)) {
+                selected[row] = true;
+                matches++;
+            }
+        }
+        
+        if (matches == 0) {
+            return 0;
+        }
+        
+        for (int column = 0; column < columns.length; column++) {
+            readColumn(mapped, columns, column);
+        }
+        
+        for (int row = 0; row < rowCount; row++) {
+            if (selected[row]) {
+                Object[] values = new Object[columns.length];
+                for (int column = 0; column < columns.length; column++) {
+                    values[column] = columns[column][row];
+                }
+                consumer.accept(values);
+            }
+        }
+        
+        return matches;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public ArchiveSegmentFooter getFooter() {
+        return footer;
+    }
+    
+    private Object[] readColumn(MappedByteBuffer mapped, Object[][] columns, int column) throws IOException {
+        if (columns[column] == null) {
+            int offset = (int) footer.getColumnOffset(column);
+            ByteBuffer block = mapped.duplicate();
+            block.position(offset).limit(offset + footer.getCompressedLength(column));
+            try {
+                byte[] data = ArchiveColumnCodec.decompress(block, footer.getUncompressedLength(column));
+                columns[column] = ArchiveColumnCodec.decode(table.getColumn(column).getType(), data,
+                        footer.getRowCount());
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt column block " + table.getColumn(column).getName() + " in " + path, e);
+            }
+        }
+        return columns[column];
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of archive segment");
+            }
+        }
+    }
+}
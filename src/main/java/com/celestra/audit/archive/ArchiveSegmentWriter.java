@@ -0,0 +1,207 @@
+package com.celestra.audit.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes immutable archive segments.
+ * 
+ * Segment layout:
+ * <pre>
+ * MAGIC(int) VERSION(short)
+ * column block 0 ... column block n-1   (deflated, see {@link ArchiveColumnCodec})
+ * footer                                (see {@link ArchiveSegmentFooter})
+ * footer length(int) MAGIC(int)
+ * </pre>
+ * A segment is written to a temporary file, forced to disk and then published
+ * under its name, so readers never observe a partially written segment. An
+ * existing segment is never replaced.
+ */
+public class ArchiveSegmentWriter {
+    
+    static final int MAGIC = 0x43415253; // "CARS"
+    static final short VERSION = 1;
+    static final int HEADER_LENGTH = 6;
+    static final int TRAILER_LENGTH = 8;
+    static final String SEGMENT_SUFFIX = ".seg";
+    
+    private ArchiveSegmentWriter() {
+        // Utility class
+    }
+    
+    /**
+     * Write a segment.
+     * 
+     * @param directory The directory of the archived table
+     * @param table The table layout
+     * @param rows The rows in ascending ID order; values must be Integer, Long or String per column type
+     * @return The path of the new segment
+     * @throws IOException if the segment cannot be written
+     * @throws IllegalArgumentException if there are no rows
+     */
+    public static Path write(Path directory, ArchiveTable table, List<Object[]> rows) throws IOException {
+        return write(directory, table, rows, null);
+    }
+    
+    /**
+     * Write a segment whose name includes the archive run that wrote it, so that
+     * runs over the same rows never write to the same file.
+     * 
+     * @param directory The directory of the archived table
+     * @param table The table layout
+     * @param rows The rows in ascending ID order; values must be Integer, Long or String per column type
+     * @param runId The ID of the archive run, or null to name the segment after its ID range only
+     * @return The path of the new segment
+     * @throws FileAlreadyExistsException if a segment with the same name exists
+     * @throws IOException if the segment cannot be written
+     * @throws IllegalArgumentException if there are no rows
+     */
+    public static Path write(Path directory, ArchiveTable table, List<Object[]> rows, String runId)
+            throws IOException {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("Cannot write an empty segment");
+        }
+        
+        Files.createDirectories(directory);
+        long minId = ((Number) rows.get(0)[0]).longValue();
+        long maxId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+        Path target = directory.resolve(getSegmentFileName(minId, maxId, runId));
+        Path temp = Files.createTempFile(directory, ".segment-", ".tmp");
+        
+        try {
+            int columnCount = table.getColumnCount();
+            long[] offsets = new long[columnCount];
+            int[] compressedLengths = new int[columnCount];
+            int[] uncompressedLengths = new int[columnCount];
+            
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.putInt(MAGIC).putShort(VERSION).flip();
+                writeFully(channel, header);
+                
+                for (int column = 0; column < columnCount; column++) {
+                    byte[] block = ArchiveColumnCodec.encode(table.getColumn(column).getType(), rows, column);
+                    byte[] compressed = ArchiveColumnCodec.compress(block);
+                    offsets[column] = channel.position();
+                    compressedLengths[column] = compressed.length;
+                    uncompressedLengths[column] = block.length;
+                    writeFully(channel, ByteBuffer.wrap(compressed));
+                }
+                
+                byte[] footer = buildFooter(table, rows, offsets, compressedLengths, uncompressedLengths).toBytes();
+                writeFully(channel, ByteBuffer.wrap(footer));
+                
+                ByteBuffer trailer = ByteBuffer.allocate(TRAILER_LENGTH);
+                trailer.putInt(footer.length).putInt(MAGIC).flip();
+                writeFully(channel, trailer);
+                
+                channel.force(true);
+            }
+            
+            publish(temp, target);
+            return target;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Get the file name of a segment. IDs are zero-padded so that lexical order
+     * matches ID order.
+     * 
+     * @param minId The smallest row ID in the segment
+     * @param maxId The largest row ID in the segment
+     * @return The file name
+     */
+    public static String getSegmentFileName(long minId, long maxId) {
+        return getSegmentFileName(minId, maxId, null);
+    }
+    
+    /**
+     * Get the file name of a segment written by an archive run.
+     * 
+     * @param minId The smallest row ID in the segment
+     * @param maxId The largest row ID in the segment
+     * @param runId The ID of the archive run, or null for none
+     * @return The file name
+     */
+    public static String getSegmentFileName(long minId, long maxId, String runId) {
+        return String.format("segment-%012d-%012d%s%s", minId, maxId, runId != null ? "-" + runId : "",
+                SEGMENT_SUFFIX);
+    }
+    
+    /**
+     * Give a complete segment its name. A hard link is created atomically and fails
+     * if the name is taken; file systems without hard links fall back to a move,
+     * which also refuses to replace the target.
+     */
+    private static void publish(Path temp, Path target) throws IOException {
+        try {
+            Files.createLink(target, temp);
+        } catch (FileAlreadyExistsException e) {
+            throw e;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.move(temp, target);
+        }
+    }
+    
+    private static ArchiveSegmentFooter buildFooter(ArchiveTable table, List<Object[]> rows,
+                                                    long[] offsets, int[] compressedLengths,
+                                                    int[] uncompressedLengths) {
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+        long minUserId = Long.MAX_VALUE;
+        long maxUserId = Long.MIN_VALUE;
+        boolean hasUserIds = false;
+        Set<String> eventTypes = new LinkedHashSet<>();
+        
+        if (table.getFixedEventType() != null) {
+            eventTypes.add(table.getFixedEventType());
+        }
+        
+        for (Object[] row : rows) {
+            long id = ((Number) row[0]).longValue();
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+            
+            Object timestamp = row[table.getTimestampIndex()];
+            if (timestamp != null) {
+                minTimestamp = Math.min(minTimestamp, ((Number) timestamp).longValue());
+                maxTimestamp = Math.max(maxTimestamp, ((Number) timestamp).longValue());
+            }
+            
+            Object userId = row[table.getUserIdIndex()];
+            if (userId != null) {
+                hasUserIds = true;
+                minUserId = Math.min(minUserId, ((Number) userId).longValue());
+                maxUserId = Math.max(maxUserId, ((Number) userId).longValue());
+            }
+            
+            if (table.getEventTypeIndex() >= 0 && row[table.getEventTypeIndex()] != null) {
+                eventTypes.add((String) row[table.getEventTypeIndex()]);
+            }
+        }
+        
+        return new ArchiveSegmentFooter(rows.size(), minId, maxId, minTimestamp, maxTimestamp,
+                hasUserIds, minUserId, maxUserId, eventTypes,
+                offsets, compressedLengths, uncompressedLengths);
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
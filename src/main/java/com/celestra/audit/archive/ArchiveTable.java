@@ -0,0 +1,119 @@
+package com.celestra.audit.archive;
+
+import com.celestra.audit.archive.ArchiveColumn.Type;
+
+/**
+ * Tables that can be moved to the cold-storage archive, with their column layout.
+ * The first column is always the row ID; change logs carry the user and event type
+ * of their parent audit log so that they can be filtered without a join.
+ */
+public enum ArchiveTable {
+    AUDIT_LOGS("audit_logs", "created_at", null,
+            new ArchiveColumn("id", Type.INT),
+            new ArchiveColumn("user_id", Type.INT),
+            new ArchiveColumn("event_type", Type.STRING),
+            new ArchiveColumn("event_description", Type.STRING),
+            new ArchiveColumn("ip_address", Type.STRING),
+            new ArchiveColumn("signed_by", Type.INT),
+            new ArchiveColumn("digital_signature", Type.STRING),
+            new ArchiveColumn("reason", Type.STRING),
+            new ArchiveColumn("table_name", Type.STRING),
+            new ArchiveColumn("record_id", Type.STRING),
+            new ArchiveColumn("group_id", Type.STRING),
+            new ArchiveColumn("created_at", Type.LONG)),
+    
+    AUDIT_CHANGE_LOGS("audit_change_logs", "created_at", null,
+            new ArchiveColumn("id", Type.INT),
+            new ArchiveColumn("audit_log_id", Type.INT),
+            new ArchiveColumn("user_id", Type.INT),
+            new ArchiveColumn("event_type", Type.STRING),
+            new ArchiveColumn("column_name", Type.STRING),
+            new ArchiveColumn("old_value", Type.STRING),
+            new ArchiveColumn("new_value", Type.STRING),
+            new ArchiveColumn("created_at", Type.LONG)),
+    
+    FAILED_LOGINS("failed_logins", "attempted_at", "FAILED_LOGIN",
+            new ArchiveColumn("id", Type.INT),
+            new ArchiveColumn("user_id", Type.INT),
+            new ArchiveColumn("email", Type.STRING),
+            new ArchiveColumn("ip_address", Type.STRING),
+            new ArchiveColumn("attempted_at", Type.LONG),
+            new ArchiveColumn("failure_reason", Type.STRING));
+    
+    private final String tableName;
+    private final ArchiveColumn[] columns;
+    private final int timestampIndex;
+    private final int userIdIndex;
+    private final int eventTypeIndex;
+    private final String fixedEventType;
+    
+    ArchiveTable(String tableName, String timestampColumn, String fixedEventType, ArchiveColumn... columns) {
+        this.tableName = tableName;
+        this.columns = columns;
+        this.fixedEventType = fixedEventType;
+        this.timestampIndex = indexOf(columns, timestampColumn);
+        this.userIdIndex = indexOf(columns, "user_id");
+        this.eventTypeIndex = indexOf(columns, "event_type");
+    }
+    
+    private static int indexOf(ArchiveColumn[] columns, String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].getName().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Get the name of the source table, also used as the archive sub-directory.
+     * 
+     * @return The table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+    
+    /**
+     * Get the column layout.
+     * 
+     * @return The columns, in storage order
+     */
+    public ArchiveColumn[] getColumns() {
+        return columns.clone();
+    }
+    
+    public int getColumnCount() {
+        return columns.length;
+    }
+    
+    public ArchiveColumn getColumn(int index) {
+        return columns[index];
+    }
+    
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+    
+    public int getUserIdIndex() {
+        return userIdIndex;
+    }
+    
+    /**
+     * Get the index of the event type column.
+     * 
+     * @return The column index, or -1 if every row has the {@link #getFixedEventType() fixed event type}
+     */
+    public int getEventTypeIndex() {
+        return eventTypeIndex;
+    }
+    
+    /**
+     * Get the event type implied by every row of a table without an event type column.
+     * 
+     * @return The event type, or null if the table has an event type column
+     */
+    public String getFixedEventType() {
+        return fixedEventType;
+    }
+}
@@ -0,0 +1,92 @@
+package com.celestra.audit.archive;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+import com.celestra.auth.config.AuthConfigurationManager;
+import com.celestra.util.ServletUtil;
+
+/**
+ * Context listener that periodically moves audit and login history older than
+ * the configured hot-retention window to the archive.
+ */
+@WebListener
+public class AuditArchiveContextListener implements ServletContextListener {
+    
+    private static final Logger LOGGER = Logger.getLogger(AuditArchiveContextListener.class.getName());
+    private static final long INTERVAL_HOURS = 6;
+    
+    private ScheduledExecutorService scheduler;
+    
+    /**
+     * Called when the web application is starting.
+     * Schedules the archiver at a fixed delay.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archive, INTERVAL_HOURS, INTERVAL_HOURS, TimeUnit.HOURS);
+        LOGGER.info("Audit archiver scheduled every " + INTERVAL_HOURS + " hours");
+    }
+    
+    /**
+     * Called when the web application is shutting down.
+     * Stops the archiver.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.info("Audit archiver stopped");
+        }
+    }
+    
+    /**
+     * Archive every table. Failures are logged so that the scheduled executor
+     * keeps running the task.
+     */
+    private void archive() {
+        int retentionDays = AuthConfigurationManager.getInstance().getAuditArchiveHotRetentionDays();
+        if (retentionDays <= 0) {
+            LOGGER.warning("Audit archiving skipped: hot retention must be at least one day, got " + retentionDays);
+            return;
+        }
+        AuditArchiveService archiveService = ServletUtil.getAuditArchiveService();
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays));
+        
+        try {
+            archiveService.archiveAuditLogs(cutoff);
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error archiving audit logs", e);
+        }
+        
+        try {
+            archiveService.archiveFailedLogins(cutoff);
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error archiving failed logins", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.celestra.audit.archive;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.celestra.model.FailedLogin;
+
+/**
+ * Service for the cold-storage tier of audit and login history.
+ * Aged rows are moved from the primary database into immutable, compressed,
+ * column-oriented segment files, one directory per table, and remain queryable
+ * through the scan methods.
+ */
+public interface AuditArchiveService {
+    
+    /**
+     * Move audit logs created before a cutoff, together with their change logs, to the archive.
+     * Rows are deleted from the primary only after their segments are durably written.
+     * 
+     * @param cutoff Audit logs created before this timestamp are archived
+     * @return The number of audit logs archived
+     * @throws SQLException if a database error occurs
+     * @throws IOException if a segment cannot be written
+     */
+    int archiveAuditLogs(Timestamp cutoff) throws SQLException, IOException;
+    
+    /**
+     * Move failed login attempts made before a cutoff to the archive.
+     * 
+     * @param cutoff Attempts made before this timestamp are archived
+     * @return The number of attempts archived
+     * @throws SQLException if a database error occurs
+     * @throws IOException if a segment cannot be written
+     */
+    int archiveFailedLogins(Timestamp cutoff) throws SQLException, IOException;
+    
+    /**
+     * Scan archived audit logs in ascending ID order.
+     * 
+     * @param query The predicates on created_at, user_id and event_type
+     * @param consumer Receives each matching audit log
+     * @return The number of matching audit logs
+     * @throws IOException if a segment cannot be read
+     */
+    long scanAuditLogs(ArchiveQuery query, Consumer<AuditLog> consumer) throws IOException;
+    
+    /**
+     * Scan archived change logs in ascending ID order. The user ID and event type
+     * predicates apply to the owning audit log.
+     * 
+     * @param query The predicates on created_at, user_id and event_type
+     * @param consumer Receives each matching change log
+     * @return The number of matching change logs
+     * @throws IOException if a segment cannot be read
+     */
+    long scanAuditChangeLogs(ArchiveQuery query, Consumer<AuditChangeLog> consumer) throws IOException;
+    
+    /**
+     * Scan archived failed login attempts in ascending ID order. Every attempt has
+     * the event type FAILED_LOGIN.
+     * 
+     * @param query The predicates on attempted_at, user_id and event_type
+     * @param consumer Receives each matching failed login attempt
+     * @return The number of matching attempts
+     * @throws IOException if a segment cannot be read
+     */
+    long scanFailedLogins(ArchiveQuery query, Consumer<FailedLogin> consumer) throws IOException;
+}
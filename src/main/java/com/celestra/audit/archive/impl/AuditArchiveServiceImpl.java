@@ -0,0 +1,364 @@
+package com.celestra.audit.archive.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.celestra.audit.archive.ArchiveQuery;
+import com.celestra.audit.archive.ArchiveSegmentFooter;
+import com.celestra.audit.archive.ArchiveSegmentReader;
+import com.celestra.audit.archive.ArchiveSegmentWriter;
+import com.celestra.audit.archive.ArchiveTable;
+import com.celestra.audit.archive.AuditArchiveService;
+import com.celestra.auth.config.AuthConfigurationManager;
+import com.celestra.dao.AuditArchiveDao;
+import com.celestra.dao.impl.AuditArchiveDaoImpl;
+import com.celestra.enums.AuditEventType;
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.celestra.model.FailedLogin;
+
+/**
+ * Implementation of the AuditArchiveService interface.
+ * Each batch of rows becomes one segment per table, named after its ID range and
+ * the run that wrote it. A run holds a database advisory lock, so nodes that share
+ * the archive directory never archive at the same time, and a run only ever
+ * removes segments it wrote itself.
+ */
+public class AuditArchiveServiceImpl implements AuditArchiveService {
+    
+    private static final Logger LOGGER = Logger.getLogger(AuditArchiveServiceImpl.class.getName());
+    
+    /**
+     * Default number of rows per segment
+     */
+    public static final int DEFAULT_BATCH_SIZE = 100000;
+    
+    /**
+     * Key of the advisory lock held by an archive run
+     */
+    public static final long ARCHIVE_LOCK_KEY = 0x43454C4152434856L;
+    
+    private final AuditArchiveDao auditArchiveDao;
+    private final Path archiveDirectory;
+    private final int batchSize;
+    
+    // Segments are immutable, so their footers can be cached for the life of the file
+    private final Map<Path, ArchiveSegmentFooter> footerCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Default constructor.
+     * Initializes the DAO with default implementation and the configured archive directory.
+     */
+    public AuditArchiveServiceImpl() {
+        this(new AuditArchiveDaoImpl(), Paths.get(AuthConfigurationManager.getInstance().getAuditArchiveDirectory()),
+                DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Parameterized constructor for dependency injection.
+     * 
+     * @param auditArchiveDao The AuditArchiveDao implementation to use
+     * @param archiveDirectory The root directory of the archive
+     * @param batchSize The maximum number of rows per segment
+     */
+    public AuditArchiveServiceImpl(AuditArchiveDao auditArchiveDao, Path archiveDirectory, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.auditArchiveDao = auditArchiveDao;
+        this.archiveDirectory = archiveDirectory;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public int archiveAuditLogs(Timestamp cutoff) throws SQLException, IOException {
+        validateCutoff(cutoff);
+        try (AuditArchiveDao.ArchiveLock lock = auditArchiveDao.tryLock(ARCHIVE_LOCK_KEY)) {
+            if (lock == null) {
+                LOGGER.info("Another node is archiving; skipping audit logs");
+                return 0;
+            }
+            return archiveAuditLogs(cutoff, UUID.randomUUID().toString());
+        }
+    }
+    
+    @Override
+    public int archiveFailedLogins(Timestamp cutoff) throws SQLException, IOException {
+        validateCutoff(cutoff);
+        try (AuditArchiveDao.ArchiveLock lock = auditArchiveDao.tryLock(ARCHIVE_LOCK_KEY)) {
+            if (lock == null) {
+                LOGGER.info("Another node is archiving; skipping failed logins");
+                return 0;
+            }
+            return archiveFailedLogins(cutoff, UUID.randomUUID().toString());
+        }
+    }
+    
+    private int archiveAuditLogs(Timestamp cutoff, String runId) throws SQLException, IOException {
+        int archived = 0;
+        
+        while (true) {
+            List<AuditLog> auditLogs = auditArchiveDao.findAuditLogsOlderThan(cutoff, batchSize);
+            if (auditLogs.isEmpty()) {
+                break;
+            }
+            
+            int fromId = auditLogs.get(0).getId();
+            int toId = auditLogs.get(auditLogs.size() - 1).getId();
+            List<AuditChangeLog> changeLogs = auditArchiveDao.findChangeLogsForAuditLogs(fromId, toId, cutoff);
+            
+            Map<Integer, AuditLog> auditLogsById = new HashMap<>();
+            List<Object[]> auditLogRows = new ArrayList<>(auditLogs.size());
+            for (AuditLog auditLog : auditLogs) {
+                auditLogsById.put(auditLog.getId(), auditLog);
+                auditLogRows.add(toRow(auditLog));
+            }
+            List<Object[]> changeLogRows = new ArrayList<>(changeLogs.size());
+            for (AuditChangeLog changeLog : changeLogs) {
+                changeLogRows.add(toRow(changeLog, auditLogsById.get(changeLog.getAuditLogId())));
+            }
+            
+            List<Path> segments = new ArrayList<>();
+            try {
+                if (!changeLogRows.isEmpty()) {
+                    segments.add(writeSegment(ArchiveTable.AUDIT_CHANGE_LOGS, changeLogRows, runId));
+                }
+                segments.add(writeSegment(ArchiveTable.AUDIT_LOGS, auditLogRows, runId));
+                
+                if (!auditArchiveDao.deleteArchivedAuditLogs(fromId, toId, cutoff,
+                        auditLogs.size(), changeLogs.size())) {
+                    LOGGER.warning("Audit logs " + fromId + "-" + toId + " changed while being archived; retrying later");
+                    deleteSegments(segments);
+                    break;
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                deleteSegments(segments);
+                throw e;
+            }
+            
+            archived += auditLogs.size();
+            LOGGER.info("Archived audit logs " + fromId + "-" + toId + " (" + auditLogs.size() + " rows, "
+                    + changeLogs.size() + " changes)");
+            
+            if (auditLogs.size() < batchSize) {
+                break;
+            }
+        }
+        
+        return archived;
+    }
+    
+    private int archiveFailedLogins(Timestamp cutoff, String runId) throws SQLException, IOException {
+        int archived = 0;
+        
+        while (true) {
+            List<FailedLogin> failedLogins = auditArchiveDao.findFailedLoginsOlderThan(cutoff, batchSize);
+            if (failedLogins.isEmpty()) {
+                break;
+            }
+            
+            int fromId = failedLogins.get(0).getId();
+            int toId = failedLogins.get(failedLogins.size() - 1).getId();
+            List<Object[]> rows = failedLogins.stream().map(this::toRow).collect(Collectors.toList());
+            
+            List<Path> segments = new ArrayList<>();
+            try {
+                segments.add(writeSegment(ArchiveTable.FAILED_LOGINS, rows, runId));
+                
+                if (!auditArchiveDao.deleteArchivedFailedLogins(fromId, toId, cutoff, failedLogins.size())) {
+                    LOGGER.warning("Failed logins " + fromId + "-" + toId + " changed while being archived; retrying later");
+                    deleteSegments(segments);
+                    break;
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                deleteSegments(segments);
+                throw e;
+            }
+            
+            archived += failedLogins.size();
+            LOGGER.info("Archived failed logins " + fromId + "-" + toId + " (" + failedLogins.size() + " rows)");
+            
+            if (failedLogins.size() < batchSize) {
+                break;
+            }
+        }
+        
+        return archived;
+    }
+    
+    @Override
+    public long scanAuditLogs(ArchiveQuery query, Consumer<AuditLog> consumer) throws IOException {
+        return scan(ArchiveTable.AUDIT_LOGS, query, row -> consumer.accept(toAuditLog(row)));
+    }
+    
+    @Override
+    public long scanAuditChangeLogs(ArchiveQuery query, Consumer<AuditChangeLog> consumer) throws IOException {
+        return scan(ArchiveTable.AUDIT_CHANGE_LOGS, query, row -> consumer.accept(toAuditChangeLog(row)));
+    }
+    
+    @Override
+    public long scanFailedLogins(ArchiveQuery query, Consumer<FailedLogin> consumer) throws IOException {
+        return scan(ArchiveTable.FAILED_LOGINS, query, row -> consumer.accept(toFailedLogin(row)));
+    }
+    
+    /**
+     * Scan every segment of a table whose footer may match the query.
+     */
+    private long scan(ArchiveTable table, ArchiveQuery query, Consumer<Object[]> consumer) throws IOException {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        
+        long matches = 0;
+        for (Path segment : listSegments(table)) {
+            ArchiveSegmentFooter footer = getFooter(segment);
+            if (footer.mayMatch(query)) {
+                matches += new ArchiveSegmentReader(segment, table, footer).scan(query, consumer);
+            }
+        }
+        return matches;
+    }
+    
+    private List<Path> listSegments(ArchiveTable table) throws IOException {
+        Path directory = archiveDirectory.resolve(table.getTableName());
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().endsWith(".seg"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private ArchiveSegmentFooter getFooter(Path segment) throws IOException {
+        ArchiveSegmentFooter footer = footerCache.get(segment);
+        if (footer == null) {
+            footer = ArchiveSegmentReader.readFooter(segment);
+            footerCache.put(segment, footer);
+        }
+        return footer;
+    }
+    
+    private Path writeSegment(ArchiveTable table, List<Object[]> rows, String runId) throws IOException {
+        Path segment = ArchiveSegmentWriter.write(archiveDirectory.resolve(table.getTableName()), table, rows,
+                runId);
+        footerCache.remove(segment);
+        return segment;
+    }
+    
+    private void deleteSegments(List<Path> segments) {
+        for (Path segment : segments) {
+            footerCache.remove(segment);
+            try {
+                Files.deleteIfExists(segment);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Could not remove orphaned archive segment " + segment, e);
+            }
+        }
+    }
+    
+    private void validateCutoff(Timestamp cutoff) {
+        if (cutoff == null) {
+            throw new IllegalArgumentException("Cutoff cannot be null");
+        }
+    }
+    
+    // Row conversion, in the column order of ArchiveTable
+    
+    private Object[] toRow(AuditLog auditLog) {
+        return new Object[] {
+                auditLog.getId(),
+                auditLog.getUserId(),
+                auditLog.getEventType() != null ? auditLog.getEventType().name() : null,
+                auditLog.getEventDescription(),
+                auditLog.getIpAddress(),
+                auditLog.getSignedBy(),
+                auditLog.getDigitalSignature(),
+                auditLog.getReason(),
+                auditLog.getTableName(),
+                auditLog.getRecordId(),
+                auditLog.getGroupId() != null ? auditLog.getGroupId().toString() : null,
+                toMillis(auditLog.getCreatedAt())
+        };
+    }
+    
+    private Object[] toRow(AuditChangeLog changeLog, AuditLog auditLog) {
+        return new Object[] {
+                changeLog.getId(),
+                changeLog.getAuditLogId(),
+                auditLog != null ? auditLog.getUserId() : null,
+                auditLog != null && auditLog.getEventType() != null ? auditLog.getEventType().name() : null,
+                changeLog.getColumnName(),
+                changeLog.getOldValue(),
+                changeLog.getNewValue(),
+                toMillis(changeLog.getCreatedAt())
+        };
+    }
+    
+    private Object[] toRow(FailedLogin failedLogin) {
+        return new Object[] {
+                failedLogin.getId(),
+                failedLogin.getUserId(),
+                failedLogin.getEmail(),
+                failedLogin.getIpAddress(),
+                toMillis(failedLogin.getAttemptedAt()),
+                failedLogin.getFailureReason()
+        };
+    }
+    
+    private AuditLog toAuditLog(Object[] row) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setId((Integer) row[0]);
+        auditLog.setUserId((Integer) row[1]);
+        if (row[2] != null) {
+            auditLog.setEventType(AuditEventType.valueOf((String) row[2]));
+        }
+        auditLog.setEventDescription((String) row[3]);
+        auditLog.setIpAddress((String) row[4]);
+        auditLog.setSignedBy((Integer) row[5]);
+        auditLog.setDigitalSignature((String) row[6]);
+        auditLog.setReason((String) row[7]);
+        auditLog.setTableName((String) row[8]);
+        auditLog.setRecordId((String) row[9]);
+        if (row[10] != null) {
+            auditLog.setGroupId(UUID.fromString((String) row[10]));
+        }
+        auditLog.setCreatedAt(toTimestamp(row[11]));
+        return auditLog;
+    }
+    
+    private AuditChangeLog toAuditChangeLog(Object[] row) {
+        return new AuditChangeLog((Integer) row[0], (Integer) row[1], (String) row[4],
+                (String) row[5], (String) row[6], toTimestamp(row[7]));
+    }
+    
+    private FailedLogin toFailedLogin(Object[] row) {
+        return new FailedLogin((Integer) row[0], (Integer) row[1], (String) row[2],
+                (String) row[3], toTimestamp(row[4]), (String) row[5]);
+    }
+    
+    private Long toMillis(Timestamp timestamp) {
+        return timestamp != null ? timestamp.getTime() : null;
+    }
+    
+    private Timestamp toTimestamp(Object millis) {
+        return millis != null ? new Timestamp((Long) millis) : null;
+    }
+}
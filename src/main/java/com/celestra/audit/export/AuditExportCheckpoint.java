@@ -0,0 +1,55 @@
+package com.celestra.audit.export;
+
+/**
+ * Resumable position within an audit export.
+ * A checkpoint is only emitted once every byte written before it has been flushed
+ * and, for compressed output, the current compressed member has been finished.
+ */
+public class AuditExportCheckpoint {
+    
+    private final int lastAuditLogId;
+    private final long recordsWritten;
+    private final long bytesWritten;
+    private final boolean complete;
+    
+    /**
+     * Create a new checkpoint.
+     * 
+     * @param lastAuditLogId The ID of the last audit log fully written
+     * @param recordsWritten The number of audit logs written so far
+     * @param bytesWritten The number of (compressed) bytes written so far
+     * @param complete Whether the export has finished
+     */
+    public AuditExportCheckpoint(int lastAuditLogId, long recordsWritten, long bytesWritten, boolean complete) {
+        this.lastAuditLogId = lastAuditLogId;
+        this.recordsWritten = recordsWritten;
+        this.bytesWritten = bytesWritten;
+        this.complete = complete;
+    }
+    
+    public int getLastAuditLogId() {
+        return lastAuditLogId;
+    }
+    
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+    
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    @Override
+    public String toString() {
+        return "AuditExportCheckpoint{" +
+                "lastAuditLogId=" + lastAuditLogId +
+                ", recordsWritten=" + recordsWritten +
+                ", bytesWritten=" + bytesWritten +
+                ", complete=" + complete +
+                '}';
+    }
+}
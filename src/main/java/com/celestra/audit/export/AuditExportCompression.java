@@ -0,0 +1,84 @@
+package com.celestra.audit.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression codecs supported by the audit export.
+ * Zstandard is not offered because it would require a native dependency; gzip
+ * output is readable by every archive and spreadsheet tool auditors use.
+ */
+public enum AuditExportCompression {
+    /**
+     * No compression
+     */
+    NONE(""),
+    
+    /**
+     * Gzip compression; each checkpoint segment is written as a separate gzip member
+     */
+    GZIP(".gz");
+    
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    
+    private final String fileExtension;
+    
+    AuditExportCompression(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+    
+    /**
+     * Get the file extension appended for this codec.
+     * 
+     * @return The file extension, including the leading dot, or an empty string
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+    
+    /**
+     * Open a new compressed member on top of the given stream.
+     * 
+     * @param out The raw output stream
+     * @return A stream that compresses into {@code out}
+     * @throws IOException If the compressor cannot be initialized
+     */
+    public OutputStream open(OutputStream out) throws IOException {
+        if (this == GZIP) {
+            return new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        }
+        return out;
+    }
+    
+    /**
+     * Finish the current compressed member without closing the raw stream.
+     * 
+     * @param compressed A stream previously returned by {@link #open(OutputStream)}
+     * @throws IOException If an I/O error occurs
+     */
+    public void finish(OutputStream compressed) throws IOException {
+        if (compressed instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) compressed).finish();
+        }
+        compressed.flush();
+    }
+    
+    /**
+     * Converts a string value to the corresponding enum value.
+     * 
+     * @param value The string representation of the enum
+     * @return The corresponding enum value, or null if no match is found
+     */
+    public static AuditExportCompression fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        try {
+            return AuditExportCompression.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.celestra.audit.export;
+
+/**
+ * Output formats supported by the audit export.
+ */
+public enum AuditExportFormat {
+    /**
+     * Newline-delimited JSON, one audit log per line with its changes nested
+     */
+    NDJSON("application/x-ndjson", ".ndjson"),
+    
+    /**
+     * Comma-separated values, one line per change (audit columns repeated)
+     */
+    CSV("text/csv", ".csv");
+    
+    private final String contentType;
+    private final String fileExtension;
+    
+    AuditExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+    
+    /**
+     * Get the MIME type of the uncompressed format.
+     * 
+     * @return The MIME type
+     */
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * Get the file extension of the uncompressed format.
+     * 
+     * @return The file extension, including the leading dot
+     */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+    
+    /**
+     * Converts a string value to the corresponding enum value.
+     * 
+     * @param value The string representation of the enum
+     * @return The corresponding enum value, or null if no match is found
+     */
+    public static AuditExportFormat fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        
+        try {
+            return AuditExportFormat.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
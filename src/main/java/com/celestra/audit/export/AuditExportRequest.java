@@ -0,0 +1,114 @@
+package com.celestra.audit.export;
+
+/**
+ * Parameters for an audit trail export.
+ */
+public class AuditExportRequest {
+    
+    /**
+     * Default number of audit logs written between checkpoints
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10000;
+    
+    private Integer companyId;
+    private String startDate;
+    private String endDate;
+    private AuditExportFormat format = AuditExportFormat.NDJSON;
+    private AuditExportCompression compression = AuditExportCompression.GZIP;
+    private int afterId;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    
+    /**
+     * Default constructor
+     */
+    public AuditExportRequest() {
+        // Default constructor
+    }
+    
+    /**
+     * Parameterized constructor with required fields
+     * 
+     * @param companyId The company to export, or null for all companies
+     * @param startDate The start date (inclusive) in ISO format (yyyy-MM-dd)
+     * @param endDate The end date (inclusive) in ISO format (yyyy-MM-dd)
+     */
+    public AuditExportRequest(Integer companyId, String startDate, String endDate) {
+        this.companyId = companyId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+    
+    // Getters and Setters
+    
+    public Integer getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(Integer companyId) {
+        this.companyId = companyId;
+    }
+    
+    public String getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(String startDate) {
+        this.startDate = startDate;
+    }
+    
+    public String getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(String endDate) {
+        this.endDate = endDate;
+    }
+    
+    public AuditExportFormat getFormat() {
+        return format;
+    }
+    
+    public void setFormat(AuditExportFormat format) {
+        this.format = format;
+    }
+    
+    public AuditExportCompression getCompression() {
+        return compression;
+    }
+    
+    public void setCompression(AuditExportCompression compression) {
+        this.compression = compression;
+    }
+    
+    /**
+     * Get the ID after which the export starts; used to resume from a checkpoint.
+     * 
+     * @return The last audit log ID already exported, or 0 to start from the beginning
+     */
+    public int getAfterId() {
+        return afterId;
+    }
+    
+    public void setAfterId(int afterId) {
+        this.afterId = afterId;
+    }
+    
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+    
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+    
+    /**
+     * Build the suggested file name for this export.
+     * 
+     * @return The file name including format and compression extensions
+     */
+    public String getFileName() {
+        String scope = companyId != null ? "company-" + companyId : "all";
+        return "audit-" + scope + "-" + startDate + "-" + endDate
+                + format.getFileExtension() + compression.getFileExtension();
+    }
+}
@@ -0,0 +1,58 @@
+package com.celestra.audit.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Service for streaming compliance extracts of the audit trail.
+ * Exports run in constant memory: rows are read from a database cursor and written
+ * straight to the destination stream, so a slow destination throttles the cursor.
+ */
+public interface AuditExportService {
+    
+    /**
+     * Callback notified each time the export reaches a durable, resumable position.
+     */
+    @FunctionalInterface
+    interface CheckpointListener {
+        /**
+         * Called after all output up to the checkpoint has been flushed.
+         * 
+         * @param checkpoint The checkpoint
+         * @throws IOException If the checkpoint cannot be recorded
+         */
+        void onCheckpoint(AuditExportCheckpoint checkpoint) throws IOException;
+    }
+    
+    /**
+     * Stream an export to an output stream, such as a servlet response.
+     * The stream is flushed but not closed. A header is only written when the export
+     * starts from the beginning ({@code afterId} is 0), so output of a resumed export
+     * can be appended to the output of the interrupted one.
+     * 
+     * @param request The export parameters
+     * @param out The destination stream
+     * @param listener Listener notified at each checkpoint (may be null)
+     * @return The final checkpoint
+     * @throws SQLException If a database error occurs
+     * @throws IOException If writing to the destination fails
+     */
+    AuditExportCheckpoint export(AuditExportRequest request, OutputStream out, CheckpointListener listener)
+            throws SQLException, IOException;
+    
+    /**
+     * Export to a file, resuming from the sidecar checkpoint file if a previous export
+     * to the same target was interrupted. Partial output written after the last
+     * checkpoint is truncated before resuming, and the checkpoint file is removed
+     * once the export completes.
+     * 
+     * @param request The export parameters; {@code afterId} is ignored when resuming
+     * @param target The destination file
+     * @return The final checkpoint
+     * @throws SQLException If a database error occurs
+     * @throws IOException If writing to the file fails
+     */
+    AuditExportCheckpoint exportToFile(AuditExportRequest request, Path target) throws SQLException, IOException;
+}
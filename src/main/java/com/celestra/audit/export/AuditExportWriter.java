@@ -0,0 +1,49 @@
+package com.celestra.audit.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+
+/**
+ * Serializes audit log records for an export format.
+ * Implementations are stateless and write straight to the supplied writer.
+ */
+public interface AuditExportWriter {
+    
+    /**
+     * Write the format header, if the format has one.
+     * 
+     * @param out The destination writer
+     * @throws IOException If an I/O error occurs
+     */
+    void writeHeader(Writer out) throws IOException;
+    
+    /**
+     * Write a single audit log and its change log entries.
+     * 
+     * @param out The destination writer
+     * @param auditLog The audit log
+     * @param changes The change log entries for the audit log (may be empty)
+     * @throws IOException If an I/O error occurs
+     */
+    void writeRecord(Writer out, AuditLog auditLog, List<AuditChangeLog> changes) throws IOException;
+    
+    /**
+     * Get the writer for an export format.
+     * 
+     * @param format The export format
+     * @return The writer for the format
+     */
+    static AuditExportWriter forFormat(AuditExportFormat format) {
+        switch (format) {
+            case CSV:
+                return new CsvAuditExportWriter();
+            case NDJSON:
+            default:
+                return new NdjsonAuditExportWriter();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.celestra.audit.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+
+/**
+ * Writes audit logs as RFC 4180 CSV. Each change log entry produces one line with
+ * the audit log columns repeated; audit logs without changes produce a single line
+ * with empty change columns.
+ */
+public class CsvAuditExportWriter implements AuditExportWriter {
+    
+    private static final String HEADER = 
+            "id,user_id,event_type,event_description,ip_address,signed_by,digital_signature,"
+            + "reason,table_name,record_id,group_id,created_at,"
+            + "change_id,column_name,old_value,new_value,change_created_at\r\n";
+    
+    @Override
+    public void writeHeader(Writer out) throws IOException {
+        out.write(HEADER);
+    }
+    
+    @Override
+    public void writeRecord(Writer out, AuditLog auditLog, List<AuditChangeLog> changes) throws IOException {
+        if (changes.isEmpty()) {
+            writeAuditColumns(out, auditLog);
+            out.write(",,,,\r\n");
+            return;
+        }
+        
+        for (AuditChangeLog change : changes) {
+            writeAuditColumns(out, auditLog);
+            out.write(',');
+            writeField(out, change.getId());
+            out.write(',');
+            writeField(out, change.getColumnName());
+            out.write(',');
+            writeField(out, change.getOldValue());
+            out.write(',');
+            writeField(out, change.getNewValue());
+            out.write(',');
+            writeField(out, NdjsonAuditExportWriter.formatTimestamp(change.getCreatedAt()));
+            out.write("\r\n");
+        }
+    }
+    
+    /**
+     * Write the audit log columns of a line, without a trailing separator.
+     */
+    private void writeAuditColumns(Writer out, AuditLog auditLog) throws IOException {
+        writeField(out, auditLog.getId());
+        out.write(',');
+        writeField(out, auditLog.getUserId());
+        out.write(',');
+        writeField(out, auditLog.getEventType() != null ? auditLog.getEventType().name() : null);
+        out.write(',');
+        writeField(out, auditLog.getEventDescription());
+        out.write(',');
+        writeField(out, auditLog.getIpAddress());
+        out.write(',');
+        writeField(out, auditLog.getSignedBy());
+        out.write(',');
+        writeField(out, auditLog.getDigitalSignature());
+        out.write(',');
+        writeField(out, auditLog.getReason());
+        out.write(',');
+        writeField(out, auditLog.getTableName());
+        out.write(',');
+        writeField(out, auditLog.getRecordId());
+        out.write(',');
+        writeField(out, auditLog.getGroupId() != null ? auditLog.getGroupId().toString() : null);
+        out.write(',');
+        writeField(out, NdjsonAuditExportWriter.formatTimestamp(auditLog.getCreatedAt()));
+    }
+    
+    private void writeField(Writer out, Integer value) throws IOException {
+        if (value != null) {
+            out.write(Integer.toString(value));
+        }
+    }
+    
+    /**
+     * Write a text field, quoting it only when it contains a separator, quote or line break.
+     */
+    private void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        
+        boolean needsQuoting = false;
+        for (int i = 0; i < value.length() && !needsQuoting; i++) {
+            char c = value.charAt(i);
+            needsQuoting = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        
+        if (!needsQuoting) {
+            out.write(value);
+            return;
+        }
+        
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
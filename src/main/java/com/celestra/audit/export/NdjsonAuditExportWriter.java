@@ -0,0 +1,69 @@
+package com.celestra.audit.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes audit logs as newline-delimited JSON, one object per audit log with its
+ * changes nested in a {@code changes} array.
+ */
+public class NdjsonAuditExportWriter implements AuditExportWriter {
+    
+    @Override
+    public void writeHeader(Writer out) {
+        // NDJSON has no header
+    }
+    
+    @Override
+    public void writeRecord(Writer out, AuditLog auditLog, List<AuditChangeLog> changes) throws IOException {
+        // JsonWriter does not buffer, and is deliberately neither flushed nor closed
+        // so the shared writer keeps batching output between checkpoints
+        JsonWriter json = new JsonWriter(out);
+        json.setSerializeNulls(true);
+        
+        json.beginObject();
+        json.name("id").value(auditLog.getId());
+        json.name("user_id").value(auditLog.getUserId());
+        json.name("event_type").value(auditLog.getEventType() != null ? auditLog.getEventType().name() : null);
+        json.name("event_description").value(auditLog.getEventDescription());
+        json.name("ip_address").value(auditLog.getIpAddress());
+        json.name("signed_by").value(auditLog.getSignedBy());
+        json.name("digital_signature").value(auditLog.getDigitalSignature());
+        json.name("reason").value(auditLog.getReason());
+        json.name("table_name").value(auditLog.getTableName());
+        json.name("record_id").value(auditLog.getRecordId());
+        json.name("group_id").value(auditLog.getGroupId() != null ? auditLog.getGroupId().toString() : null);
+        json.name("created_at").value(formatTimestamp(auditLog.getCreatedAt()));
+        
+        json.name("changes").beginArray();
+        for (AuditChangeLog change : changes) {
+            json.beginObject();
+            json.name("id").value(change.getId());
+            json.name("column_name").value(change.getColumnName());
+            json.name("old_value").value(change.getOldValue());
+            json.name("new_value").value(change.getNewValue());
+            json.name("created_at").value(formatTimestamp(change.getCreatedAt()));
+            json.endObject();
+        }
+        json.endArray();
+        
+        json.endObject();
+        out.write('\n');
+    }
+    
+    /**
+     * Format a timestamp as an ISO-8601 instant.
+     * 
+     * @param timestamp The timestamp (may be null)
+     * @return The formatted timestamp, or null
+     */
+    static String formatTimestamp(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().toString() : null;
+    }
+}
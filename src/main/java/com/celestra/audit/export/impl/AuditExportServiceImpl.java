@@ -0,0 +1,348 @@
+package com.celestra.audit.export.impl;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import com.celestra.audit.export.AuditExportCheckpoint;
+import com.celestra.audit.export.AuditExportCompression;
+import com.celestra.audit.export.AuditExportRequest;
+import com.celestra.audit.export.AuditExportService;
+import com.celestra.audit.export.AuditExportWriter;
+import com.celestra.dao.AuditExportDao;
+import com.celestra.dao.impl.AuditExportDaoImpl;
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+
+/**
+ * Implementation of the AuditExportService interface.
+ */
+public class AuditExportServiceImpl implements AuditExportService {
+    
+    private static final Logger LOGGER = Logger.getLogger(AuditExportServiceImpl.class.getName());
+    private static final int WRITER_BUFFER_SIZE = 64 * 1024;
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    
+    private final AuditExportDao auditExportDao;
+    
+    /**
+     * Default constructor.
+     * Initializes the DAO with default implementation.
+     */
+    public AuditExportServiceImpl() {
+        this(new AuditExportDaoImpl());
+    }
+    
+    /**
+     * Parameterized constructor for dependency injection.
+     * 
+     * @param auditExportDao The AuditExportDao implementation to use
+     */
+    public AuditExportServiceImpl(AuditExportDao auditExportDao) {
+        this.auditExportDao = auditExportDao;
+    }
+    
+    @Override
+    public AuditExportCheckpoint export(AuditExportRequest request, OutputStream out, CheckpointListener listener)
+            throws SQLException, IOException {
+        validateRequest(request);
+        AuditExportCheckpoint start = new AuditExportCheckpoint(request.getAfterId(), 0, 0, false);
+        return doExport(request, out, start, request.getAfterId() == 0, listener);
+    }
+    
+    @Override
+    public AuditExportCheckpoint exportToFile(AuditExportRequest request, Path target) 
+            throws SQLException, IOException {
+        validateRequest(request);
+        
+        Path checkpointFile = target.resolveSibling(target.getFileName() + CHECKPOINT_SUFFIX);
+        AuditExportCheckpoint resumeFrom = Files.exists(target) ? readCheckpoint(checkpointFile) : null;
+        
+        AuditExportCheckpoint start;
+        if (resumeFrom != null) {
+            LOGGER.info("Resuming audit export to " + target + " from " + resumeFrom);
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                channel.truncate(resumeFrom.getBytesWritten());
+            }
+            start = resumeFrom;
+        } else {
+            Files.deleteIfExists(checkpointFile);
+            start = new AuditExportCheckpoint(request.getAfterId(), 0, 0, false);
+        }
+        
+        AuditExportCheckpoint result;
+        try (FileOutputStream fileOut = new FileOutputStream(target.toFile(), resumeFrom != null)) {
+            result = doExport(request, fileOut, start, start.getBytesWritten() == 0, checkpoint -> {
+                // Data must be durable before the checkpoint that points past it
+                fileOut.getChannel().force(false);
+                writeCheckpoint(checkpointFile, checkpoint);
+            });
+        }
+        
+        Files.deleteIfExists(checkpointFile);
+        return result;
+    }
+    
+    /**
+     * Run the export from the given starting position.
+     * 
+     * @param request The export parameters
+     * @param out The raw destination stream
+     * @param start The position to resume from
+     * @param writeHeader Whether to write the format header
+     * @param listener Listener notified at each checkpoint (may be null)
+     * @return The final checkpoint
+     */
+    private AuditExportCheckpoint doExport(AuditExportRequest request, OutputStream out, 
+            AuditExportCheckpoint start, boolean writeHeader, CheckpointListener listener)
+            throws SQLException, IOException {
+        
+        ExportSession session = new ExportSession(request, out, start, listener);
+        if (writeHeader) {
+            session.formatWriter.writeHeader(session.writer);
+        }
+        
+        auditExportDao.streamAuditTrail(request.getCompanyId(), request.getStartDate(), request.getEndDate(),
+                start.getLastAuditLogId(), session);
+        
+        AuditExportCheckpoint result = session.checkpoint(true);
+        LOGGER.info("Audit export finished: " + result);
+        return result;
+    }
+    
+    /**
+     * Validate an export request.
+     * 
+     * @param request The export parameters
+     * @throws IllegalArgumentException If the request is incomplete
+     */
+    private void validateRequest(AuditExportRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Export request cannot be null");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Start date and end date are required");
+        }
+        if (request.getFormat() == null || request.getCompression() == null) {
+            throw new IllegalArgumentException("Export format and compression are required");
+        }
+        if (request.getCheckpointInterval() <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive");
+        }
+    }
+    
+    /**
+     * Read a checkpoint file.
+     * 
+     * @param checkpointFile The checkpoint file
+     * @return The checkpoint, or null if the file does not exist
+     */
+    private AuditExportCheckpoint readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            properties.load(in);
+        }
+        
+        return new AuditExportCheckpoint(
+                Integer.parseInt(properties.getProperty("lastAuditLogId", "0")),
+                Long.parseLong(properties.getProperty("recordsWritten", "0")),
+                Long.parseLong(properties.getProperty("bytesWritten", "0")),
+                false);
+    }
+    
+    /**
+     * Atomically replace a checkpoint file.
+     * 
+     * @param checkpointFile The checkpoint file
+     * @param checkpoint The checkpoint to record
+     */
+    private void writeCheckpoint(Path checkpointFile, AuditExportCheckpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("lastAuditLogId", Integer.toString(checkpoint.getLastAuditLogId()));
+        properties.setProperty("recordsWritten", Long.toString(checkpoint.getRecordsWritten()));
+        properties.setProperty("bytesWritten", Long.toString(checkpoint.getBytesWritten()));
+        
+        Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream tempOut = Files.newOutputStream(tempFile)) {
+            properties.store(tempOut, "Audit export checkpoint");
+        }
+        Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * State of a single running export. Receives rows from the DAO cursor and
+     * emits a checkpoint every {@code checkpointInterval} audit logs.
+     */
+    private static final class ExportSession implements AuditExportDao.AuditTrailHandler {
+        
+        private final AuditExportWriter formatWriter;
+        private final CountingOutputStream rawOut;
+        private final SegmentedOutputStream segmentedOut;
+        private final Writer writer;
+        private final CheckpointListener listener;
+        private final int checkpointInterval;
+        private final long baseBytes;
+        
+        private int lastAuditLogId;
+        private long recordsWritten;
+        private int sinceCheckpoint;
+        
+        ExportSession(AuditExportRequest request, OutputStream out, AuditExportCheckpoint start,
+                CheckpointListener listener) {
+            this.formatWriter = AuditExportWriter.forFormat(request.getFormat());
+            this.rawOut = new CountingOutputStream(out);
+            this.segmentedOut = new SegmentedOutputStream(rawOut, request.getCompression());
+            this.writer = new BufferedWriter(new OutputStreamWriter(segmentedOut, StandardCharsets.UTF_8), 
+                    WRITER_BUFFER_SIZE);
+            this.listener = listener;
+            this.checkpointInterval = request.getCheckpointInterval();
+            this.baseBytes = start.getBytesWritten();
+            this.lastAuditLogId = start.getLastAuditLogId();
+            this.recordsWritten = start.getRecordsWritten();
+        }
+        
+        @Override
+        public void handle(AuditLog auditLog, List<AuditChangeLog> changes) throws IOException {
+            formatWriter.writeRecord(writer, auditLog, changes);
+            lastAuditLogId = auditLog.getId();
+            recordsWritten++;
+            
+            if (++sinceCheckpoint >= checkpointInterval) {
+                checkpoint(false);
+            }
+        }
+        
+        /**
+         * Flush everything written so far, close the current compressed segment and
+         * notify the listener.
+         */
+        AuditExportCheckpoint checkpoint(boolean complete) throws IOException {
+            writer.flush();
+            if (complete && baseBytes + rawOut.getCount() == 0) {
+                // An empty extract must still be a well-formed compressed file
+                segmentedOut.startSegment();
+            }
+            segmentedOut.endSegment();
+            sinceCheckpoint = 0;
+            
+            AuditExportCheckpoint checkpoint = new AuditExportCheckpoint(
+                    lastAuditLogId, recordsWritten, baseBytes + rawOut.getCount(), complete);
+            if (listener != null) {
+                listener.onCheckpoint(checkpoint);
+            }
+            return checkpoint;
+        }
+    }
+    
+    /**
+     * Output stream that counts the bytes passed to the underlying stream.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        
+        private long count;
+        
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            // The caller owns the underlying stream
+            flush();
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+    
+    /**
+     * Output stream that compresses into independent members, one per checkpoint
+     * segment. Concatenated gzip members form a valid gzip file, so a file truncated
+     * at a segment boundary can be appended to when an export resumes.
+     */
+    private static final class SegmentedOutputStream extends OutputStream {
+        
+        private final OutputStream rawOut;
+        private final AuditExportCompression compression;
+        private OutputStream segment;
+        
+        SegmentedOutputStream(OutputStream rawOut, AuditExportCompression compression) {
+            this.rawOut = rawOut;
+            this.compression = compression;
+        }
+        
+        /**
+         * Start a new segment if none is open.
+         */
+        void startSegment() throws IOException {
+            segment();
+        }
+        
+        private OutputStream segment() throws IOException {
+            if (segment == null) {
+                segment = compression.open(rawOut);
+            }
+            return segment;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            segment().write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            segment().write(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            if (segment != null) {
+                segment.flush();
+            }
+        }
+        
+        /**
+         * Finish the current segment; the next write starts a new one.
+         */
+        void endSegment() throws IOException {
+            if (segment != null) {
+                compression.finish(segment);
+                segment = null;
+            }
+            rawOut.flush();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.celestra.audit.rollup;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.model.SecurityEventRollup;
+
+/**
+ * Service for security dashboard queries.
+ * All methods read the pre-aggregated hourly rollups, so their cost grows with the
+ * number of buckets in the requested range rather than the number of events.
+ */
+public interface SecurityDashboardService {
+    
+    /**
+     * Get successful logins per hour.
+     * 
+     * @param companyId The company ID, or null for all companies
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return Hourly buckets of SUCCESSFUL_LOGIN events
+     * @throws SQLException if a database error occurs
+     */
+    List<SecurityEventRollup> getLoginsPerHour(Integer companyId, Timestamp from, Timestamp to) throws SQLException;
+    
+    /**
+     * Get failed login attempts per company, largest first.
+     * 
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return Failed login attempt counts keyed by company ID (0 for unknown users)
+     * @throws SQLException if a database error occurs
+     */
+    Map<Integer, Long> getFailedLoginsPerCompany(Timestamp from, Timestamp to) throws SQLException;
+    
+    /**
+     * Get account lockouts per day.
+     * 
+     * @param companyId The company ID, or null for all companies
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return Daily buckets of account lockouts
+     * @throws SQLException if a database error occurs
+     */
+    List<SecurityEventRollup> getLockoutsPerDay(Integer companyId, Timestamp from, Timestamp to) throws SQLException;
+    
+    /**
+     * Get session starts and ends per hour.
+     * 
+     * @param companyId The company ID, or null for all companies
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return Hourly buckets of SESSION_STARTED and SESSION_ENDED events
+     * @throws SQLException if a database error occurs
+     */
+    List<SecurityEventRollup> getSessionActivityPerHour(Integer companyId, Timestamp from, Timestamp to) 
+            throws SQLException;
+    
+    /**
+     * Get event totals by event type.
+     * 
+     * @param companyId The company ID, or null for all companies
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return Event counts keyed by event type
+     * @throws SQLException if a database error occurs
+     */
+    Map<String, Long> getEventCountsByType(Integer companyId, Timestamp from, Timestamp to) throws SQLException;
+}
@@ -0,0 +1,92 @@
+package com.celestra.audit.rollup;
+
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.celestra.dao.SecurityEventRollupDao;
+import com.celestra.dao.impl.SecurityEventRollupDaoImpl;
+import com.celestra.enums.SecurityRollupSource;
+
+/**
+ * Background task that folds new security events into the hourly rollups.
+ * Each run drains every source table in batches until it has caught up with the
+ * rows older than the configured lag.
+ */
+public class SecurityRollupAggregator implements Runnable {
+    
+    private static final Logger LOGGER = Logger.getLogger(SecurityRollupAggregator.class.getName());
+    
+    /**
+     * Default number of source rows aggregated per transaction
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50000;
+    
+    /**
+     * Default minimum age in seconds of rows to aggregate
+     */
+    public static final int DEFAULT_LAG_SECONDS = 30;
+    
+    private final SecurityEventRollupDao rollupDao;
+    private final int batchSize;
+    private final int lagSeconds;
+    
+    /**
+     * Default constructor.
+     * Initializes the DAO with default implementation.
+     */
+    public SecurityRollupAggregator() {
+        this(new SecurityEventRollupDaoImpl(), DEFAULT_BATCH_SIZE, DEFAULT_LAG_SECONDS);
+    }
+    
+    /**
+     * Parameterized constructor for dependency injection.
+     * 
+     * @param rollupDao The SecurityEventRollupDao implementation to use
+     * @param batchSize The number of source rows aggregated per transaction
+     * @param lagSeconds The minimum age in seconds of rows to aggregate
+     */
+    public SecurityRollupAggregator(SecurityEventRollupDao rollupDao, int batchSize, int lagSeconds) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.rollupDao = rollupDao;
+        this.batchSize = batchSize;
+        this.lagSeconds = lagSeconds;
+    }
+    
+    /**
+     * Aggregate all pending rows of every source. Failures are logged so that a
+     * scheduled executor keeps running the task.
+     */
+    @Override
+    public void run() {
+        for (SecurityRollupSource source : SecurityRollupSource.values()) {
+            try {
+                long aggregated = aggregate(source);
+                if (aggregated > 0) {
+                    LOGGER.fine("Rolled up " + aggregated + " rows from " + source.getTableName());
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error rolling up " + source.getTableName(), e);
+            }
+        }
+    }
+    
+    /**
+     * Aggregate all pending rows of one source.
+     * 
+     * @param source The source table
+     * @return The number of rows aggregated
+     * @throws SQLException if a database error occurs
+     */
+    public long aggregate(SecurityRollupSource source) throws SQLException {
+        long total = 0;
+        int aggregated;
+        do {
+            aggregated = rollupDao.rollUp(source, batchSize, lagSeconds);
+            total += aggregated;
+        } while (aggregated == batchSize && !Thread.currentThread().isInterrupted());
+        return total;
+    }
+}
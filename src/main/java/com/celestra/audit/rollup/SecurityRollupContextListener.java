@@ -0,0 +1,61 @@
+package com.celestra.audit.rollup;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Context listener that schedules the security rollup aggregator.
+ * Starts the aggregator when the application starts and stops it when the
+ * application stops.
+ */
+@WebListener
+public class SecurityRollupContextListener implements ServletContextListener {
+    
+    private static final Logger LOGGER = Logger.getLogger(SecurityRollupContextListener.class.getName());
+    private static final long INTERVAL_SECONDS = 60;
+    
+    private ScheduledExecutorService scheduler;
+    
+    /**
+     * Called when the web application is starting.
+     * Schedules the aggregator at a fixed delay.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "security-rollup-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(new SecurityRollupAggregator(), 
+                INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+        LOGGER.info("Security rollup aggregator scheduled every " + INTERVAL_SECONDS + " seconds");
+    }
+    
+    /**
+     * Called when the web application is shutting down.
+     * Stops the aggregator.
+     * 
+     * @param sce the servlet context event
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.info("Security rollup aggregator stopped");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.celestra.audit.rollup.impl;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.audit.rollup.SecurityDashboardService;
+import com.celestra.dao.SecurityEventRollupDao;
+import com.celestra.dao.impl.SecurityEventRollupDaoImpl;
+import com.celestra.enums.AuditEventType;
+import com.celestra.enums.SecurityRollupSource;
+import com.celestra.model.SecurityEventRollup;
+
+/**
+ * Implementation of the SecurityDashboardService interface.
+ */
+public class SecurityDashboardServiceImpl implements SecurityDashboardService {
+    
+    private final SecurityEventRollupDao rollupDao;
+    
+    /**
+     * Default constructor.
+     * Initializes the DAO with default implementation.
+     */
+    public SecurityDashboardServiceImpl() {
+        this(new SecurityEventRollupDaoImpl());
+    }
+    
+    /**
+     * Parameterized constructor for dependency injection.
+     * 
+     * @param rollupDao The SecurityEventRollupDao implementation to use
+     */
+    public SecurityDashboardServiceImpl(SecurityEventRollupDao rollupDao) {
+        this.rollupDao = rollupDao;
+    }
+    
+    @Override
+    public List<SecurityEventRollup> getLoginsPerHour(Integer companyId, Timestamp from, Timestamp to) 
+            throws SQLException {
+        validateRange(from, to);
+        return rollupDao.findHourlyBuckets(companyId, List.of(AuditEventType.SUCCESSFUL_LOGIN.name()), from, to);
+    }
+    
+    @Override
+    public Map<Integer, Long> getFailedLoginsPerCompany(Timestamp from, Timestamp to) throws SQLException {
+        validateRange(from, to);
+        return rollupDao.sumByCompany(SecurityRollupSource.FAILED_LOGIN_ATTEMPT, from, to);
+    }
+    
+    @Override
+    public List<SecurityEventRollup> getLockoutsPerDay(Integer companyId, Timestamp from, Timestamp to) 
+            throws SQLException {
+        validateRange(from, to);
+        return rollupDao.findDailyBuckets(companyId, List.of(SecurityRollupSource.ACCOUNT_LOCKOUT), from, to);
+    }
+    
+    @Override
+    public List<SecurityEventRollup> getSessionActivityPerHour(Integer companyId, Timestamp from, Timestamp to) 
+            throws SQLException {
+        validateRange(from, to);
+        return rollupDao.findHourlyBuckets(companyId, 
+                List.of(AuditEventType.SESSION_STARTED.name(), AuditEventType.SESSION_ENDED.name()), from, to);
+    }
+    
+    @Override
+    public Map<String, Long> getEventCountsByType(Integer companyId, Timestamp from, Timestamp to) 
+            throws SQLException {
+        validateRange(from, to);
+        return rollupDao.sumByEventType(companyId, from, to);
+    }
+    
+    /**
+     * Validate a query range.
+     * 
+     * @param from The start of the range
+     * @param to The end of the range
+     * @throws IllegalArgumentException If the range is missing or inverted
+     */
+    private void validateRange(Timestamp from, Timestamp to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Range start and end are required");
+        }
+        if (!from.before(to)) {
+            throw new IllegalArgumentException("Range start must be before range end");
+        }
+    }
+}
@@ -64,4 +64,8 @@ public interface AuthConfigProvider {
     boolean isAuditLogProfileChangesEnabled();
     boolean isAuditLogRoleChangesEnabled();
     boolean isAuditLogStatusChangesEnabled();
+    
+    // Audit Archive Settings
+    String getAuditArchiveDirectory();
+    int getAuditArchiveHotRetentionDays();
 }
\ No newline at end of file
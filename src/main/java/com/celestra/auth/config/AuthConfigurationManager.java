@@ -338,4 +338,16 @@ public class AuthConfigurationManager implements AuthConfigProvider {
     public boolean isAuditLogStatusChangesEnabled() {
         return getBooleanProperty("auth.audit.log_status_changes", true);
     }
+    
+    // Audit Archive Settings
+    
+    @Override
+    public String getAuditArchiveDirectory() {
+        return getProperty("auth.audit.archive.directory", "/var/lib/celestra/archive");
+    }
+    
+    @Override
+    public int getAuditArchiveHotRetentionDays() {
+        return getIntProperty("auth.audit.archive.hot_retention_days", 365);
+    }
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import com.celestra.ai.telemetry.TelemetryContext;
 import com.celestra.auth.service.LoginService;
 import com.celestra.auth.service.impl.LoginServiceImpl;
 import com.celestra.model.User;
@@ -36,7 +37,7 @@ import com.celestra.util.ServletUtil;
  * - Redirects to login when needed
  * - Provides security context to application components
  */
-@WebFilter(urlPatterns = "/*")
+@WebFilter(urlPatterns = "/*", asyncSupported = true)
 public class SecurityFilter implements Filter {
     
     private static final Logger LOGGER = Logger.getLogger(SecurityFilter.class.getName());
@@ -145,8 +146,13 @@ public class SecurityFilter implements Filter {
             return;
         }
         
-        // All checks passed, continue with the request
-        chain.doFilter(request, response);
+        // All checks passed, continue with the request; AI calls made for it count against the user's company
+        TelemetryContext.Scope scope = TelemetryContext.of(user.getCompanyId(), null).open();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
     }
     
     @Override
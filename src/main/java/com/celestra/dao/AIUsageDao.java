@@ -0,0 +1,34 @@
+package com.celestra.dao;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.celestra.model.AIUsageBucket;
+
+/**
+ * Data Access Object (DAO) interface for the AI usage table.
+ * Usage is only ever added to: each call to {@link #addUsage} increments the
+ * stored buckets by the given counts, so counts flushed by several nodes add up.
+ */
+public interface AIUsageDao {
+    
+    /**
+     * Add counts to their hour buckets in one batch, creating the buckets as needed.
+     * 
+     * @param buckets The counts to add
+     * @throws SQLException if a database access error occurs; no bucket is changed
+     */
+    void addUsage(List<AIUsageBucket> buckets) throws SQLException;
+    
+    /**
+     * Find the hour buckets of a company.
+     * 
+     * @param companyId The company ID (0 for calls made for no company)
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The buckets ordered by bucket start and agent
+     * @throws SQLException if a database access error occurs
+     */
+    List<AIUsageBucket> findByCompany(Integer companyId, Timestamp from, Timestamp to) throws SQLException;
+}
@@ -0,0 +1,29 @@
+package com.celestra.dao;
+
+import com.celestra.enums.AgentStatus;
+
+/**
+ * Listener notified by the agent DAO after a change to an agent has been stored,
+ * so that in-memory state derived from the agent can follow it.
+ */
+@FunctionalInterface
+public interface AgentChangeListener {
+    
+    /**
+     * Called after the status of an agent has been stored.
+     * 
+     * @param agentId The ID of the agent
+     * @param status The new status, or null if the agent was deleted
+     */
+    void statusChanged(Integer agentId, AgentStatus status);
+    
+    /**
+     * Called after the protocol of an agent has been stored.
+     * 
+     * @param agentId The ID of the agent
+     * @param agentProtocol The new protocol
+     */
+    default void protocolChanged(Integer agentId, String agentProtocol) {
+        // Most listeners only follow the status
+    }
+}
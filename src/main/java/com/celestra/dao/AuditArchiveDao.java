@@ -0,0 +1,100 @@
+package com.celestra.dao;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.celestra.model.FailedLogin;
+
+/**
+ * Data Access Object (DAO) interface for moving aged audit and login history
+ * out of the primary database. Rows are read in ascending ID batches and deleted
+ * only after they have been written to the archive.
+ */
+public interface AuditArchiveDao {
+    
+    /**
+     * Lock held by a database session, e.g. so that only one node archives at a time.
+     */
+    interface ArchiveLock extends AutoCloseable {
+        
+        /**
+         * Release the lock.
+         * 
+         * @throws SQLException if a database access error occurs
+         */
+        @Override
+        void close() throws SQLException;
+    }
+    
+    /**
+     * Take a cluster-wide lock without waiting for it. The lock is held by a
+     * database session of its own until it is closed, or until that session ends.
+     * 
+     * @param key The key of the lock
+     * @return The lock, or null if another session holds it
+     * @throws SQLException if a database access error occurs
+     */
+    ArchiveLock tryLock(long key) throws SQLException;
+    
+    /**
+     * Find the oldest audit logs created before a cutoff.
+     * 
+     * @param cutoff Only audit logs created before this timestamp are returned
+     * @param limit The maximum number of audit logs to return
+     * @return The audit logs in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    List<AuditLog> findAuditLogsOlderThan(Timestamp cutoff, int limit) throws SQLException;
+    
+    /**
+     * Find the change logs of the audit logs in an ID range that were created before a cutoff.
+     * 
+     * @param fromId The smallest audit log ID (inclusive)
+     * @param toId The largest audit log ID (inclusive)
+     * @param cutoff The cutoff used to select the audit logs
+     * @return The change logs in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    List<AuditChangeLog> findChangeLogsForAuditLogs(int fromId, int toId, Timestamp cutoff) throws SQLException;
+    
+    /**
+     * Find the oldest failed login attempts made before a cutoff.
+     * 
+     * @param cutoff Only attempts made before this timestamp are returned
+     * @param limit The maximum number of attempts to return
+     * @return The failed login attempts in ascending ID order
+     * @throws SQLException if a database access error occurs
+     */
+    List<FailedLogin> findFailedLoginsOlderThan(Timestamp cutoff, int limit) throws SQLException;
+    
+    /**
+     * Delete archived audit logs and their change logs in one transaction. Nothing is
+     * deleted unless the number of deleted rows equals the number of archived rows.
+     * 
+     * @param fromId The smallest audit log ID (inclusive)
+     * @param toId The largest audit log ID (inclusive)
+     * @param cutoff The cutoff used to select the audit logs
+     * @param expectedAuditLogs The number of audit logs written to the archive
+     * @param expectedChangeLogs The number of change logs written to the archive
+     * @return true if the rows were deleted, false if the counts did not match and the transaction was rolled back
+     * @throws SQLException if a database access error occurs
+     */
+    boolean deleteArchivedAuditLogs(int fromId, int toId, Timestamp cutoff,
+                                    int expectedAuditLogs, int expectedChangeLogs) throws SQLException;
+    
+    /**
+     * Delete archived failed login attempts. Nothing is deleted unless the number of
+     * deleted rows equals the number of archived rows.
+     * 
+     * @param fromId The smallest failed login ID (inclusive)
+     * @param toId The largest failed login ID (inclusive)
+     * @param cutoff The cutoff used to select the attempts
+     * @param expected The number of attempts written to the archive
+     * @return true if the rows were deleted, false if the count did not match and the transaction was rolled back
+     * @throws SQLException if a database access error occurs
+     */
+    boolean deleteArchivedFailedLogins(int fromId, int toId, Timestamp cutoff, int expected) throws SQLException;
+}
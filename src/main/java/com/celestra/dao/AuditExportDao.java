@@ -0,0 +1,48 @@
+package com.celestra.dao;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+
+/**
+ * Data Access Object (DAO) interface for streaming audit trail extracts.
+ * Unlike {@link AuditLogDao}, results are never materialized as a list: rows are
+ * read from a server-side cursor and handed to a callback one audit log at a time.
+ */
+public interface AuditExportDao {
+
+    /**
+     * Callback that receives one audit log together with its change log entries.
+     */
+    @FunctionalInterface
+    interface AuditTrailHandler {
+        /**
+         * Handle a single audit log record.
+         *
+         * @param auditLog The audit log
+         * @param changes The change log entries for the audit log, ordered by ID (may be empty)
+         * @throws IOException if the record cannot be written downstream
+         */
+        void handle(AuditLog auditLog, List<AuditChangeLog> changes) throws IOException;
+    }
+
+    /**
+     * Stream audit logs joined with their change logs in ascending ID order.
+     * The handler is invoked synchronously from the cursor loop, so a slow consumer
+     * slows down fetching instead of buffering rows in memory.
+     *
+     * @param companyId The company whose users' audit logs should be exported, or null for all companies
+     * @param startDate The start date (inclusive) in ISO format (yyyy-MM-dd)
+     * @param endDate The end date (inclusive) in ISO format (yyyy-MM-dd)
+     * @param afterId Only audit logs with an ID greater than this value are returned (0 to start from the beginning)
+     * @param handler The callback that receives each audit log
+     * @return The number of audit logs streamed
+     * @throws SQLException if a database access error occurs
+     * @throws IOException if the handler fails to write a record
+     */
+    long streamAuditTrail(Integer companyId, String startDate, String endDate, int afterId,
+                          AuditTrailHandler handler) throws SQLException, IOException;
+}
@@ -0,0 +1,64 @@
+package com.celestra.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import com.celestra.model.ConversationSession;
+import com.celestra.model.ConversationTurn;
+
+/**
+ * Data Access Object (DAO) interface for agent conversation sessions and their turns.
+ * Turns are append-only; the rolling summary of a session only moves forward, so a
+ * session is restored from its summary and the turns after it.
+ */
+public interface ConversationDao {
+    
+    /**
+     * Find a session, creating it if it does not exist.
+     * 
+     * @param agentId The ID of the agent the conversation is held with
+     * @param sessionKey The caller-defined key of the session
+     * @return The session
+     * @throws SQLException if a database access error occurs
+     */
+    ConversationSession findOrCreateSession(Integer agentId, String sessionKey) throws SQLException;
+    
+    /**
+     * Find the turns of a session after a turn index.
+     * 
+     * @param sessionId The session ID
+     * @param afterTurnIndex The index of the last turn to skip
+     * @return The turns ordered by turn index
+     * @throws SQLException if a database access error occurs
+     */
+    List<ConversationTurn> findTurnsAfter(Integer sessionId, int afterTurnIndex) throws SQLException;
+    
+    /**
+     * Append a turn to a session.
+     * 
+     * @param turn The turn to append
+     * @return The turn with its generated ID
+     * @throws SQLException if a database access error occurs, including a turn index that is already taken
+     */
+    ConversationTurn appendTurn(ConversationTurn turn) throws SQLException;
+    
+    /**
+     * Replace the summary of a session, unless a summary of later turns is already stored.
+     * 
+     * @param sessionId The session ID
+     * @param summary The new summary
+     * @param summarizedThrough The index of the last turn folded into the summary
+     * @return true if the summary was stored, false if the stored one is newer
+     * @throws SQLException if a database access error occurs
+     */
+    boolean updateSummary(Integer sessionId, String summary, int summarizedThrough) throws SQLException;
+    
+    /**
+     * Delete a session and its turns.
+     * 
+     * @param sessionId The session ID
+     * @return true if the session was deleted, false otherwise
+     * @throws SQLException if a database access error occurs
+     */
+    boolean deleteSession(Integer sessionId) throws SQLException;
+}
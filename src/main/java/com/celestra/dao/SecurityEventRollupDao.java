@@ -0,0 +1,88 @@
+package com.celestra.dao;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.enums.SecurityRollupSource;
+import com.celestra.model.SecurityEventRollup;
+
+/**
+ * Data Access Object (DAO) interface for the security event rollup tables.
+ * Rollups are maintained incrementally: each call to {@link #rollUp} counts the
+ * source rows above the stored watermark and advances it in the same transaction,
+ * so every source row is counted exactly once.
+ */
+public interface SecurityEventRollupDao {
+    
+    /**
+     * Aggregate the next batch of source rows into the hourly rollups.
+     * Rows newer than {@code lagSeconds} are left for a later run so that rows whose
+     * IDs were allocated before, but committed after, the batch are not skipped.
+     * 
+     * @param source The source table to aggregate
+     * @param batchSize The maximum number of source rows to aggregate
+     * @param lagSeconds The minimum age in seconds of rows to aggregate
+     * @return The number of source rows aggregated
+     * @throws SQLException if a database access error occurs
+     */
+    int rollUp(SecurityRollupSource source, int batchSize, int lagSeconds) throws SQLException;
+    
+    /**
+     * Get the watermark of a source table.
+     * 
+     * @param source The source table
+     * @return The highest source row ID already aggregated, or 0 if none
+     * @throws SQLException if a database access error occurs
+     */
+    int getWatermark(SecurityRollupSource source) throws SQLException;
+    
+    /**
+     * Find hourly buckets for the given event types.
+     * 
+     * @param companyId The company ID, or null to sum across all companies
+     * @param eventTypes The event types to include
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The buckets ordered by bucket start and event type
+     * @throws SQLException if a database access error occurs
+     */
+    List<SecurityEventRollup> findHourlyBuckets(Integer companyId, List<String> eventTypes, 
+                                                Timestamp from, Timestamp to) throws SQLException;
+    
+    /**
+     * Find daily buckets for the given event types, summed from the hourly buckets.
+     * 
+     * @param companyId The company ID, or null to sum across all companies
+     * @param eventTypes The event types to include
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The buckets ordered by day and event type
+     * @throws SQLException if a database access error occurs
+     */
+    List<SecurityEventRollup> findDailyBuckets(Integer companyId, List<String> eventTypes, 
+                                               Timestamp from, Timestamp to) throws SQLException;
+    
+    /**
+     * Sum an event type per company.
+     * 
+     * @param eventType The event type
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The event counts keyed by company ID
+     * @throws SQLException if a database access error occurs
+     */
+    Map<Integer, Long> sumByCompany(String eventType, Timestamp from, Timestamp to) throws SQLException;
+    
+    /**
+     * Sum all event types for a company.
+     * 
+     * @param companyId The company ID, or null to sum across all companies
+     * @param from The start of the range (inclusive)
+     * @param to The end of the range (exclusive)
+     * @return The event counts keyed by event type
+     * @throws SQLException if a database access error occurs
+     */
+    Map<String, Long> sumByEventType(Integer companyId, Timestamp from, Timestamp to) throws SQLException;
+}
@@ -0,0 +1,107 @@
+package com.celestra.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.celestra.dao.AIUsageDao;
+import com.celestra.db.DatabaseUtil;
+import com.celestra.db.TransactionUtil;
+import com.celestra.model.AIUsageBucket;
+
+/**
+ * Implementation of the AIUsageDao interface.
+ */
+public class AIUsageDaoImpl implements AIUsageDao {
+
+    private static final String TABLE_NAME = "ai_usage_buckets";
+    private static final String BUCKET_START_COLUMN = "bucket_start";
+    private static final String COMPANY_ID_COLUMN = "company_id";
+    private static final String AGENT_ID_COLUMN = "agent_id";
+    private static final String REQUEST_COUNT_COLUMN = "request_count";
+    private static final String INPUT_TOKENS_COLUMN = "input_tokens";
+    private static final String OUTPUT_TOKENS_COLUMN = "output_tokens";
+    private static final String REJECTED_COUNT_COLUMN = "rejected_count";
+
+    private static final String ADD_USAGE_SQL =
+            "INSERT INTO " + TABLE_NAME + " (" + BUCKET_START_COLUMN + ", " + COMPANY_ID_COLUMN + ", " +
+            AGENT_ID_COLUMN + ", " + REQUEST_COUNT_COLUMN + ", " + INPUT_TOKENS_COLUMN + ", " +
+            OUTPUT_TOKENS_COLUMN + ", " + REJECTED_COUNT_COLUMN + ") VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (" + BUCKET_START_COLUMN + ", " + COMPANY_ID_COLUMN + ", " + AGENT_ID_COLUMN + ") " +
+            "DO UPDATE SET " +
+            REQUEST_COUNT_COLUMN + " = " + TABLE_NAME + "." + REQUEST_COUNT_COLUMN + " + EXCLUDED." + REQUEST_COUNT_COLUMN + ", " +
+            INPUT_TOKENS_COLUMN + " = " + TABLE_NAME + "." + INPUT_TOKENS_COLUMN + " + EXCLUDED." + INPUT_TOKENS_COLUMN + ", " +
+            OUTPUT_TOKENS_COLUMN + " = " + TABLE_NAME + "." + OUTPUT_TOKENS_COLUMN + " + EXCLUDED." + OUTPUT_TOKENS_COLUMN + ", " +
+            REJECTED_COUNT_COLUMN + " = " + TABLE_NAME + "." + REJECTED_COUNT_COLUMN + " + EXCLUDED." + REJECTED_COUNT_COLUMN + ", " +
+            "updated_at = now()";
+
+    private static final String FIND_BY_COMPANY_SQL =
+            "SELECT * FROM " + TABLE_NAME + " WHERE " + COMPANY_ID_COLUMN + " = ? " +
+            "AND " + BUCKET_START_COLUMN + " >= ? AND " + BUCKET_START_COLUMN + " < ? " +
+            "ORDER BY " + BUCKET_START_COLUMN + ", " + AGENT_ID_COLUMN;
+
+    @Override
+    public void addUsage(List<AIUsageBucket> buckets) throws SQLException {
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        Connection conn = DatabaseUtil.getConnection();
+        try {
+            TransactionUtil.beginTransaction(conn);
+
+            try (PreparedStatement ps = conn.prepareStatement(ADD_USAGE_SQL)) {
+                for (AIUsageBucket bucket : buckets) {
+                    ps.setTimestamp(1, bucket.getBucketStart());
+                    ps.setInt(2, bucket.getCompanyId() != null ? bucket.getCompanyId() : 0);
+                    ps.setInt(3, bucket.getAgentId() != null ? bucket.getAgentId() : 0);
+                    ps.setLong(4, bucket.getRequestCount());
+                    ps.setLong(5, bucket.getInputTokens());
+                    ps.setLong(6, bucket.getOutputTokens());
+                    ps.setLong(7, bucket.getRejectedCount());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+
+            TransactionUtil.commitTransaction(conn);
+        } catch (SQLException | RuntimeException e) {
+            TransactionUtil.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    @Override
+    public List<AIUsageBucket> findByCompany(Integer companyId, Timestamp from, Timestamp to) throws SQLException {
+        List<AIUsageBucket> buckets = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_COMPANY_SQL)) {
+
+            ps.setInt(1, companyId != null ? companyId : 0);
+            ps.setTimestamp(2, from);
+            ps.setTimestamp(3, to);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    buckets.add(new AIUsageBucket(
+                            rs.getTimestamp(BUCKET_START_COLUMN),
+                            rs.getInt(COMPANY_ID_COLUMN),
+                            rs.getInt(AGENT_ID_COLUMN),
+                            rs.getLong(REQUEST_COUNT_COLUMN),
+                            rs.getLong(INPUT_TOKENS_COLUMN),
+                            rs.getLong(OUTPUT_TOKENS_COLUMN),
+                            rs.getLong(REJECTED_COUNT_COLUMN)));
+                }
+            }
+        }
+
+        return buckets;
+    }
+}
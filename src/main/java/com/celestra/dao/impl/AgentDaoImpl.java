@@ -7,8 +7,13 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import com.celestra.dao.AbstractBaseDao;
+import com.celestra.dao.AgentChangeListener;
 import com.celestra.dao.AgentDao;
 import com.celestra.dao.EnumConverter;
 import com.celestra.db.DatabaseUtil;
@@ -17,9 +22,15 @@ import com.celestra.model.Agent;
 
 /**
  * Implementation of the AgentDao interface.
+ * Registered {@link AgentChangeListener}s are notified after every stored status
+ * or protocol change, whichever instance of the DAO made it.
  */
 public class AgentDaoImpl extends AbstractBaseDao<Agent, Integer> implements AgentDao {
     
+    private static final Logger LOGGER = Logger.getLogger(AgentDaoImpl.class.getName());
+    
+    private static final List<AgentChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+    
     private static final String TABLE_NAME = "agents";
     private static final String ID_COLUMN = "id";
     private static final String COMPANY_ID_COLUMN = "company_id";
@@ -178,9 +189,20 @@ public class AgentDaoImpl extends AbstractBaseDao<Agent, Integer> implements Age
             if (affectedRows == 0) {
                 throw new SQLException("Updating agent failed, no rows affected.");
             }
-            
-            return agent;
         }
+        
+        fireStatusChanged(agent.getId(), agent.getStatus());
+        fireProtocolChanged(agent.getId(), agent.getAgentProtocol());
+        return agent;
+    }
+    
+    @Override
+    public boolean delete(Integer id) throws SQLException {
+        boolean deleted = super.delete(id);
+        if (deleted) {
+            fireStatusChanged(id, null);
+        }
+        return deleted;
     }
     
     @Override
@@ -214,20 +236,28 @@ public class AgentDaoImpl extends AbstractBaseDao<Agent, Integer> implements Age
     
     @Override
     public boolean updateStatus(Integer id, AgentStatus status) throws SQLException {
-        return executeUpdate(UPDATE_STATUS_SQL, ps -> {
+        boolean updated = executeUpdate(UPDATE_STATUS_SQL, ps -> {
             EnumConverter.setEnumAsString(ps, 1, status);
             ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
             ps.setInt(3, id);
         }) > 0;
+        if (updated) {
+            fireStatusChanged(id, status);
+        }
+        return updated;
     }
     
     @Override
     public boolean updateAgentProtocol(Integer id, String agentProtocol) throws SQLException {
-        return executeUpdate(UPDATE_AGENT_PROTOCOL_SQL, ps -> {
+        boolean updated = executeUpdate(UPDATE_AGENT_PROTOCOL_SQL, ps -> {
             ps.setString(1, agentProtocol);
             ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
             ps.setInt(3, id);
         }) > 0;
+        if (updated) {
+            fireProtocolChanged(id, agentProtocol);
+        }
+        return updated;
     }
     
     @Override
@@ -236,4 +266,47 @@ public class AgentDaoImpl extends AbstractBaseDao<Agent, Integer> implements Age
             ps.setString(1, companyName)
         );
     }
-}
\ No newline at end of file
+    
+    /**
+     * Register a listener for changes to agents.
+     * 
+     * @param listener The listener
+     */
+    public static void addChangeListener(AgentChangeListener listener) {
+        LISTENERS.add(listener);
+    }
+    
+    /**
+     * Remove a listener registered with {@link #addChangeListener}.
+     * 
+     * @param listener The listener
+     */
+    public static void removeChangeListener(AgentChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+    
+    /**
+     * Notify the listeners of a stored status change. A failing listener is
+     * logged and does not undo the change or keep the others from being notified.
+     */
+    private void fireStatusChanged(Integer id, AgentStatus status) {
+        fire(listener -> listener.statusChanged(id, status), "status change of agent " + id);
+    }
+    
+    /**
+     * Notify the listeners of a stored protocol change.
+     */
+    private void fireProtocolChanged(Integer id, String agentProtocol) {
+        fire(listener -> listener.protocolChanged(id, agentProtocol), "protocol change of agent " + id);
+    }
+    
+    private void fire(Consumer<AgentChangeListener> event, String description) {
+        for (AgentChangeListener listener : LISTENERS) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Agent listener failed for " + description, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.celestra.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.celestra.dao.AuditArchiveDao;
+import com.celestra.dao.EnumConverter;
+import com.celestra.db.DatabaseUtil;
+import com.celestra.db.TransactionUtil;
+import com.celestra.enums.AuditEventType;
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.celestra.model.FailedLogin;
+
+/**
+ * Implementation of the AuditArchiveDao interface.
+ */
+public class AuditArchiveDaoImpl implements AuditArchiveDao {
+    
+    private static final String FIND_AUDIT_LOGS_SQL =
+            "SELECT id, user_id, event_type, event_description, ip_address, signed_by, digital_signature, " +
+            "reason, table_name, record_id, group_id, created_at " +
+            "FROM audit_logs WHERE created_at < ? ORDER BY id LIMIT ?";
+    
+    private static final String AUDIT_LOG_RANGE =
+            "SELECT id FROM audit_logs WHERE id BETWEEN ? AND ? AND created_at < ?";
+    
+    private static final String FIND_CHANGE_LOGS_SQL =
+            "SELECT id, audit_log_id, column_name, old_value, new_value, created_at " +
+            "FROM audit_change_logs WHERE audit_log_id IN (" + AUDIT_LOG_RANGE + ") ORDER BY id";
+    
+    private static final String FIND_FAILED_LOGINS_SQL =
+            "SELECT id, user_id, email, ip_address, attempted_at, failure_reason " +
+            "FROM failed_logins WHERE attempted_at < ? ORDER BY id LIMIT ?";
+    
+    private static final String DELETE_CHANGE_LOGS_SQL =
+            "DELETE FROM audit_change_logs WHERE audit_log_id IN (" + AUDIT_LOG_RANGE + ")";
+    
+    private static final String DELETE_AUDIT_LOGS_SQL =
+            "DELETE FROM audit_logs WHERE id BETWEEN ? AND ? AND created_at < ?";
+    
+    private static final String DELETE_FAILED_LOGINS_SQL =
+            "DELETE FROM failed_logins WHERE id BETWEEN ? AND ? AND attempted_at < ?";
+    
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+    
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+    
+    @Override
+    public ArchiveLock tryLock(long key) throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        try {
+            boolean locked;
+            try (PreparedStatement ps = conn.prepareStatement(TRY_LOCK_SQL)) {
+                ps.setLong(1, key);
+                try (ResultSet rs = ps.executeQuery()) {
+                    locked = rs.next() && rs.getBoolean(1);
+                }
+            }
+            if (!locked) {
+                DatabaseUtil.closeConnection(conn);
+                return null;
+            }
+        } catch (SQLException | RuntimeException e) {
+            DatabaseUtil.closeConnection(conn);
+            throw e;
+        }
+        
+        // Advisory locks belong to the session, so the connection is held until the lock is released
+        return () -> {
+            try (PreparedStatement ps = conn.prepareStatement(UNLOCK_SQL)) {
+                ps.setLong(1, key);
+                ps.execute();
+            } finally {
+                DatabaseUtil.closeConnection(conn);
+            }
+        };
+    }
+    
+    @Override
+    public List<AuditLog> findAuditLogsOlderThan(Timestamp cutoff, int limit) throws SQLException {
+        List<AuditLog> auditLogs = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_AUDIT_LOGS_SQL)) {
+            
+            ps.setTimestamp(1, cutoff);
+            ps.setInt(2, limit);
+            
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    auditLogs.add(mapAuditLog(rs));
+                }
+            }
+        }
+        
+        return auditLogs;
+    }
+    
+    @Override
+    public List<AuditChangeLog> findChangeLogsForAuditLogs(int fromId, int toId, Timestamp cutoff) throws SQLException {
+        List<AuditChangeLog> changeLogs = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_CHANGE_LOGS_SQL)) {
+            
+            ps.setInt(1, fromId);
+            ps.setInt(2, toId);
+            ps.setTimestamp(3, cutoff);
+            
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    AuditChangeLog changeLog = new AuditChangeLog();
+                    changeLog.setId(rs.getInt("id"));
+                    changeLog.setAuditLogId(rs.getInt("audit_log_id"));
+                    changeLog.setColumnName(rs.getString("column_name"));
+                    changeLog.setOldValue(rs.getString("old_value"));
+                    changeLog.setNewValue(rs.getString("new_value"));
+                    changeLog.setCreatedAt(rs.getTimestamp("created_at"));
+                    changeLogs.add(changeLog);
+                }
+            }
+        }
+        
+        return changeLogs;
+    }
+    
+    @Override
+    public List<FailedLogin> findFailedLoginsOlderThan(Timestamp cutoff, int limit) throws SQLException {
+        List<FailedLogin> failedLogins = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_FAILED_LOGINS_SQL)) {
+            
+            ps.setTimestamp(1, cutoff);
+            ps.setInt(2, limit);
+            
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Integer userId = rs.getInt("user_id");
+                    if (rs.wasNull()) {
+                        userId = null;
+                    }
+                    failedLogins.add(new FailedLogin(
+                            rs.getInt("id"),
+                            userId,
+                            rs.getString("email"),
+                            rs.getString("ip_address"),
+                            rs.getTimestamp("attempted_at"),
+                            rs.getString("failure_reason")));
+                }
+            }
+        }
+        
+        return failedLogins;
+    }
+    
+    @Override
+    public boolean deleteArchivedAuditLogs(int fromId, int toId, Timestamp cutoff,
+                                           int expectedAuditLogs, int expectedChangeLogs) throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        try {
+            TransactionUtil.beginTransaction(conn);
+            
+            int deletedChangeLogs;
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_CHANGE_LOGS_SQL)) {
+                ps.setInt(1, fromId);
+                ps.setInt(2, toId);
+                ps.setTimestamp(3, cutoff);
+                deletedChangeLogs = ps.executeUpdate();
+            }
+            
+            int deletedAuditLogs;
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_AUDIT_LOGS_SQL)) {
+                ps.setInt(1, fromId);
+                ps.setInt(2, toId);
+                ps.setTimestamp(3, cutoff);
+                deletedAuditLogs = ps.executeUpdate();
+            }
+            
+            // Rows written since the batch was read must stay in the primary
+            if (deletedAuditLogs != expectedAuditLogs || deletedChangeLogs != expectedChangeLogs) {
+                TransactionUtil.rollbackTransaction(conn);
+                return false;
+            }
+            
+            TransactionUtil.commitTransaction(conn);
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            TransactionUtil.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+    
+    @Override
+    public boolean deleteArchivedFailedLogins(int fromId, int toId, Timestamp cutoff, int expected) throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        try {
+            TransactionUtil.beginTransaction(conn);
+            
+            int deleted;
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_FAILED_LOGINS_SQL)) {
+                ps.setInt(1, fromId);
+                ps.setInt(2, toId);
+                ps.setTimestamp(3, cutoff);
+                deleted = ps.executeUpdate();
+            }
+            
+            if (deleted != expected) {
+                TransactionUtil.rollbackTransaction(conn);
+                return false;
+            }
+            
+            TransactionUtil.commitTransaction(conn);
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            TransactionUtil.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+    
+    /**
+     * Map a ResultSet row to an AuditLog object.
+     * 
+     * @param rs The ResultSet
+     * @return The AuditLog object
+     * @throws SQLException if a database access error occurs
+     */
+    private AuditLog mapAuditLog(ResultSet rs) throws SQLException {
+        AuditLog auditLog = new AuditLog();
+        
+        auditLog.setId(rs.getInt("id"));
+        
+        int userId = rs.getInt("user_id");
+        if (!rs.wasNull()) {
+            auditLog.setUserId(userId);
+        }
+        
+        EnumConverter.getEnumFromString(rs, "event_type", AuditEventType.class)
+                .ifPresent(auditLog::setEventType);
+        
+        auditLog.setEventDescription(rs.getString("event_description"));
+        auditLog.setIpAddress(rs.getString("ip_address"));
+        
+        int signedBy = rs.getInt("signed_by");
+        if (!rs.wasNull()) {
+            auditLog.setSignedBy(signedBy);
+        }
+        
+        auditLog.setDigitalSignature(rs.getString("digital_signature"));
+        auditLog.setReason(rs.getString("reason"));
+        auditLog.setTableName(rs.getString("table_name"));
+        auditLog.setRecordId(rs.getString("record_id"));
+        
+        String groupIdStr = rs.getString("group_id");
+        if (groupIdStr != null) {
+            auditLog.setGroupId(UUID.fromString(groupIdStr));
+        }
+        
+        auditLog.setCreatedAt(rs.getTimestamp("created_at"));
+        
+        return auditLog;
+    }
+}
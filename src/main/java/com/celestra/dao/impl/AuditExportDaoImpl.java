@@ -0,0 +1,200 @@
+package com.celestra.dao.impl;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.celestra.dao.AuditExportDao;
+import com.celestra.dao.EnumConverter;
+import com.celestra.db.DatabaseUtil;
+import com.celestra.db.TransactionUtil;
+import com.celestra.enums.AuditEventType;
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+
+/**
+ * Implementation of the AuditExportDao interface.
+ * Uses a PostgreSQL server-side cursor (auto-commit off plus a fetch size) so that
+ * only one fetch batch is held in memory regardless of the size of the extract.
+ */
+public class AuditExportDaoImpl implements AuditExportDao {
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private static final String SELECT_COLUMNS =
+            "SELECT al.id, al.user_id, al.event_type, al.event_description, al.ip_address, " +
+            "al.signed_by, al.digital_signature, al.reason, al.table_name, al.record_id, " +
+            "al.group_id, al.created_at, " +
+            "acl.id AS change_id, acl.column_name, acl.old_value, acl.new_value, " +
+            "acl.created_at AS change_created_at ";
+
+    private static final String STREAM_SQL =
+            SELECT_COLUMNS +
+            "FROM audit_logs al " +
+            "LEFT JOIN audit_change_logs acl ON acl.audit_log_id = al.id " +
+            "WHERE al.created_at >= ?::timestamp AND al.created_at <= ?::timestamp AND al.id > ? " +
+            "ORDER BY al.id, acl.id";
+
+    private static final String STREAM_BY_COMPANY_SQL =
+            SELECT_COLUMNS +
+            "FROM audit_logs al " +
+            "JOIN users u ON u.id = al.user_id " +
+            "LEFT JOIN audit_change_logs acl ON acl.audit_log_id = al.id " +
+            "WHERE al.created_at >= ?::timestamp AND al.created_at <= ?::timestamp AND al.id > ? " +
+            "AND u.company_id = ? " +
+            "ORDER BY al.id, acl.id";
+
+    // Long exports must not be killed by the pool-wide statement timeout
+    private static final String DISABLE_STATEMENT_TIMEOUT_SQL = "SET LOCAL statement_timeout = 0";
+
+    private final int fetchSize;
+
+    /**
+     * Default constructor.
+     */
+    public AuditExportDaoImpl() {
+        this(DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Constructor with a custom cursor fetch size.
+     *
+     * @param fetchSize The number of rows fetched from the server per round trip
+     */
+    public AuditExportDaoImpl(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long streamAuditTrail(Integer companyId, String startDate, String endDate, int afterId,
+                                 AuditTrailHandler handler) throws SQLException, IOException {
+        String sql = companyId != null ? STREAM_BY_COMPANY_SQL : STREAM_SQL;
+
+        Connection conn = DatabaseUtil.getConnection();
+        try {
+            // PostgreSQL only honours the fetch size inside a transaction
+            TransactionUtil.beginTransaction(conn);
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(DISABLE_STATEMENT_TIMEOUT_SQL);
+            }
+
+            long count = 0;
+            try (PreparedStatement ps = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                ps.setQueryTimeout(0);
+                ps.setString(1, startDate + " 00:00:00");
+                ps.setString(2, endDate + " 23:59:59");
+                ps.setInt(3, afterId);
+                if (companyId != null) {
+                    ps.setInt(4, companyId);
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    AuditLog current = null;
+                    List<AuditChangeLog> changes = new ArrayList<>();
+
+                    while (rs.next()) {
+                        int id = rs.getInt("id");
+                        if (current == null || current.getId() != id) {
+                            if (current != null) {
+                                handler.handle(current, changes);
+                                count++;
+                                changes = new ArrayList<>();
+                            }
+                            current = mapAuditLog(rs);
+                        }
+
+                        int changeId = rs.getInt("change_id");
+                        if (!rs.wasNull()) {
+                            changes.add(mapChangeLog(rs, changeId, id));
+                        }
+                    }
+
+                    if (current != null) {
+                        handler.handle(current, changes);
+                        count++;
+                    }
+                }
+            }
+
+            TransactionUtil.commitTransaction(conn);
+            return count;
+        } catch (SQLException | IOException | RuntimeException e) {
+            TransactionUtil.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Map the audit log columns of the current row.
+     *
+     * @param rs The ResultSet positioned on the row
+     * @return The audit log
+     * @throws SQLException if a database access error occurs
+     */
+    private AuditLog mapAuditLog(ResultSet rs) throws SQLException {
+        AuditLog auditLog = new AuditLog();
+
+        auditLog.setId(rs.getInt("id"));
+
+        int userId = rs.getInt("user_id");
+        if (!rs.wasNull()) {
+            auditLog.setUserId(userId);
+        }
+
+        EnumConverter.getEnumFromString(rs, "event_type", AuditEventType.class)
+                .ifPresent(auditLog::setEventType);
+
+        auditLog.setEventDescription(rs.getString("event_description"));
+        auditLog.setIpAddress(rs.getString("ip_address"));
+
+        int signedBy = rs.getInt("signed_by");
+        if (!rs.wasNull()) {
+            auditLog.setSignedBy(signedBy);
+        }
+
+        auditLog.setDigitalSignature(rs.getString("digital_signature"));
+        auditLog.setReason(rs.getString("reason"));
+        auditLog.setTableName(rs.getString("table_name"));
+        auditLog.setRecordId(rs.getString("record_id"));
+
+        String groupIdStr = rs.getString("group_id");
+        if (groupIdStr != null) {
+            auditLog.setGroupId(UUID.fromString(groupIdStr));
+        }
+
+        auditLog.setCreatedAt(rs.getTimestamp("created_at"));
+
+        return auditLog;
+    }
+
+    /**
+     * Map the change log columns of the current row.
+     *
+     * @param rs The ResultSet positioned on the row
+     * @param changeId The change log ID already read from the row
+     * @param auditLogId The ID of the owning audit log
+     * @return The change log
+     * @throws SQLException if a database access error occurs
+     */
+    private AuditChangeLog mapChangeLog(ResultSet rs, int changeId, int auditLogId) throws SQLException {
+        AuditChangeLog changeLog = new AuditChangeLog();
+        changeLog.setId(changeId);
+        changeLog.setAuditLogId(auditLogId);
+        changeLog.setColumnName(rs.getString("column_name"));
+        changeLog.setOldValue(rs.getString("old_value"));
+        changeLog.setNewValue(rs.getString("new_value"));
+        changeLog.setCreatedAt(rs.getTimestamp("change_created_at"));
+        return changeLog;
+    }
+}
@@ -0,0 +1,160 @@
+package com.celestra.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.celestra.dao.ConversationDao;
+import com.celestra.db.DatabaseUtil;
+import com.celestra.model.ConversationSession;
+import com.celestra.model.ConversationTurn;
+
+/**
+ * Implementation of the ConversationDao interface.
+ */
+public class ConversationDaoImpl implements ConversationDao {
+
+    private static final String SESSION_TABLE_NAME = "conversation_sessions";
+    private static final String TURN_TABLE_NAME = "conversation_turns";
+
+    private static final String INSERT_SESSION_SQL =
+            "INSERT INTO " + SESSION_TABLE_NAME + " (agent_id, session_key) VALUES (?, ?) " +
+            "ON CONFLICT (agent_id, session_key) DO NOTHING";
+
+    private static final String FIND_SESSION_SQL =
+            "SELECT * FROM " + SESSION_TABLE_NAME + " WHERE agent_id = ? AND session_key = ?";
+
+    private static final String FIND_TURNS_AFTER_SQL =
+            "SELECT * FROM " + TURN_TABLE_NAME + " WHERE session_id = ? AND turn_index > ? ORDER BY turn_index";
+
+    private static final String INSERT_TURN_SQL =
+            "INSERT INTO " + TURN_TABLE_NAME + " (session_id, turn_index, role, content, token_count) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    // Compactions of the same session may finish out of order; the later one wins
+    private static final String UPDATE_SUMMARY_SQL =
+            "UPDATE " + SESSION_TABLE_NAME + " SET summary = ?, summarized_through = ?, updated_at = now() " +
+            "WHERE id = ? AND summarized_through < ?";
+
+    private static final String DELETE_SESSION_SQL =
+            "DELETE FROM " + SESSION_TABLE_NAME + " WHERE id = ?";
+
+    @Override
+    public ConversationSession findOrCreateSession(Integer agentId, String sessionKey) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection()) {
+
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_SESSION_SQL)) {
+                ps.setInt(1, agentId);
+                ps.setString(2, sessionKey);
+                ps.executeUpdate();
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(FIND_SESSION_SQL)) {
+                ps.setInt(1, agentId);
+                ps.setString(2, sessionKey);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("Conversation session " + sessionKey + " of agent " + agentId
+                                + " was deleted while it was created");
+                    }
+                    return mapSession(rs);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<ConversationTurn> findTurnsAfter(Integer sessionId, int afterTurnIndex) throws SQLException {
+        List<ConversationTurn> turns = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_TURNS_AFTER_SQL)) {
+
+            ps.setInt(1, sessionId);
+            ps.setInt(2, afterTurnIndex);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    turns.add(mapTurn(rs));
+                }
+            }
+        }
+
+        return turns;
+    }
+
+    @Override
+    public ConversationTurn appendTurn(ConversationTurn turn) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(INSERT_TURN_SQL, Statement.RETURN_GENERATED_KEYS)) {
+
+            ps.setInt(1, turn.getSessionId());
+            ps.setInt(2, turn.getTurnIndex());
+            ps.setString(3, turn.getRole());
+            ps.setString(4, turn.getContent());
+            ps.setInt(5, turn.getTokenCount());
+            ps.executeUpdate();
+
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                if (rs.next()) {
+                    turn.setId(rs.getInt(1));
+                }
+            }
+        }
+
+        return turn;
+    }
+
+    @Override
+    public boolean updateSummary(Integer sessionId, String summary, int summarizedThrough) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(UPDATE_SUMMARY_SQL)) {
+
+            ps.setString(1, summary);
+            ps.setInt(2, summarizedThrough);
+            ps.setInt(3, sessionId);
+            ps.setInt(4, summarizedThrough);
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean deleteSession(Integer sessionId) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(DELETE_SESSION_SQL)) {
+
+            ps.setInt(1, sessionId);
+
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    private ConversationSession mapSession(ResultSet rs) throws SQLException {
+        return new ConversationSession(
+                rs.getInt("id"),
+                rs.getInt("agent_id"),
+                rs.getString("session_key"),
+                rs.getString("summary"),
+                rs.getInt("summarized_through"),
+                rs.getTimestamp("created_at"),
+                rs.getTimestamp("updated_at"));
+    }
+
+    private ConversationTurn mapTurn(ResultSet rs) throws SQLException {
+        ConversationTurn turn = new ConversationTurn(
+                rs.getInt("session_id"),
+                rs.getInt("turn_index"),
+                rs.getString("role"),
+                rs.getString("content"),
+                rs.getInt("token_count"));
+        turn.setId(rs.getInt("id"));
+        turn.setCreatedAt(rs.getTimestamp("created_at"));
+        return turn;
+    }
+}
@@ -0,0 +1,275 @@
+package com.celestra.dao.impl;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.celestra.dao.SecurityEventRollupDao;
+import com.celestra.db.DatabaseUtil;
+import com.celestra.db.TransactionUtil;
+import com.celestra.enums.SecurityRollupSource;
+import com.celestra.model.SecurityEventRollup;
+
+/**
+ * Implementation of the SecurityEventRollupDao interface.
+ */
+public class SecurityEventRollupDaoImpl implements SecurityEventRollupDao {
+
+    private static final String TABLE_NAME = "security_event_rollups";
+    private static final String WATERMARK_TABLE_NAME = "rollup_watermarks";
+    private static final String BUCKET_START_COLUMN = "bucket_start";
+    private static final String COMPANY_ID_COLUMN = "company_id";
+    private static final String EVENT_TYPE_COLUMN = "event_type";
+    private static final String EVENT_COUNT_COLUMN = "event_count";
+
+    private static final String INIT_WATERMARK_SQL =
+            "INSERT INTO " + WATERMARK_TABLE_NAME + " (source, last_id) VALUES (?, 0) " +
+            "ON CONFLICT (source) DO NOTHING";
+
+    // Row lock serializes aggregators running on several nodes
+    private static final String LOCK_WATERMARK_SQL =
+            "SELECT last_id FROM " + WATERMARK_TABLE_NAME + " WHERE source = ? FOR UPDATE";
+
+    private static final String FIND_WATERMARK_SQL =
+            "SELECT last_id FROM " + WATERMARK_TABLE_NAME + " WHERE source = ?";
+
+    private static final String ADVANCE_WATERMARK_SQL =
+            "UPDATE " + WATERMARK_TABLE_NAME + " SET last_id = ?, updated_at = now() WHERE source = ?";
+
+    private static final String UPSERT_SUFFIX =
+            " ON CONFLICT (" + BUCKET_START_COLUMN + ", " + COMPANY_ID_COLUMN + ", " + EVENT_TYPE_COLUMN + ") " +
+            "DO UPDATE SET " + EVENT_COUNT_COLUMN + " = " + TABLE_NAME + "." + EVENT_COUNT_COLUMN +
+            " + EXCLUDED." + EVENT_COUNT_COLUMN + ", updated_at = now()";
+
+    private static final String COMPANY_FILTER = "(?::int4 IS NULL OR " + COMPANY_ID_COLUMN + " = ?)";
+
+    private static final String FIND_HOURLY_SQL =
+            "SELECT " + BUCKET_START_COLUMN + ", " + EVENT_TYPE_COLUMN + ", SUM(" + EVENT_COUNT_COLUMN + ") AS total " +
+            "FROM " + TABLE_NAME + " WHERE " + COMPANY_FILTER + " AND " + EVENT_TYPE_COLUMN + " = ANY(?) " +
+            "AND " + BUCKET_START_COLUMN + " >= ? AND " + BUCKET_START_COLUMN + " < ? " +
+            "GROUP BY " + BUCKET_START_COLUMN + ", " + EVENT_TYPE_COLUMN + " " +
+            "ORDER BY " + BUCKET_START_COLUMN + ", " + EVENT_TYPE_COLUMN;
+
+    private static final String FIND_DAILY_SQL =
+            "SELECT date_trunc('day', " + BUCKET_START_COLUMN + ") AS day, " + EVENT_TYPE_COLUMN + ", " +
+            "SUM(" + EVENT_COUNT_COLUMN + ") AS total " +
+            "FROM " + TABLE_NAME + " WHERE " + COMPANY_FILTER + " AND " + EVENT_TYPE_COLUMN + " = ANY(?) " +
+            "AND " + BUCKET_START_COLUMN + " >= ? AND " + BUCKET_START_COLUMN + " < ? " +
+            "GROUP BY day, " + EVENT_TYPE_COLUMN + " " +
+            "ORDER BY day, " + EVENT_TYPE_COLUMN;
+
+    private static final String SUM_BY_COMPANY_SQL =
+            "SELECT " + COMPANY_ID_COLUMN + ", SUM(" + EVENT_COUNT_COLUMN + ") AS total " +
+            "FROM " + TABLE_NAME + " WHERE " + EVENT_TYPE_COLUMN + " = ? " +
+            "AND " + BUCKET_START_COLUMN + " >= ? AND " + BUCKET_START_COLUMN + " < ? " +
+            "GROUP BY " + COMPANY_ID_COLUMN + " ORDER BY total DESC";
+
+    private static final String SUM_BY_EVENT_TYPE_SQL =
+            "SELECT " + EVENT_TYPE_COLUMN + ", SUM(" + EVENT_COUNT_COLUMN + ") AS total " +
+            "FROM " + TABLE_NAME + " WHERE " + COMPANY_FILTER + " " +
+            "AND " + BUCKET_START_COLUMN + " >= ? AND " + BUCKET_START_COLUMN + " < ? " +
+            "GROUP BY " + EVENT_TYPE_COLUMN + " ORDER BY " + EVENT_TYPE_COLUMN;
+
+    @Override
+    public int rollUp(SecurityRollupSource source, int batchSize, int lagSeconds) throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        try {
+            TransactionUtil.beginTransaction(conn);
+
+            try (PreparedStatement ps = conn.prepareStatement(INIT_WATERMARK_SQL)) {
+                ps.setString(1, source.name());
+                ps.executeUpdate();
+            }
+
+            int lastId;
+            try (PreparedStatement ps = conn.prepareStatement(LOCK_WATERMARK_SQL)) {
+                ps.setString(1, source.name());
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    lastId = rs.getInt(1);
+                }
+            }
+
+            int upperId = 0;
+            int rowCount = 0;
+            try (PreparedStatement ps = conn.prepareStatement(getBatchBoundsSql(source))) {
+                ps.setInt(1, lastId);
+                ps.setInt(2, lagSeconds);
+                ps.setInt(3, batchSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        upperId = rs.getInt(1);
+                        rowCount = rs.getInt(2);
+                    }
+                }
+            }
+
+            if (rowCount == 0) {
+                TransactionUtil.commitTransaction(conn);
+                return 0;
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(getAggregateSql(source))) {
+                ps.setInt(1, lastId);
+                ps.setInt(2, upperId);
+                ps.executeUpdate();
+            }
+
+            try (PreparedStatement ps = conn.prepareStatement(ADVANCE_WATERMARK_SQL)) {
+                ps.setInt(1, upperId);
+                ps.setString(2, source.name());
+                ps.executeUpdate();
+            }
+
+            TransactionUtil.commitTransaction(conn);
+            return rowCount;
+        } catch (SQLException | RuntimeException e) {
+            TransactionUtil.rollbackTransaction(conn);
+            throw e;
+        } finally {
+            DatabaseUtil.closeConnection(conn);
+        }
+    }
+
+    @Override
+    public int getWatermark(SecurityRollupSource source) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_WATERMARK_SQL)) {
+
+            ps.setString(1, source.name());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public List<SecurityEventRollup> findHourlyBuckets(Integer companyId, List<String> eventTypes,
+                                                       Timestamp from, Timestamp to) throws SQLException {
+        return findBuckets(FIND_HOURLY_SQL, companyId, eventTypes, from, to);
+    }
+
+    @Override
+    public List<SecurityEventRollup> findDailyBuckets(Integer companyId, List<String> eventTypes,
+                                                      Timestamp from, Timestamp to) throws SQLException {
+        return findBuckets(FIND_DAILY_SQL, companyId, eventTypes, from, to);
+    }
+
+    @Override
+    public Map<Integer, Long> sumByCompany(String eventType, Timestamp from, Timestamp to) throws SQLException {
+        Map<Integer, Long> totals = new LinkedHashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SUM_BY_COMPANY_SQL)) {
+
+            ps.setString(1, eventType);
+            ps.setTimestamp(2, from);
+            ps.setTimestamp(3, to);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getInt(COMPANY_ID_COLUMN), rs.getLong("total"));
+                }
+            }
+        }
+
+        return totals;
+    }
+
+    @Override
+    public Map<String, Long> sumByEventType(Integer companyId, Timestamp from, Timestamp to) throws SQLException {
+        Map<String, Long> totals = new LinkedHashMap<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SUM_BY_EVENT_TYPE_SQL)) {
+
+            setCompanyFilter(ps, 1, companyId);
+            ps.setTimestamp(3, from);
+            ps.setTimestamp(4, to);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    totals.put(rs.getString(EVENT_TYPE_COLUMN), rs.getLong("total"));
+                }
+            }
+        }
+
+        return totals;
+    }
+
+    /**
+     * Run a bucket query shared by the hourly and daily lookups.
+     */
+    private List<SecurityEventRollup> findBuckets(String sql, Integer companyId, List<String> eventTypes,
+                                                  Timestamp from, Timestamp to) throws SQLException {
+        List<SecurityEventRollup> buckets = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            Array eventTypeArray = conn.createArrayOf("varchar", eventTypes.toArray());
+            setCompanyFilter(ps, 1, companyId);
+            ps.setArray(3, eventTypeArray);
+            ps.setTimestamp(4, from);
+            ps.setTimestamp(5, to);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    buckets.add(new SecurityEventRollup(
+                            rs.getTimestamp(1),
+                            companyId,
+                            rs.getString(EVENT_TYPE_COLUMN),
+                            rs.getLong("total")));
+                }
+            }
+        }
+
+        return buckets;
+    }
+
+    /**
+     * Bind the two parameters of {@link #COMPANY_FILTER}.
+     */
+    private void setCompanyFilter(PreparedStatement ps, int index, Integer companyId) throws SQLException {
+        if (companyId != null) {
+            ps.setInt(index, companyId);
+            ps.setInt(index + 1, companyId);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+            ps.setNull(index + 1, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Get the SQL selecting the upper ID and size of the next batch. Scanning by ID
+     * with a limit keeps the watermark moving across gaps left by deleted rows.
+     */
+    private String getBatchBoundsSql(SecurityRollupSource source) {
+        return "SELECT MAX(id), COUNT(*) FROM (" +
+               "SELECT id FROM " + source.getTableName() + " WHERE id > ? " +
+               "AND " + source.getTimestampColumn() + " < now() - make_interval(secs => ?) " +
+               "ORDER BY id LIMIT ?) batch";
+    }
+
+    /**
+     * Get the SQL that adds the counts of a batch of source rows to the rollups.
+     */
+    private String getAggregateSql(SecurityRollupSource source) {
+        return "INSERT INTO " + TABLE_NAME + " (" + BUCKET_START_COLUMN + ", " + COMPANY_ID_COLUMN + ", " +
+               EVENT_TYPE_COLUMN + ", " + EVENT_COUNT_COLUMN + ") " +
+               "SELECT date_trunc('hour', s." + source.getTimestampColumn() + "), COALESCE(u.company_id, 0), " +
+               source.getEventTypeExpression() + ", COUNT(*) " +
+               "FROM " + source.getTableName() + " s LEFT JOIN users u ON u.id = s.user_id " +
+               "WHERE s.id > ? AND s.id <= ? AND s." + source.getTimestampColumn() + " IS NOT NULL " +
+               "GROUP BY 1, 2, 3" + UPSERT_SUFFIX;
+    }
+}
@@ -0,0 +1,70 @@
+package com.celestra.enums;
+
+/**
+ * Source tables aggregated into the security event rollups.
+ * Maps to the source column of the rollup_watermarks table.
+ */
+public enum SecurityRollupSource {
+    /**
+     * Audit trail; rolled up under each row's audit event type
+     */
+    AUDIT_LOGS("audit_logs", "created_at", "s.event_type::text"),
+    
+    /**
+     * Failed authentication attempts, including those for unknown users
+     */
+    FAILED_LOGINS("failed_logins", "attempted_at", "'" + SecurityRollupSource.FAILED_LOGIN_ATTEMPT + "'"),
+    
+    /**
+     * Account lockouts
+     */
+    USER_LOCKOUTS("user_lockouts", "lockout_start", "'" + SecurityRollupSource.ACCOUNT_LOCKOUT + "'");
+    
+    /**
+     * Rollup event type for rows of the failed_logins table
+     */
+    public static final String FAILED_LOGIN_ATTEMPT = "FAILED_LOGIN_ATTEMPT";
+    
+    /**
+     * Rollup event type for rows of the user_lockouts table
+     */
+    public static final String ACCOUNT_LOCKOUT = "ACCOUNT_LOCKOUT";
+    
+    private final String tableName;
+    private final String timestampColumn;
+    private final String eventTypeExpression;
+    
+    SecurityRollupSource(String tableName, String timestampColumn, String eventTypeExpression) {
+        this.tableName = tableName;
+        this.timestampColumn = timestampColumn;
+        this.eventTypeExpression = eventTypeExpression;
+    }
+    
+    /**
+     * Get the name of the source table.
+     * 
+     * @return The table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+    
+    /**
+     * Get the column holding the event time.
+     * 
+     * @return The timestamp column name
+     */
+    public String getTimestampColumn() {
+        return timestampColumn;
+    }
+    
+    /**
+     * Get the SQL expression producing the rollup event type for a source row
+     * aliased as {@code s}.
+     * 
+     * @return The SQL expression
+     */
+    public String getEventTypeExpression() {
+        return eventTypeExpression;
+    }
+}
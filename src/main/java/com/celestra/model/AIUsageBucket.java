@@ -0,0 +1,138 @@
+package com.celestra.model;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+
+/**
+ * Represents the AI requests and tokens of one company and agent in an hour bucket.
+ * Maps to the ai_usage_buckets table in the database; buckets are incremented
+ * in batches from the in-memory quota counters.
+ */
+public class AIUsageBucket {
+    private Timestamp bucketStart;
+    private Integer companyId;
+    private Integer agentId;
+    private long requestCount;
+    private long inputTokens;
+    private long outputTokens;
+    private long rejectedCount;
+
+    /**
+     * Default constructor
+     */
+    public AIUsageBucket() {
+        // Default constructor
+    }
+
+    /**
+     * Full parameterized constructor
+     *
+     * @param bucketStart The start of the hour bucket
+     * @param companyId The company ID (0 when no company is known)
+     * @param agentId The agent ID (0 when no agent is known)
+     * @param requestCount The number of calls sent to a provider
+     * @param inputTokens The input tokens reported by the providers
+     * @param outputTokens The output tokens reported by the providers
+     * @param rejectedCount The number of calls refused because a quota was used up
+     */
+    public AIUsageBucket(Timestamp bucketStart, Integer companyId, Integer agentId, long requestCount,
+                         long inputTokens, long outputTokens, long rejectedCount) {
+        this.bucketStart = bucketStart;
+        this.companyId = companyId;
+        this.agentId = agentId;
+        this.requestCount = requestCount;
+        this.inputTokens = inputTokens;
+        this.outputTokens = outputTokens;
+        this.rejectedCount = rejectedCount;
+    }
+
+    // Getters and Setters
+
+    public Timestamp getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Timestamp bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Integer getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Integer companyId) {
+        this.companyId = companyId;
+    }
+
+    public Integer getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Integer agentId) {
+        this.agentId = agentId;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public long getInputTokens() {
+        return inputTokens;
+    }
+
+    public void setInputTokens(long inputTokens) {
+        this.inputTokens = inputTokens;
+    }
+
+    public long getOutputTokens() {
+        return outputTokens;
+    }
+
+    public void setOutputTokens(long outputTokens) {
+        this.outputTokens = outputTokens;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(long rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AIUsageBucket that = (AIUsageBucket) o;
+        return requestCount == that.requestCount &&
+               inputTokens == that.inputTokens &&
+               outputTokens == that.outputTokens &&
+               rejectedCount == that.rejectedCount &&
+               Objects.equals(bucketStart, that.bucketStart) &&
+               Objects.equals(companyId, that.companyId) &&
+               Objects.equals(agentId, that.agentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucketStart, companyId, agentId, requestCount, inputTokens, outputTokens, rejectedCount);
+    }
+
+    @Override
+    public String toString() {
+        return "AIUsageBucket{" +
+               "bucketStart=" + bucketStart +
+               ", companyId=" + companyId +
+               ", agentId=" + agentId +
+               ", requestCount=" + requestCount +
+               ", inputTokens=" + inputTokens +
+               ", outputTokens=" + outputTokens +
+               ", rejectedCount=" + rejectedCount +
+               '}';
+    }
+}
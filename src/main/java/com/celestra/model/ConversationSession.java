@@ -0,0 +1,143 @@
+package com.celestra.model;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+
+/**
+ * Represents a chat session with an agent and the rolling summary of its older turns.
+ * Maps to the conversation_sessions table in the database.
+ */
+public class ConversationSession {
+    private Integer id;
+    private Integer agentId;
+    private String sessionKey;
+    private String summary;
+    private int summarizedThrough;
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+
+    /**
+     * Default constructor
+     */
+    public ConversationSession() {
+        // Default constructor
+    }
+
+    /**
+     * Parameterized constructor with required fields
+     *
+     * @param agentId The ID of the agent the conversation is held with
+     * @param sessionKey The caller-defined key of the session
+     */
+    public ConversationSession(Integer agentId, String sessionKey) {
+        this.agentId = agentId;
+        this.sessionKey = sessionKey;
+    }
+
+    /**
+     * Full parameterized constructor
+     *
+     * @param id The session ID
+     * @param agentId The ID of the agent the conversation is held with
+     * @param sessionKey The caller-defined key of the session
+     * @param summary The rolling summary, or null if no turn has been summarized
+     * @param summarizedThrough The index of the last turn folded into the summary
+     * @param createdAt The creation timestamp
+     * @param updatedAt The last compaction timestamp
+     */
+    public ConversationSession(Integer id, Integer agentId, String sessionKey, String summary,
+                               int summarizedThrough, Timestamp createdAt, Timestamp updatedAt) {
+        this.id = id;
+        this.agentId = agentId;
+        this.sessionKey = sessionKey;
+        this.summary = summary;
+        this.summarizedThrough = summarizedThrough;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getAgentId() {
+        return agentId;
+    }
+
+    public void setAgentId(Integer agentId) {
+        this.agentId = agentId;
+    }
+
+    public String getSessionKey() {
+        return sessionKey;
+    }
+
+    public void setSessionKey(String sessionKey) {
+        this.sessionKey = sessionKey;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public int getSummarizedThrough() {
+        return summarizedThrough;
+    }
+
+    public void setSummarizedThrough(int summarizedThrough) {
+        this.summarizedThrough = summarizedThrough;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Timestamp updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConversationSession that = (ConversationSession) o;
+        return Objects.equals(id, that.id) &&
+               Objects.equals(agentId, that.agentId) &&
+               Objects.equals(sessionKey, that.sessionKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, agentId, sessionKey);
+    }
+
+    @Override
+    public String toString() {
+        return "ConversationSession{" +
+               "id=" + id +
+               ", agentId=" + agentId +
+               ", sessionKey='" + sessionKey + '\'' +
+               ", summarizedThrough=" + summarizedThrough +
+               ", createdAt=" + createdAt +
+               ", updatedAt=" + updatedAt +
+               '}';
+    }
+}
@@ -0,0 +1,128 @@
+package com.celestra.model;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+
+/**
+ * Represents one message of a chat session with an agent.
+ * Maps to the conversation_turns table in the database.
+ */
+public class ConversationTurn {
+    private Integer id;
+    private Integer sessionId;
+    private int turnIndex;
+    private String role;
+    private String content;
+    private int tokenCount;
+    private Timestamp createdAt;
+
+    /**
+     * Default constructor
+     */
+    public ConversationTurn() {
+        // Default constructor
+    }
+
+    /**
+     * Parameterized constructor with required fields
+     *
+     * @param sessionId The ID of the conversation session
+     * @param turnIndex The position of the turn in the session, starting at 1
+     * @param role The chat role of the message
+     * @param content The message text
+     * @param tokenCount The estimated prompt tokens of the message
+     */
+    public ConversationTurn(Integer sessionId, int turnIndex, String role, String content, int tokenCount) {
+        this.sessionId = sessionId;
+        this.turnIndex = turnIndex;
+        this.role = role;
+        this.content = content;
+        this.tokenCount = tokenCount;
+    }
+
+    // Getters and Setters
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(Integer sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getTurnIndex() {
+        return turnIndex;
+    }
+
+    public void setTurnIndex(int turnIndex) {
+        this.turnIndex = turnIndex;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    public void setTokenCount(int tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Timestamp createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConversationTurn that = (ConversationTurn) o;
+        return turnIndex == that.turnIndex &&
+               Objects.equals(sessionId, that.sessionId) &&
+               Objects.equals(role, that.role) &&
+               Objects.equals(content, that.content);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionId, turnIndex, role, content);
+    }
+
+    @Override
+    public String toString() {
+        return "ConversationTurn{" +
+               "id=" + id +
+               ", sessionId=" + sessionId +
+               ", turnIndex=" + turnIndex +
+               ", role='" + role + '\'' +
+               ", tokenCount=" + tokenCount +
+               ", createdAt=" + createdAt +
+               '}';
+    }
+}
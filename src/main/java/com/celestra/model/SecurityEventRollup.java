@@ -0,0 +1,98 @@
+package com.celestra.model;
+
+import java.sql.Timestamp;
+import java.util.Objects;
+
+/**
+ * Represents the number of security events of one type for one company in a time bucket.
+ * Maps to the security_event_rollups table in the database; daily buckets are
+ * derived by summing the stored hourly buckets.
+ */
+public class SecurityEventRollup {
+    private Timestamp bucketStart;
+    private Integer companyId;
+    private String eventType;
+    private long eventCount;
+    
+    /**
+     * Default constructor
+     */
+    public SecurityEventRollup() {
+        // Default constructor
+    }
+    
+    /**
+     * Full parameterized constructor
+     * 
+     * @param bucketStart The start of the time bucket
+     * @param companyId The company ID (0 when no company is known, null when summed across companies)
+     * @param eventType The event type
+     * @param eventCount The number of events in the bucket
+     */
+    public SecurityEventRollup(Timestamp bucketStart, Integer companyId, String eventType, long eventCount) {
+        this.bucketStart = bucketStart;
+        this.companyId = companyId;
+        this.eventType = eventType;
+        this.eventCount = eventCount;
+    }
+
+    // Getters and Setters
+    
+    public Timestamp getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Timestamp bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Integer getCompanyId() {
+        return companyId;
+    }
+
+    public void setCompanyId(Integer companyId) {
+        this.companyId = companyId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SecurityEventRollup that = (SecurityEventRollup) o;
+        return eventCount == that.eventCount &&
+               Objects.equals(bucketStart, that.bucketStart) &&
+               Objects.equals(companyId, that.companyId) &&
+               Objects.equals(eventType, that.eventType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucketStart, companyId, eventType, eventCount);
+    }
+
+    @Override
+    public String toString() {
+        return "SecurityEventRollup{" +
+               "bucketStart=" + bucketStart +
+               ", companyId=" + companyId +
+               ", eventType='" + eventType + '\'' +
+               ", eventCount=" + eventCount +
+               '}';
+    }
+}
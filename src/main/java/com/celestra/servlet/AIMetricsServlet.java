@@ -0,0 +1,94 @@
+package com.celestra.servlet;
+
+import java.io.IOException;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import com.celestra.ai.agent.AgentRuntime;
+import com.celestra.ai.quota.QuotaManager;
+import com.celestra.ai.routing.ModelTierPolicy;
+import com.celestra.ai.telemetry.AITelemetry;
+import com.celestra.model.User;
+import com.celestra.util.JsonResponseUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Servlet that exposes the AI call telemetry: latency and time to first byte
+ * histograms, token usage, retries, errors and estimated cost per provider,
+ * model, company and agent, the model tier of each task with its outcomes per
+ * tier, the current window of each company and agent quota, and the live and
+ * finished agent sessions. Only available to super admins.
+ */
+@WebServlet("/api/metrics/ai")
+public class AIMetricsServlet extends HttpServlet {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final AITelemetry telemetry;
+    private final ModelTierPolicy modelTierPolicy;
+    private final QuotaManager quotaManager;
+    private final AgentRuntime agentRuntime;
+    private final Gson gson;
+    
+    /**
+     * Default constructor.
+     */
+    public AIMetricsServlet() {
+        this.telemetry = AITelemetry.getInstance();
+        this.modelTierPolicy = ModelTierPolicy.getInstance();
+        this.quotaManager = QuotaManager.getInstance();
+        this.agentRuntime = AgentRuntime.getInstance();
+        this.gson = new Gson();
+    }
+    
+    /**
+     * Handle GET requests for the AI metrics.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        User user = getSessionUser(request);
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return;
+        }
+        if (!user.isSuperAdmin()) {
+            sendErrorResponse(response, HttpServletResponse.SC_FORBIDDEN, "Super admin access required");
+            return;
+        }
+        
+        JsonObject json = telemetry.toJson();
+        json.add("modelTiers", modelTierPolicy.toJson());
+        json.add("quotas", quotaManager.toJson());
+        json.add("agentSessions", agentRuntime.toJson());
+        JsonResponseUtil.sendJsonResponse(response, json);
+    }
+    
+    private User getSessionUser(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null ? (User) session.getAttribute("user") : null;
+    }
+    
+    /**
+     * Send an error response to the client.
+     * 
+     * @param response The HTTP response
+     * @param status The HTTP status code
+     * @param message The error message
+     * @throws IOException If an I/O error occurs
+     */
+    private void sendErrorResponse(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        
+        JsonObject errorJson = new JsonObject();
+        errorJson.addProperty("success", false);
+        errorJson.addProperty("error", message);
+        
+        response.getWriter().write(gson.toJson(errorJson));
+    }
+}
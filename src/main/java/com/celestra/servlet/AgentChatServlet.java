@@ -0,0 +1,428 @@
+package com.celestra.servlet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import com.celestra.ai.AsyncRetryExecutor;
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionServiceFactory;
+import com.celestra.ai.agent.AgentPlan;
+import com.celestra.ai.agent.AgentRuntime;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.RateLimitException;
+import com.celestra.dao.AgentDao;
+import com.celestra.enums.AgentStatus;
+import com.celestra.model.Agent;
+import com.celestra.model.User;
+import com.celestra.util.ServletUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+/**
+ * Servlet that streams an agent's answer to the browser as Server-Sent Events.
+ * 
+ * The request body is {@code {"agentId": 12, "messages": [{"role": "user", "content": "..."}]}};
+ * the system prompt comes from the agent's plan. The response is a stream of a
+ * {@code start} event with the session ID, a {@code delta} event per fragment of
+ * text, and a final {@code done} or {@code error} event. Requests that are refused
+ * before the stream starts get a JSON error with a matching status.
+ * 
+ * The request runs asynchronously: the container thread returns as soon as the
+ * agent session has started, the provider is read on the agent runtime's pool,
+ * and every fragment is written as it arrives. A client that goes away - noticed
+ * on the next fragment or keep-alive write - cancels the session, which closes the
+ * provider stream.
+ */
+@WebServlet(urlPatterns = "/api/agents/chat", asyncSupported = true)
+public class AgentChatServlet extends HttpServlet {
+    
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(AgentChatServlet.class.getName());
+    
+    private final AgentDao agentDao;
+    private final AgentRuntime agentRuntime;
+    private final ChatCompletionService chatService;
+    private final ScheduledExecutorService scheduler;
+    private final long heartbeatMillis;
+    private final Gson gson;
+    
+    /**
+     * Default constructor.
+     */
+    public AgentChatServlet() {
+        this(ServletUtil.getAgentDao(), AgentRuntime.getInstance(), ChatCompletionServiceFactory.getRoutingService(),
+                AsyncRetryExecutor.getSharedScheduler(),
+                TimeUnit.SECONDS.toMillis(AIConfigurationManager.getInstance().getAgentChatHeartbeatSeconds()));
+    }
+    
+    /**
+     * Constructor with dependencies for testing.
+     * 
+     * @param agentDao The agent DAO
+     * @param agentRuntime The runtime that runs the agent sessions
+     * @param chatService The service that produces the completions
+     * @param scheduler The scheduler that sends the keep-alive comments
+     * @param heartbeatMillis The interval between keep-alive comments
+     */
+    public AgentChatServlet(AgentDao agentDao, AgentRuntime agentRuntime, ChatCompletionService chatService,
+                            ScheduledExecutorService scheduler, long heartbeatMillis) {
+        if (heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("Heartbeat interval must be positive");
+        }
+        this.agentDao = agentDao;
+        this.agentRuntime = agentRuntime;
+        this.chatService = chatService;
+        this.scheduler = scheduler;
+        this.heartbeatMillis = heartbeatMillis;
+        this.gson = new Gson();
+    }
+    
+    /**
+     * Handle POST requests for an agent chat.
+     */
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        User user = getSessionUser(request);
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return;
+        }
+        
+        JsonObject body;
+        List<ChatMessage> messages;
+        int agentId;
+        try {
+            body = gson.fromJson(request.getReader(), JsonObject.class);
+            if (body == null || !body.has("agentId") || !body.get("agentId").isJsonPrimitive()) {
+                throw new IllegalArgumentException("agentId is required");
+            }
+            agentId = body.get("agentId").getAsInt();
+            messages = parseMessages(body.get("messages"));
+        } catch (JsonParseException | NumberFormatException | IllegalStateException
+                | UnsupportedOperationException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid request body");
+            return;
+        } catch (IllegalArgumentException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        
+        Agent agent;
+        try {
+            Optional<Agent> found = agentDao.findById(agentId);
+            if (found.isEmpty() || (!user.isSuperAdmin() && !found.get().getCompanyId().equals(user.getCompanyId()))) {
+                sendErrorResponse(response, HttpServletResponse.SC_NOT_FOUND, "Agent not found");
+                return;
+            }
+            agent = found.get();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to load agent " + agentId, e);
+            sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error");
+            return;
+        }
+        if (agent.getStatus() != AgentStatus.ACTIVE) {
+            sendErrorResponse(response, HttpServletResponse.SC_CONFLICT, "Agent is not active");
+            return;
+        }
+        
+        AsyncContext asyncContext = request.startAsync();
+        // The runtime ends the session at its deadline, which completes the request
+        asyncContext.setTimeout(0);
+        ChatStream stream = new ChatStream(asyncContext, response);
+        asyncContext.addListener(stream);
+        
+        CompletableFuture<String> session = agentRuntime.start(agent, agentSession -> {
+            stream.open(agentSession.getId());
+            return agentSession.stream(chatService, withSystemPrompt(agentSession.getPlan(), messages), null,
+                    stream::delta);
+        });
+        stream.attach(session);
+        session.whenComplete((completion, error) -> stream.finish(error));
+    }
+    
+    /**
+     * Parse the conversation sent by the client. System messages come from the
+     * agent's plan, so the client may only send user and assistant messages.
+     */
+    private List<ChatMessage> parseMessages(JsonElement element) {
+        if (element == null || !element.isJsonArray() || element.getAsJsonArray().isEmpty()) {
+            throw new IllegalArgumentException("messages are required");
+        }
+        List<ChatMessage> messages = new ArrayList<>();
+        for (JsonElement item : element.getAsJsonArray()) {
+            JsonObject message = item.getAsJsonObject();
+            String role = message.has("role") ? message.get("role").getAsString() : null;
+            String content = message.has("content") ? message.get("content").getAsString() : null;
+            if (!"user".equals(role) && !"assistant".equals(role)) {
+                throw new IllegalArgumentException("Message role must be user or assistant");
+            }
+            if (content == null || content.isEmpty()) {
+                throw new IllegalArgumentException("Message content is required");
+            }
+            messages.add(new ChatMessage(role, content));
+        }
+        return messages;
+    }
+    
+    private static List<ChatMessage> withSystemPrompt(AgentPlan plan, List<ChatMessage> messages) {
+        if (plan == null || plan.getSystemPrompt() == null) {
+            return messages;
+        }
+        List<ChatMessage> upstream = new ArrayList<>(messages.size() + 1);
+        upstream.add(new ChatMessage("system", plan.getSystemPrompt()));
+        upstream.addAll(messages);
+        return upstream;
+    }
+    
+    private User getSessionUser(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null ? (User) session.getAttribute("user") : null;
+    }
+    
+    /**
+     * Send an error response to the client.
+     * 
+     * @param response The HTTP response
+     * @param status The HTTP status code
+     * @param message The error message
+     * @throws IOException If an I/O error occurs
+     */
+    private void sendErrorResponse(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        
+        JsonObject errorJson = new JsonObject();
+        errorJson.addProperty("success", false);
+        errorJson.addProperty("error", message);
+        
+        response.getWriter().write(gson.toJson(errorJson));
+    }
+    
+    /**
+     * The event stream of one chat. Writes come from the thread reading the
+     * provider, the keep-alive scheduler and whichever thread ends the session, so
+     * they are serialized here; the first failed write cancels the session.
+     */
+    private final class ChatStream implements AsyncListener {
+        
+        private final AsyncContext asyncContext;
+        private final HttpServletResponse response;
+        private volatile CompletableFuture<?> session;
+        private ServletOutputStream out;
+        private ScheduledFuture<?> heartbeat;
+        private boolean closed;
+        private boolean completed;
+        
+        private ChatStream(AsyncContext asyncContext, HttpServletResponse response) {
+            this.asyncContext = asyncContext;
+            this.response = response;
+        }
+        
+        /**
+         * Commit the response as an event stream and announce the session.
+         */
+        private synchronized void open(long sessionId) throws IOException {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType("text/event-stream");
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader("Cache-Control", "no-cache");
+            // Keep reverse proxies from buffering the stream
+            response.setHeader("X-Accel-Buffering", "no");
+            out = response.getOutputStream();
+            
+            JsonObject data = new JsonObject();
+            data.addProperty("sessionId", sessionId);
+            write("event: start\ndata: " + gson.toJson(data) + "\n\n");
+            heartbeat = scheduler.scheduleAtFixedRate(this::keepAlive, heartbeatMillis, heartbeatMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        
+        /**
+         * Send a fragment of the answer. Throwing ends the provider stream.
+         */
+        private void delta(String text) {
+            JsonObject data = new JsonObject();
+            data.addProperty("text", text);
+            try {
+                send("event: delta\ndata: " + gson.toJson(data) + "\n\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Client disconnected", e);
+            }
+        }
+        
+        private void keepAlive() {
+            try {
+                send(": keep-alive\n\n");
+            } catch (IOException e) {
+                // Already cancelled
+            }
+        }
+        
+        private void attach(CompletableFuture<?> session) {
+            this.session = session;
+            boolean cancel;
+            synchronized (this) {
+                cancel = closed;
+            }
+            if (cancel) {
+                session.cancel(true);
+            }
+        }
+        
+        /**
+         * Write the last event, or the error response if the stream never opened,
+         * and complete the request.
+         */
+        private void finish(Throwable error) {
+            synchronized (this) {
+                if (closed) {
+                    completeRequest();
+                    return;
+                }
+                closed = true;
+                stopHeartbeat();
+                try {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause != null && out == null) {
+                        sendErrorResponse(response, statusOf(cause), messageOf(cause));
+                    } else if (cause != null) {
+                        JsonObject data = new JsonObject();
+                        data.addProperty("error", messageOf(cause));
+                        write("event: error\ndata: " + gson.toJson(data) + "\n\n");
+                    } else {
+                        write("event: done\ndata: {}\n\n");
+                    }
+                } catch (IOException e) {
+                    LOGGER.fine("Agent chat client went away before the end of the stream");
+                }
+                completeRequest();
+            }
+        }
+        
+        private void send(String event) throws IOException {
+            try {
+                synchronized (this) {
+                    if (closed) {
+                        throw new IOException("Stream is closed");
+                    }
+                    write(event);
+                }
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+        }
+        
+        private void write(String event) throws IOException {
+            out.write(event.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+        
+        /**
+         * Stop writing and cancel the session; the client is gone.
+         */
+        private void abort() {
+            CompletableFuture<?> current;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                stopHeartbeat();
+                completeRequest();
+                current = session;
+            }
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+        
+        private void stopHeartbeat() {
+            if (heartbeat != null) {
+                heartbeat.cancel(false);
+            }
+        }
+        
+        private void completeRequest() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // The container already completed the request after an error
+            }
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            abort();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            abort();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            abort();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Not restarted
+        }
+    }
+    
+    private static int statusOf(Throwable error) {
+        if (error instanceof RejectedExecutionException || error instanceof RateLimitException) {
+            return 429;
+        } else if (error instanceof IllegalStateException) {
+            return HttpServletResponse.SC_CONFLICT;
+        } else if (error instanceof IllegalArgumentException) {
+            return HttpServletResponse.SC_BAD_REQUEST;
+        }
+        return HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    }
+    
+    private static String messageOf(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "The agent session timed out";
+        } else if (error instanceof RejectedExecutionException || error instanceof RateLimitException
+                || error instanceof IllegalStateException || error instanceof IllegalArgumentException) {
+            return error.getMessage();
+        }
+        LOGGER.log(Level.WARNING, "Agent chat failed", error);
+        return "The agent could not answer";
+    }
+}
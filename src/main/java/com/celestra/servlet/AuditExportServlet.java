@@ -0,0 +1,192 @@
+package com.celestra.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import com.celestra.audit.export.AuditExportCheckpoint;
+import com.celestra.audit.export.AuditExportCompression;
+import com.celestra.audit.export.AuditExportFormat;
+import com.celestra.audit.export.AuditExportRequest;
+import com.celestra.audit.export.AuditExportService;
+import com.celestra.auth.service.AuditService;
+import com.celestra.enums.AuditEventType;
+import com.celestra.model.User;
+import com.celestra.util.ServletUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Servlet that streams audit trail extracts for compliance reviews.
+ * 
+ * Query parameters: {@code startDate}, {@code endDate} (yyyy-MM-dd, required),
+ * {@code companyId}, {@code format} (ndjson|csv), {@code compression} (gzip|none) and
+ * {@code afterId} to resume an interrupted download after the last received audit log ID.
+ */
+@WebServlet("/api/audit/export")
+public class AuditExportServlet extends HttpServlet {
+    
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = Logger.getLogger(AuditExportServlet.class.getName());
+    
+    private final AuditExportService auditExportService;
+    private final AuditService auditService;
+    private final Gson gson;
+    
+    /**
+     * Default constructor.
+     */
+    public AuditExportServlet() {
+        this.auditExportService = ServletUtil.getAuditExportService();
+        this.auditService = ServletUtil.getAuditService();
+        this.gson = new Gson();
+    }
+    
+    /**
+     * Handle GET requests for audit exports.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        User user = getSessionUser(request);
+        if (user == null) {
+            sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return;
+        }
+        
+        AuditExportRequest exportRequest;
+        try {
+            exportRequest = parseRequest(request, user);
+        } catch (IllegalArgumentException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        } catch (SecurityException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_FORBIDDEN, e.getMessage());
+            return;
+        }
+        
+        try {
+            auditService.recordSecurityEvent(AuditEventType.DATA_EXPORT, user, 
+                    ServletUtil.getClientIpAddress(request),
+                    "Audit export " + exportRequest.getStartDate() + " to " + exportRequest.getEndDate()
+                            + (exportRequest.getCompanyId() != null ? " for company " + exportRequest.getCompanyId() : ""),
+                    "audit_logs", null, "Compliance extract");
+        } catch (SQLException e) {
+            sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+            return;
+        }
+        
+        response.setContentType(exportRequest.getCompression() == AuditExportCompression.GZIP 
+                ? "application/gzip" : exportRequest.getFormat().getContentType() + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + exportRequest.getFileName() + "\"");
+        
+        OutputStream out = response.getOutputStream();
+        try {
+            // Push each completed segment to the client so memory stays flat on both ends
+            AuditExportCheckpoint result = auditExportService.export(exportRequest, out, 
+                    checkpoint -> response.flushBuffer());
+            LOGGER.info("Streamed audit export for user " + user.getId() + ": " + result);
+        } catch (SQLException e) {
+            // Once output is committed the truncated body tells the client to resume with afterId
+            LOGGER.log(Level.SEVERE, "Audit export failed", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                sendErrorResponse(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database error: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Build an export request from the query parameters.
+     * Only super admins and company admins can export, and company admins only
+     * their own company.
+     */
+    private AuditExportRequest parseRequest(HttpServletRequest request, User user) {
+        if (!user.isSuperAdmin() && !user.isCompanyAdmin()) {
+            throw new SecurityException("Company admin access required");
+        }
+        
+        String startDate = request.getParameter("startDate");
+        String endDate = request.getParameter("endDate");
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("startDate and endDate are required");
+        }
+        
+        Integer companyId = parseInteger(request.getParameter("companyId"), "companyId");
+        if (!user.isSuperAdmin()) {
+            if (companyId != null && !companyId.equals(user.getCompanyId())) {
+                throw new SecurityException("Cannot export audit logs of another company");
+            }
+            companyId = user.getCompanyId();
+        }
+        
+        AuditExportRequest exportRequest = new AuditExportRequest(companyId, startDate, endDate);
+        
+        String format = request.getParameter("format");
+        if (format != null) {
+            AuditExportFormat exportFormat = AuditExportFormat.fromString(format);
+            if (exportFormat == null) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+            exportRequest.setFormat(exportFormat);
+        }
+        
+        String compression = request.getParameter("compression");
+        if (compression != null) {
+            AuditExportCompression exportCompression = AuditExportCompression.fromString(compression);
+            if (exportCompression == null) {
+                throw new IllegalArgumentException("Unsupported compression: " + compression);
+            }
+            exportRequest.setCompression(exportCompression);
+        }
+        
+        Integer afterId = parseInteger(request.getParameter("afterId"), "afterId");
+        if (afterId != null) {
+            exportRequest.setAfterId(afterId);
+        }
+        
+        return exportRequest;
+    }
+    
+    private Integer parseInteger(String value, String name) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+    
+    private User getSessionUser(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null ? (User) session.getAttribute("user") : null;
+    }
+    
+    /**
+     * Send an error response to the client.
+     * 
+     * @param response The HTTP response
+     * @param status The HTTP status code
+     * @param message The error message
+     * @throws IOException If an I/O error occurs
+     */
+    private void sendErrorResponse(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        
+        JsonObject errorJson = new JsonObject();
+        errorJson.addProperty("success", false);
+        errorJson.addProperty("error", message);
+        
+        response.getWriter().write(gson.toJson(errorJson));
+    }
+}
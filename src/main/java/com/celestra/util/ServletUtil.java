@@ -5,6 +5,12 @@ import java.util.logging.Logger;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 
+import com.celestra.audit.archive.AuditArchiveService;
+import com.celestra.audit.archive.impl.AuditArchiveServiceImpl;
+import com.celestra.audit.export.AuditExportService;
+import com.celestra.audit.export.impl.AuditExportServiceImpl;
+import com.celestra.audit.rollup.SecurityDashboardService;
+import com.celestra.audit.rollup.impl.SecurityDashboardServiceImpl;
 import com.celestra.auth.config.AuthConfigProvider;
 import com.celestra.auth.config.AuthConfigurationManager;
 import com.celestra.auth.service.AuditService;
@@ -15,6 +21,7 @@ import com.celestra.auth.service.impl.AuditServiceImpl;
 import com.celestra.auth.service.impl.InvitationAcceptanceServiceImpl;
 import com.celestra.auth.service.impl.InvitationServiceImpl;
 import com.celestra.auth.service.impl.LoginServiceImpl;
+import com.celestra.dao.AgentDao;
 import com.celestra.dao.AuditLogDao;
 import com.celestra.dao.CompanyDao;
 import com.celestra.dao.FailedLoginDao;
@@ -22,6 +29,7 @@ import com.celestra.dao.InvitationDao;
 import com.celestra.dao.UserDao;
 import com.celestra.dao.UserLockoutDao;
 import com.celestra.dao.UserSessionDao;
+import com.celestra.dao.impl.AgentDaoImpl;
 import com.celestra.dao.impl.AuditLogDaoImpl;
 import com.celestra.dao.impl.CompanyDaoImpl;
 import com.celestra.dao.impl.FailedLoginDaoImpl;
@@ -46,6 +54,9 @@ public class ServletUtil {
     private static InvitationService invitationService;
     private static InvitationAcceptanceService invitationAcceptanceService;
     private static EmailService emailService;
+    private static AuditExportService auditExportService;
+    private static SecurityDashboardService securityDashboardService;
+    private static AuditArchiveService auditArchiveService;
     
     // DAO instances
     private static UserDao userDao;
@@ -55,6 +66,7 @@ public class ServletUtil {
     private static CompanyDao companyDao;
     private static AuditLogDao auditLogDao;
     private static InvitationDao invitationDao;
+    private static AgentDao agentDao;
     
     // Config instances
     private static AuthConfigProvider authConfig;
@@ -200,6 +212,42 @@ public class ServletUtil {
         return emailService;
     }
     
+    /**
+     * Gets the AuditExportService instance.
+     * 
+     * @return The AuditExportService instance
+     */
+    public static synchronized AuditExportService getAuditExportService() {
+        if (auditExportService == null) {
+            auditExportService = new AuditExportServiceImpl();
+        }
+        return auditExportService;
+    }
+    
+    /**
+     * Gets the SecurityDashboardService instance.
+     * 
+     * @return The SecurityDashboardService instance
+     */
+    public static synchronized SecurityDashboardService getSecurityDashboardService() {
+        if (securityDashboardService == null) {
+            securityDashboardService = new SecurityDashboardServiceImpl();
+        }
+        return securityDashboardService;
+    }
+    
+    /**
+     * Gets the AuditArchiveService instance.
+     * 
+     * @return The AuditArchiveService instance
+     */
+    public static synchronized AuditArchiveService getAuditArchiveService() {
+        if (auditArchiveService == null) {
+            auditArchiveService = new AuditArchiveServiceImpl();
+        }
+        return auditArchiveService;
+    }
+    
     /**
      * Gets the UserDao instance.
      * 
@@ -284,6 +332,18 @@ public class ServletUtil {
         return invitationDao;
     }
     
+    /**
+     * Gets the AgentDao instance.
+     * 
+     * @return The AgentDao instance
+     */
+    public static synchronized AgentDao getAgentDao() {
+        if (agentDao == null) {
+            agentDao = new AgentDaoImpl();
+        }
+        return agentDao;
+    }
+    
     /**
      * Gets the AuthConfigProvider instance.
      * 
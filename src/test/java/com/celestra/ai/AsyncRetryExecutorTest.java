@@ -0,0 +1,121 @@
+package com.celestra.ai;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.exception.RateLimitException;
+import com.celestra.ai.exception.ServerException;
+
+public class AsyncRetryExecutorTest {
+
+    private ScheduledExecutorService scheduler;
+    private AsyncRetryExecutor retryExecutor;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        retryExecutor = new AsyncRetryExecutor(scheduler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testRetriesUntilSuccess() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> result = retryExecutor.execute(() -> attempts.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new ServerException("Server error", 503))
+                : CompletableFuture.completedFuture("ok"), 3, 1, "Test");
+
+        // Assert
+        assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testDoesNotRetryInvalidRequest() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> result = retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new InvalidRequestException("Invalid request"));
+        }, 3, 1, "Test");
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof InvalidRequestException);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testFailsAfterMaxRetries() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+
+        // Act
+        CompletableFuture<String> result = retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new RateLimitException("Rate limit exceeded", 1));
+        }, 2, 1, "Test");
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof AIServiceException);
+        assertTrue(e.getCause().getCause() instanceof RateLimitException);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void testTimeoutCancelsAttemptInFlight() throws Exception {
+        // Arrange
+        CompletableFuture<String> inFlight = new CompletableFuture<>();
+
+        // Act
+        CompletableFuture<String> result = retryExecutor.execute(() -> inFlight, 3, 1, "Test")
+                .orTimeout(50, TimeUnit.MILLISECONDS);
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertThrows(CancellationException.class, () -> inFlight.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelStopsPendingRetry() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = retryExecutor.execute(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new ServerException("Server error", 503));
+        }, 3, 10000, "Test");
+
+        // Act
+        result.cancel(true);
+        Thread.sleep(50);
+
+        // Assert
+        assertTrue(result.isCancelled());
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,117 @@
+package com.celestra.ai;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server that answers OpenAI-style chat completion requests, so that
+ * services can be tested end to end without reaching a provider.
+ *
+ * Every request is answered with "echo: " followed by the content of the last
+ * message, after an optional delay. Prompts registered with {@link #failOn} get a
+ * 500 response instead.
+ */
+public class StubChatCompletionServer implements AutoCloseable {
+
+    public static final String PATH = "/v1/chat/completions";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+    private final Set<String> failingPrompts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long latencyMs;
+
+    public StubChatCompletionServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void failOn(String prompt) {
+        failingPrompts.add(prompt);
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonObject request = JsonParser.parseString(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .getAsJsonObject();
+            JsonArray messages = request.getAsJsonArray("messages");
+            String prompt = messages.get(messages.size() - 1).getAsJsonObject().get("content").getAsString();
+
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+
+            if (failingPrompts.contains(prompt)) {
+                respond(exchange, 500, "{\"error\":{\"message\":\"Stub failure\"}}");
+                return;
+            }
+
+            JsonObject message = new JsonObject();
+            message.addProperty("role", "assistant");
+            message.addProperty("content", "echo: " + prompt);
+            JsonObject choice = new JsonObject();
+            choice.add("message", message);
+            JsonArray choices = new JsonArray();
+            choices.add(choice);
+            JsonObject response = new JsonObject();
+            response.add("choices", choices);
+            respond(exchange, 200, response.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
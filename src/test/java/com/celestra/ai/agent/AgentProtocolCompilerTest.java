@@ -0,0 +1,134 @@
+package com.celestra.ai.agent;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.celestra.ai.workflow.WorkflowDefinition;
+import com.celestra.enums.AgentStatus;
+import com.celestra.model.Agent;
+
+public class AgentProtocolCompilerTest {
+
+    private static final String PROTOCOL = "{"
+            + "\"name\": \"Deviation Investigation Agent\","
+            + "\"system_prompt\": \"You investigate manufacturing deviations.\","
+            + "\"tools\": [\"find_batch\", \"find_deviation\"],"
+            + "\"budget\": {\"max_tokens\": 2000, \"max_tool_calls\": 5, \"timeout_seconds\": 90},"
+            + "\"steps\": ["
+            + "  {\"id\": \"root_cause\", \"prompt\": \"Find the cause of {{steps.classify.category}}\","
+            + "   \"depends_on\": [\"classify\"], \"tools\": [\"find_batch\"]},"
+            + "  {\"id\": \"classify\", \"prompt\": \"Classify {{input.deviation}}\", \"max_tokens\": 500,"
+            + "   \"required_fields\": [\"category\"]}"
+            + "]}";
+
+    private final AgentProtocolCompiler compiler = new AgentProtocolCompiler();
+
+    @Test
+    public void testProtocolCompilesToPlanInExecutionOrder() {
+        // Act
+        AgentPlan plan = compiler.compile(PROTOCOL);
+
+        // Assert
+        assertEquals(AgentProtocolCompiler.hash(PROTOCOL), plan.getHash());
+        assertEquals("Deviation Investigation Agent", plan.getName());
+        assertEquals(List.of("find_batch", "find_deviation"), plan.getTools());
+        assertEquals(2000, plan.getMaxTokens());
+        assertEquals(5, plan.getMaxToolCalls());
+        assertEquals(Duration.ofSeconds(90), plan.getTimeout());
+        assertEquals("classify", plan.getSteps().get(0).getId());
+        assertEquals("root_cause", plan.getSteps().get(1).getId());
+        assertEquals(List.of("find_batch"), plan.getSteps().get(1).getTools());
+        assertThrows(UnsupportedOperationException.class, () -> plan.getSteps().add(null));
+
+        WorkflowDefinition workflow = plan.toWorkflow();
+        assertEquals(500, workflow.getStep("classify").getParameters().get("max_tokens"));
+        assertEquals(List.of("category"), workflow.getStep("classify").getRequiredFields());
+        assertEquals("You investigate manufacturing deviations.", workflow.getStep("root_cause").getSystemPrompt());
+    }
+
+    @Test
+    public void testDescriptiveProtocolCompilesToConversationalPlan() {
+        // Act
+        AgentPlan plan = compiler.compile("{\"name\": \"Research Assistant Agent\","
+                + "\"capabilities\": [\"summarization\"], \"response_format\": \"conversational\"}");
+
+        // Assert
+        assertEquals("Research Assistant Agent", plan.getName());
+        assertTrue(plan.getSteps().isEmpty());
+        assertNull(plan.getTimeout());
+        assertThrows(IllegalStateException.class, plan::toWorkflow);
+    }
+
+    @Test
+    public void testInvalidProtocolsAreReportedWithTheirLocation() {
+        assertInvalid("{\"steps\": [", "not valid JSON");
+        assertInvalid("[]", "must be a JSON object");
+        assertInvalid("{\"budget\": {\"max_token\": 10}}", "budget: unknown key max_token");
+        assertInvalid("{\"steps\": [{\"id\": \"a\"}]}", "steps[0].prompt is required");
+        assertInvalid("{\"steps\": [{\"id\": \"a\", \"prompt\": \"p\", \"tools\": [\"find_batch\"]}]}",
+                "steps[0].tools: find_batch is not one of the agent's tools");
+        assertInvalid("{\"budget\": {\"max_tokens\": 100}, "
+                + "\"steps\": [{\"id\": \"a\", \"prompt\": \"p\", \"max_tokens\": 500}]}",
+                "steps[0].max_tokens exceeds the budget of 100 tokens");
+        assertInvalid("{\"steps\": [{\"id\": \"a\", \"prompt\": \"p\", \"depends_on\": [\"b\"]},"
+                + "{\"id\": \"b\", \"prompt\": \"p\", \"depends_on\": [\"a\"]}]}", "cycle");
+    }
+
+    @Test
+    public void testCacheCompilesEachProtocolOnceAndFollowsProtocolChanges() {
+        // Arrange
+        AgentProtocolCompiler spyCompiler = spy(new AgentProtocolCompiler());
+        AgentPlanCache cache = new AgentPlanCache(spyCompiler, 16);
+        Agent investigator = agent(1, PROTOCOL);
+        Agent copy = agent(2, PROTOCOL);
+
+        // Act
+        AgentPlan first = cache.getPlan(investigator);
+        AgentPlan again = cache.getPlan(investigator);
+        AgentPlan shared = cache.getPlan(copy);
+        cache.protocolChanged(1, "{\"name\": \"Updated\"}");
+        investigator.setAgentProtocol("{\"name\": \"Updated\"}");
+        AgentPlan updated = cache.getPlan(investigator);
+
+        // Assert
+        assertSame(first, again);
+        assertSame(first, shared);
+        assertEquals("Updated", updated.getName());
+        verify(spyCompiler, times(2)).compile(anyString(), anyString());
+        assertEquals(1, cache.toJson().get("invalidations").getAsLong());
+        assertNull(cache.getPlan(agent(3, null)));
+    }
+
+    @Test
+    public void testCacheComparesTheProtocolWithoutAnInvalidation() {
+        // Arrange
+        AgentPlanCache cache = new AgentPlanCache(new AgentProtocolCompiler(), 16);
+        Agent investigator = agent(1, PROTOCOL);
+        cache.getPlan(investigator);
+
+        // Act
+        investigator.setAgentProtocol("{\"name\": \"Changed on another node\"}");
+
+        // Assert
+        assertEquals("Changed on another node", cache.getPlan(investigator).getName());
+    }
+
+    private void assertInvalid(String protocol, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> compiler.compile(protocol));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private static Agent agent(int id, String protocol) {
+        Agent agent = new Agent(7, "investigator");
+        agent.setId(id);
+        agent.setStatus(AgentStatus.ACTIVE);
+        agent.setAgentProtocol(protocol);
+        return agent;
+    }
+}
@@ -0,0 +1,247 @@
+package com.celestra.ai.agent;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.claude.ClaudeChatCompletionService;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.openai.OpenAIChatCompletionService;
+import com.celestra.ai.routing.ModelTierChatCompletionService;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.enums.AgentStatus;
+import com.celestra.model.Agent;
+
+public class AgentRuntimeTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(new ChatMessage("user", "Open a deviation"));
+
+    @Mock
+    private ChatCompletionService service;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private AgentRuntime runtime;
+    private Agent agent;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(2);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        runtime = new AgentRuntime(executor, scheduler, new AgentPlanCache(new AgentProtocolCompiler(), 16), 2,
+                Duration.ofSeconds(30));
+        agent = new Agent(7, "investigator");
+        agent.setId(42);
+        agent.setStatus(AgentStatus.ACTIVE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testChatRunsForTheAgentWithoutHoldingAThread() throws Exception {
+        // Arrange
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        TelemetryContext[] seen = new TelemetryContext[1];
+        when(service.getChatCompletionAsync(any(), anyMap())).thenAnswer(invocation -> {
+            seen[0] = TelemetryContext.current();
+            return upstream;
+        });
+
+        // Act
+        CompletableFuture<String> result = runtime.start(agent,
+                session -> session.chat(service, MESSAGES, null).thenApply(String::toUpperCase));
+        int liveWhileWaiting = runtime.getLiveSessionCount(42);
+        upstream.complete("opened");
+
+        // Assert
+        assertEquals(1, liveWhileWaiting);
+        assertEquals("OPENED", result.get(1, TimeUnit.SECONDS));
+        assertEquals(0, runtime.getLiveSessionCount());
+        assertEquals(7, seen[0].getCompanyId());
+        assertEquals(42, seen[0].getAgentId());
+        assertEquals("investigator", seen[0].getAgent());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> parameters = ArgumentCaptor.forClass(Map.class);
+        verify(service).getChatCompletionAsync(eq(MESSAGES), parameters.capture());
+        assertEquals("agent.42", parameters.getValue().get(ModelTierChatCompletionService.TASK_PARAMETER));
+        assertEquals(1, runtime.toJson().get("completed").getAsLong());
+    }
+
+    @Test
+    public void testSessionsOverTheAgentLimitAreRejected() throws Exception {
+        // Arrange
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        runtime.start(agent, session -> pending);
+        runtime.start(agent, session -> pending);
+
+        // Act
+        CompletableFuture<String> third = runtime.start(agent, session -> CompletableFuture.completedFuture("x"));
+        agent.setStatus(AgentStatus.DRAFT);
+        CompletableFuture<String> inactive = runtime.start(agent, session -> CompletableFuture.completedFuture("x"));
+
+        // Assert
+        ExecutionException rejected = assertThrows(ExecutionException.class, () -> third.get(1, TimeUnit.SECONDS));
+        assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+        ExecutionException refused = assertThrows(ExecutionException.class, () -> inactive.get(1, TimeUnit.SECONDS));
+        assertTrue(refused.getCause() instanceof IllegalStateException);
+        assertEquals(2, runtime.getLiveSessionCount(42));
+        assertEquals(2, runtime.toJson().get("rejected").getAsLong());
+    }
+
+    @Test
+    public void testSessionRunsTheCompiledPlanOfItsAgent() throws Exception {
+        // Arrange
+        agent.setAgentProtocol("{\"name\": \"Investigation\", \"budget\": {\"timeout_seconds\": 1}}");
+        Agent broken = new Agent(7, "broken");
+        broken.setId(43);
+        broken.setStatus(AgentStatus.ACTIVE);
+        broken.setAgentProtocol("{\"steps\": 1}");
+
+        // Act
+        CompletableFuture<AgentPlan> plan = runtime.start(agent, session -> CompletableFuture.completedFuture(
+                session.getPlan()));
+        CompletableFuture<String> refused = runtime.start(broken, session -> CompletableFuture.completedFuture("x"));
+
+        // Assert
+        assertEquals("Investigation", plan.get(1, TimeUnit.SECONDS).getName());
+        assertEquals(Duration.ofSeconds(1), plan.get().getTimeout());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> refused.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+        assertEquals(1, runtime.toJson().getAsJsonObject("plans").get("compiles").getAsLong());
+    }
+
+    @Test
+    public void testDeadlineTimesOutTheSessionAndCancelsItsCalls() throws Exception {
+        // Arrange
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        when(service.getChatCompletionAsync(any(), anyMap())).thenReturn(upstream);
+
+        // Act
+        CompletableFuture<String> result = runtime.start(agent, Duration.ofMillis(50),
+                session -> session.chat(service, MESSAGES, Map.of()));
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertThrows(CancellationException.class, () -> upstream.get(1, TimeUnit.SECONDS));
+        assertEquals(0, runtime.getLiveSessionCount());
+        assertEquals(1, runtime.toJson().get("timedOut").getAsLong());
+    }
+
+    @Test
+    public void testDisablingTheAgentCancelsItsSessionsAndInterruptsForkedWork() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> result = runtime.start(agent, session -> session.fork(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                return "done";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // Act
+        runtime.statusChanged(42, AgentStatus.DISABLED);
+        CompletableFuture<String> afterDisable = runtime.start(agent,
+                session -> CompletableFuture.completedFuture("x"));
+
+        // Assert
+        assertThrows(CancellationException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertTrue(afterDisable.isCompletedExceptionally());
+        assertEquals(1, runtime.toJson().get("cancelled").getAsLong());
+
+        runtime.statusChanged(42, AgentStatus.ACTIVE);
+        assertEquals("x", runtime.start(agent, session -> CompletableFuture.completedFuture("x"))
+                .get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelRacingCompletionNeverInterruptsTheNextTask() throws Exception {
+        // Arrange
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        AgentRuntime singleRuntime = new AgentRuntime(single, scheduler,
+                new AgentPlanCache(new AgentProtocolCompiler(), 16), 2, Duration.ofSeconds(30));
+        try {
+            for (int i = 0; i < 500; i++) {
+                // Act
+                boolean interrupted = singleRuntime.start(agent, session -> {
+                    session.fork(() -> "done").cancel(true);
+                    return session.fork(() -> Thread.currentThread().isInterrupted());
+                }).get(1, TimeUnit.SECONDS);
+
+                // Assert
+                assertFalse(interrupted);
+            }
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCancelledSessionPlacesNoFurtherProviderCalls() throws Exception {
+        // Arrange
+        AIConfigurationManager config = mock(AIConfigurationManager.class);
+        when(config.getClaudeApiKey()).thenReturn("test-key");
+        when(config.getClaudeRetryAttempts()).thenReturn(2);
+        when(config.getClaudeRetryDelayMs()).thenReturn(1);
+        when(config.getOpenAIApiKey()).thenReturn("test-key");
+        when(config.getOpenAIRetryAttempts()).thenReturn(2);
+        when(config.getOpenAIRetryDelayMs()).thenReturn(1);
+        HttpClientWrapper httpClient = mock(HttpClientWrapper.class);
+        CountDownLatch started = new CountDownLatch(2);
+        when(httpClient.sendRequest(any())).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            return null;
+        });
+        List<ChatCompletionService> providers = List.of(new ClaudeChatCompletionService(config, httpClient),
+                new OpenAIChatCompletionService(config, httpClient));
+        for (ChatCompletionService provider : providers) {
+            runtime.start(agent, session -> session.fork(() -> provider.getChatCompletion(MESSAGES)));
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // Act
+        runtime.statusChanged(42, AgentStatus.DISABLED);
+        executor.shutdown();
+
+        // Assert
+        assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+        verify(httpClient, times(2)).sendRequest(any());
+    }
+}
@@ -0,0 +1,159 @@
+package com.celestra.ai.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.celestra.ai.AsyncRetryExecutor;
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.StubChatCompletionServer;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.http.DefaultHttpClientWrapper;
+import com.celestra.ai.openai.OpenAIChatCompletionService;
+import com.celestra.ai.telemetry.TelemetryContext;
+
+public class PromptBatchExecutorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private StubChatCompletionServer server;
+    private PromptBatchExecutor executor;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new StubChatCompletionServer();
+
+        AIConfigurationManager configManager = mock(AIConfigurationManager.class);
+        when(configManager.getOpenAIApiKey()).thenReturn("test-key");
+        when(configManager.getOpenAIApiUrl()).thenReturn(server.getUrl());
+        when(configManager.getOpenAIMaxTokens()).thenReturn(100);
+
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        executor = new PromptBatchExecutor(new OpenAIChatCompletionService(configManager,
+                new DefaultHttpClientWrapper(httpClient, null), new AsyncRetryExecutor()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testOrderedResultsWithBoundedConcurrency() throws Exception {
+        // Arrange
+        server.setLatencyMs(20);
+        BatchOptions options = new BatchOptions();
+        options.setConcurrency(4);
+        List<PromptResult> results = new ArrayList<>();
+
+        // Act
+        BatchSummary summary = executor.execute(jobs(20), options, results::add);
+
+        // Assert
+        assertEquals(20, summary.getSubmitted());
+        assertEquals(20, summary.getSucceeded());
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals("echo: prompt " + i, results.get(i).getCompletion());
+        }
+        assertTrue(server.getMaxInFlight() > 1);
+        assertTrue(server.getMaxInFlight() <= 4);
+    }
+
+    @Test
+    public void testUnorderedFailuresAreReported() throws Exception {
+        // Arrange
+        server.failOn("prompt 3");
+        BatchOptions options = new BatchOptions();
+        options.setOrdered(false);
+        List<PromptResult> results = new ArrayList<>();
+
+        // Act
+        BatchSummary summary = executor.execute(jobs(10), options, results::add);
+
+        // Assert
+        assertEquals(9, summary.getSucceeded());
+        assertEquals(1, summary.getFailed());
+        PromptResult failure = results.stream().filter(r -> !r.isSuccess()).findFirst().orElseThrow();
+        assertEquals("job-3", failure.getJobId());
+        assertNotNull(failure.getError());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        // Arrange: the first run stops when the handler fails on the sixth result
+        Path checkpoint = tempDir.resolve("batch.checkpoint");
+        BatchOptions options = new BatchOptions();
+        options.setConcurrency(1);
+        options.setCheckpointFile(checkpoint);
+        List<PromptResult> firstRun = new ArrayList<>();
+
+        assertThrows(IOException.class, () -> executor.execute(jobs(10), options, result -> {
+            if (firstRun.size() == 5) {
+                throw new IOException("Disk full");
+            }
+            firstRun.add(result);
+        }));
+        assertTrue(Files.exists(checkpoint));
+        int requestsBefore = server.getRequestCount();
+
+        // Act
+        List<PromptResult> secondRun = new ArrayList<>();
+        BatchSummary summary = executor.execute(jobs(10), options, secondRun::add);
+
+        // Assert: journaled prompts are handed back without calling the provider
+        assertEquals(10, secondRun.size());
+        assertEquals(6, summary.getResumed());
+        assertEquals(4, summary.getSucceeded());
+        assertEquals(4, server.getRequestCount() - requestsBefore);
+        assertTrue(secondRun.get(0).isResumed());
+        assertEquals("echo: prompt 9", secondRun.get(9).getCompletion());
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testPromptsAreMadeForTheCallerOfTheBatch() throws Exception {
+        // Arrange
+        ChatCompletionService service = mock(ChatCompletionService.class);
+        List<TelemetryContext> callers = new ArrayList<>();
+        when(service.getChatCompletionAsync(anyList())).thenAnswer(invocation -> {
+            callers.add(TelemetryContext.current());
+            return CompletableFuture.completedFuture("ok");
+        });
+        BatchOptions options = new BatchOptions();
+        options.setConcurrency(1);
+        options.setCaller(TelemetryContext.of(7, 42, "investigator"));
+
+        // Act
+        new PromptBatchExecutor(service).execute(jobs(3), options, result -> { });
+
+        // Assert
+        assertEquals(3, callers.size());
+        for (TelemetryContext caller : callers) {
+            assertEquals(7, caller.getCompanyId());
+            assertEquals(42, caller.getAgentId());
+        }
+    }
+
+    private static Stream<PromptJob> jobs(int count) {
+        return IntStream.range(0, count).mapToObj(i ->
+                new PromptJob("job-" + i, List.of(new ChatMessage("user", "prompt " + i))));
+    }
+}
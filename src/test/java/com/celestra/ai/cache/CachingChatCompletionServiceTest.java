@@ -0,0 +1,210 @@
+package com.celestra.ai.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+
+public class CachingChatCompletionServiceTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(
+            new ChatMessage("system", "Classify the deviation."),
+            new ChatMessage("user", "Temperature excursion in cold room 2"));
+
+    @Mock
+    private ChatCompletionService delegate;
+
+    @TempDir
+    Path tempDir;
+
+    private CachingChatCompletionService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = newService(new CompletionCache(10, tempDir, 1024 * 1024));
+    }
+
+    @Test
+    public void testCachedCallIsServedOnce() throws Exception {
+        // Arrange
+        when(delegate.getChatCompletion(eq(MESSAGES), anyMap())).thenReturn("MAJOR");
+
+        // Act
+        String first = service.getChatCompletion(MESSAGES, Map.of("temperature", 0, "cache", true));
+        String second = service.getChatCompletion(MESSAGES, Map.of("cache", true, "temperature", 0));
+
+        // Assert: the cache parameter is not sent upstream
+        assertEquals("MAJOR", first);
+        assertEquals("MAJOR", second);
+        verify(delegate, times(1)).getChatCompletion(MESSAGES, Map.of("temperature", 0));
+    }
+
+    @Test
+    public void testUncachedCallAlwaysGoesUpstream() throws Exception {
+        // Arrange
+        when(delegate.getChatCompletion(eq(MESSAGES), anyMap())).thenReturn("A", "B");
+
+        // Act & Assert
+        assertEquals("A", service.getChatCompletion(MESSAGES, Map.of("temperature", 0)));
+        assertEquals("B", service.getChatCompletion(MESSAGES, Map.of("temperature", 0)));
+    }
+
+    @Test
+    public void testDifferentParametersUseDifferentKeys() {
+        assertNotEquals(service.computeKey(MESSAGES, Map.of("temperature", 0)),
+                service.computeKey(MESSAGES, Map.of("temperature", 1)));
+        assertEquals(service.computeKey(MESSAGES, Map.of("temperature", 0, "top_p", 1)),
+                service.computeKey(MESSAGES, Map.of("top_p", 1, "temperature", 0)));
+    }
+
+    @Test
+    public void testDiskTierSurvivesNewCache() throws Exception {
+        // Arrange
+        when(delegate.getChatCompletion(eq(MESSAGES), anyMap())).thenReturn("MINOR");
+        service.getChatCompletion(MESSAGES, Map.of("cache", true));
+
+        // Act: a fresh memory tier over the same directory
+        CachingChatCompletionService restarted = newService(new CompletionCache(10, tempDir, 1024 * 1024));
+        String result = restarted.getChatCompletion(MESSAGES, Map.of("cache", true));
+
+        // Assert
+        assertEquals("MINOR", result);
+        verify(delegate, times(1)).getChatCompletion(eq(MESSAGES), anyMap());
+    }
+
+    @Test
+    public void testExpiredEntryIsRefreshed() throws Exception {
+        // Arrange
+        when(delegate.getChatCompletion(eq(MESSAGES), anyMap())).thenReturn("OLD", "NEW");
+        service.getChatCompletion(MESSAGES, Map.of("cache", true, "cache_ttl_seconds", 0));
+
+        // Act
+        String result = service.getChatCompletion(MESSAGES, Map.of("cache", true));
+
+        // Assert
+        assertEquals("NEW", result);
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsShareOneUpstreamCall() throws Exception {
+        // Arrange
+        CountDownLatch upstreamStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.getChatCompletion(eq(MESSAGES), anyMap())).thenAnswer(invocation -> {
+            upstreamStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "CRITICAL";
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> service.getChatCompletion(MESSAGES, Map.of("cache", true))));
+            assertTrue(upstreamStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> service.getChatCompletion(MESSAGES, Map.of("cache", true))));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            // Assert
+            for (Future<String> result : results) {
+                assertEquals("CRITICAL", result.get(5, TimeUnit.SECONDS));
+            }
+            verify(delegate, times(1)).getChatCompletion(eq(MESSAGES), anyMap());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAsyncCallsShareOneUpstreamCall() throws Exception {
+        // Arrange
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        when(delegate.getChatCompletionAsync(eq(MESSAGES), anyMap())).thenReturn(upstream);
+
+        // Act
+        CompletableFuture<String> first = service.getChatCompletionAsync(MESSAGES, Map.of("cache", true));
+        CompletableFuture<String> second = service.getChatCompletionAsync(MESSAGES, Map.of("cache", true));
+        second.cancel(true);
+        upstream.complete("MAJOR");
+
+        // Assert
+        assertEquals("MAJOR", first.get(5, TimeUnit.SECONDS));
+        assertEquals("MAJOR", service.getChatCompletionAsync(MESSAGES, Map.of("cache", true)).get());
+        verify(delegate, times(1)).getChatCompletionAsync(eq(MESSAGES), anyMap());
+    }
+
+    @Test
+    public void testSweepDeletesExpiredEntriesAndStaleTemporaryFiles() throws Exception {
+        // Arrange
+        CompletionCache cache = new CompletionCache(10, tempDir, 1024 * 1024);
+        cache.put("aa01", "expired", 0);
+        cache.put("bb02", "live", 3600_000);
+        Path stale = Files.createFile(tempDir.resolve("bb").resolve("bb03.tmp"));
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 7200_000));
+
+        // Act
+        int deleted = cache.sweep();
+
+        // Assert
+        assertEquals(2, deleted);
+        assertFalse(Files.exists(tempDir.resolve("aa").resolve("aa01.json")));
+        assertFalse(Files.exists(stale));
+        assertEquals("live", new CompletionCache(10, tempDir, 1024 * 1024).get("bb02"));
+    }
+
+    @Test
+    public void testSweepEvictsLeastRecentlyReadEntriesOverTheLimit() throws Exception {
+        // Arrange: three entries written an hour apart, the oldest read since
+        CompletionCache writer = new CompletionCache(10, tempDir, 1024 * 1024);
+        long now = System.currentTimeMillis();
+        String[] keys = {"aa01", "bb02", "cc03"};
+        for (int i = 0; i < keys.length; i++) {
+            writer.put(keys[i], "completion " + i, 3600_000);
+            Files.setLastModifiedTime(file(keys[i]), FileTime.fromMillis(now - (i + 1) * 3600_000L));
+        }
+        assertEquals("completion 2", new CompletionCache(10, tempDir, 1024 * 1024).get("cc03"));
+        long twoFiles = Files.size(file("aa01")) + Files.size(file("cc03"));
+
+        // Act
+        int deleted = new CompletionCache(10, tempDir, twoFiles).sweep();
+
+        // Assert
+        assertEquals(1, deleted);
+        assertTrue(Files.exists(file("aa01")));
+        assertFalse(Files.exists(file("bb02")));
+        assertTrue(Files.exists(file("cc03")));
+    }
+
+    private Path file(String key) {
+        return tempDir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private CachingChatCompletionService newService(CompletionCache cache) {
+        return new CachingChatCompletionService(delegate, "claude", "claude-test", cache, 3600);
+    }
+}
@@ -0,0 +1,198 @@
+package com.celestra.ai.claude;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.AsyncRetryExecutor;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.TokenUsage;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AuthenticationException;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.HttpClientWrapper.SimpleHttpResponse;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class ClaudeChatCompletionServiceAsyncTest {
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    @Mock
+    private HttpClientWrapper httpClient;
+
+    private ScheduledExecutorService scheduler;
+    private ClaudeChatCompletionService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getClaudeApiKey()).thenReturn("test-key");
+        when(configManager.getClaudeModel()).thenReturn("claude-test");
+        when(configManager.getClaudeMaxTokens()).thenReturn(1024);
+        when(configManager.getClaudeRetryAttempts()).thenReturn(2);
+        when(configManager.getClaudeRetryDelayMs()).thenReturn(1);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        service = new ClaudeChatCompletionService(configManager, httpClient, new AsyncRetryExecutor(scheduler));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testAsyncCompletionRetriesServerErrors() throws Exception {
+        // Arrange
+        when(httpClient.sendRequestAsync(any()))
+                .thenReturn(CompletableFuture.completedFuture(response(503, "{\"error\":{\"message\":\"Overloaded\"}}")))
+                .thenReturn(CompletableFuture.completedFuture(
+                        response(200, "{\"content\":[{\"type\":\"text\",\"text\":\"Done\"}]}")));
+
+        // Act
+        String result = service.getChatCompletionAsync(List.of(new ChatMessage("user", "Hi")))
+                .get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("Done", result);
+        verify(httpClient, times(2)).sendRequestAsync(any());
+        verify(httpClient, never()).sendRequest(any());
+    }
+
+    @Test
+    public void testAsyncCompletionFailsFastWithoutApiKey() {
+        // Arrange
+        when(configManager.getClaudeApiKey()).thenReturn("");
+
+        // Act
+        CompletableFuture<String> result = service.getChatCompletionAsync(List.of(new ChatMessage("user", "Hi")));
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof AuthenticationException);
+        verifyNoInteractions(httpClient);
+    }
+
+    @Test
+    public void testExtractsTextFromFullResponseBody() throws Exception {
+        // Arrange
+        String body = "{\"id\":\"msg_1\",\"type\":\"message\",\"role\":\"assistant\",\"model\":\"claude-test\","
+                + "\"content\":[{\"type\":\"text\",\"citations\":[{\"text\":\"ignored\"}],\"text\":\"Caf\u00e9 \\\"ok\\\"\"},"
+                + "{\"type\":\"text\",\"text\":\"second\"}],"
+                + "\"stop_reason\":\"end_turn\",\"usage\":{\"input_tokens\":12,\"output_tokens\":3}}";
+        when(httpClient.sendRequestAsync(any())).thenReturn(CompletableFuture.completedFuture(
+                new SimpleHttpResponse(200, body.getBytes(StandardCharsets.UTF_8), Collections.emptyMap())));
+
+        // Act
+        String result = service.getChatCompletionAsync(List.of(new ChatMessage("user", "Hi")))
+                .get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("Caf\u00e9 \"ok\"", result);
+    }
+
+    @Test
+    public void testSendsSystemMessagesAsTopLevelFieldWithCacheBreakpoints() throws Exception {
+        // Arrange
+        when(httpClient.sendRequestAsync(any())).thenReturn(CompletableFuture.completedFuture(
+                response(200, "{\"content\":[{\"type\":\"text\",\"text\":\"Done\"}]}")));
+        List<ChatMessage> messages = List.of(
+                new ChatMessage("system", "Instructions"),
+                new ChatMessage("system", "Knowledge base", true),
+                new ChatMessage("user", "Question"));
+
+        // Act
+        service.getChatCompletionAsync(messages).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendRequestAsync(captor.capture());
+        JsonObject body = JsonParser.parseString(readBody(captor.getValue())).getAsJsonObject();
+
+        JsonArray system = body.getAsJsonArray("system");
+        assertEquals(2, system.size());
+        assertEquals("Instructions", system.get(0).getAsJsonObject().get("text").getAsString());
+        assertFalse(system.get(0).getAsJsonObject().has("cache_control"));
+        assertEquals("ephemeral", system.get(1).getAsJsonObject()
+                .getAsJsonObject("cache_control").get("type").getAsString());
+
+        JsonArray sent = body.getAsJsonArray("messages");
+        assertEquals(1, sent.size());
+        assertEquals("user", sent.get(0).getAsJsonObject().get("role").getAsString());
+        assertEquals("Question", sent.get(0).getAsJsonObject().get("content").getAsString());
+    }
+
+    @Test
+    public void testRecordsPromptCacheUsage() throws Exception {
+        // Arrange
+        when(httpClient.sendRequestAsync(any())).thenReturn(CompletableFuture.completedFuture(response(200,
+                "{\"content\":[{\"type\":\"text\",\"text\":\"Done\"}],\"usage\":{\"input_tokens\":20,"
+                        + "\"cache_creation_input_tokens\":0,\"cache_read_input_tokens\":2000,\"output_tokens\":5}}")));
+
+        // Act
+        service.getChatCompletionAsync(List.of(new ChatMessage("user", "Hi"))).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        TokenUsage usage = service.getTokenUsage();
+        assertEquals(20, usage.getInputTokens());
+        assertEquals(5, usage.getOutputTokens());
+        assertEquals(2000, usage.getCacheReadInputTokens());
+        assertEquals(2000.0 / 2020, usage.getCacheHitRate(), 1e-9);
+    }
+
+    private SimpleHttpResponse response(int statusCode, String body) {
+        return new SimpleHttpResponse(statusCode, body, Collections.emptyMap());
+    }
+
+    private static String readBody(HttpRequest request) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                body.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return body.toString(StandardCharsets.UTF_8);
+    }
+}
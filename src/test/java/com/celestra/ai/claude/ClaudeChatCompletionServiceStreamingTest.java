@@ -0,0 +1,187 @@
+package com.celestra.ai.claude;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.agent.AgentPlanCache;
+import com.celestra.ai.agent.AgentProtocolCompiler;
+import com.celestra.ai.agent.AgentRuntime;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.HttpClientWrapper.StreamingHttpResponse;
+import com.celestra.enums.AgentStatus;
+import com.celestra.model.Agent;
+
+public class ClaudeChatCompletionServiceStreamingTest {
+
+    private static final String STREAM =
+            "event: message_start\n" +
+            "data: {\"type\":\"message_start\",\"message\":{\"id\":\"msg_1\"}}\n\n" +
+            "event: content_block_delta\n" +
+            "data: {\"type\":\"content_block_delta\",\"index\":0,\"delta\":{\"type\":\"text_delta\",\"text\":\"Root \"}}\n\n" +
+            "event: ping\n" +
+            "data: {\"type\":\"ping\"}\n\n" +
+            "event: content_block_delta\n" +
+            "data: {\"type\":\"content_block_delta\",\"index\":0,\"delta\":{\"type\":\"text_delta\",\"text\":\"cause\"}}\n\n" +
+            "event: message_stop\n" +
+            "data: {\"type\":\"message_stop\"}\n\n";
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    @Mock
+    private HttpClientWrapper httpClient;
+
+    private ClaudeChatCompletionService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getClaudeApiKey()).thenReturn("test-key");
+        when(configManager.getClaudeModel()).thenReturn("claude-test");
+        when(configManager.getClaudeMaxTokens()).thenReturn(1024);
+        when(configManager.getClaudeRetryAttempts()).thenReturn(1);
+        when(configManager.getClaudeRetryDelayMs()).thenReturn(1);
+        service = new ClaudeChatCompletionService(configManager, httpClient);
+    }
+
+    @Test
+    public void testStreamDeliversDeltasInOrder() throws Exception {
+        // Arrange
+        when(httpClient.sendStreamingRequest(any())).thenReturn(response(200, STREAM));
+        List<String> deltas = new ArrayList<>();
+        List<String> completions = new ArrayList<>();
+
+        // Act
+        String result = service.streamChatCompletion(List.of(new ChatMessage("user", "Why?")),
+                new ChatCompletionListener(deltas, completions));
+
+        // Assert
+        assertEquals("Root cause", result);
+        assertEquals(List.of("Root ", "cause"), deltas);
+        assertEquals(List.of("Root cause"), completions);
+    }
+
+    @Test
+    public void testStreamRetriesBeforeFirstDelta() throws Exception {
+        // Arrange
+        when(httpClient.sendStreamingRequest(any()))
+                .thenThrow(new IOException("Connection reset"))
+                .thenReturn(response(200, STREAM));
+
+        // Act
+        String result = service.streamChatCompletion(List.of(new ChatMessage("user", "Why?")), delta -> { });
+
+        // Assert
+        assertEquals("Root cause", result);
+        verify(httpClient, times(2)).sendStreamingRequest(any());
+    }
+
+    @Test
+    public void testTruncatedStreamIsNotRetriedAfterDelta() throws Exception {
+        // Arrange: the stream ends without message_stop
+        String truncated = STREAM.substring(0, STREAM.indexOf("event: ping"));
+        when(httpClient.sendStreamingRequest(any())).thenReturn(response(200, truncated));
+
+        // Act & Assert
+        assertThrows(AIServiceException.class,
+                () -> service.streamChatCompletion(List.of(new ChatMessage("user", "Why?")), delta -> { }));
+        verify(httpClient, times(1)).sendStreamingRequest(any());
+    }
+
+    @Test
+    public void testStreamErrorStatusIsMapped() throws Exception {
+        // Arrange
+        when(httpClient.sendStreamingRequest(any())).thenReturn(
+                response(400, "{\"type\":\"error\",\"error\":{\"message\":\"bad\"}}"));
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> service.streamChatCompletion(List.of(new ChatMessage("user", "Why?")), delta -> { }));
+    }
+
+    @Test
+    public void testCancelledSessionIsNotRetried() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AgentRuntime runtime = new AgentRuntime(executor, scheduler,
+                new AgentPlanCache(new AgentProtocolCompiler(), 16), 2, Duration.ofSeconds(30));
+        Agent agent = new Agent(7, "investigator");
+        agent.setId(42);
+        agent.setStatus(AgentStatus.ACTIVE);
+        CountDownLatch started = new CountDownLatch(1);
+        when(httpClient.sendStreamingRequest(any())).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+            return response(200, STREAM);
+        });
+
+        try {
+            // Act
+            CompletableFuture<String> result = runtime.start(agent, session -> session.stream(service,
+                    List.of(new ChatMessage("user", "Why?")), null, delta -> { }));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            runtime.statusChanged(42, AgentStatus.DISABLED);
+            executor.shutdown();
+
+            // Assert
+            assertThrows(CancellationException.class, () -> result.get(1, TimeUnit.SECONDS));
+            assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+            verify(httpClient, times(1)).sendStreamingRequest(any());
+        } finally {
+            executor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+
+    private StreamingHttpResponse response(int statusCode, String body) {
+        InputStream stream = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        return new StreamingHttpResponse(statusCode, stream, Collections.emptyMap());
+    }
+
+    private static class ChatCompletionListener implements com.celestra.ai.ChatCompletionService.StreamListener {
+        private final List<String> deltas;
+        private final List<String> completions;
+
+        ChatCompletionListener(List<String> deltas, List<String> completions) {
+            this.deltas = deltas;
+            this.completions = completions;
+        }
+
+        @Override
+        public void onDelta(String delta) {
+            deltas.add(delta);
+        }
+
+        @Override
+        public void onComplete(String completion) {
+            completions.add(completion);
+        }
+    }
+}
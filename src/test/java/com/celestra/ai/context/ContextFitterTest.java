@@ -0,0 +1,177 @@
+package com.celestra.ai.context;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.tool.ToolCall;
+
+public class ContextFitterTest {
+
+    private TokenEstimator estimator;
+    private ContextFitter fitter;
+
+    @BeforeEach
+    public void setUp() {
+        estimator = new TokenEstimator();
+        fitter = new ContextFitter(estimator, 0, null);
+    }
+
+    @Test
+    public void testEstimateApproximatesBpe() {
+        assertEquals(0, estimator.estimate((CharSequence) null));
+        // "Hello", ",", " world", "!"
+        assertEquals(4, estimator.estimate("Hello, world!"));
+        // Digits group in threes
+        assertEquals(3, estimator.estimate("1234567"));
+        // Long words split into several tokens
+        assertTrue(estimator.estimate("internationalization") > 1);
+        // Ideographs are one token each
+        assertEquals(4, estimator.estimate("人工智能"));
+        assertEquals(TokenEstimator.REPLY_OVERHEAD + TokenEstimator.MESSAGE_OVERHEAD + 1,
+                estimator.estimate(List.of(new ChatMessage("user", "Hi"))));
+    }
+
+    @Test
+    public void testConversationThatFitsIsUnchanged() {
+        List<ChatMessage> messages = List.of(new ChatMessage("system", "Be brief"), new ChatMessage("user", "Hi"));
+
+        assertSame(messages, fitter.fit(messages, 1000, 100));
+        assertSame(messages, fitter.fit(messages, 0, 100));
+    }
+
+    @Test
+    public void testOldestTurnsAreDroppedFirst() {
+        // Arrange
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", "You are an investigator"));
+        for (int i = 0; i < 10; i++) {
+            messages.add(new ChatMessage("user", "question " + i + " " + words(50)));
+            messages.add(new ChatMessage("assistant", "answer " + i + " " + words(50)));
+        }
+        messages.add(new ChatMessage("user", "final question"));
+        int limit = estimator.estimate(messages) / 2;
+
+        // Act
+        List<ChatMessage> fitted = fitter.fit(messages, limit, 0);
+
+        // Assert
+        assertTrue(estimator.estimate(fitted) <= limit);
+        assertEquals("system", fitted.get(0).getRole());
+        assertEquals("user", fitted.get(1).getRole());
+        assertEquals("final question", fitted.get(fitted.size() - 1).getContent());
+        assertFalse(fitted.stream().anyMatch(m -> m.getContent().startsWith("question 0 ")));
+        assertEquals(22, messages.size());
+    }
+
+    @Test
+    public void testDroppedMessagesAreSummarized() {
+        // Arrange
+        List<List<ChatMessage>> summarized = new ArrayList<>();
+        ContextFitter summarizing = new ContextFitter(estimator, 0, dropped -> {
+            summarized.add(dropped);
+            return "The user asked about logins";
+        });
+        List<ChatMessage> messages = List.of(
+                new ChatMessage("user", words(200)),
+                new ChatMessage("assistant", words(200)),
+                new ChatMessage("user", "And now?"));
+
+        // Act
+        List<ChatMessage> fitted = summarizing.fit(messages, 100, 20);
+
+        // Assert
+        assertEquals(1, summarized.size());
+        assertEquals(2, summarized.get(0).size());
+        assertEquals(2, fitted.size());
+        assertTrue(fitted.get(0).getContent().endsWith("The user asked about logins"));
+        assertEquals("And now?", fitted.get(1).getContent());
+    }
+
+    @Test
+    public void testOversizedLastMessageIsTruncatedInTheMiddle() {
+        // Arrange
+        String content = "BEGIN " + words(2000) + " END";
+        List<ChatMessage> messages = List.of(new ChatMessage("system", "Summarize"),
+                new ChatMessage("user", content));
+
+        // Act
+        List<ChatMessage> fitted = fitter.fit(messages, 500, 100);
+
+        // Assert
+        assertTrue(estimator.estimate(fitted) <= 400);
+        String truncated = fitted.get(1).getContent();
+        assertTrue(truncated.startsWith("BEGIN "));
+        assertTrue(truncated.endsWith(" END"));
+        assertTrue(truncated.contains("[... truncated ...]"));
+        assertEquals(content, messages.get(1).getContent());
+    }
+
+    @Test
+    public void testToolCallIsDroppedWithAllOfItsResults() {
+        // Arrange
+        List<List<ChatMessage>> summarized = new ArrayList<>();
+        ContextFitter summarizing = new ContextFitter(estimator, 0, dropped -> {
+            summarized.add(dropped);
+            return "The batch was found";
+        });
+        ToolCall findBatch = new ToolCall("call_1", "find_batch", "{}");
+        ToolCall findDeviation = new ToolCall("call_2", "find_deviation", "{}");
+        ChatMessage call = new ChatMessage("assistant", "");
+        call.setToolCalls(List.of(findBatch, findDeviation));
+        List<ChatMessage> messages = List.of(
+                new ChatMessage("tool", "orphan " + words(10)),
+                new ChatMessage("user", words(100)),
+                call,
+                findBatch.toResultMessage(words(100)),
+                findDeviation.toResultMessage(words(100)),
+                new ChatMessage("assistant", "Batch 7 deviated"),
+                new ChatMessage("user", "Why?"));
+
+        // Act
+        List<ChatMessage> fitted = summarizing.fit(messages, estimator.estimate(messages) / 2, 0);
+
+        // Assert
+        assertFalse(fitted.stream().anyMatch(m -> "tool".equals(m.getRole())));
+        assertEquals("Why?", fitted.get(fitted.size() - 1).getContent());
+        List<ChatMessage> dropped = summarized.get(0);
+        assertTrue(dropped.contains(messages.get(3)));
+        assertTrue(dropped.contains(messages.get(4)));
+    }
+
+    @Test
+    public void testTruncatedToolResultKeepsItsCall() {
+        // Arrange
+        ToolCall findBatch = new ToolCall("call_1", "find_batch", "{}");
+        ChatMessage call = new ChatMessage("assistant", "");
+        call.setToolCalls(List.of(findBatch));
+        List<ChatMessage> messages = List.of(
+                new ChatMessage("user", "Find batch 7"),
+                call,
+                findBatch.toResultMessage("BEGIN " + words(2000) + " END"));
+
+        // Act
+        List<ChatMessage> fitted = fitter.fit(messages, 500, 100);
+
+        // Assert
+        assertTrue(estimator.estimate(fitted) <= 400);
+        assertSame(call, fitted.get(fitted.size() - 2));
+        ChatMessage result = fitted.get(fitted.size() - 1);
+        assertEquals("tool", result.getRole());
+        assertEquals("call_1", result.getToolCallId());
+        assertTrue(result.getContent().contains("[... truncated ...]"));
+    }
+
+    private static String words(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "" : " ").append("word");
+        }
+        return builder.toString();
+    }
+}
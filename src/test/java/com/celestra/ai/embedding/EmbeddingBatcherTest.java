@@ -0,0 +1,158 @@
+package com.celestra.ai.embedding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.celestra.ai.EmbeddingService;
+
+public class EmbeddingBatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final LocalEmbeddingService local = new LocalEmbeddingService(64);
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final EmbeddingService recording = new EmbeddingService() {
+        @Override
+        public List<float[]> embedAll(List<String> texts) {
+            batches.add(texts);
+            return local.embedAll(texts);
+        }
+
+        @Override
+        public String getModel() {
+            return local.getModel();
+        }
+    };
+
+    private ExecutorService batchExecutor;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        batchExecutor = Executors.newFixedThreadPool(2);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batchExecutor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testCoalescesConcurrentCallsIntoFullBatches() throws Exception {
+        // Arrange
+        EmbeddingBatcher batcher = new EmbeddingBatcher(recording, 16, 60_000, batchExecutor, scheduler);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<float[]>> futures = new ArrayList<>();
+
+        // Act: 32 callers on 8 threads, with a wait long enough that only full batches are sent
+        try {
+            for (int i = 0; i < 32; i++) {
+                String text = "chunk " + i;
+                futures.add(CompletableFuture.supplyAsync(() -> batcher.embedAsync(text), callers)
+                        .thenCompose(future -> future));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(2, batches.size());
+        assertEquals(16, batches.get(0).size());
+        assertEquals(2, batcher.getBatchCount());
+        for (int i = 0; i < 32; i++) {
+            assertArrayEquals(local.embed("chunk " + i), futures.get(i).get());
+        }
+    }
+
+    @Test
+    public void testSendsPartialBatchAfterMaxWait() throws Exception {
+        // Arrange
+        EmbeddingBatcher batcher = new EmbeddingBatcher(recording, 16, 20, batchExecutor, scheduler);
+
+        // Act
+        List<float[]> embeddings = batcher.embedAll(List.of("assay", "yield", "assay"));
+
+        // Assert: one request, with the duplicate embedded once
+        assertEquals(List.of(List.of("assay", "yield")), batches);
+        assertEquals(3, embeddings.size());
+        assertSame(embeddings.get(0), embeddings.get(2));
+        assertArrayEquals(local.embed("yield"), embeddings.get(1));
+    }
+
+    @Test
+    public void testFailedBatchFailsEveryCaller() {
+        // Arrange
+        EmbeddingService failing = new EmbeddingService() {
+            @Override
+            public List<float[]> embedAll(List<String> texts) throws Exception {
+                throw new IllegalStateException("Provider down");
+            }
+
+            @Override
+            public String getModel() {
+                return "failing";
+            }
+        };
+        EmbeddingBatcher batcher = new EmbeddingBatcher(failing, 2, 20, batchExecutor, scheduler);
+
+        // Act & Assert
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> batcher.embedAll(List.of("a", "b", "c")));
+        assertEquals("Provider down", e.getMessage());
+    }
+
+    @Test
+    public void testCacheAnswersRepeatedTextsAcrossRestarts() throws Exception {
+        // Arrange
+        List<String> texts = List.of("batch record 42", "batch record 43");
+        List<float[]> first = new CachingEmbeddingService(recording, new EmbeddingCache(100, tempDir))
+                .embedAll(texts);
+
+        // Act: a new cache on the same directory, as after a restart
+        CachingEmbeddingService restarted = new CachingEmbeddingService(recording, new EmbeddingCache(100, tempDir));
+        List<float[]> second = restarted.embedAll(List.of("batch record 43", "batch record 44", "batch record 42"));
+
+        // Assert: only the new text reached the provider
+        assertEquals(List.of(texts, List.of("batch record 44")), batches);
+        assertArrayEquals(first.get(1), second.get(0));
+        assertArrayEquals(first.get(0), second.get(2));
+        assertArrayEquals(local.embed("batch record 44"), second.get(1));
+    }
+
+    @Test
+    public void testLocalEmbeddingsAreNormalizedAndSimilarForSharedWords() {
+        float[] oos = local.embed("Out of specification assay result");
+        float[] similar = local.embed("assay result out of specification");
+        float[] other = local.embed("Cleaning validation schedule");
+
+        assertEquals(1.0, dot(oos, oos), 1e-5);
+        assertTrue(dot(oos, similar) > 0.9);
+        assertTrue(dot(oos, other) < 0.5);
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,58 @@
+package com.celestra.ai.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.celestra.ai.http.ServerSentEventReader.ServerSentEvent;
+
+public class ServerSentEventReaderTest {
+
+    @Test
+    public void testParsesNamedAndMultiLineEvents() throws Exception {
+        String stream = ": keep-alive\n" +
+                "event: message_start\n" +
+                "data: {\"a\":1}\n" +
+                "\n" +
+                "data: first\n" +
+                "data:second\n" +
+                "\n" +
+                "event: ping\n" +
+                "\n" +
+                "data: [DONE]";
+
+        try (ServerSentEventReader reader = reader(stream)) {
+            ServerSentEvent first = reader.next();
+            assertEquals("message_start", first.getEvent());
+            assertEquals("{\"a\":1}", first.getData());
+
+            ServerSentEvent second = reader.next();
+            assertNull(second.getEvent());
+            assertEquals("first\nsecond", second.getData());
+
+            // The ping event has no data and is skipped; the last event has no trailing blank line
+            ServerSentEvent third = reader.next();
+            assertNull(third.getEvent());
+            assertEquals("[DONE]", third.getData());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testHandlesCarriageReturnLineEndings() throws Exception {
+        try (ServerSentEventReader reader = reader("event: delta\r\ndata: x\r\n\r\n")) {
+            ServerSentEvent event = reader.next();
+            assertEquals("delta", event.getEvent());
+            assertEquals("x", event.getData());
+            assertNull(reader.next());
+        }
+    }
+
+    private ServerSentEventReader reader(String stream) {
+        return new ServerSentEventReader(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.celestra.ai.memory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.dao.ConversationDao;
+import com.celestra.model.ConversationSession;
+import com.celestra.model.ConversationTurn;
+
+public class ConversationMemoryStoreTest {
+
+    private static final int SESSION_ID = 7;
+    private static final int AGENT_ID = 3;
+
+    @Mock
+    private ConversationDao conversationDao;
+
+    @Mock
+    private ChatCompletionService chatService;
+
+    private final TokenEstimator estimator = new TokenEstimator();
+    private final List<Runnable> compactions = new ArrayList<>();
+    private final List<List<ChatMessage>> summarized = new ArrayList<>();
+    private ConversationMemoryStore store;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(conversationDao.findOrCreateSession(AGENT_ID, "s1"))
+                .thenReturn(new ConversationSession(SESSION_ID, AGENT_ID, "s1", null, 0, null, null));
+        when(conversationDao.findTurnsAfter(SESSION_ID, 0)).thenReturn(List.of());
+        when(conversationDao.appendTurn(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        store = new ConversationMemoryStore(conversationDao, messages -> {
+            summarized.add(messages);
+            return "summary " + summarized.size();
+        }, estimator, 100, 40, 10, compactions::add);
+    }
+
+    @Test
+    public void testLoadsSummaryAndTurnsAfterItOnce() throws Exception {
+        // Arrange
+        when(conversationDao.findOrCreateSession(AGENT_ID, "s2"))
+                .thenReturn(new ConversationSession(8, AGENT_ID, "s2", "Batch 42 failed assay", 4, null, null));
+        when(conversationDao.findTurnsAfter(8, 4)).thenReturn(List.of(
+                new ConversationTurn(8, 5, "user", "What was the limit?", 8),
+                new ConversationTurn(8, 6, "assistant", "95-105%", 6)));
+
+        // Act
+        ConversationMemory memory = store.getMemory(AGENT_ID, "s2");
+        ConversationMemory again = store.getMemory(AGENT_ID, "s2");
+
+        // Assert
+        assertSame(memory, again);
+        assertEquals(6, memory.getTurnCount());
+        List<ChatMessage> messages = memory.getMessages();
+        assertEquals(3, messages.size());
+        assertEquals("system", messages.get(0).getRole());
+        assertTrue(messages.get(0).getContent().endsWith("Batch 42 failed assay"));
+        assertEquals("95-105%", messages.get(2).getContent());
+        verify(conversationDao, times(1)).findTurnsAfter(8, 4);
+    }
+
+    @Test
+    public void testCompactsOldestTurnsInBackground() throws Exception {
+        // Arrange
+        ConversationMemory memory = store.getMemory(AGENT_ID, "s1");
+        String text = "the deviation report mentions a failed assay on the second shift ";
+
+        // Act: append until the memory crosses the threshold
+        int turns = 0;
+        while (compactions.isEmpty()) {
+            store.append(memory, new ChatMessage(turns % 2 == 0 ? "user" : "assistant", text + turns));
+            turns++;
+        }
+
+        // Assert: the appends were not held up by the compaction
+        assertTrue(memory.getTokens() > 100);
+        assertEquals(turns, memory.getWindow().size());
+
+        // Act: run the compaction
+        compactions.remove(0).run();
+
+        // Assert: the oldest turns are folded into the summary and the window starts with a user turn
+        List<ConversationTurn> window = memory.getWindow();
+        int through = window.get(0).getTurnIndex() - 1;
+        assertEquals(through, summarized.get(0).size());
+        assertEquals("user", window.get(0).getRole());
+        assertEquals("summary 1", memory.getSummary());
+        assertTrue(memory.getTokens() <= 100);
+        assertEquals(turns, memory.getTurnCount());
+        verify(conversationDao).updateSummary(SESSION_ID, "summary 1", through);
+    }
+
+    @Test
+    public void testChatPersistsUserTurnAndReply() throws Exception {
+        // Arrange
+        ConversationMemory memory = store.getMemory(AGENT_ID, "s1");
+        List<ChatMessage> instructions = List.of(new ChatMessage("system", "You are the investigator"));
+        when(chatService.getChatCompletion(anyList())).thenReturn("Please share the batch record.");
+
+        // Act
+        String reply = store.chat(chatService, memory, instructions, "Assay came in at 92%");
+
+        // Assert
+        assertEquals("Please share the batch record.", reply);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChatMessage>> prompt = ArgumentCaptor.forClass(List.class);
+        verify(chatService).getChatCompletion(prompt.capture());
+        assertEquals(2, prompt.getValue().size());
+        assertEquals("Assay came in at 92%", prompt.getValue().get(1).getContent());
+
+        ArgumentCaptor<ConversationTurn> turns = ArgumentCaptor.forClass(ConversationTurn.class);
+        verify(conversationDao, times(2)).appendTurn(turns.capture());
+        assertEquals(1, turns.getAllValues().get(0).getTurnIndex());
+        assertEquals("assistant", turns.getAllValues().get(1).getRole());
+        assertEquals(2, turns.getAllValues().get(1).getTurnIndex());
+    }
+
+    @Test
+    public void testChatIsMadeForTheCompanyOfTheCallerAndTheAgentOfTheMemory() throws Exception {
+        // Arrange
+        ConversationMemory memory = store.getMemory(AGENT_ID, "s1");
+        TelemetryContext[] caller = new TelemetryContext[1];
+        when(chatService.getChatCompletion(anyList())).thenAnswer(invocation -> {
+            caller[0] = TelemetryContext.current();
+            return "Noted.";
+        });
+
+        // Act
+        TelemetryContext.of(11, null).call(() -> store.chat(chatService, memory, List.of(), "Assay came in at 92%"));
+
+        // Assert
+        assertEquals(11, caller[0].getCompanyId());
+        assertEquals(AGENT_ID, caller[0].getAgentId());
+    }
+}
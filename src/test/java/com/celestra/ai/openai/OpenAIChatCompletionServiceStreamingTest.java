@@ -0,0 +1,95 @@
+package com.celestra.ai.openai;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.HttpClientWrapper.StreamingHttpResponse;
+
+public class OpenAIChatCompletionServiceStreamingTest {
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    @Mock
+    private HttpClientWrapper httpClient;
+
+    private OpenAIChatCompletionService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getOpenAIApiKey()).thenReturn("test-key");
+        when(configManager.getOpenAIModel()).thenReturn("gpt-test");
+        when(configManager.getOpenAIRetryAttempts()).thenReturn(0);
+        service = new OpenAIChatCompletionService(configManager, httpClient);
+    }
+
+    @Test
+    public void testStreamDeliversDeltasUntilDone() throws Exception {
+        // Arrange
+        String stream =
+                "data: {\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"\"}}]}\n\n" +
+                "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"Deviation \"}}]}\n\n" +
+                "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"closed\"}}]}\n\n" +
+                "data: {\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}\n\n" +
+                "data: [DONE]\n\n";
+        when(httpClient.sendStreamingRequest(any())).thenReturn(response(stream));
+        List<String> deltas = new ArrayList<>();
+
+        // Act
+        String result = service.streamChatCompletion(List.of(new ChatMessage("user", "Status?")),
+                Map.of("temperature", 0), deltas::add);
+
+        // Assert
+        assertEquals("Deviation closed", result);
+        assertEquals(List.of("", "Deviation ", "closed"), deltas);
+    }
+
+    @Test
+    public void testStreamErrorEventFails() throws Exception {
+        // Arrange
+        when(httpClient.sendStreamingRequest(any())).thenReturn(
+                response("data: {\"error\":{\"message\":\"context length exceeded\"}}\n\n"));
+
+        // Act & Assert
+        AIServiceException e = assertThrows(AIServiceException.class,
+                () -> service.streamChatCompletion(List.of(new ChatMessage("user", "Status?")), delta -> { }));
+        assertTrue(e.getMessage().contains("context length exceeded")
+                || e.getCause().getMessage().contains("context length exceeded"));
+    }
+
+    @Test
+    public void testInterruptedStreamIsNotRetried() throws Exception {
+        // Arrange
+        when(configManager.getOpenAIRetryAttempts()).thenReturn(2);
+        when(httpClient.sendStreamingRequest(any())).thenThrow(new InterruptedIOException("Cancelled"));
+
+        // Act & Assert
+        assertThrows(InterruptedIOException.class,
+                () -> service.streamChatCompletion(List.of(new ChatMessage("user", "Status?")), delta -> { }));
+        verify(httpClient, times(1)).sendStreamingRequest(any());
+    }
+
+    private StreamingHttpResponse response(String body) {
+        return new StreamingHttpResponse(200, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                Collections.emptyMap());
+    }
+}
@@ -0,0 +1,99 @@
+package com.celestra.ai.openai;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.InterruptedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.HttpClientWrapper.SimpleHttpResponse;
+
+public class OpenAIEmbeddingServiceTest {
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    @Mock
+    private HttpClientWrapper httpClient;
+
+    private OpenAIEmbeddingService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getOpenAIApiKey()).thenReturn("test-key");
+        when(configManager.getOpenAIEmbeddingModel()).thenReturn("text-embedding-3-small");
+        when(configManager.getOpenAIRetryAttempts()).thenReturn(1);
+        service = new OpenAIEmbeddingService(configManager, httpClient);
+    }
+
+    @Test
+    public void testDecodesBase64VectorsInInputOrder() throws Exception {
+        // Arrange: the data array is out of order, and one vector is sent as numbers
+        String body = "{\"object\":\"list\",\"data\":["
+                + "{\"object\":\"embedding\",\"index\":1,\"embedding\":\"" + encode(0.5f, -1.25f) + "\"},"
+                + "{\"object\":\"embedding\",\"index\":0,\"embedding\":[0.1,0.2]}],"
+                + "\"model\":\"text-embedding-3-small\",\"usage\":{\"prompt_tokens\":4,\"total_tokens\":4}}";
+        when(httpClient.sendRequest(any())).thenReturn(new SimpleHttpResponse(200, body, Map.of()));
+
+        // Act
+        List<float[]> embeddings = service.embedAll(List.of("first", "second"));
+
+        // Assert
+        assertArrayEquals(new float[] {0.1f, 0.2f}, embeddings.get(0));
+        assertArrayEquals(new float[] {0.5f, -1.25f}, embeddings.get(1));
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendRequest(request.capture());
+        assertEquals("https://api.openai.com/v1/embeddings", request.getValue().uri().toString());
+    }
+
+    @Test
+    public void testRejectsBadRequestWithoutRetry() throws Exception {
+        // Arrange
+        when(httpClient.sendRequest(any())).thenReturn(new SimpleHttpResponse(400,
+                "{\"error\":{\"message\":\"Input too long\"}}", Map.of()));
+
+        // Act & Assert
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> service.embedAll(List.of("text")));
+        assertEquals("Invalid request: Input too long", e.getMessage());
+        verify(httpClient, times(1)).sendRequest(any());
+    }
+
+    @Test
+    public void testInterruptedCallIsNotRetried() throws Exception {
+        // Arrange
+        when(httpClient.sendRequest(any())).thenThrow(new InterruptedException());
+
+        // Act & Assert
+        assertThrows(InterruptedException.class, () -> service.embedAll(List.of("text")));
+        assertTrue(Thread.interrupted());
+        verify(httpClient, times(1)).sendRequest(any());
+
+        // Nor is an I/O call that was cancelled
+        doThrow(new InterruptedIOException("Cancelled")).when(httpClient).sendRequest(any());
+        assertThrows(InterruptedIOException.class, () -> service.embedAll(List.of("text")));
+        verify(httpClient, times(2)).sendRequest(any());
+    }
+
+    private static String encode(float... values) {
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(values);
+        return Base64.getEncoder().encodeToString(bytes.array());
+    }
+}
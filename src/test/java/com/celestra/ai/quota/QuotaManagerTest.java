@@ -0,0 +1,177 @@
+package com.celestra.ai.quota;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.exception.QuotaExceededException;
+import com.celestra.ai.telemetry.CallTelemetry;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.celestra.dao.AIUsageDao;
+import com.celestra.model.AIUsageBucket;
+
+public class QuotaManagerTest {
+
+    private static final TelemetryContext ACME = TelemetryContext.of(7, null);
+    private static final TelemetryContext ACME_INVESTIGATOR = TelemetryContext.of(7, 42, "investigator");
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    @Mock
+    private AIUsageDao usageDao;
+
+    @Mock
+    private ChatCompletionService delegate;
+
+    private QuotaManager quotaManager;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getQuotaCompanyTokens(7)).thenReturn(1000);
+        when(configManager.getQuotaCompanyRequests(7)).thenReturn(0);
+        when(configManager.getQuotaAgentTokens(42)).thenReturn(0);
+        when(configManager.getQuotaAgentRequests(42)).thenReturn(2);
+        quotaManager = new QuotaManager(configManager, usageDao, Duration.ofMinutes(60));
+    }
+
+    @Test
+    public void testCallOverTokenQuotaIsRefusedWithoutCharging() throws Exception {
+        // Arrange
+        quotaManager.reserve(ACME, 800).complete(500, 300);
+
+        // Act
+        QuotaExceededException e = assertThrows(QuotaExceededException.class,
+                () -> quotaManager.reserve(ACME, 300));
+        QuotaManager.Reservation fitting = quotaManager.reserve(ACME, 200);
+
+        // Assert
+        assertTrue(e.getRetryAfterMs() > 0);
+        assertTrue(e.getMessage().contains("token quota of company 7"));
+        assertNotNull(fitting);
+        assertEquals(1000, quotaManager.toJson().getAsJsonObject("company:7").get("tokens").getAsLong());
+        assertEquals(1, quotaManager.toJson().getAsJsonObject("company:7").get("rejected").getAsLong());
+    }
+
+    @Test
+    public void testReservationIsCorrectedToReportedUsage() throws Exception {
+        // Arrange
+        QuotaManager.Reservation first = quotaManager.reserve(ACME, 900);
+
+        // Act
+        first.complete(100, 50);
+        quotaManager.reserve(ACME, 800).fail(0, 0);
+
+        // Assert
+        assertEquals(150, quotaManager.toJson().getAsJsonObject("company:7").get("tokens").getAsLong());
+        assertEquals(2, quotaManager.toJson().getAsJsonObject("company:7").get("requests").getAsLong());
+    }
+
+    @Test
+    public void testAgentRequestQuotaIsCountedPerCompanyAndAgentId() throws Exception {
+        // Arrange
+        quotaManager.reserve(ACME_INVESTIGATOR, 10).complete(10, 0);
+        quotaManager.reserve(ACME_INVESTIGATOR, 10).complete(10, 0);
+
+        // Act & Assert
+        QuotaExceededException e = assertThrows(QuotaExceededException.class,
+                () -> quotaManager.reserve(TelemetryContext.of(7, 42, "renamed investigator"), 10));
+        assertTrue(e.getMessage().contains("request quota of agent 42"));
+        assertNotNull(quotaManager.reserve(TelemetryContext.of(8, 42, "investigator"), 10));
+    }
+
+    @Test
+    public void testCountsRollOutOfTheWindow() {
+        // Arrange
+        long slot = TimeUnit.MINUTES.toNanos(1);
+        RollingCounter counter = new RollingCounter(60, slot);
+        long start = 1000 * slot;
+
+        // Act
+        long epoch = counter.add(start, 500);
+        counter.add(start + 30 * slot, 200);
+        counter.adjust(epoch, start + 30 * slot, -100);
+
+        // Assert
+        assertEquals(600, counter.sum(start + 30 * slot));
+        assertEquals(600, counter.sum(start + 59 * slot));
+        assertEquals(200, counter.sum(start + 60 * slot));
+        assertEquals(0, counter.sum(start + 90 * slot));
+    }
+
+    @Test
+    public void testUsageIsFlushedInOneBatchAndKeptWhenTheBatchFails() throws Exception {
+        // Arrange
+        quotaManager.reserve(ACME, 100).complete(80, 20);
+        quotaManager.reserve(ACME_INVESTIGATOR, 100).complete(60, 10);
+        assertThrows(QuotaExceededException.class, () -> quotaManager.reserve(ACME, 5000));
+        doThrow(new SQLException("connection refused")).doNothing().when(usageDao).addUsage(anyList());
+
+        // Act
+        assertThrows(SQLException.class, () -> quotaManager.flush());
+        int flushed = quotaManager.flush();
+
+        // Assert
+        assertEquals(2, flushed);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AIUsageBucket>> captor = ArgumentCaptor.forClass(List.class);
+        verify(usageDao, times(2)).addUsage(captor.capture());
+        List<AIUsageBucket> buckets = captor.getValue().stream()
+                .sorted(Comparator.comparing(AIUsageBucket::getAgentId)).toList();
+        assertEquals(0, buckets.get(0).getAgentId());
+        assertEquals(1, buckets.get(0).getRequestCount());
+        assertEquals(80, buckets.get(0).getInputTokens());
+        assertEquals(20, buckets.get(0).getOutputTokens());
+        assertEquals(1, buckets.get(0).getRejectedCount());
+        assertEquals(42, buckets.get(1).getAgentId());
+        assertEquals(7, buckets.get(1).getCompanyId());
+        assertEquals(0, quotaManager.flush());
+    }
+
+    @Test
+    public void testServiceRefusesCallsBeforeTheProviderAndSettlesReportedUsage() throws Exception {
+        // Arrange
+        QuotaChatCompletionService service = new QuotaChatCompletionService(delegate, quotaManager,
+                new TokenEstimator(), 200);
+        List<ChatMessage> messages = List.of(new ChatMessage("user", "Summarize deviation DEV-12"));
+        CallTelemetry call = new CallTelemetry("openai", "gpt-test", System.nanoTime());
+        when(delegate.getChatCompletion(any(), anyMap())).thenAnswer(invocation -> {
+            CallTelemetry.current().recordUsage(600, 150, 0, 100);
+            return "Summary";
+        });
+
+        // Act
+        String completion = ACME.call(() -> call.call(() -> service.getChatCompletion(messages, Map.of())));
+        QuotaExceededException e = assertThrows(QuotaExceededException.class,
+                () -> ACME.call(() -> service.getChatCompletion(messages, Map.of("max_tokens", 500))));
+        assertThrows(QuotaExceededException.class,
+                () -> ACME.call(() -> service.getChatCompletion(messages, Map.of("max_completion_tokens", 500))));
+        // Without a limit the call may use the provider's configured max tokens
+        assertThrows(QuotaExceededException.class,
+                () -> ACME.call(() -> service.getChatCompletion(messages, Map.of())));
+
+        // Assert
+        assertEquals("Summary", completion);
+        assertNotNull(e);
+        verify(delegate, times(1)).getChatCompletion(any(), anyMap());
+        assertEquals(850, quotaManager.toJson().getAsJsonObject("company:7").get("tokens").getAsLong());
+    }
+}
@@ -0,0 +1,154 @@
+package com.celestra.ai.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.http.HttpClientWrapper.SimpleHttpResponse;
+
+public class RateLimitSchedulerTest {
+
+    private static final HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("https://example.com/"))
+            .POST(HttpRequest.BodyPublishers.ofString("x".repeat(400)))
+            .build();
+
+    private ScheduledExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRequestsWithinBudgetAreNotQueued() throws Exception {
+        RateLimitScheduler scheduler = new RateLimitScheduler("test", 10, 1000, executor);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(scheduler.acquireAsync(100, RateLimitContext.current()).isDone());
+        }
+
+        // The request budget is spent, so the next request waits
+        CompletableFuture<Void> next = scheduler.acquireAsync(1, RateLimitContext.current());
+        assertFalse(next.isDone());
+        assertEquals(1, scheduler.getQueueDepth());
+        next.cancel(false);
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void testRetryAfterPausesAllCallers() throws Exception {
+        RateLimitScheduler scheduler = new RateLimitScheduler("test", 0, 0, executor);
+
+        scheduler.onResponse(429, Map.of("retry-after-ms", List.of("300")));
+        CompletableFuture<Void> first = scheduler.acquireAsync(1, RateLimitContext.current());
+        CompletableFuture<Void> second = scheduler.acquireAsync(1, RateLimitContext.current());
+
+        assertFalse(first.isDone());
+        assertFalse(second.isDone());
+        assertTrue(scheduler.getPauseRemainingMs() > 0);
+        assertEquals(1, scheduler.getThrottledCount());
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, scheduler.getGrantedCount());
+    }
+
+    @Test
+    public void testInteractiveRequestsGoFirst() throws Exception {
+        RateLimitScheduler scheduler = new RateLimitScheduler("test", 60, 0, executor);
+        // The provider reports the budget as spent; it refills at one request per second
+        scheduler.onResponse(200, Map.of(
+                "x-ratelimit-limit-requests", List.of("60"),
+                "x-ratelimit-remaining-requests", List.of("0")));
+
+        CompletableFuture<Void> batch = scheduler.acquireAsync(1,
+                RateLimitContext.of(RequestPriority.BATCH, null));
+        CompletableFuture<Void> interactive = scheduler.acquireAsync(1,
+                RateLimitContext.of(RequestPriority.INTERACTIVE, null));
+        assertEquals(1, scheduler.getQueueDepth(RequestPriority.BATCH));
+        assertEquals(1, scheduler.getQueueDepth(RequestPriority.INTERACTIVE));
+
+        interactive.get(5, TimeUnit.SECONDS);
+        assertFalse(batch.isDone());
+        batch.cancel(false);
+    }
+
+    @Test
+    public void testDeadlineExpiresQueuedRequest() {
+        RateLimitScheduler scheduler = new RateLimitScheduler("test", 0, 0, executor);
+        scheduler.onResponse(429, Map.of("Retry-After", List.of("30")));
+
+        RateLimitContext context = RateLimitContext.of(RequestPriority.BATCH, Duration.ofMillis(50));
+        assertThrows(HttpTimeoutException.class, () -> scheduler.acquire(1, context));
+        assertEquals(1, scheduler.getExpiredCount());
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void testLearnsLimitsFromAnthropicHeaders() {
+        RateLimitScheduler scheduler = new RateLimitScheduler("test", 0, 100000, executor);
+
+        scheduler.onResponse(200, Map.of(
+                "anthropic-ratelimit-requests-limit", List.of("50"),
+                "anthropic-ratelimit-tokens-limit", List.of("40000"),
+                "anthropic-ratelimit-tokens-remaining", List.of("0"),
+                "anthropic-ratelimit-tokens-reset", List.of(Instant.now().plusSeconds(20).toString())));
+
+        assertEquals(50, scheduler.getRequestsPerMinute());
+        assertEquals(40000, scheduler.getTokensPerMinute());
+        assertTrue(scheduler.getPauseRemainingMs() > 15000);
+    }
+
+    @Test
+    public void testParseReset() {
+        assertEquals(TimeUnit.MINUTES.toNanos(6), RateLimitScheduler.parseReset("6m0s"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), RateLimitScheduler.parseReset("20ms"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1500), RateLimitScheduler.parseReset("1.5s"));
+        assertEquals(-1, RateLimitScheduler.parseReset("soon"));
+    }
+
+    @Test
+    public void testWrapperFeedsResponsesToScheduler() throws Exception {
+        HttpClientWrapper delegate = mock(HttpClientWrapper.class);
+        when(delegate.sendRequest(any())).thenReturn(new SimpleHttpResponse(429, "{}",
+                Map.of("retry-after", List.of("10"))));
+        RateLimitScheduler scheduler = new RateLimitScheduler("test", 0, 0, executor);
+        RateLimitedHttpClientWrapper wrapper = new RateLimitedHttpClientWrapper(delegate, scheduler);
+
+        assertEquals(429, wrapper.sendRequest(REQUEST).statusCode());
+
+        // Other callers are held back by the 429 without sending anything
+        CompletableFuture<SimpleHttpResponse> queued = wrapper.sendRequestAsync(REQUEST);
+        assertFalse(queued.isDone());
+        assertEquals(1, scheduler.getQueueDepth());
+        verify(delegate, never()).sendRequestAsync(any());
+
+        queued.cancel(false);
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(100, RateLimitedHttpClientWrapper.estimateTokens(REQUEST));
+        assertEquals(1, RateLimitedHttpClientWrapper.estimateTokens(
+                HttpRequest.newBuilder(URI.create("https://example.com/")).build()));
+    }
+}
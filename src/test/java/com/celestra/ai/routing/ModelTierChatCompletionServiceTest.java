@@ -0,0 +1,150 @@
+package com.celestra.ai.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionService.StreamListener;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.context.TokenEstimator;
+import com.celestra.ai.exception.StructuredOutputException;
+import com.celestra.ai.structured.OutputSchema;
+import com.google.gson.JsonObject;
+
+public class ModelTierChatCompletionServiceTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(new ChatMessage("user", "Classify this deviation"));
+    private static final String TASK = "investigator.type_detection";
+
+    @Mock
+    private ChatCompletionService delegate;
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    private ModelTierPolicy policy;
+    private ModelTierChatCompletionService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getModelTiers("openai")).thenReturn("small-model, medium-model, large-model");
+        when(configManager.getModelTiers("claude")).thenReturn("");
+        when(configManager.getModelSmallMaxPromptTokens()).thenReturn(1000);
+        when(configManager.getModelLargeMinPromptTokens()).thenReturn(8000);
+        policy = new ModelTierPolicy(configManager, new TokenEstimator(), 10, 0.2, 3, 0);
+        service = new ModelTierChatCompletionService(delegate, "openai", policy);
+    }
+
+    @Test
+    public void testTaskIsSentToModelOfItsTier() throws Exception {
+        // Arrange
+        when(configManager.getModelTaskTier(TASK)).thenReturn("medium");
+        when(delegate.getChatCompletion(any(), anyMap())).thenReturn("OOS");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(ModelTierChatCompletionService.TASK_PARAMETER, TASK);
+        parameters.put("temperature", 0.0);
+
+        // Act
+        String completion = service.getChatCompletion(MESSAGES, parameters);
+
+        // Assert
+        assertEquals("OOS", completion);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(delegate).getChatCompletion(eq(MESSAGES), captor.capture());
+        assertEquals("medium-model", captor.getValue().get("model"));
+        assertEquals(0.0, captor.getValue().get("temperature"));
+        assertFalse(captor.getValue().containsKey(ModelTierChatCompletionService.TASK_PARAMETER));
+        assertEquals(ModelTier.MEDIUM, policy.getTier(TASK));
+    }
+
+    @Test
+    public void testProviderWithoutTiersUsesConfiguredModel() throws Exception {
+        // Arrange
+        ModelTierChatCompletionService claude = new ModelTierChatCompletionService(delegate, "claude", policy);
+        when(delegate.getChatCompletion(any(), anyMap())).thenReturn("OOS");
+
+        // Act
+        claude.getChatCompletion(MESSAGES, Map.of(ModelTierChatCompletionService.TASK_PARAMETER, TASK));
+
+        // Assert
+        verify(delegate).getChatCompletion(MESSAGES, Map.of());
+        assertNull(policy.getTier(TASK));
+    }
+
+    @Test
+    public void testRejectedOutputsMoveTaskUpWithinBounds() throws Exception {
+        // Arrange
+        when(configManager.getModelTaskMaxTier(TASK)).thenReturn("MEDIUM");
+        doAnswer(invocation -> {
+            StreamListener listener = invocation.getArgument(2);
+            listener.onDelta("{\"type\": 42}");
+            return "{\"type\": 42}";
+        }).when(delegate).streamChatCompletion(any(), anyMap(), any());
+        OutputSchema schema = new OutputSchema().string("type");
+        Map<String, Object> parameters = Map.of(ModelTierChatCompletionService.TASK_PARAMETER, TASK);
+
+        // Act
+        assertThrows(StructuredOutputException.class,
+                () -> service.getStructuredCompletion(MESSAGES, parameters, schema));
+        ModelTier afterFirstCall = policy.getTier(TASK);
+        assertThrows(StructuredOutputException.class,
+                () -> service.getStructuredCompletion(MESSAGES, parameters, schema));
+
+        // Assert
+        assertEquals(ModelTier.MEDIUM, afterFirstCall);
+        assertEquals(ModelTier.MEDIUM, policy.getTier(TASK));
+        JsonObject stats = policy.toJson().getAsJsonObject(TASK).getAsJsonObject("tiers");
+        assertEquals(3, stats.getAsJsonObject("SMALL").get("rejections").getAsInt());
+        assertEquals(3, stats.getAsJsonObject("MEDIUM").get("rejections").getAsInt());
+    }
+
+    @Test
+    public void testAcceptedOutputsMoveTaskDownWithinBounds() throws Exception {
+        // Arrange
+        when(configManager.getModelTaskTier(TASK)).thenReturn("LARGE");
+        when(configManager.getModelTaskMinTier(TASK)).thenReturn("MEDIUM");
+        when(delegate.getChatCompletion(any(), anyMap())).thenReturn("OOS");
+        Map<String, Object> parameters = Map.of(ModelTierChatCompletionService.TASK_PARAMETER, TASK);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            service.getChatCompletion(MESSAGES, parameters);
+        }
+        ModelTier afterThreeCalls = policy.getTier(TASK);
+        for (int i = 0; i < 3; i++) {
+            service.getChatCompletion(MESSAGES, parameters);
+        }
+
+        // Assert
+        assertEquals(ModelTier.MEDIUM, afterThreeCalls);
+        assertEquals(ModelTier.MEDIUM, policy.getTier(TASK));
+    }
+
+    @Test
+    public void testCallsWithoutTaskAreNotRouted() throws Exception {
+        // Arrange
+        when(delegate.getChatCompletion(any(), anyMap())).thenReturn("Hi");
+        Map<String, Object> parameters = Map.of("temperature", 0.5);
+
+        // Act
+        service.getChatCompletion(MESSAGES, parameters);
+
+        // Assert
+        verify(delegate).getChatCompletion(MESSAGES, parameters);
+        assertEquals(0, policy.toJson().size());
+    }
+}
@@ -0,0 +1,209 @@
+package com.celestra.ai.routing;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionService.StreamListener;
+import com.celestra.ai.exception.InvalidRequestException;
+import com.celestra.ai.exception.ServerException;
+
+public class RoutingChatCompletionServiceTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(new ChatMessage("user", "Hello"));
+
+    @Mock
+    private ChatCompletionService primary;
+
+    @Mock
+    private ChatCompletionService secondary;
+
+    private ProviderHealth primaryHealth;
+    private ProviderHealth secondaryHealth;
+    private ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        primaryHealth = new ProviderHealth("primary", 4, 2, 0.5, 60000);
+        secondaryHealth = new ProviderHealth("secondary", 4, 2, 0.5, 60000);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testFailsOverToNextProvider() throws Exception {
+        // Arrange
+        when(primary.getChatCompletionAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new ServerException("Overloaded", 529)));
+        when(secondary.getChatCompletionAsync(any())).thenReturn(CompletableFuture.completedFuture("Hi"));
+        RoutingChatCompletionService router = new RoutingChatCompletionService(services(), health());
+
+        // Act
+        String result = router.getChatCompletion(MESSAGES);
+
+        // Assert
+        assertEquals("Hi", result);
+        assertEquals(1, router.getFailoverCount());
+        assertEquals(1, primaryHealth.getTotalFailures());
+        assertEquals(1, secondaryHealth.getLatencySampleCount());
+    }
+
+    @Test
+    public void testInvalidRequestIsNotFailedOver() {
+        // Arrange
+        when(primary.getChatCompletionAsync(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new InvalidRequestException("Too long")));
+        RoutingChatCompletionService router = new RoutingChatCompletionService(services(), health());
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> router.getChatCompletion(MESSAGES, Map.of()));
+        verify(secondary, never()).getChatCompletionAsync(any(), any());
+        assertEquals(0, primaryHealth.getTotalFailures());
+    }
+
+    @Test
+    public void testOpenCircuitSkipsProvider() throws Exception {
+        // Arrange: two failures out of two calls open the primary circuit
+        when(primary.getChatCompletionAsync(any()))
+                .thenReturn(CompletableFuture.failedFuture(new ServerException("Down", 503)));
+        when(secondary.getChatCompletionAsync(any())).thenReturn(CompletableFuture.completedFuture("Hi"));
+        RoutingChatCompletionService router = new RoutingChatCompletionService(services(), health());
+
+        // Act
+        router.getChatCompletion(MESSAGES);
+        router.getChatCompletion(MESSAGES);
+        router.getChatCompletion(MESSAGES);
+
+        // Assert
+        assertEquals(CircuitState.OPEN, primaryHealth.getState());
+        verify(primary, times(2)).getChatCompletionAsync(any());
+        verify(secondary, times(3)).getChatCompletionAsync(any());
+    }
+
+    @Test
+    public void testSlowCallIsHedged() throws Exception {
+        // Arrange: the primary normally answers in 10 ms but hangs this time
+        for (int i = 0; i < 20; i++) {
+            primaryHealth.recordSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        CompletableFuture<String> hanging = new CompletableFuture<>();
+        when(primary.getChatCompletionAsync(any())).thenReturn(hanging);
+        when(secondary.getChatCompletionAsync(any())).thenReturn(CompletableFuture.completedFuture("Hedged"));
+        RoutingChatCompletionService router = new RoutingChatCompletionService(services(), health(),
+                true, 95, 50, scheduler);
+
+        // Act
+        String result = router.getChatCompletionAsync(MESSAGES).get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals("Hedged", result);
+        assertEquals(1, router.getHedgeCount());
+        assertEquals(1, router.getHedgeWinCount());
+        // The loser is cancelled after the result completes, possibly after get() returns
+        assertThrows(CancellationException.class, () -> hanging.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStreamFailsOverBeforeFirstDelta() throws Exception {
+        // Arrange
+        StreamListener listener = mock(StreamListener.class);
+        when(primary.streamChatCompletion(any(), any(StreamListener.class)))
+                .thenThrow(new ServerException("Overloaded", 529));
+        when(secondary.streamChatCompletion(any(), any(StreamListener.class))).thenAnswer(invocation -> {
+            StreamListener tracking = invocation.getArgument(1);
+            tracking.onDelta("Hi");
+            tracking.onComplete("Hi");
+            return "Hi";
+        });
+        RoutingChatCompletionService router = new RoutingChatCompletionService(services(), health());
+
+        // Act
+        String result = router.streamChatCompletion(MESSAGES, listener);
+
+        // Assert
+        assertEquals("Hi", result);
+        verify(listener).onDelta("Hi");
+        verify(listener).onComplete("Hi");
+    }
+
+    @Test
+    public void testListenerFailureIsNotCountedAgainstTheProvider() throws Exception {
+        // Arrange: the client goes away on every first fragment
+        StreamListener listener = mock(StreamListener.class);
+        doThrow(new UncheckedIOException("Client disconnected", new IOException("Broken pipe")))
+                .when(listener).onDelta(anyString());
+        when(primary.streamChatCompletion(any(), any(StreamListener.class))).thenAnswer(invocation -> {
+            StreamListener tracking = invocation.getArgument(1);
+            tracking.onDelta("Hi");
+            return "Hi";
+        });
+        RoutingChatCompletionService router = new RoutingChatCompletionService(services(), health());
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UncheckedIOException.class, () -> router.streamChatCompletion(MESSAGES, listener));
+        }
+
+        // Assert
+        assertEquals(CircuitState.CLOSED, primaryHealth.getState());
+        assertEquals(0, primaryHealth.getTotalFailures());
+        verify(secondary, never()).streamChatCompletion(any(), any(StreamListener.class));
+    }
+
+    @Test
+    public void testHalfOpenTrialClosesCircuit() throws Exception {
+        // Arrange
+        ProviderHealth health = new ProviderHealth("test", 4, 2, 0.5, 0);
+        health.recordFailure();
+        health.recordFailure();
+        assertEquals(CircuitState.OPEN, health.getState());
+
+        // Act: the open period has passed, so one trial call is allowed
+        assertTrue(health.tryAcquire());
+        assertFalse(health.tryAcquire());
+        health.recordSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Assert
+        assertEquals(CircuitState.CLOSED, health.getState());
+        assertEquals(0.0, health.getFailureRate());
+        assertEquals(5, health.getLatencyPercentileMs(95));
+    }
+
+    private Map<String, ChatCompletionService> services() {
+        Map<String, ChatCompletionService> services = new LinkedHashMap<>();
+        services.put("primary", primary);
+        services.put("secondary", secondary);
+        return services;
+    }
+
+    private Map<String, ProviderHealth> health() {
+        Map<String, ProviderHealth> health = new LinkedHashMap<>();
+        health.put("primary", primaryHealth);
+        health.put("secondary", secondaryHealth);
+        return health;
+    }
+}
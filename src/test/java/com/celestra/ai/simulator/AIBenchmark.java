@@ -0,0 +1,250 @@
+package com.celestra.ai.simulator;
+
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.claude.ClaudeChatCompletionService;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.http.DefaultHttpClientWrapper;
+import com.celestra.ai.http.HttpClientWrapper;
+import com.celestra.ai.openai.OpenAIChatCompletionService;
+import com.celestra.ai.telemetry.AICallStats;
+import com.celestra.ai.telemetry.AITelemetry;
+import com.celestra.ai.telemetry.ModelPricing;
+import com.celestra.ai.telemetry.TelemetryChatCompletionService;
+
+/**
+ * Benchmark driver that measures completion throughput and tail latency of the
+ * real {@link ClaudeChatCompletionService} and {@link OpenAIChatCompletionService}
+ * code paths against a {@link ProviderSimulator}.
+ *
+ * Run {@link #main} from the test classpath, e.g. in the IDE, with the number of
+ * requests and the concurrency as arguments. The simulator answers with a
+ * log-normal latency and injects rate limiting and server errors, so the numbers
+ * include the retry behaviour of the services.
+ */
+public class AIBenchmark {
+
+    public enum Mode {
+        SYNC, ASYNC, STREAM
+    }
+
+    private static final List<ChatMessage> MESSAGES = List.of(
+            new ChatMessage("system", "You are a quality assurance assistant."),
+            new ChatMessage("user", "Classify this deviation: temperature excursion in cold room 2"));
+
+    private final String provider;
+    private final ChatCompletionService service;
+    private final AITelemetry telemetry;
+
+    /**
+     * Create a benchmark of a provider service; its calls are measured through the
+     * telemetry decorator.
+     *
+     * @param provider The provider name ("openai" or "claude")
+     * @param service The service under test
+     */
+    public AIBenchmark(String provider, ChatCompletionService service) {
+        this.provider = provider;
+        this.telemetry = new AITelemetry(new ModelPricing(mock(AIConfigurationManager.class)));
+        this.service = new TelemetryChatCompletionService(service, provider, "simulated", telemetry);
+    }
+
+    /**
+     * Create a benchmark of the real service of a provider, sending its requests to the simulator.
+     *
+     * @param provider The provider name ("openai" or "claude")
+     * @param simulator The simulator
+     * @return The benchmark
+     */
+    public static AIBenchmark against(String provider, ProviderSimulator simulator) {
+        AIConfigurationManager configManager = mock(AIConfigurationManager.class);
+        HttpClientWrapper httpClient = new DefaultHttpClientWrapper(30);
+        if ("claude".equals(provider)) {
+            when(configManager.getClaudeApiKey()).thenReturn("simulated-key");
+            when(configManager.getClaudeApiUrl()).thenReturn(simulator.getClaudeUrl());
+            when(configManager.getClaudeModel()).thenReturn("simulated");
+            when(configManager.getClaudeTokenLimit()).thenReturn(200000);
+            when(configManager.getClaudeMaxTokens()).thenReturn(1024);
+            when(configManager.getClaudeRetryAttempts()).thenReturn(3);
+            when(configManager.getClaudeRetryDelayMs()).thenReturn(50);
+            return new AIBenchmark(provider, new ClaudeChatCompletionService(configManager, httpClient));
+        }
+        when(configManager.getOpenAIApiKey()).thenReturn("simulated-key");
+        when(configManager.getOpenAIApiUrl()).thenReturn(simulator.getOpenAIUrl());
+        when(configManager.getOpenAIModel()).thenReturn("simulated");
+        when(configManager.getOpenAITokenLimit()).thenReturn(128000);
+        when(configManager.getOpenAIMaxTokens()).thenReturn(1024);
+        when(configManager.getOpenAIRetryAttempts()).thenReturn(3);
+        when(configManager.getOpenAIRetryDelayMs()).thenReturn(50);
+        return new AIBenchmark(provider, new OpenAIChatCompletionService(configManager, httpClient));
+    }
+
+    /**
+     * Send requests with a fixed number in flight and measure each of them.
+     *
+     * @param mode How the requests are sent
+     * @param requests The number of requests
+     * @param concurrency The number of requests in flight at a time
+     * @return The measurements
+     * @throws InterruptedException if interrupted while waiting for the requests
+     */
+    public Result run(Mode mode, int requests, int concurrency) throws InterruptedException {
+        if (requests <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Requests and concurrency must be positive");
+        }
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+
+        if (mode == Mode.ASYNC) {
+            Semaphore permits = new Semaphore(concurrency);
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                permits.acquire();
+                int index = i;
+                long sent = System.nanoTime();
+                futures.add(service.getChatCompletionAsync(MESSAGES).whenComplete((completion, error) -> {
+                    latencies[index] = System.nanoTime() - sent;
+                    if (error != null) {
+                        failures.incrementAndGet();
+                    }
+                    permits.release();
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(error -> null).join();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                executor.execute(() -> {
+                    long sent = System.nanoTime();
+                    try {
+                        if (mode == Mode.STREAM) {
+                            service.streamChatCompletion(MESSAGES, delta -> { });
+                        } else {
+                            service.getChatCompletion(MESSAGES);
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[index] = System.nanoTime() - sent;
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.MINUTES);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long retries = 0;
+        double firstByteP95 = 0;
+        for (AICallStats stats : telemetry.getStats()) {
+            retries += stats.getRetries();
+            firstByteP95 = Math.max(firstByteP95, stats.getTimeToFirstByte().getPercentileMs(95));
+        }
+        return new Result(provider, mode, latencies, failures.get(), elapsed, retries, firstByteP95);
+    }
+
+    /**
+     * The measurements of one benchmark run.
+     */
+    public static class Result {
+
+        private final String provider;
+        private final Mode mode;
+        private final long[] sortedLatencies;
+        private final int failures;
+        private final long elapsedNanos;
+        private final long retries;
+        private final double firstByteP95Ms;
+
+        Result(String provider, Mode mode, long[] latencies, int failures, long elapsedNanos, long retries,
+               double firstByteP95Ms) {
+            this.provider = provider;
+            this.mode = mode;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            this.retries = retries;
+            this.firstByteP95Ms = firstByteP95Ms;
+        }
+
+        public int getRequests() {
+            return sortedLatencies.length;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getRetries() {
+            return retries;
+        }
+
+        /**
+         * Get the completed requests per second.
+         */
+        public double getThroughput() {
+            return (sortedLatencies.length - failures) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Get a latency percentile, using the nearest-rank method.
+         *
+         * @param percentile The percentile (0 to 100)
+         * @return The latency in milliseconds
+         */
+        public double getPercentileMs(double percentile) {
+            int rank = (int) Math.ceil(sortedLatencies.length * percentile / 100.0);
+            return sortedLatencies[Math.max(0, rank - 1)] / 1e6;
+        }
+
+        /**
+         * Get the 95th percentile of the time to first byte, as bucketed by the telemetry.
+         */
+        public double getFirstByteP95Ms() {
+            return firstByteP95Ms;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-6s %-6s %5d requests, %3d failed, %3d retries, %8.1f req/s, "
+                            + "p50 %7.1f ms, p95 %7.1f ms, p99 %7.1f ms, max %7.1f ms, ttfb p95 <= %.0f ms",
+                    provider, mode, getRequests(), failures, retries, getThroughput(), getPercentileMs(50),
+                    getPercentileMs(95), getPercentileMs(99), getPercentileMs(100), firstByteP95Ms);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+        try (ProviderSimulator simulator = new ProviderSimulator()) {
+            simulator.setLatency(LatencyDistribution.logNormal(400, 2500));
+            simulator.setStreamInterval(LatencyDistribution.uniform(10, 40));
+            simulator.setRateLimitRate(0.02);
+            simulator.setServerErrorRate(0.01);
+            simulator.setRetryAfterSeconds(1);
+
+            for (String provider : List.of("claude", "openai")) {
+                for (Mode mode : Mode.values()) {
+                    System.out.println(against(provider, simulator).run(mode, requests, concurrency));
+                }
+            }
+            System.out.println("Simulator: " + simulator.getRequestCount() + " requests, "
+                    + simulator.getErrorCount() + " injected errors, max " + simulator.getMaxInFlight() + " in flight");
+        }
+    }
+}
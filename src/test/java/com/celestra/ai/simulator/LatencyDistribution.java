@@ -0,0 +1,54 @@
+package com.celestra.ai.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distribution of the delays the {@link ProviderSimulator} injects before it
+ * answers a request.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Draw a delay.
+     *
+     * @return The delay in milliseconds
+     */
+    long sampleMs();
+
+    static LatencyDistribution none() {
+        return () -> 0;
+    }
+
+    static LatencyDistribution fixed(long delayMs) {
+        if (delayMs < 0) {
+            throw new IllegalArgumentException("Delay must not be negative");
+        }
+        return () -> delayMs;
+    }
+
+    static LatencyDistribution uniform(long minMs, long maxMs) {
+        if (minMs < 0 || maxMs < minMs) {
+            throw new IllegalArgumentException("Invalid delay range: " + minMs + " to " + maxMs);
+        }
+        return () -> ThreadLocalRandom.current().nextLong(minMs, maxMs + 1);
+    }
+
+    /**
+     * A log-normal distribution, the usual shape of provider latencies: most calls
+     * close to the median and a long tail of slow ones.
+     *
+     * @param medianMs The median delay
+     * @param p99Ms The 99th percentile delay
+     * @return The distribution
+     */
+    static LatencyDistribution logNormal(double medianMs, double p99Ms) {
+        if (medianMs <= 0 || p99Ms < medianMs) {
+            throw new IllegalArgumentException("Invalid median " + medianMs + " and p99 " + p99Ms);
+        }
+        double mu = Math.log(medianMs);
+        // 2.326 is the z-score of the 99th percentile
+        double sigma = Math.log(p99Ms / medianMs) / 2.326;
+        return () -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+}
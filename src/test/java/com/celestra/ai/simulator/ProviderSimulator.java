@@ -0,0 +1,438 @@
+package com.celestra.ai.simulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the OpenAI chat completions and Claude messages endpoints,
+ * for load tests of the real services without reaching a provider.
+ *
+ * Requests are answered from a {@link SimulatorRecording} when one is set and
+ * holds the request, and otherwise with a synthesized completion of
+ * {@link #setCompletionWords configurable} length. Both plain and streamed
+ * responses use the provider's wire format, including the usage block.
+ *
+ * Every request waits for a delay drawn from the latency distribution before the
+ * response headers are sent. Streamed responses are written in chunks with a
+ * delay drawn from the stream interval distribution between them. Rate limiting
+ * (429 with a Retry-After header) and server errors (503 for OpenAI, 529 for
+ * Claude) are injected at configurable rates, or for the next requests with
+ * {@link #failNext}.
+ */
+public class ProviderSimulator implements AutoCloseable {
+
+    public static final String OPENAI_PATH = "/v1/chat/completions";
+    public static final String CLAUDE_PATH = "/v1/messages";
+
+    private static final String[] FILLER = {
+        "the", "deviation", "was", "caused", "by", "a", "temperature", "excursion", "in", "cold", "room",
+        "during", "the", "night", "shift", "and", "requires", "an", "impact", "assessment"
+    };
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "provider-simulator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Queue<Integer> injectedStatuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger replayCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+    private volatile LatencyDistribution streamInterval = LatencyDistribution.none();
+    private volatile int streamChunkChars = 16;
+    private volatile int completionWords = 40;
+    private volatile double rateLimitRate;
+    private volatile double serverErrorRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile SimulatorRecording recording;
+
+    public ProviderSimulator() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(OPENAI_PATH, exchange -> handle(exchange, false));
+        server.createContext(CLAUDE_PATH, exchange -> handle(exchange, true));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getOpenAIUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + OPENAI_PATH;
+    }
+
+    public String getClaudeUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CLAUDE_PATH;
+    }
+
+    /**
+     * Set the delay before the response headers of each request.
+     */
+    public void setLatency(LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Set the delay between the chunks of a streamed response.
+     */
+    public void setStreamInterval(LatencyDistribution streamInterval) {
+        this.streamInterval = streamInterval;
+    }
+
+    public void setStreamChunkChars(int streamChunkChars) {
+        if (streamChunkChars <= 0) {
+            throw new IllegalArgumentException("Stream chunk size must be positive");
+        }
+        this.streamChunkChars = streamChunkChars;
+    }
+
+    public void setCompletionWords(int completionWords) {
+        if (completionWords < 0) {
+            throw new IllegalArgumentException("Completion length must not be negative");
+        }
+        this.completionWords = completionWords;
+    }
+
+    /**
+     * Set the fraction of requests that are rate limited.
+     */
+    public void setRateLimitRate(double rateLimitRate) {
+        checkRate(rateLimitRate);
+        this.rateLimitRate = rateLimitRate;
+    }
+
+    /**
+     * Set the fraction of requests that fail with a server error.
+     */
+    public void setServerErrorRate(double serverErrorRate) {
+        checkRate(serverErrorRate);
+        this.serverErrorRate = serverErrorRate;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Set the recording to replay, or null to synthesize every response.
+     */
+    public void setRecording(SimulatorRecording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Answer the next requests with an error status, regardless of the error rates.
+     *
+     * @param status The HTTP status, e.g. 429 or 503
+     * @param count The number of requests
+     */
+    public void failNext(int status, int count) {
+        for (int i = 0; i < count; i++) {
+            injectedStatuses.add(status);
+        }
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public int getReplayCount() {
+        return replayCount.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange, boolean claude) throws IOException {
+        requestCount.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (InputStream in = exchange.getRequestBody()) {
+            String requestBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            JsonObject request = JsonParser.parseString(requestBody).getAsJsonObject();
+            boolean stream = request.has("stream") && request.get("stream").getAsBoolean();
+
+            sleep(latency.sampleMs());
+
+            Integer status = nextErrorStatus(claude);
+            if (status != null) {
+                errorCount.incrementAndGet();
+                respondError(exchange, claude, status);
+                return;
+            }
+
+            SimulatorRecording current = recording;
+            String recorded = current != null ? current.get(exchange.getRequestURI().getPath(), requestBody) : null;
+            if (recorded != null) {
+                replayCount.incrementAndGet();
+                if (!stream) {
+                    respond(exchange, 200, recorded);
+                    return;
+                }
+            }
+
+            String text = recorded != null ? extractText(recorded, claude) : synthesize(request);
+            long inputTokens = Math.max(1, requestBody.length() / 4);
+            long outputTokens = Math.max(1, text.length() / 4);
+            if (stream) {
+                streamResponse(exchange, claude, request, text, inputTokens, outputTokens);
+            } else {
+                respond(exchange, 200, claude ? claudeResponse(text, inputTokens, outputTokens)
+                        : openAIResponse(text, inputTokens, outputTokens));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, "{}");
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private Integer nextErrorStatus(boolean claude) {
+        Integer injected = injectedStatuses.poll();
+        if (injected != null) {
+            return injected;
+        }
+        double draw = ThreadLocalRandom.current().nextDouble();
+        if (draw < rateLimitRate) {
+            return 429;
+        }
+        if (draw < rateLimitRate + serverErrorRate) {
+            return claude ? 529 : 503;
+        }
+        return null;
+    }
+
+    private String synthesize(JsonObject request) {
+        StringBuilder text = new StringBuilder("Simulated response to: ").append(lastPrompt(request));
+        for (int i = 0; i < completionWords; i++) {
+            text.append(' ').append(FILLER[i % FILLER.length]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Get the text of the last message; Claude messages may hold content blocks.
+     */
+    private static String lastPrompt(JsonObject request) {
+        JsonArray messages = request.getAsJsonArray("messages");
+        if (messages == null || messages.size() == 0) {
+            return "";
+        }
+        JsonElement content = messages.get(messages.size() - 1).getAsJsonObject().get("content");
+        if (content.isJsonArray()) {
+            StringBuilder text = new StringBuilder();
+            for (JsonElement block : content.getAsJsonArray()) {
+                JsonElement blockText = block.getAsJsonObject().get("text");
+                if (blockText != null) {
+                    text.append(blockText.getAsString());
+                }
+            }
+            return text.toString();
+        }
+        return content.getAsString();
+    }
+
+    private static String extractText(String recorded, boolean claude) {
+        JsonObject response = JsonParser.parseString(recorded).getAsJsonObject();
+        if (claude) {
+            return response.getAsJsonArray("content").get(0).getAsJsonObject().get("text").getAsString();
+        }
+        return response.getAsJsonArray("choices").get(0).getAsJsonObject()
+                .getAsJsonObject("message").get("content").getAsString();
+    }
+
+    private static String openAIResponse(String text, long inputTokens, long outputTokens) {
+        JsonObject message = new JsonObject();
+        message.addProperty("role", "assistant");
+        message.addProperty("content", text);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("message", message);
+        choice.addProperty("finish_reason", "stop");
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject response = new JsonObject();
+        response.addProperty("object", "chat.completion");
+        response.add("choices", choices);
+        response.add("usage", openAIUsage(inputTokens, outputTokens));
+        return response.toString();
+    }
+
+    private static JsonObject openAIUsage(long inputTokens, long outputTokens) {
+        JsonObject usage = new JsonObject();
+        usage.addProperty("prompt_tokens", inputTokens);
+        usage.addProperty("completion_tokens", outputTokens);
+        usage.addProperty("total_tokens", inputTokens + outputTokens);
+        return usage;
+    }
+
+    private static String claudeResponse(String text, long inputTokens, long outputTokens) {
+        JsonObject block = new JsonObject();
+        block.addProperty("type", "text");
+        block.addProperty("text", text);
+        JsonArray content = new JsonArray();
+        content.add(block);
+        JsonObject usage = new JsonObject();
+        usage.addProperty("input_tokens", inputTokens);
+        usage.addProperty("output_tokens", outputTokens);
+        JsonObject response = new JsonObject();
+        response.addProperty("type", "message");
+        response.addProperty("role", "assistant");
+        response.add("content", content);
+        response.addProperty("stop_reason", "end_turn");
+        response.add("usage", usage);
+        return response.toString();
+    }
+
+    private void streamResponse(HttpExchange exchange, boolean claude, JsonObject request, String text,
+                                long inputTokens, long outputTokens) throws IOException, InterruptedException {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += streamChunkChars) {
+            chunks.add(text.substring(i, Math.min(text.length(), i + streamChunkChars)));
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (claude) {
+                JsonObject usage = new JsonObject();
+                usage.addProperty("input_tokens", inputTokens);
+                usage.addProperty("output_tokens", 1);
+                JsonObject message = new JsonObject();
+                message.add("usage", usage);
+                JsonObject start = new JsonObject();
+                start.addProperty("type", "message_start");
+                start.add("message", message);
+                writeEvent(out, "message_start", start.toString());
+            }
+
+            for (int i = 0; i < chunks.size(); i++) {
+                if (i > 0) {
+                    sleep(streamInterval.sampleMs());
+                }
+                writeEvent(out, claude ? "content_block_delta" : null, claude
+                        ? claudeDelta(chunks.get(i)) : openAIDelta(chunks.get(i)));
+            }
+
+            if (claude) {
+                JsonObject usage = new JsonObject();
+                usage.addProperty("output_tokens", outputTokens);
+                JsonObject delta = new JsonObject();
+                delta.addProperty("type", "message_delta");
+                delta.add("usage", usage);
+                writeEvent(out, "message_delta", delta.toString());
+                writeEvent(out, "message_stop", "{\"type\":\"message_stop\"}");
+            } else {
+                JsonObject options = request.getAsJsonObject("stream_options");
+                if (options != null && options.has("include_usage") && options.get("include_usage").getAsBoolean()) {
+                    JsonObject chunk = new JsonObject();
+                    chunk.add("choices", new JsonArray());
+                    chunk.add("usage", openAIUsage(inputTokens, outputTokens));
+                    writeEvent(out, null, chunk.toString());
+                }
+                writeEvent(out, null, "[DONE]");
+            }
+        }
+    }
+
+    private static String openAIDelta(String text) {
+        JsonObject delta = new JsonObject();
+        delta.addProperty("content", text);
+        JsonObject choice = new JsonObject();
+        choice.addProperty("index", 0);
+        choice.add("delta", delta);
+        JsonArray choices = new JsonArray();
+        choices.add(choice);
+        JsonObject chunk = new JsonObject();
+        chunk.add("choices", choices);
+        return chunk.toString();
+    }
+
+    private static String claudeDelta(String text) {
+        JsonObject delta = new JsonObject();
+        delta.addProperty("type", "text_delta");
+        delta.addProperty("text", text);
+        JsonObject event = new JsonObject();
+        event.addProperty("type", "content_block_delta");
+        event.addProperty("index", 0);
+        event.add("delta", delta);
+        return event.toString();
+    }
+
+    private static void writeEvent(OutputStream out, String event, String data) throws IOException {
+        String frame = (event != null ? "event: " + event + "\n" : "") + "data: " + data + "\n\n";
+        out.write(frame.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void respondError(HttpExchange exchange, boolean claude, int status) throws IOException {
+        String message = status == 429 ? "Rate limit exceeded" : "Simulated server error";
+        JsonObject error = new JsonObject();
+        error.addProperty("message", message);
+        JsonObject body = new JsonObject();
+        if (claude) {
+            error.addProperty("type", status == 429 ? "rate_limit_error" : "overloaded_error");
+            body.addProperty("type", "error");
+        } else {
+            error.addProperty("type", status == 429 ? "rate_limit_exceeded" : "server_error");
+        }
+        body.add("error", error);
+
+        if (status == 429) {
+            exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+        }
+        respond(exchange, status, body.toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static void checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
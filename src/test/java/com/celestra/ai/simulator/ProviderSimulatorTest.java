@@ -0,0 +1,132 @@
+package com.celestra.ai.simulator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.claude.ClaudeChatCompletionService;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.http.DefaultHttpClientWrapper;
+import com.celestra.ai.openai.OpenAIChatCompletionService;
+
+public class ProviderSimulatorTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(new ChatMessage("user", "Classify the deviation"));
+
+    @TempDir
+    Path tempDir;
+
+    private ProviderSimulator simulator;
+    private AIConfigurationManager configManager;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        simulator = new ProviderSimulator();
+        configManager = mock(AIConfigurationManager.class);
+        when(configManager.getClaudeApiKey()).thenReturn("test-key");
+        when(configManager.getClaudeApiUrl()).thenReturn(simulator.getClaudeUrl());
+        when(configManager.getClaudeTokenLimit()).thenReturn(200000);
+        when(configManager.getClaudeMaxTokens()).thenReturn(100);
+        when(configManager.getClaudeRetryAttempts()).thenReturn(2);
+        when(configManager.getOpenAIApiKey()).thenReturn("test-key");
+        when(configManager.getOpenAIApiUrl()).thenReturn(simulator.getOpenAIUrl());
+        when(configManager.getOpenAITokenLimit()).thenReturn(128000);
+        when(configManager.getOpenAIMaxTokens()).thenReturn(100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void testClaudeServiceRetriesAfterRateLimit() throws Exception {
+        // Arrange
+        ClaudeChatCompletionService service = new ClaudeChatCompletionService(configManager,
+                new DefaultHttpClientWrapper(5));
+        simulator.failNext(429, 1);
+        simulator.setRetryAfterSeconds(1);
+        long start = System.nanoTime();
+
+        // Act
+        String completion = service.getChatCompletion(MESSAGES);
+
+        // Assert: the second attempt succeeds after the Retry-After delay
+        assertTrue(completion.startsWith("Simulated response to: Classify the deviation"));
+        assertEquals(2, simulator.getRequestCount());
+        assertTrue(System.nanoTime() - start >= 1_000_000_000L);
+        assertTrue(service.getTokenUsage().getOutputTokens() > 0);
+    }
+
+    @Test
+    public void testOpenAIServiceStreamsInChunks() throws Exception {
+        // Arrange
+        ChatCompletionService service = new OpenAIChatCompletionService(configManager,
+                new DefaultHttpClientWrapper(5));
+        simulator.setCompletionWords(10);
+        simulator.setStreamChunkChars(8);
+        List<String> deltas = new ArrayList<>();
+
+        // Act
+        String completion = service.streamChatCompletion(MESSAGES, deltas::add);
+
+        // Assert
+        assertEquals(String.join("", deltas), completion);
+        assertEquals((completion.length() + 7) / 8, deltas.size());
+        assertTrue(completion.endsWith("in cold"));
+    }
+
+    @Test
+    public void testReplaysRecordedResponses() throws Exception {
+        // Arrange: record a response through the real service
+        SimulatorRecording recording = new SimulatorRecording(tempDir);
+        try (ProviderSimulator upstream = new ProviderSimulator()) {
+            upstream.setCompletionWords(3);
+            when(configManager.getClaudeApiUrl()).thenReturn(upstream.getClaudeUrl());
+            new ClaudeChatCompletionService(configManager,
+                    new RecordingHttpClientWrapper(new DefaultHttpClientWrapper(5), recording))
+                    .getChatCompletion(MESSAGES);
+        }
+        when(configManager.getClaudeApiUrl()).thenReturn(simulator.getClaudeUrl());
+        simulator.setRecording(recording);
+        simulator.setCompletionWords(50);
+        ClaudeChatCompletionService service = new ClaudeChatCompletionService(configManager,
+                new DefaultHttpClientWrapper(5));
+
+        // Act
+        String plain = service.getChatCompletion(MESSAGES);
+        String streamed = service.streamChatCompletion(MESSAGES, delta -> { });
+
+        // Assert
+        assertEquals("Simulated response to: Classify the deviation the deviation was", plain);
+        assertEquals(plain, streamed);
+        assertEquals(2, simulator.getReplayCount());
+    }
+
+    @Test
+    public void testBenchmarkMeasuresThroughputAndLatency() throws Exception {
+        // Arrange
+        simulator.setLatency(LatencyDistribution.fixed(20));
+        AIBenchmark benchmark = AIBenchmark.against("openai", simulator);
+
+        // Act
+        AIBenchmark.Result result = benchmark.run(AIBenchmark.Mode.ASYNC, 40, 8);
+
+        // Assert
+        assertEquals(40, result.getRequests());
+        assertEquals(0, result.getFailures());
+        assertTrue(result.getPercentileMs(50) >= 20);
+        assertTrue(result.getPercentileMs(99) >= result.getPercentileMs(50));
+        assertTrue(result.getThroughput() > 0);
+    }
+}
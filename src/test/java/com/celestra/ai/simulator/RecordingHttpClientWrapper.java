@@ -0,0 +1,81 @@
+package com.celestra.ai.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import com.celestra.ai.http.HttpClientWrapper;
+
+/**
+ * HttpClientWrapper that records the successful plain responses of real provider
+ * traffic for replay by the {@link ProviderSimulator}.
+ *
+ * Streamed calls are passed through unrecorded; the simulator answers them from
+ * the recording of the same request sent without streaming.
+ */
+public class RecordingHttpClientWrapper implements HttpClientWrapper {
+
+    private final HttpClientWrapper delegate;
+    private final SimulatorRecording recording;
+
+    public RecordingHttpClientWrapper(HttpClientWrapper delegate, SimulatorRecording recording) {
+        this.delegate = delegate;
+        this.recording = recording;
+    }
+
+    @Override
+    public SimpleHttpResponse sendRequest(HttpRequest request) throws IOException, InterruptedException {
+        return record(request, delegate.sendRequest(request));
+    }
+
+    @Override
+    public StreamingHttpResponse sendStreamingRequest(HttpRequest request) throws IOException, InterruptedException {
+        return delegate.sendStreamingRequest(request);
+    }
+
+    @Override
+    public CompletableFuture<SimpleHttpResponse> sendRequestAsync(HttpRequest request) {
+        return delegate.sendRequestAsync(request).thenApply(response -> record(request, response));
+    }
+
+    private SimpleHttpResponse record(HttpRequest request, SimpleHttpResponse response) {
+        if (response.statusCode() == 200) {
+            recording.put(request.uri().getPath(), readBody(request), response.body());
+        }
+        return response;
+    }
+
+    static String readBody(HttpRequest request) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                body.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return body.toString(StandardCharsets.UTF_8);
+    }
+}
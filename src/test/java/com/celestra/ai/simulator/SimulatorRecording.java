@@ -0,0 +1,88 @@
+package com.celestra.ai.simulator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Provider responses recorded from real traffic, replayed by the
+ * {@link ProviderSimulator}.
+ *
+ * Responses are stored as one file per request under the recording directory,
+ * named by a hash of the endpoint path and the request body. The streaming
+ * fields are left out of the hash, so a recorded plain response also answers the
+ * streamed form of the same request.
+ */
+public class SimulatorRecording {
+
+    private final Path directory;
+
+    public SimulatorRecording(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the recorded response to a request.
+     *
+     * @param path The endpoint path
+     * @param requestBody The request body
+     * @return The recorded response body, or null if the request was not recorded
+     */
+    public String get(String path, String requestBody) {
+        Path file = directory.resolve(key(path, requestBody) + ".json");
+        try {
+            return Files.exists(file) ? Files.readString(file, StandardCharsets.UTF_8) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Record the response to a request.
+     *
+     * @param path The endpoint path
+     * @param requestBody The request body
+     * @param responseBody The response body
+     */
+    public void put(String path, String requestBody, String responseBody) {
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(directory.resolve(key(path, requestBody) + ".json"), responseBody, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String key(String path, String requestBody) {
+        JsonObject request = JsonParser.parseString(requestBody).getAsJsonObject();
+        // Sorted so that the order in which the services write the fields does not matter
+        Map<String, JsonElement> fields = new TreeMap<>();
+        for (Map.Entry<String, JsonElement> field : request.entrySet()) {
+            if (!"stream".equals(field.getKey()) && !"stream_options".equals(field.getKey())) {
+                fields.put(field.getKey(), field.getValue());
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((path + "\n" + fields).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
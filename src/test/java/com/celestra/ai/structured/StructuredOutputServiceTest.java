@@ -0,0 +1,166 @@
+package com.celestra.ai.structured;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionService.StreamListener;
+import com.celestra.ai.exception.StructuredOutputException;
+import com.celestra.ai.workflow.InvestigatorWorkflow;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+
+public class StructuredOutputServiceTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(
+            new ChatMessage("user", "Classify: assay result 92% against a 95-105% specification"));
+
+    private static final String VALID = "```json\n{\"primary_deviation_type\": \"OOS\", \"confidence\": \"HIGH\", "
+            + "\"reasoning\": \"The \\\"assay\\\" is below the limit\"}\n```";
+
+    enum Confidence {
+        HIGH, MEDIUM, LOW
+    }
+
+    static class TypeDetection {
+        @SerializedName("primary_deviation_type")
+        String primaryDeviationType;
+        Confidence confidence;
+        String reasoning;
+    }
+
+    @Mock
+    private ChatCompletionService delegate;
+
+    private StructuredOutputService service;
+    private final List<Integer> deliveredChunks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new StructuredOutputService(delegate, 2);
+    }
+
+    @Test
+    public void testMapsStreamedOutputToType() throws Exception {
+        // Arrange
+        streamResponses(VALID);
+
+        // Act
+        TypeDetection result = service.complete(MESSAGES, Map.of(), TypeDetection.class);
+
+        // Assert
+        assertEquals("OOS", result.primaryDeviationType);
+        assertEquals(Confidence.HIGH, result.confidence);
+        assertEquals("The \"assay\" is below the limit", result.reasoning);
+    }
+
+    @Test
+    public void testAbortsAtFirstInvalidValueAndRetriesWithCorrection() throws Exception {
+        // Arrange: the first answer invents a deviation type
+        String invalid = "{\"primary_deviation_type\": \"Contamination\", \"confidence\": \"LOW\", "
+                + "\"reasoning\": \"a long explanation that is never generated\"}";
+        streamResponses(invalid, VALID);
+
+        // Act
+        JsonObject result = service.complete(MESSAGES, Map.of(), InvestigatorWorkflow.typeDetectionSchema());
+
+        // Assert: the first stream stopped at the chunk holding the "C"
+        assertEquals("OOS", result.get("primary_deviation_type").getAsString());
+        assertEquals(invalid.indexOf("Contamination") / 4 + 1, (int) deliveredChunks.get(0));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChatMessage>> captor = ArgumentCaptor.forClass(List.class);
+        verify(delegate, times(2)).streamChatCompletion(captor.capture(), anyMap(), any());
+        List<ChatMessage> retry = captor.getAllValues().get(1);
+        assertEquals(2, retry.size());
+        assertTrue(retry.get(1).getContent().contains("\"C\" is not a value of primary_deviation_type"));
+    }
+
+    @Test
+    public void testFailsWhenNoAttemptMatches() throws Exception {
+        // Arrange
+        streamResponses("{\"primary_deviation_type\": \"OOT\"}", "I cannot classify this deviation.");
+
+        // Act & Assert
+        StructuredOutputException e = assertThrows(StructuredOutputException.class,
+                () -> service.complete(MESSAGES, null, InvestigatorWorkflow.typeDetectionSchema()));
+        assertEquals("No JSON object in the output", e.getMessage());
+        verify(delegate, times(2)).streamChatCompletion(anyList(), any());
+    }
+
+    @Test
+    public void testValidatorRejectsAsSoonAsOutputCannotMatch() {
+        OutputSchema schema = new OutputSchema()
+                .string("label")
+                .number("score", 0, 1)
+                .field("details", OutputSchema.FieldType.OBJECT)
+                .optional("details");
+
+        assertRejected(schema, "{\"label\": 5", "label must be a string but is a number");
+        assertRejected(schema, "{\"verdict\":", "Unexpected field verdict");
+        assertRejected(schema, "{\"score\": 1.5,", "score must be between 0.0 and 1.0 but is 1.5");
+        assertRejected(schema, "{\"label\": \"x\", \"label\"", "Duplicate field label");
+        assertRejected(schema, "{\"details\": {\"a\": trux", "Invalid literal trux");
+        assertRejected(schema, "{\"label\": \"x\"}", "Missing required field score");
+        assertRejected(schema, "{\"label\": null", "label must not be null");
+    }
+
+    @Test
+    public void testValidatorAcceptsNestedValuesAndIgnoresTrailingText() throws Exception {
+        OutputSchema schema = new OutputSchema()
+                .string("label")
+                .number("score", 0, 1)
+                .field("details", OutputSchema.FieldType.OBJECT);
+        StreamingJsonValidator validator = new StreamingJsonValidator(schema);
+
+        validator.accept("{\"details\": {\"list\": [1, {\"a\": \"}\\u0041\"}], \"ok\": false, \"none\": null}, ");
+        validator.accept("\"score\": 0.25, \"label\": \"b\"} trailing text");
+        validator.finish();
+
+        assertTrue(validator.isComplete());
+        assertEquals("{\"details\": {\"list\": [1, {\"a\": \"}\\u0041\"}], \"ok\": false, \"none\": null}, "
+                + "\"score\": 0.25, \"label\": \"b\"}", validator.getJson());
+    }
+
+    private static void assertRejected(OutputSchema schema, String output, String message) {
+        StructuredOutputException e = assertThrows(StructuredOutputException.class,
+                () -> new StreamingJsonValidator(schema).accept(output));
+        assertEquals(message, e.getMessage());
+    }
+
+    /**
+     * Stream each response in turn in chunks of 4 characters, recording how many
+     * chunks were delivered before the listener stopped the stream.
+     */
+    private void streamResponses(String... responses) throws Exception {
+        int[] call = new int[1];
+        doAnswer(invocation -> {
+            String response = responses[call[0]++];
+            StreamListener listener = invocation.getArgument(invocation.getArguments().length - 1);
+            int delivered = 0;
+            try {
+                for (int i = 0; i < response.length(); i += 4) {
+                    delivered++;
+                    listener.onDelta(response.substring(i, Math.min(response.length(), i + 4)));
+                }
+            } finally {
+                deliveredChunks.add(delivered);
+            }
+            return response;
+        }).when(delegate).streamChatCompletion(anyList(), anyMap(), any());
+        doAnswer(invocation -> delegate.streamChatCompletion(invocation.getArgument(0), Map.of(),
+                invocation.getArgument(1))).when(delegate).streamChatCompletion(anyList(), any());
+    }
+}
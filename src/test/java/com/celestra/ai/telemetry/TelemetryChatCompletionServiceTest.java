@@ -0,0 +1,125 @@
+package com.celestra.ai.telemetry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.config.AIConfigurationManager;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.RateLimitException;
+import com.google.gson.JsonObject;
+
+public class TelemetryChatCompletionServiceTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(
+            new ChatMessage("user", "Temperature excursion in cold room 2"));
+
+    @Mock
+    private ChatCompletionService delegate;
+
+    @Mock
+    private AIConfigurationManager configManager;
+
+    private AITelemetry telemetry;
+    private TelemetryChatCompletionService service;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configManager.getPricingInputPerMillion("claude-test")).thenReturn(3.0);
+        when(configManager.getPricingOutputPerMillion("claude-test")).thenReturn(15.0);
+        when(configManager.getPricingCacheWriteMultiplier()).thenReturn(1.25);
+        when(configManager.getPricingCacheReadMultiplier()).thenReturn(0.1);
+
+        telemetry = new AITelemetry(new ModelPricing(configManager));
+        service = new TelemetryChatCompletionService(delegate, "claude", "claude-default", telemetry);
+    }
+
+    @Test
+    public void testRecordsUsageRetriesAndCostPerCaller() throws Exception {
+        // Arrange: the provider service reports through the telemetry of the call
+        when(delegate.getChatCompletion(MESSAGES)).thenAnswer(invocation -> {
+            CallTelemetry call = CallTelemetry.current();
+            call.setModel("claude-test");
+            call.recordRetry();
+            call.recordFirstByte();
+            call.recordUsage(1_000_000, 100_000, 0, 1_000_000);
+            return "MAJOR";
+        });
+
+        // Act
+        String result = TelemetryContext.of(7, "investigator").call(() -> service.getChatCompletion(MESSAGES));
+
+        // Assert
+        assertEquals("MAJOR", result);
+        List<AICallStats> stats = telemetry.getStats();
+        assertEquals(1, stats.size());
+        AICallStats entry = stats.get(0);
+        assertEquals("claude", entry.getProvider());
+        assertEquals("claude-test", entry.getModel());
+        assertEquals(Integer.valueOf(7), entry.getCompanyId());
+        assertEquals("investigator", entry.getAgent());
+        assertEquals(1, entry.getCalls());
+        assertEquals(0, entry.getFailures());
+        assertEquals(1, entry.getRetries());
+        assertEquals(1_000_000, entry.getInputTokens());
+        assertEquals(100_000, entry.getOutputTokens());
+        assertEquals(1_000_000, entry.getCacheReadInputTokens());
+        // 3.00 input + 0.30 cache read + 1.50 output
+        assertEquals(4.8, entry.getCost(), 1e-9);
+        assertEquals(1, entry.getLatency().getCount());
+        assertEquals(1, entry.getTimeToFirstByte().getCount());
+        assertNull(CallTelemetry.current().getProvider(), "Telemetry must not leak to the caller");
+    }
+
+    @Test
+    public void testRecordsErrorClassOfFailedAsyncCall() {
+        // Arrange: retries give up with the generic wrapper around the last error
+        when(delegate.getChatCompletionAsync(MESSAGES)).thenReturn(CompletableFuture.failedFuture(
+                new AIServiceException("Failed after 3 retries", new RateLimitException("Rate limit exceeded", 0))));
+
+        // Act
+        CompletableFuture<String> future = service.getChatCompletionAsync(MESSAGES);
+
+        // Assert
+        assertThrows(CompletionException.class, future::join);
+        AICallStats entry = telemetry.getStats().get(0);
+        assertEquals("claude-default", entry.getModel());
+        assertNull(entry.getCompanyId());
+        assertEquals(1, entry.getFailures());
+        assertEquals(Long.valueOf(1), entry.getErrors().get("RateLimitException"));
+        assertEquals(0, entry.getTimeToFirstByte().getCount());
+    }
+
+    @Test
+    public void testStreamedCallMeasuresFirstByteAtFirstDelta() throws Exception {
+        // Arrange
+        when(delegate.streamChatCompletion(eq(MESSAGES), any())).thenAnswer(invocation -> {
+            ChatCompletionService.StreamListener listener = invocation.getArgument(1);
+            listener.onDelta("MAJ");
+            listener.onDelta("OR");
+            return "MAJOR";
+        });
+        StringBuilder received = new StringBuilder();
+
+        // Act
+        service.streamChatCompletion(MESSAGES, received::append);
+
+        // Assert
+        assertEquals("MAJOR", received.toString());
+        JsonObject json = telemetry.toJson().getAsJsonArray("calls").get(0).getAsJsonObject();
+        assertEquals(1, json.getAsJsonObject("timeToFirstByte").get("count").getAsLong());
+        assertEquals(1, json.getAsJsonObject("latency").get("count").getAsLong());
+    }
+}
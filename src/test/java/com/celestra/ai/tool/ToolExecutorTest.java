@@ -0,0 +1,146 @@
+package com.celestra.ai.tool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.structured.OutputSchema;
+
+public class ToolExecutorTest {
+
+    private static final List<ChatMessage> MESSAGES = List.of(new ChatMessage("user", "Summarize batch B-17"));
+
+    @Mock
+    private ChatCompletionService service;
+
+    private ExecutorService pool;
+    private ToolExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        pool = Executors.newFixedThreadPool(4);
+        executor = new ToolExecutor(pool, 2000, 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testToolCallsOfOneTurnRunConcurrently() throws Exception {
+        // Arrange
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Tool.Handler handler = arguments -> {
+            bothStarted.countDown();
+            // Each call only finishes when the other one is running too
+            if (!bothStarted.await(1, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("calls ran one after the other");
+            }
+            return "status of " + arguments.get("batch").getAsString();
+        };
+        Tool batchStatus = new Tool(new ToolDefinition("batch_status", "Get the status of a batch",
+                new OutputSchema().string("batch")), handler);
+        List<List<ChatMessage>> conversations = new ArrayList<>();
+        when(service.getToolCompletion(any(), any(), any())).thenAnswer(invocation -> {
+            List<ChatMessage> conversation = invocation.getArgument(0);
+            conversations.add(new ArrayList<>(conversation));
+            return conversations.size() == 1
+                    ? new ToolCompletion(null, List.of(
+                            new ToolCall("call_1", "batch_status", "{\"batch\": \"B-17\"}"),
+                            new ToolCall("call_2", "batch_status", "{\"batch\": \"B-18\"}")))
+                    : new ToolCompletion("Both batches are released", List.of());
+        });
+
+        // Act
+        String answer = executor.run(service, MESSAGES, Map.of(), List.of(batchStatus));
+
+        // Assert
+        assertEquals("Both batches are released", answer);
+        assertEquals(2, conversations.size());
+        List<ChatMessage> followUp = conversations.get(1);
+        assertEquals(4, followUp.size());
+        assertEquals(2, followUp.get(1).getToolCalls().size());
+        assertEquals("call_1", followUp.get(2).getToolCallId());
+        assertEquals("status of B-17", followUp.get(2).getContent());
+        assertEquals("call_2", followUp.get(3).getToolCallId());
+        assertEquals("status of B-18", followUp.get(3).getContent());
+    }
+
+    @Test
+    public void testSlowToolTimesOutWithoutHoldingBackOthers() throws Exception {
+        // Arrange
+        Tool slow = new Tool(new ToolDefinition("slow", "Never answers", new OutputSchema()), arguments -> {
+            Thread.sleep(10_000);
+            return "too late";
+        }, 100);
+        Tool fast = new Tool(new ToolDefinition("fast", "Answers at once", new OutputSchema()), arguments -> "done");
+        List<ToolCall> calls = List.of(new ToolCall("call_1", "slow", "{}"), new ToolCall("call_2", "fast", "{}"));
+
+        // Act
+        long start = System.nanoTime();
+        List<ChatMessage> results = executor.execute(calls, Map.of("slow", slow, "fast", fast));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Assert
+        assertEquals("Error: the tool did not answer within 100 ms", results.get(0).getContent());
+        assertEquals("done", results.get(1).getContent());
+        assertTrue(elapsedMillis < 2000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testBadCallsProduceErrorResults() throws Exception {
+        // Arrange
+        Tool lookup = new Tool(new ToolDefinition("lookup", "Look up a deviation",
+                new OutputSchema().number("id", 1, 1_000_000)), arguments -> "found");
+        Tool failing = new Tool(new ToolDefinition("failing", "Always fails", new OutputSchema()), arguments -> {
+            throw new IllegalStateException("database unavailable");
+        });
+        List<ToolCall> calls = List.of(
+                new ToolCall("call_1", "missing", "{}"),
+                new ToolCall("call_2", "lookup", "{\"id\": \"abc\"}"),
+                new ToolCall("call_3", "failing", "{}"),
+                new ToolCall("call_4", "lookup", "{\"id\": 42}"));
+
+        // Act
+        List<ChatMessage> results = executor.execute(calls, Map.of("lookup", lookup, "failing", failing));
+
+        // Assert
+        assertEquals(4, results.size());
+        assertEquals("Error: unknown tool missing", results.get(0).getContent());
+        assertTrue(results.get(1).getContent().startsWith("Error: invalid arguments"));
+        assertEquals("Error: database unavailable", results.get(2).getContent());
+        assertEquals("found", results.get(3).getContent());
+        assertEquals("tool", results.get(3).getRole());
+    }
+
+    @Test
+    public void testModelThatKeepsCallingToolsIsStopped() throws Exception {
+        // Arrange
+        Tool echo = new Tool(new ToolDefinition("echo", "Echo", new OutputSchema()), arguments -> "echo");
+        when(service.getToolCompletion(any(), any(), any()))
+                .thenReturn(new ToolCompletion(null, List.of(new ToolCall("call_1", "echo", "{}"))));
+
+        // Act & Assert
+        assertThrows(AIServiceException.class, () -> executor.run(service, MESSAGES, Map.of(), List.of(echo)));
+        verify(service, times(3)).getToolCompletion(any(), any(), any());
+    }
+}
@@ -0,0 +1,228 @@
+package com.celestra.ai.workflow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.exception.AIServiceException;
+import com.celestra.ai.exception.ServerException;
+import com.celestra.ai.telemetry.TelemetryContext;
+import com.google.gson.JsonObject;
+
+public class WorkflowEngineTest {
+
+    @Mock
+    private ChatCompletionService service;
+
+    private WorkflowDefinition workflow;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        workflow = new WorkflowDefinition("test", List.of(
+                new WorkflowStep("combine", "Combine {{steps.left.v}} and {{steps.right.v}}", List.of("left", "right")),
+                new WorkflowStep("left", "Left {{input.x}}", null),
+                new WorkflowStep("right", "Right {{input.y}}", null)));
+    }
+
+    @Test
+    public void testSortsStepsAfterTheirDependencies() {
+        // Act
+        List<WorkflowStep> steps = workflow.getSteps();
+
+        // Assert
+        assertEquals("left", steps.get(0).getId());
+        assertEquals("right", steps.get(1).getId());
+        assertEquals("combine", steps.get(2).getId());
+    }
+
+    @Test
+    public void testRejectsInvalidGraphs() {
+        // Cycle
+        assertThrows(IllegalArgumentException.class, () -> new WorkflowDefinition("cycle", List.of(
+                new WorkflowStep("a", "A {{steps.b}}", List.of("b")),
+                new WorkflowStep("b", "B {{steps.a}}", List.of("a")))));
+
+        // Unknown dependency
+        assertThrows(IllegalArgumentException.class, () -> new WorkflowDefinition("unknown", List.of(
+                new WorkflowStep("a", "A", List.of("missing")))));
+
+        // Reference without dependency
+        assertThrows(IllegalArgumentException.class, () -> new WorkflowDefinition("undeclared", List.of(
+                new WorkflowStep("a", "A", null),
+                new WorkflowStep("b", "B {{steps.a}}", null))));
+    }
+
+    @Test
+    public void testRunsIndependentStepsInParallel() throws Exception {
+        // Arrange
+        Map<String, CompletableFuture<String>> calls = new ConcurrentHashMap<>();
+        when(service.getChatCompletionAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.put(lastContent(invocation.getArgument(0)), call);
+            return call;
+        });
+        WorkflowEngine engine = new WorkflowEngine(service, new WorkflowMemoStore(10, null));
+
+        // Act
+        CompletableFuture<WorkflowResult> future = engine.executeAsync(workflow, "inv-1", Map.of("x", "1", "y", "2"));
+
+        // Assert - both independent steps are in flight before either answers
+        assertEquals(2, calls.size());
+        calls.get("Right 2").complete("```json\n{\"v\": \"R\"}\n```");
+        calls.get("Left 1").complete("{\"v\": \"L\"}");
+        assertEquals(3, calls.size());
+        calls.get("Combine L and R").complete("{\"v\": \"LR\"}");
+
+        WorkflowResult result = future.get(5, TimeUnit.SECONDS);
+        assertEquals("LR", result.getOutput("combine").get("v").getAsString());
+        assertTrue(result.getMemoizedSteps().isEmpty());
+    }
+
+    @Test
+    public void testStepsAreMadeForTheCallerThatStartedTheRun() throws Exception {
+        // Arrange
+        Map<String, CompletableFuture<String>> calls = new ConcurrentHashMap<>();
+        Map<String, Integer> companies = new ConcurrentHashMap<>();
+        when(service.getChatCompletionAsync(any())).thenAnswer(invocation -> {
+            String prompt = lastContent(invocation.getArgument(0));
+            companies.put(prompt, TelemetryContext.current().getCompanyId());
+            CompletableFuture<String> call = new CompletableFuture<>();
+            calls.put(prompt, call);
+            return call;
+        });
+        WorkflowEngine engine = new WorkflowEngine(service, new WorkflowMemoStore(10, null));
+
+        // Act - the last step starts on the thread that completes its dependencies
+        CompletableFuture<WorkflowResult> future = TelemetryContext.of(7, null)
+                .supply(() -> engine.executeAsync(workflow, "inv-1", Map.of("x", "1", "y", "2")));
+        calls.get("Left 1").complete("{\"v\": \"L\"}");
+        calls.get("Right 2").complete("{\"v\": \"R\"}");
+        calls.get("Combine L and R").complete("{\"v\": \"LR\"}");
+
+        // Assert
+        future.get(5, TimeUnit.SECONDS);
+        assertEquals(Map.of("Left 1", 7, "Right 2", 7, "Combine L and R", 7), companies);
+        assertNull(TelemetryContext.current().getCompanyId());
+    }
+
+    @Test
+    public void testRerunRecomputesOnlyChangedSteps() throws Exception {
+        // Arrange
+        echo();
+        WorkflowEngine engine = new WorkflowEngine(service, new WorkflowMemoStore(10, null));
+        engine.execute(workflow, "inv-1", Map.of("x", "1", "y", "2"));
+
+        // Act
+        WorkflowResult result = engine.execute(workflow, "inv-1", Map.of("x", "1", "y", "3"));
+
+        // Assert
+        assertTrue(result.isMemoized("left"));
+        assertFalse(result.isMemoized("right"));
+        assertFalse(result.isMemoized("combine"));
+        assertEquals("Combine Left 1 and Right 3", result.getOutput("combine").get("v").getAsString());
+        verify(service, times(5)).getChatCompletionAsync(any());
+
+        // Another investigation has its own memo
+        WorkflowResult other = engine.execute(workflow, "inv-2", Map.of("x", "1", "y", "3"));
+        assertTrue(other.getMemoizedSteps().isEmpty());
+    }
+
+    @Test
+    public void testFailedStepFailsDependentsAndKeepsOtherOutputs() throws Exception {
+        // Arrange
+        when(service.getChatCompletionAsync(any())).thenAnswer(invocation -> {
+            String content = lastContent(invocation.getArgument(0));
+            if (content.startsWith("Right")) {
+                return CompletableFuture.failedFuture(new ServerException("Overloaded", 529));
+            }
+            return CompletableFuture.completedFuture(json(content));
+        });
+        WorkflowMemoStore memoStore = new WorkflowMemoStore(10, null);
+        WorkflowEngine engine = new WorkflowEngine(service, memoStore);
+
+        // Act
+        AIServiceException e = assertThrows(AIServiceException.class,
+                () -> engine.execute(workflow, "inv-1", Map.of("x", "1", "y", "2")));
+
+        // Assert
+        assertTrue(e.getMessage().contains("right"));
+        assertInstanceOf(ServerException.class, e.getCause());
+        verify(service, times(2)).getChatCompletionAsync(any());
+
+        echo();
+        WorkflowResult result = engine.execute(workflow, "inv-1", Map.of("x", "1", "y", "2"));
+        assertTrue(result.isMemoized("left"));
+        assertEquals("Combine Left 1 and Right 2", result.getOutput("combine").get("v").getAsString());
+    }
+
+    @Test
+    public void testRejectsOutputMissingRequiredField() {
+        // Arrange
+        when(service.getChatCompletionAsync(any())).thenReturn(CompletableFuture.completedFuture("{\"other\": 1}"));
+        WorkflowStep step = new WorkflowStep("only", "Only", null);
+        step.setRequiredFields(List.of("v"));
+        WorkflowEngine engine = new WorkflowEngine(service, new WorkflowMemoStore(10, null));
+
+        // Act & Assert
+        AIServiceException e = assertThrows(AIServiceException.class,
+                () -> engine.execute(new WorkflowDefinition("required", List.of(step)), "inv-1", Map.of()));
+        assertTrue(e.getMessage().contains("missing v"));
+    }
+
+    @Test
+    public void testMemoSurvivesRestart(@TempDir Path directory) throws Exception {
+        // Arrange
+        echo();
+        new WorkflowEngine(service, new WorkflowMemoStore(10, directory))
+                .execute(workflow, "inv-1", Map.of("x", "1", "y", "2"));
+
+        // Act
+        WorkflowResult result = new WorkflowEngine(service, new WorkflowMemoStore(10, directory))
+                .execute(workflow, "inv-1", Map.of("x", "1", "y", "2"));
+
+        // Assert
+        assertEquals(3, result.getMemoizedSteps().size());
+        verify(service, times(3)).getChatCompletionAsync(any());
+    }
+
+    @Test
+    public void testInvestigatorWorkflowIsValid() {
+        // Act
+        WorkflowDefinition investigator = InvestigatorWorkflow.create();
+
+        // Assert
+        assertEquals(InvestigatorWorkflow.TYPE_DETECTION, investigator.getSteps().get(0).getId());
+        assertEquals(7, investigator.getSteps().size());
+    }
+
+    private void echo() {
+        doAnswer(invocation -> CompletableFuture.completedFuture(json(lastContent(invocation.getArgument(0)))))
+                .when(service).getChatCompletionAsync(any());
+    }
+
+    private static String lastContent(List<ChatMessage> messages) {
+        return messages.get(messages.size() - 1).getContent();
+    }
+
+    private static String json(String value) {
+        JsonObject json = new JsonObject();
+        json.addProperty("v", value);
+        return json.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.celestra.audit.archive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveSegmentTest {
+
+    private static final long BASE_TIME = 1672531200000L; // 2023-01-01T00:00:00Z
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRoundTripPreservesValuesAndNulls() throws Exception {
+        // Arrange
+        List<Object[]> rows = failedLoginRows(50);
+        rows.get(3)[1] = null;
+        rows.get(4)[3] = "";
+        rows.get(5)[5] = "Ünïcödé \"reason\"";
+
+        // Act
+        Path segment = ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, rows);
+        ArchiveSegmentFooter footer = ArchiveSegmentReader.readFooter(segment);
+        List<Object[]> read = new ArrayList<>();
+        int matches = new ArchiveSegmentReader(segment, ArchiveTable.FAILED_LOGINS, footer)
+                .scan(new ArchiveQuery(), read::add);
+
+        // Assert
+        assertEquals("segment-000000000001-000000000050.seg", segment.getFileName().toString());
+        assertEquals(50, matches);
+        assertEquals(50, footer.getRowCount());
+        assertEquals(1, footer.getMinId());
+        assertEquals(50, footer.getMaxId());
+        assertEquals(Set.of("FAILED_LOGIN"), footer.getEventTypes());
+        for (int i = 0; i < rows.size(); i++) {
+            assertArrayEquals(rows.get(i), read.get(i));
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testScanPushesDownTimeAndUserPredicates() throws Exception {
+        // Arrange
+        Path segment = ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, failedLoginRows(100));
+        ArchiveSegmentReader reader = new ArchiveSegmentReader(segment, ArchiveTable.FAILED_LOGINS,
+                ArchiveSegmentReader.readFooter(segment));
+        ArchiveQuery query = new ArchiveQuery(new Timestamp(BASE_TIME + 10 * 60000L),
+                new Timestamp(BASE_TIME + 20 * 60000L));
+        query.setUserId(2);
+        List<Object[]> read = new ArrayList<>();
+
+        // Act
+        int matches = reader.scan(query, read::add);
+
+        // Assert: ids 11-20 fall in the range, and every third of them belongs to user 2
+        assertEquals(4, matches);
+        assertEquals(11, read.get(0)[0]);
+        assertEquals(14, read.get(1)[0]);
+        assertEquals(17, read.get(2)[0]);
+        assertEquals(20, read.get(3)[0]);
+    }
+
+    @Test
+    public void testFooterSkipsSegmentsOutsideQuery() throws Exception {
+        // Arrange
+        Path segment = ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, failedLoginRows(10));
+        ArchiveSegmentFooter footer = ArchiveSegmentReader.readFooter(segment);
+
+        ArchiveQuery later = new ArchiveQuery(new Timestamp(BASE_TIME + 3600000L), null);
+        ArchiveQuery otherUser = new ArchiveQuery();
+        otherUser.setUserId(99);
+        ArchiveQuery otherEvent = new ArchiveQuery();
+        otherEvent.setEventTypes(Set.of("SUCCESSFUL_LOGIN"));
+        ArchiveQuery sameEvent = new ArchiveQuery();
+        sameEvent.setEventTypes(Set.of("FAILED_LOGIN"));
+
+        // Assert
+        assertFalse(footer.mayMatch(later));
+        assertFalse(footer.mayMatch(otherUser));
+        assertFalse(footer.mayMatch(otherEvent));
+        assertTrue(footer.mayMatch(sameEvent));
+    }
+
+    @Test
+    public void testReadFooterRejectsTruncatedSegment() throws Exception {
+        // Arrange
+        Path segment = ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, failedLoginRows(10));
+        byte[] bytes = Files.readAllBytes(segment);
+        Path truncated = tempDir.resolve("truncated.seg");
+        Files.write(truncated, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> ArchiveSegmentReader.readFooter(truncated));
+    }
+
+    @Test
+    public void testWriteRejectsEmptySegment() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, new ArrayList<>()));
+    }
+
+    @Test
+    public void testWriteNeverReplacesASegment() throws Exception {
+        // Arrange
+        Path segment = ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, failedLoginRows(10), "run1");
+        byte[] written = Files.readAllBytes(segment);
+
+        // Act & Assert
+        assertEquals("segment-000000000001-000000000010-run1.seg", segment.getFileName().toString());
+        assertThrows(FileAlreadyExistsException.class,
+                () -> ArchiveSegmentWriter.write(tempDir, ArchiveTable.FAILED_LOGINS, failedLoginRows(10), "run1"));
+        assertArrayEquals(written, Files.readAllBytes(segment));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private List<Object[]> failedLoginRows(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            rows.add(new Object[] {
+                    id,
+                    id % 3,
+                    "user" + (id % 3) + "@example.com",
+                    "10.0.0." + id,
+                    BASE_TIME + (id - 1) * 60000L,
+                    "Invalid password"
+            });
+        }
+        return rows;
+    }
+}
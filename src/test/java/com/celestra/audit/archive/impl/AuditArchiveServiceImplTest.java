@@ -0,0 +1,231 @@
+package com.celestra.audit.archive.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.audit.archive.ArchiveQuery;
+import com.celestra.audit.archive.ArchiveSegmentWriter;
+import com.celestra.audit.archive.ArchiveTable;
+import com.celestra.audit.archive.AuditArchiveService;
+import com.celestra.dao.AuditArchiveDao;
+import com.celestra.enums.AuditEventType;
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.celestra.model.FailedLogin;
+
+public class AuditArchiveServiceImplTest {
+
+    private static final Timestamp CUTOFF = Timestamp.valueOf("2024-01-01 00:00:00");
+
+    @Mock
+    private AuditArchiveDao auditArchiveDao;
+
+    @Mock
+    private AuditArchiveDao.ArchiveLock lock;
+
+    @TempDir
+    Path tempDir;
+
+    private AuditArchiveService auditArchiveService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(auditArchiveDao.tryLock(AuditArchiveServiceImpl.ARCHIVE_LOCK_KEY)).thenReturn(lock);
+        auditArchiveService = new AuditArchiveServiceImpl(auditArchiveDao, tempDir, 2);
+    }
+
+    @Test
+    public void testArchiveAuditLogsWritesSegmentsAndDeletes() throws Exception {
+        // Arrange
+        when(auditArchiveDao.findAuditLogsOlderThan(CUTOFF, 2))
+                .thenReturn(List.of(auditLog(1, AuditEventType.SUCCESSFUL_LOGIN), auditLog(2, AuditEventType.CONFIGURATION_UPDATE)))
+                .thenReturn(List.of(auditLog(3, AuditEventType.CONFIGURATION_UPDATE)));
+        when(auditArchiveDao.findChangeLogsForAuditLogs(1, 2, CUTOFF))
+                .thenReturn(List.of(changeLog(10, 2)));
+        when(auditArchiveDao.findChangeLogsForAuditLogs(3, 3, CUTOFF))
+                .thenReturn(Collections.emptyList());
+        when(auditArchiveDao.deleteArchivedAuditLogs(anyInt(), anyInt(), any(), anyInt(), anyInt()))
+                .thenReturn(true);
+
+        // Act
+        int archived = auditArchiveService.archiveAuditLogs(CUTOFF);
+
+        // Assert
+        assertEquals(3, archived);
+        verify(auditArchiveDao).deleteArchivedAuditLogs(1, 2, CUTOFF, 2, 1);
+        verify(auditArchiveDao).deleteArchivedAuditLogs(3, 3, CUTOFF, 1, 0);
+        assertTrue(hasSegment("audit_logs", 1, 2));
+        assertTrue(hasSegment("audit_logs", 3, 3));
+        assertTrue(hasSegment("audit_change_logs", 10, 10));
+        verify(lock).close();
+
+        List<AuditLog> auditLogs = new ArrayList<>();
+        assertEquals(3, auditArchiveService.scanAuditLogs(new ArchiveQuery(), auditLogs::add));
+        assertEquals(auditLog(2, AuditEventType.CONFIGURATION_UPDATE).getGroupId(), auditLogs.get(1).getGroupId());
+        assertEquals("Event 2", auditLogs.get(1).getEventDescription());
+        assertEquals(AuditEventType.CONFIGURATION_UPDATE, auditLogs.get(1).getEventType());
+    }
+
+    @Test
+    public void testScanFiltersByEventTypeAndUser() throws Exception {
+        // Arrange
+        when(auditArchiveDao.findAuditLogsOlderThan(CUTOFF, 2))
+                .thenReturn(List.of(auditLog(1, AuditEventType.SUCCESSFUL_LOGIN), auditLog(2, AuditEventType.CONFIGURATION_UPDATE)))
+                .thenReturn(Collections.emptyList());
+        when(auditArchiveDao.findChangeLogsForAuditLogs(1, 2, CUTOFF)).thenReturn(List.of(changeLog(10, 2)));
+        when(auditArchiveDao.deleteArchivedAuditLogs(anyInt(), anyInt(), any(), anyInt(), anyInt())).thenReturn(true);
+        auditArchiveService.archiveAuditLogs(CUTOFF);
+
+        ArchiveQuery query = new ArchiveQuery();
+        query.setEventTypes(Set.of("CONFIGURATION_UPDATE"));
+        query.setUserId(7);
+
+        // Act
+        List<AuditLog> auditLogs = new ArrayList<>();
+        List<AuditChangeLog> changeLogs = new ArrayList<>();
+        long auditMatches = auditArchiveService.scanAuditLogs(query, auditLogs::add);
+        long changeMatches = auditArchiveService.scanAuditChangeLogs(query, changeLogs::add);
+
+        // Assert
+        assertEquals(1, auditMatches);
+        assertEquals(2, auditLogs.get(0).getId());
+        assertEquals(1, changeMatches);
+        assertEquals("status", changeLogs.get(0).getColumnName());
+        assertEquals(2, changeLogs.get(0).getAuditLogId());
+    }
+
+    @Test
+    public void testArchiveRemovesSegmentsWhenDeleteCountMismatches() throws Exception {
+        // Arrange
+        when(auditArchiveDao.findFailedLoginsOlderThan(CUTOFF, 2)).thenReturn(List.of(failedLogin(1), failedLogin(2)));
+        when(auditArchiveDao.deleteArchivedFailedLogins(1, 2, CUTOFF, 2)).thenReturn(false);
+
+        // Act
+        int archived = auditArchiveService.archiveFailedLogins(CUTOFF);
+
+        // Assert
+        assertEquals(0, archived);
+        assertEquals(0, auditArchiveService.scanFailedLogins(new ArchiveQuery(), login -> { }));
+    }
+
+    @Test
+    public void testArchiveRemovesSegmentsWhenDeleteFails() throws Exception {
+        // Arrange
+        when(auditArchiveDao.findFailedLoginsOlderThan(CUTOFF, 2)).thenReturn(List.of(failedLogin(1)));
+        when(auditArchiveDao.deleteArchivedFailedLogins(1, 1, CUTOFF, 1)).thenThrow(new SQLException("Connection lost"));
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> auditArchiveService.archiveFailedLogins(CUTOFF));
+        assertFalse(hasSegment("failed_logins", 1, 1));
+        verify(lock).close();
+    }
+
+    @Test
+    public void testRunOverTheSameRowsKeepsTheOtherRunsSegment() throws Exception {
+        // Arrange: another node archived and deleted the same batch first
+        Path other = ArchiveSegmentWriter.write(tempDir.resolve("failed_logins"), ArchiveTable.FAILED_LOGINS,
+                List.<Object[]>of(new Object[] {1, null, "user@example.com", "10.0.0.1",
+                        Timestamp.valueOf("2023-06-01 12:00:00").getTime(), "Invalid password"}), "other");
+        when(auditArchiveDao.findFailedLoginsOlderThan(CUTOFF, 2)).thenReturn(List.of(failedLogin(1)));
+        when(auditArchiveDao.deleteArchivedFailedLogins(1, 1, CUTOFF, 1)).thenReturn(false);
+
+        // Act
+        int archived = auditArchiveService.archiveFailedLogins(CUTOFF);
+
+        // Assert
+        assertEquals(0, archived);
+        assertTrue(Files.exists(other));
+        assertEquals(1, auditArchiveService.scanFailedLogins(new ArchiveQuery(), login -> { }));
+    }
+
+    @Test
+    public void testRunIsSkippedWhileAnotherNodeHoldsTheLock() throws Exception {
+        // Arrange
+        when(auditArchiveDao.tryLock(AuditArchiveServiceImpl.ARCHIVE_LOCK_KEY)).thenReturn(null);
+
+        // Act
+        int auditLogs = auditArchiveService.archiveAuditLogs(CUTOFF);
+        int failedLogins = auditArchiveService.archiveFailedLogins(CUTOFF);
+
+        // Assert
+        assertEquals(0, auditLogs);
+        assertEquals(0, failedLogins);
+        verify(auditArchiveDao, never()).findAuditLogsOlderThan(any(), anyInt());
+        verify(auditArchiveDao, never()).findFailedLoginsOlderThan(any(), anyInt());
+    }
+
+    @Test
+    public void testScanFailedLoginsByTimeRange() throws Exception {
+        // Arrange
+        when(auditArchiveDao.findFailedLoginsOlderThan(CUTOFF, 2)).thenReturn(List.of(failedLogin(1), failedLogin(2)))
+                .thenReturn(Collections.emptyList());
+        when(auditArchiveDao.deleteArchivedFailedLogins(1, 2, CUTOFF, 2)).thenReturn(true);
+        auditArchiveService.archiveFailedLogins(CUTOFF);
+
+        // Act
+        List<FailedLogin> failedLogins = new ArrayList<>();
+        long matches = auditArchiveService.scanFailedLogins(
+                new ArchiveQuery(Timestamp.valueOf("2023-06-02 00:00:00"), CUTOFF), failedLogins::add);
+
+        // Assert
+        assertEquals(1, matches);
+        assertEquals(2, failedLogins.get(0).getId());
+        assertEquals("user@example.com", failedLogins.get(0).getEmail());
+    }
+
+    @Test
+    public void testArchiveRequiresCutoff() {
+        assertThrows(IllegalArgumentException.class, () -> auditArchiveService.archiveAuditLogs(null));
+    }
+
+    private boolean hasSegment(String table, long fromId, long toId) throws IOException {
+        Path directory = tempDir.resolve(table);
+        if (!Files.isDirectory(directory)) {
+            return false;
+        }
+        String prefix = String.format("segment-%012d-%012d-", fromId, toId);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.anyMatch(path -> path.getFileName().toString().startsWith(prefix));
+        }
+    }
+
+    private AuditLog auditLog(int id, AuditEventType eventType) {
+        AuditLog auditLog = new AuditLog(eventType);
+        auditLog.setId(id);
+        auditLog.setUserId(7);
+        auditLog.setEventDescription("Event " + id);
+        auditLog.setGroupId(UUID.nameUUIDFromBytes(new byte[] {(byte) id}));
+        auditLog.setCreatedAt(Timestamp.valueOf("2023-06-0" + id + " 12:00:00"));
+        return auditLog;
+    }
+
+    private AuditChangeLog changeLog(int id, int auditLogId) {
+        return new AuditChangeLog(id, auditLogId, "status", "DRAFT", "ACTIVE",
+                Timestamp.valueOf("2023-06-02 12:00:00"));
+    }
+
+    private FailedLogin failedLogin(int id) {
+        return new FailedLogin(id, null, "user@example.com", "10.0.0.1",
+                Timestamp.valueOf("2023-06-0" + id + " 12:00:00"), "Invalid password");
+    }
+}
@@ -0,0 +1,203 @@
+package com.celestra.audit.export.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.audit.export.AuditExportCheckpoint;
+import com.celestra.audit.export.AuditExportCompression;
+import com.celestra.audit.export.AuditExportFormat;
+import com.celestra.audit.export.AuditExportRequest;
+import com.celestra.audit.export.AuditExportService;
+import com.celestra.dao.AuditExportDao;
+import com.celestra.dao.AuditExportDao.AuditTrailHandler;
+import com.celestra.enums.AuditEventType;
+import com.celestra.model.AuditChangeLog;
+import com.celestra.model.AuditLog;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+public class AuditExportServiceImplTest {
+
+    @Mock
+    private AuditExportDao auditExportDao;
+
+    @TempDir
+    Path tempDir;
+
+    private AuditExportService auditExportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        auditExportService = new AuditExportServiceImpl(auditExportDao);
+    }
+
+    @Test
+    public void testExportNdjsonGzip() throws Exception {
+        // Arrange
+        stubRows(3);
+        AuditExportRequest request = new AuditExportRequest(1, "2025-01-01", "2025-01-31");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        AuditExportCheckpoint result = auditExportService.export(request, out, null);
+
+        // Assert
+        assertTrue(result.isComplete());
+        assertEquals(3, result.getLastAuditLogId());
+        assertEquals(3, result.getRecordsWritten());
+        assertEquals(out.size(), result.getBytesWritten());
+
+        String[] lines = gunzip(out.toByteArray()).split("\n");
+        assertEquals(3, lines.length);
+        JsonObject first = JsonParser.parseString(lines[0]).getAsJsonObject();
+        assertEquals(1, first.get("id").getAsInt());
+        assertEquals("CONFIGURATION_UPDATE", first.get("event_type").getAsString());
+        assertEquals(1, first.getAsJsonArray("changes").size());
+        assertEquals("status", first.getAsJsonArray("changes").get(0).getAsJsonObject()
+                .get("column_name").getAsString());
+
+        verify(auditExportDao).streamAuditTrail(eq(1), eq("2025-01-01"), eq("2025-01-31"), eq(0), any());
+    }
+
+    @Test
+    public void testExportCsvEscapesFields() throws Exception {
+        // Arrange
+        stubRows(1);
+        AuditExportRequest request = new AuditExportRequest(null, "2025-01-01", "2025-01-31");
+        request.setFormat(AuditExportFormat.CSV);
+        request.setCompression(AuditExportCompression.NONE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        auditExportService.export(request, out, null);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,user_id,event_type"));
+        assertTrue(lines[1].contains("\"Updated \"\"config\"\", step 1\""));
+        assertTrue(lines[1].contains(",status,DRAFT,ACTIVE,"));
+    }
+
+    @Test
+    public void testCheckpointsAreEmittedAtInterval() throws Exception {
+        // Arrange
+        stubRows(5);
+        AuditExportRequest request = new AuditExportRequest(1, "2025-01-01", "2025-01-31");
+        request.setCheckpointInterval(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<AuditExportCheckpoint> checkpoints = new ArrayList<>();
+
+        // Act
+        auditExportService.export(request, out, checkpoints::add);
+
+        // Assert
+        assertEquals(3, checkpoints.size());
+        assertEquals(2, checkpoints.get(0).getLastAuditLogId());
+        assertEquals(4, checkpoints.get(1).getLastAuditLogId());
+        assertTrue(checkpoints.get(2).isComplete());
+
+        // Every checkpoint boundary must be a valid end of a gzip stream
+        byte[] bytes = out.toByteArray();
+        byte[] prefix = new byte[(int) checkpoints.get(0).getBytesWritten()];
+        System.arraycopy(bytes, 0, prefix, 0, prefix.length);
+        assertEquals(2, gunzip(prefix).split("\n").length);
+        assertEquals(5, gunzip(bytes).split("\n").length);
+    }
+
+    @Test
+    public void testExportToFileResumesFromCheckpoint() throws Exception {
+        // Arrange: the first run fails after the second checkpoint
+        Path target = tempDir.resolve("audit.ndjson.gz");
+        AuditExportRequest request = new AuditExportRequest(1, "2025-01-01", "2025-01-31");
+        request.setCheckpointInterval(2);
+
+        doAnswer(invocation -> {
+            AuditTrailHandler handler = invocation.getArgument(4);
+            for (int id = 1; id <= 5; id++) {
+                handler.handle(auditLog(id), Collections.emptyList());
+            }
+            throw new IOException("Connection reset");
+        }).when(auditExportDao).streamAuditTrail(any(), any(), any(), eq(0), any());
+
+        doAnswer(invocation -> {
+            AuditTrailHandler handler = invocation.getArgument(4);
+            for (int id = 5; id <= 6; id++) {
+                handler.handle(auditLog(id), Collections.emptyList());
+            }
+            return 2L;
+        }).when(auditExportDao).streamAuditTrail(any(), any(), any(), eq(4), any());
+
+        // Act
+        assertThrows(IOException.class, () -> auditExportService.exportToFile(request, target));
+        assertTrue(Files.exists(tempDir.resolve("audit.ndjson.gz.checkpoint")));
+        AuditExportCheckpoint result = auditExportService.exportToFile(request, target);
+
+        // Assert
+        assertTrue(result.isComplete());
+        assertEquals(6, result.getRecordsWritten());
+        assertFalse(Files.exists(tempDir.resolve("audit.ndjson.gz.checkpoint")));
+
+        String[] lines = gunzip(Files.readAllBytes(target)).split("\n");
+        assertEquals(6, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(i + 1, JsonParser.parseString(lines[i]).getAsJsonObject().get("id").getAsInt());
+        }
+    }
+
+    @Test
+    public void testExportRequiresDates() {
+        AuditExportRequest request = new AuditExportRequest(1, null, "2025-01-31");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> auditExportService.export(request, new ByteArrayOutputStream(), null));
+    }
+
+    private void stubRows(int count) throws Exception {
+        doAnswer(invocation -> {
+            AuditTrailHandler handler = invocation.getArgument(4);
+            for (int id = 1; id <= count; id++) {
+                AuditChangeLog change = new AuditChangeLog(id, "status", "DRAFT", "ACTIVE");
+                change.setId(100 + id);
+                handler.handle(auditLog(id), List.of(change));
+            }
+            return (long) count;
+        }).when(auditExportDao).streamAuditTrail(any(), any(), any(), anyInt(), any());
+    }
+
+    private AuditLog auditLog(int id) {
+        AuditLog auditLog = new AuditLog(AuditEventType.CONFIGURATION_UPDATE);
+        auditLog.setId(id);
+        auditLog.setUserId(10);
+        auditLog.setEventDescription("Updated \"config\", step " + id);
+        auditLog.setCreatedAt(new Timestamp(1735689600000L + id));
+        return auditLog;
+    }
+
+    private String gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.celestra.audit.rollup;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.dao.SecurityEventRollupDao;
+import com.celestra.enums.SecurityRollupSource;
+
+public class SecurityRollupAggregatorTest {
+    
+    @Mock
+    private SecurityEventRollupDao rollupDao;
+    
+    private SecurityRollupAggregator aggregator;
+    
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        aggregator = new SecurityRollupAggregator(rollupDao, 100, 30);
+    }
+    
+    @Test
+    public void testAggregateDrainsFullBatches() throws SQLException {
+        // Arrange
+        when(rollupDao.rollUp(SecurityRollupSource.AUDIT_LOGS, 100, 30)).thenReturn(100, 100, 42);
+        
+        // Act
+        long total = aggregator.aggregate(SecurityRollupSource.AUDIT_LOGS);
+        
+        // Assert
+        assertEquals(242, total);
+        verify(rollupDao, times(3)).rollUp(SecurityRollupSource.AUDIT_LOGS, 100, 30);
+    }
+    
+    @Test
+    public void testRunContinuesAfterSourceFailure() throws SQLException {
+        // Arrange
+        when(rollupDao.rollUp(eq(SecurityRollupSource.AUDIT_LOGS), anyInt(), anyInt()))
+                .thenThrow(new SQLException("Deadlock detected"));
+        when(rollupDao.rollUp(eq(SecurityRollupSource.FAILED_LOGINS), anyInt(), anyInt())).thenReturn(5);
+        when(rollupDao.rollUp(eq(SecurityRollupSource.USER_LOCKOUTS), anyInt(), anyInt())).thenReturn(0);
+        
+        // Act
+        aggregator.run();
+        
+        // Assert
+        verify(rollupDao).rollUp(SecurityRollupSource.FAILED_LOGINS, 100, 30);
+        verify(rollupDao).rollUp(SecurityRollupSource.USER_LOCKOUTS, 100, 30);
+    }
+    
+    @Test
+    public void testRejectsNonPositiveBatchSize() {
+        assertThrows(IllegalArgumentException.class, () -> new SecurityRollupAggregator(rollupDao, 0, 30));
+    }
+}
@@ -0,0 +1,79 @@
+package com.celestra.audit.rollup.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.audit.rollup.SecurityDashboardService;
+import com.celestra.dao.SecurityEventRollupDao;
+import com.celestra.enums.SecurityRollupSource;
+import com.celestra.model.SecurityEventRollup;
+
+public class SecurityDashboardServiceImplTest {
+    
+    private static final Timestamp FROM = Timestamp.valueOf("2025-01-01 00:00:00");
+    private static final Timestamp TO = Timestamp.valueOf("2025-01-02 00:00:00");
+    
+    @Mock
+    private SecurityEventRollupDao rollupDao;
+    
+    private SecurityDashboardService dashboardService;
+    
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        dashboardService = new SecurityDashboardServiceImpl(rollupDao);
+    }
+    
+    @Test
+    public void testGetLoginsPerHour() throws SQLException {
+        // Arrange
+        List<SecurityEventRollup> buckets = List.of(
+                new SecurityEventRollup(FROM, 1, "SUCCESSFUL_LOGIN", 12));
+        when(rollupDao.findHourlyBuckets(1, List.of("SUCCESSFUL_LOGIN"), FROM, TO)).thenReturn(buckets);
+        
+        // Act
+        List<SecurityEventRollup> result = dashboardService.getLoginsPerHour(1, FROM, TO);
+        
+        // Assert
+        assertEquals(buckets, result);
+    }
+    
+    @Test
+    public void testGetFailedLoginsPerCompany() throws SQLException {
+        // Arrange
+        when(rollupDao.sumByCompany(SecurityRollupSource.FAILED_LOGIN_ATTEMPT, FROM, TO))
+                .thenReturn(Map.of(1, 7L));
+        
+        // Act
+        Map<Integer, Long> result = dashboardService.getFailedLoginsPerCompany(FROM, TO);
+        
+        // Assert
+        assertEquals(7L, result.get(1));
+    }
+    
+    @Test
+    public void testGetLockoutsPerDayUsesDailyBuckets() throws SQLException {
+        // Act
+        dashboardService.getLockoutsPerDay(null, FROM, TO);
+        
+        // Assert
+        verify(rollupDao).findDailyBuckets(isNull(), eq(List.of(SecurityRollupSource.ACCOUNT_LOCKOUT)), eq(FROM), eq(TO));
+    }
+    
+    @Test
+    public void testRejectsInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getEventCountsByType(1, TO, FROM));
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getLoginsPerHour(1, null, TO));
+    }
+}
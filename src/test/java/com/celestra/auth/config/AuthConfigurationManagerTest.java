@@ -104,4 +104,13 @@ public class AuthConfigurationManagerTest {
                     "2FA backup codes count should be positive");
         }
     }
+    
+    @Test
+    public void testAuditArchiveSettings() {
+        AuthConfigProvider config = AuthConfigurationManager.getInstance();
+        
+        // Verify audit archive settings
+        assertEquals("/var/lib/celestra/archive", config.getAuditArchiveDirectory());
+        assertEquals(365, config.getAuditArchiveHotRetentionDays());
+    }
 }
\ No newline at end of file
@@ -56,6 +56,9 @@ public class TestAuthConfigProvider implements AuthConfigProvider {
     private boolean auditLogRoleChangesEnabled = true;
     private boolean auditLogStatusChangesEnabled = true;
     
+    private String auditArchiveDirectory = "/var/lib/celestra/archive";
+    private int auditArchiveHotRetentionDays = 365;
+    
     // Getters and setters for customizing test values
     
     public void setPasswordMinLength(int passwordMinLength) {
@@ -292,4 +295,14 @@ public class TestAuthConfigProvider implements AuthConfigProvider {
     public boolean isAuditLogStatusChangesEnabled() {
         return auditLogStatusChangesEnabled;
     }
+    
+    @Override
+    public String getAuditArchiveDirectory() {
+        return auditArchiveDirectory;
+    }
+    
+    @Override
+    public int getAuditArchiveHotRetentionDays() {
+        return auditArchiveHotRetentionDays;
+    }
 }
\ No newline at end of file
@@ -21,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.celestra.ai.telemetry.TelemetryContext;
 import com.celestra.auth.service.LoginService;
 import com.celestra.enums.UserRole;
 import com.celestra.enums.UserStatus;
@@ -122,6 +123,33 @@ public class SecurityFilterTest {
         verify(response, never()).sendError(anyInt(), anyString());
     }
     
+    @Test
+    public void testDoFilter_AICallsAreMadeForTheUsersCompany() throws IOException, ServletException, SQLException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/agents/chat");
+        when(request.getSession(anyBoolean())).thenReturn(session);
+        
+        User user = new User();
+        user.setId(1);
+        user.setCompanyId(7);
+        when(session.getAttribute("user")).thenReturn(user);
+        when(session.getAttribute("sessionToken")).thenReturn("valid-token");
+        when(loginService.validateSession("valid-token")).thenReturn(Optional.of(new UserSession()));
+        
+        Integer[] companyId = new Integer[1];
+        doAnswer(invocation -> {
+            companyId[0] = TelemetryContext.current().getCompanyId();
+            return null;
+        }).when(chain).doFilter(request, response);
+        
+        // Act
+        filter.doFilter(request, response, chain);
+        
+        // Assert
+        assertEquals(7, companyId[0]);
+        assertNull(TelemetryContext.current().getCompanyId());
+    }
+    
     @Test
     public void testDoFilter_PublicPathWithCookie() throws IOException, ServletException {
         // Arrange
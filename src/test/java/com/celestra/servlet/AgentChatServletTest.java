@@ -0,0 +1,227 @@
+package com.celestra.servlet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.celestra.ai.ChatCompletionService;
+import com.celestra.ai.ChatCompletionService.ChatMessage;
+import com.celestra.ai.ChatCompletionService.StreamListener;
+import com.celestra.ai.agent.AgentPlanCache;
+import com.celestra.ai.agent.AgentProtocolCompiler;
+import com.celestra.ai.agent.AgentRuntime;
+import com.celestra.dao.AgentDao;
+import com.celestra.enums.AgentStatus;
+import com.celestra.enums.UserRole;
+import com.celestra.model.Agent;
+import com.celestra.model.User;
+
+public class AgentChatServletTest {
+
+    private static final String BODY = "{\"agentId\": 42, \"messages\": [{\"role\": \"user\", \"content\": \"Hi\"}]}";
+
+    @Mock
+    private AgentDao agentDao;
+
+    @Mock
+    private ChatCompletionService chatService;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private HttpSession session;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private AgentRuntime runtime;
+    private Agent agent;
+    private CapturingOutputStream out;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(2);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        runtime = new AgentRuntime(executor, scheduler, new AgentPlanCache(new AgentProtocolCompiler(), 16), 4,
+                Duration.ofSeconds(30));
+
+        agent = new Agent(7, "investigator");
+        agent.setId(42);
+        agent.setStatus(AgentStatus.ACTIVE);
+        agent.setAgentProtocol("{\"system_prompt\": \"You investigate deviations.\"}");
+        when(agentDao.findById(42)).thenReturn(Optional.of(agent));
+
+        User user = new User();
+        user.setCompanyId(7);
+        user.setRole(UserRole.REGULAR_USER);
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("user")).thenReturn(user);
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(BODY)));
+        when(request.startAsync()).thenReturn(asyncContext);
+        out = new CapturingOutputStream();
+        when(response.getOutputStream()).thenReturn(out);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testAnswerIsStreamedAfterTheContainerThreadReturns() throws Exception {
+        // Arrange
+        CountDownLatch released = new CountDownLatch(1);
+        when(chatService.streamChatCompletion(anyList(), anyMap(), any())).thenAnswer(invocation -> {
+            StreamListener listener = invocation.getArgument(2);
+            released.await();
+            listener.onDelta("Hel");
+            listener.onDelta("lo");
+            return "Hello";
+        });
+        AgentChatServlet servlet = new AgentChatServlet(agentDao, runtime, chatService, scheduler, 60_000);
+
+        // Act
+        servlet.doPost(request, response);
+        boolean completedBeforeReturn = mockingDetails(asyncContext).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("complete"));
+        released.countDown();
+
+        // Assert
+        assertFalse(completedBeforeReturn);
+        verify(asyncContext, timeout(2000)).complete();
+        String events = out.toString();
+        assertTrue(events.startsWith("event: start\ndata: {\"sessionId\":"), events);
+        assertTrue(events.contains("event: delta\ndata: {\"text\":\"Hel\"}\n\nevent: delta\ndata: {\"text\":\"lo\"}\n\n"),
+                events);
+        assertTrue(events.endsWith("event: done\ndata: {}\n\n"), events);
+        verify(response).setContentType("text/event-stream");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ChatMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(chatService).streamChatCompletion(messages.capture(), anyMap(), any());
+        assertEquals("system", messages.getValue().get(0).getRole());
+        assertEquals("You investigate deviations.", messages.getValue().get(0).getContent());
+        assertEquals("Hi", messages.getValue().get(1).getContent());
+    }
+
+    @Test
+    public void testClientDisconnectCancelsTheUpstreamCall() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(chatService.streamChatCompletion(anyList(), anyMap(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                return "never";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+        AgentChatServlet servlet = new AgentChatServlet(agentDao, runtime, chatService, scheduler, 20);
+
+        // Act
+        servlet.doPost(request, response);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        out.disconnect();
+
+        // Assert
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        verify(asyncContext, timeout(2000)).complete();
+        assertEquals(0, runtime.getLiveSessionCount());
+        assertEquals(1, runtime.toJson().get("cancelled").getAsLong());
+    }
+
+    @Test
+    public void testRefusedSessionGetsAnErrorResponse() throws Exception {
+        // Arrange
+        agent.setAgentProtocol("{\"steps\": \"classify\"}");
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+        AgentChatServlet servlet = new AgentChatServlet(agentDao, runtime, chatService, scheduler, 60_000);
+
+        // Act
+        servlet.doPost(request, response);
+
+        // Assert
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        assertTrue(body.toString().contains("steps must be an array"), body.toString());
+        verify(asyncContext).complete();
+        verify(chatService, never()).streamChatCompletion(anyList(), anyMap(), any());
+    }
+
+    /**
+     * Response body that records what was written and fails once the client is gone.
+     */
+    private static class CapturingOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private volatile boolean disconnected;
+
+        void disconnect() {
+            disconnected = true;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (disconnected) {
+                throw new IOException("Broken pipe");
+            }
+            bytes.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            // Blocking writes only
+        }
+
+        @Override
+        public synchronized String toString() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+}